@@ -1,7 +1,10 @@
+import org.jetbrains.intellij.platform.gradle.TestFrameworkType
+
 plugins {
     id("java")
     id("org.jetbrains.kotlin.jvm") version "2.1.0"
     id("org.jetbrains.intellij.platform") version "2.7.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.example"
@@ -23,7 +26,13 @@ dependencies {
         // Add necessary plugin dependencies for compilation here, example:
         bundledPlugin("com.intellij.clion")
         bundledPlugin("com.intellij.clion.cmake")
+
+        testFramework(TestFrameworkType.Platform)
     }
+
+    // Tests of classes without platform dependencies, e.g. SysTestContainerPoolTest against a fake docker CLI
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("org.opentest4j:opentest4j:1.3.0")
 }
 
 intellijPlatform {
@@ -46,6 +55,35 @@ tasks {
     }
 }
 
+// Benchmarks of the plugin's hot paths, run with: ./gradlew jmh
+// NOTE: benchmarks may only use classes without platform dependencies, the IDE is not on the jmh classpath
+val sysTestCorpusDir = layout.buildDirectory.dir("jmh-corpus")
+
+// Synthetic .test files and systest output logs of several sizes, see SysTestCorpus
+val generateSysTestCorpus by tasks.registering(JavaExec::class) {
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "systest.SysTestCorpus"
+    args(sysTestCorpusDir.get().asFile.absolutePath)
+    outputs.dir(sysTestCorpusDir)
+}
+
+jmh {
+    warmupIterations = 2
+    iterations = 5
+    fork = 1
+    // Reports the bytes allocated per operation next to the time
+    profilers = listOf("gc")
+    // The benchmarks run without a display, e.g. on CI
+    jvmArgsAppend = listOf(
+        "-Djava.awt.headless=true",
+        "-Dsystest.corpus.dir=" + sysTestCorpusDir.get().asFile.absolutePath
+    )
+}
+
+tasks.named("jmh") {
+    dependsOn(generateSysTestCorpus)
+}
+
 kotlin {
     compilerOptions {
         jvmTarget.set(org.jetbrains.kotlin.gradle.dsl.JvmTarget.JVM_21)
@@ -0,0 +1,111 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.CharBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/// Compares the cost of keeping the "----" offsets up to date after a keystroke:
+/// the incremental SysTestBoundaryIndex against the former full-text regex scan.
+/// The incremental update should stay flat as the number of queries grows, the full scan grows linearly.
+/// The marker pass benchmarks run the gutter decisions of SysTestLineMarkerProvider over the maintained index, with the
+/// offsets of the "----" standing in for the PSI leaves the daemon passes: the pass over the visible range should stay
+/// flat as well, only the later pass over the whole file grows with it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoundaryIndexBenchmark {
+
+    /// Tests of an editor viewport
+    private static final int VISIBLE_TESTS = 6;
+    private static final IntPredicate NO_FAILURES = ordinal -> false;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int queries;
+
+    private char[] chars;
+    private CharSequence text;
+    private SysTestBoundaryIndex index;
+    private int queryEditOffset;
+    private int markerEditOffset;
+    private int visibleStart;
+    private int visibleEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String corpus = SysTestCorpus.load(queries);
+        chars = corpus.toCharArray();
+        /// The char array is edited in place, so that the benchmark does not measure copying the text
+        text = CharBuffer.wrap(chars);
+        index = SysTestBoundaryIndex.build(text);
+        markerEditOffset = index.getOffset(index.size() / 2);
+        queryEditOffset = corpus.lastIndexOf("SELECT", markerEditOffset);
+        /// The viewport shows the edited query and the tests around it
+        int firstVisible = Math.max(0, index.size() / 2 - VISIBLE_TESTS / 2);
+        visibleStart = SysTestQueryBlocks.queryStart(corpus, index.getOffset(firstVisible));
+        visibleEnd = index.getOffset(Math.min(index.size() - 1, firstVisible + VISIBLE_TESTS));
+    }
+
+    /// Typing inside a query in the middle of the file, the number of tests does not change
+    @Benchmark
+    public int incrementalQueryEdit() {
+        chars[queryEditOffset] = 'X';
+        index.update(text, queryEditOffset, 1, 1);
+        chars[queryEditOffset] = 'S';
+        index.update(text, queryEditOffset, 1, 1);
+        return index.size();
+    }
+
+    /// Breaking and restoring a "----" in the middle of the file, which removes and re-adds a test
+    @Benchmark
+    public int incrementalMarkerEdit() {
+        chars[markerEditOffset] = '=';
+        index.update(text, markerEditOffset, 1, 1);
+        chars[markerEditOffset] = '-';
+        index.update(text, markerEditOffset, 1, 1);
+        return index.size();
+    }
+
+    /// The previous approach: compile "----" and scan the whole text on every marker pass
+    @Benchmark
+    public int fullRegexScan() {
+        Matcher matcher = Pattern.compile("----").matcher(text);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    /// Typing inside a query followed by the marker pass of the visible range, which the daemon runs first
+    @Benchmark
+    public int incrementalQueryEditWithVisibleMarkerPass(Blackhole blackhole) {
+        incrementalQueryEdit();
+        return MarkerPasses.lazyPass(index, visibleStart, visibleEnd, Map.of(), NO_FAILURES, blackhole);
+    }
+
+    /// The marker pass over the whole file, which the daemon runs after the visible range
+    @Benchmark
+    public int wholeFileMarkerPass(Blackhole blackhole) {
+        return MarkerPasses.lazyPass(index, 0, text.length(), Map.of(), NO_FAILURES, blackhole);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Measures scanning a source data file, i.e. indexing its rows and computing the column statistics, and sampling it.
+/// The file is generated once per fork, so that it is in the page cache and only the scan itself is measured
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DataFileBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("nes-systest-data", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int row = 0; row < rows; row++) {
+                writer.write(row + "," + (row % 1000) * 0.25 + "," + (row % 7 == 0 ? "" : "text" + row % 100) + "\n");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long scan() throws IOException {
+        try (SysTestDataFile dataFile = SysTestDataFile.open(file)) {
+            dataFile.scan(() -> false);
+            return dataFile.rowCount();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<SysTestDataFile.Sample> sample() throws IOException {
+        try (SysTestDataFile dataFile = SysTestDataFile.open(file)) {
+            return dataFile.sample(100, new Random(42));
+        }
+    }
+}
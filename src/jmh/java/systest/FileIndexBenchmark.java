@@ -0,0 +1,43 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/// Measures indexing a single test file for the SysTestFileIndex: finding all "----", the first query line
+/// of every test and building the entries. The IDE indexes every '.test' file of the project this way
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileIndexBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int queries;
+
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        text = SysTestCorpus.load(queries);
+    }
+
+    @Benchmark
+    public Map<String, SysTestIndexEntry> scan() {
+        return SysTestIndexEntry.scan("Synthetic.test", text);
+    }
+}
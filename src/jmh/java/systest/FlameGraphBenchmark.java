@@ -0,0 +1,64 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/// Measures collapsing 'perf script' output, i.e. the work per line while the samples of a profiled test are streamed
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FlameGraphBenchmark {
+
+    @Param({"10000"})
+    public int samples;
+
+    private List<String> lines;
+    private Map<String, Long> stacks;
+
+    @Setup
+    public void setUp() {
+        lines = new ArrayList<>();
+        for (int sample = 0; sample < samples; sample++) {
+            lines.add("systest 4711/4712 [003] " + (1000 + sample) + ".000001: 1010101 cpu-clock:u:");
+            int depth = 20 + sample % 10;
+            for (int frame = depth; frame > 0; frame--) {
+                lines.add("\t    55d0c0ffee" + frame + " NES::Runtime::Execution::Operator" + (frame * 7 + sample % (frame + 1))
+                        + "::execute+0x1f (/build/nes-runtime/libnes-runtime.so)");
+            }
+            lines.add("");
+        }
+        stacks = collapse();
+    }
+
+    @Benchmark
+    public Map<String, Long> collapse() {
+        SysTestFlameGraph.Collapser collapser = new SysTestFlameGraph.Collapser();
+        for (String line : lines) {
+            collapser.accept(line);
+        }
+        return collapser.finish();
+    }
+
+    @Benchmark
+    public List<SysTestFlameGraph.Frame> hottest() {
+        return SysTestFlameGraph.hottest(stacks, 100);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/// Measures a gutter marker pass with the code of SysTestLineMarkerProvider: SysTestGutterMarkers decides the markers of
+/// every "----" with the ordinal looked up in the maintained boundaries, the badges come from the performance history
+/// like SysTestPerformanceHistory.getBadges computes them and the shared tooltips are built on hover.
+/// Every pass has an eager baseline that allocates its markers like the former provider, see MarkerPasses.
+/// Run with '-prof gc' (configured in build.gradle.kts) to compare the bytes per pass
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MarkerPassBenchmark {
+    /// Tests of an editor viewport
+    private static final int VISIBLE_TESTS = 6;
+    /// Runs per test and profile, like SysTestPerformanceHistory.WINDOW which is not on the jmh classpath
+    private static final int WINDOW = 30;
+    /// Tests of the file with a recorded history, every one of them gets WINDOW runs
+    private static final int MAX_HISTORY_TESTS = 1000;
+    private static final String PATH = "/project/Synthetic.test";
+    private static final String PROFILE = "Debug";
+
+    @Param({"10", "1000", "100000"})
+    public int queries;
+
+    private String text;
+    private SysTestBoundaryIndex boundaries;
+    private SysTestPerformanceStore store;
+    private Path storeFile;
+    private Map<Integer, SysTestRegressionDetector.Assessment> badges;
+    private IntPredicate failed;
+    private int visibleStart;
+    private int visibleEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        text = SysTestCorpus.load(queries);
+        boundaries = SysTestBoundaryIndex.build(text);
+        int firstVisible = Math.max(0, boundaries.size() / 2 - VISIBLE_TESTS / 2);
+        visibleStart = SysTestQueryBlocks.queryStart(text, boundaries.getOffset(firstVisible));
+        visibleEnd = boundaries.getOffset(Math.min(boundaries.size() - 1, firstVisible + VISIBLE_TESTS));
+
+        /// Every tenth test got slower in its latest runs, the others are stable
+        storeFile = Files.createTempFile("systest-performance", ".log");
+        store = SysTestPerformanceStore.open(storeFile, WINDOW);
+        int historyTests = Math.min(queries, MAX_HISTORY_TESTS);
+        for (int test = 1; test <= historyTests; test++) {
+            SysTestPerformanceStore.Key key = new SysTestPerformanceStore.Key(PATH + ":" + String.format("%02d", test), PROFILE);
+            for (int run = 0; run < WINDOW; run++) {
+                boolean recent = run >= WINDOW - SysTestRegressionDetector.RECENT_RUNS;
+                long duration = 100 + run % 3 + (recent && test % 10 == 0 ? 50 : 0);
+                store.append(key, new SysTestPerformanceStore.Sample("rev", run, duration, true));
+            }
+        }
+        badges = SysTestRegressionDetector.fileBadges(store, PATH, PROFILE);
+
+        /// Every 20th test failed in the last run, like SysTestLastRun.isFailed
+        Set<Integer> failedOrdinals = new HashSet<>();
+        for (int ordinal = 20; ordinal <= queries; ordinal += 20) {
+            failedOrdinals.add(ordinal);
+        }
+        failed = failedOrdinals::contains;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        Files.deleteIfExists(storeFile);
+    }
+
+    /// The pass for the visible range, which the daemon asks about first: independent of the number of tests
+    @Benchmark
+    public int visibleRangePass(Blackhole blackhole) {
+        return MarkerPasses.lazyPass(boundaries, visibleStart, visibleEnd, badges, failed, blackhole);
+    }
+
+    /// The visible range with three markers with capturing tooltips and handlers per "----"
+    @Benchmark
+    public int visibleRangePassEager(Blackhole blackhole) {
+        return MarkerPasses.eagerPass(boundaries, visibleStart, visibleEnd, PATH, blackhole);
+    }
+
+    /// The pass for the rest of the file, one set of markers per test
+    @Benchmark
+    public int wholeFilePass(Blackhole blackhole) {
+        return MarkerPasses.lazyPass(boundaries, 0, text.length(), badges, failed, blackhole);
+    }
+
+    /// The whole file with three markers with capturing tooltips and handlers per "----"
+    @Benchmark
+    public int wholeFilePassEager(Blackhole blackhole) {
+        return MarkerPasses.eagerPass(boundaries, 0, text.length(), PATH, blackhole);
+    }
+
+    /// The shared tooltips of the visible markers, which find their test only when they are shown
+    @Benchmark
+    public int visibleRangeTooltips() {
+        int length = 0;
+        for (int i = boundaries.indexOfFirstAtOrAfter(visibleStart); i < boundaries.size() && boundaries.getOffset(i) < visibleEnd; i++) {
+            int ordinal = SysTestGutterMarkers.ordinalAt(boundaries, boundaries.getOffset(i));
+            for (SysTestGutterMarkers.Kind kind : SysTestGutterMarkers.Kind.values()) {
+                length += kind.tooltip(ordinal).length();
+            }
+            SysTestRegressionDetector.Assessment assessment = badges.get(ordinal);
+            if (assessment != null) {
+                length += assessment.describe().length();
+            }
+        }
+        return length;
+    }
+
+    /// The badges of the file after one of its tests was recorded again, i.e. a miss of the per-file badge cache
+    @Benchmark
+    public Map<Integer, SysTestRegressionDetector.Assessment> computeBadges() {
+        return SysTestRegressionDetector.fileBadges(store, PATH, PROFILE);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/// The gutter marker passes of the benchmarks, with a Marker standing in for a LineMarkerInfo and the offset of a "----"
+/// standing in for its PSI leaf. The lazy pass runs SysTestGutterMarkers like SysTestLineMarkerProvider, every marker
+/// gets the shared tooltip and handler of its kind. The eager pass is the former provider: three markers per "----" with
+/// a tooltip and a handler that capture the ordinal and the file. Its ordinals come from the same index, so that the
+/// two passes differ only in what they allocate, the former regex scan is measured by BoundaryIndexBenchmark.fullRegexScan
+final class MarkerPasses {
+    /// The fields of a LineMarkerInfo that the provider sets
+    record Marker(Object element, int startOffset, int endOffset, Function<Object, String> tooltip, BiConsumer<Object, Object> handler) {
+    }
+
+    private static final Map<SysTestGutterMarkers.Kind, Function<Object, String>> TOOLTIPS = new EnumMap<>(SysTestGutterMarkers.Kind.class);
+    private static final BiConsumer<Object, Object> HANDLER = (event, element) -> Blackhole.consumeCPU(1);
+
+    static {
+        for (SysTestGutterMarkers.Kind kind : SysTestGutterMarkers.Kind.values()) {
+            TOOLTIPS.put(kind, element -> kind.tooltip((Integer) element));
+        }
+    }
+
+    private MarkerPasses() {
+    }
+
+    /// The markers of the "----" in [start, end) with the shared tooltips and handlers, returns their number
+    static int lazyPass(SysTestBoundaryIndex boundaries,
+                        int start,
+                        int end,
+                        Map<Integer, SysTestRegressionDetector.Assessment> badges,
+                        IntPredicate failed,
+                        Blackhole blackhole) {
+        int[] markers = new int[1];
+        SysTestGutterMarkers.Sink<Integer> sink = (separator, kind, assessment) -> {
+            blackhole.consume(new Marker(separator, separator, separator + SysTestBoundaryIndex.MARKER.length(),
+                    TOOLTIPS.get(kind), HANDLER));
+            markers[0]++;
+        };
+        for (int i = boundaries.indexOfFirstAtOrAfter(start); i < boundaries.size(); i++) {
+            int offset = boundaries.getOffset(i);
+            if (offset >= end) {
+                break;
+            }
+            SysTestGutterMarkers.collect(offset, SysTestGutterMarkers.ordinalAt(boundaries, offset), badges, failed, sink);
+        }
+        return markers[0];
+    }
+
+    /// The markers of the "----" in [start, end) like the former provider created them, returns their number
+    static int eagerPass(SysTestBoundaryIndex boundaries, int start, int end, String fileName, Blackhole blackhole) {
+        int markers = 0;
+        for (int i = boundaries.indexOfFirstAtOrAfter(start); i < boundaries.size(); i++) {
+            int offset = boundaries.getOffset(i);
+            if (offset >= end) {
+                break;
+            }
+            int ordinal = i + 1;
+            int endOffset = offset + SysTestBoundaryIndex.MARKER.length();
+            blackhole.consume(new Marker(offset, offset, endOffset,
+                    element -> "Run System Test " + ordinal,
+                    (event, element) -> blackhole.consume(fileName + ordinal)));
+            blackhole.consume(new Marker(offset, offset, endOffset,
+                    element -> "Debug System Test " + ordinal,
+                    (event, element) -> blackhole.consume(fileName + ordinal)));
+            blackhole.consume(new Marker(offset, offset, endOffset,
+                    element -> "Benchmark System Test " + ordinal,
+                    (event, element) -> blackhole.consume(fileName + ordinal)));
+            markers += 3;
+        }
+        return markers;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// Measures the overhead of recording a duration, e.g. once per marker pass, from one and from several threads.
+/// The metrics are shared by all threads of a benchmark, so that the contended benchmark records into the same timer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsBenchmark {
+
+    private final SysTestMetrics metrics = new SysTestMetrics();
+
+    /// Varies the recorded durations per thread, without a shared counter of its own
+    @State(Scope.Thread)
+    public static class Durations {
+        private long value;
+    }
+
+    @Benchmark
+    public void recordSince(Durations durations) {
+        metrics.timer(SysTestMetrics.MARKER_PASS).recordSince(System.nanoTime() - (durations.value++ & 0xFFFFF));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordSinceContended() {
+        metrics.timer(SysTestMetrics.MARKER_PASS).recordSince(System.nanoTime() - 1000);
+    }
+
+    @Benchmark
+    public SysTestMetrics.Stats stats() {
+        return metrics.timer(SysTestMetrics.MARKER_PASS).stats(SysTestMetrics.MARKER_PASS);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/// Measures appending a whole systest output to the log of a bounded console, i.e. writing it to the temp file,
+/// indexing its lines and folding its mismatch dumps, and searching the whole log for a line that does not exist
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OutputLogBenchmark {
+
+    @Param({"1000", "100000"})
+    public int tests;
+
+    private String output;
+    private SysTestOutputLog filled;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        output = SysTestCorpus.loadOutput(tests);
+        filled = SysTestOutputLog.create(1024 * 1024);
+        filled.append(output);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        filled.close();
+    }
+
+    @Benchmark
+    public String append() throws IOException {
+        try (SysTestOutputLog log = SysTestOutputLog.create(1024 * 1024)) {
+            log.append(output);
+            return log.tail();
+        }
+    }
+
+    @Benchmark
+    public long findMissing() {
+        return filled.find("no such line", 0, () -> false);
+    }
+}
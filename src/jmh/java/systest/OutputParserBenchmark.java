@@ -0,0 +1,58 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/// Measures parsing of systest's stdout line by line as done by SysTestEventsConverter while a run streams in,
+/// and the throughput extraction of the benchmark runner on the complete output
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OutputParserBenchmark {
+
+    @Param({"100", "10000"})
+    public int tests;
+
+    private String output;
+    private String[] lines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        output = SysTestCorpus.loadOutput(tests);
+        lines = output.split("\n");
+    }
+
+    @Benchmark
+    public int parseLines(Blackhole blackhole) {
+        int results = 0;
+        for (String line : lines) {
+            SysTestOutputParser.Result result = SysTestOutputParser.parseLine(line);
+            if (result != null) {
+                blackhole.consume(result);
+                results++;
+            }
+        }
+        return results;
+    }
+
+    @Benchmark
+    public double parseThroughput() {
+        return SysTestOutputParser.parseThroughput(output);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Measures the wall-clock speedup of a parallel run against the serial path (parallelism 1).
+/// Every test is executed by a stub systest executable that only sleeps, so that the benchmark measures
+/// process handling and scheduling of SysTestShardPlanner and SysTestShardExecutor
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ParallelShardBenchmark {
+
+    @Param({"1", "4", "8"})
+    public int parallelism;
+
+    @Param({"32"})
+    public int tests;
+
+    private Path stubSystest;
+    private List<String> targets;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        /// Stub systest: takes '-t file:NN' and pretends to run the test for 50 ms
+        stubSystest = Files.createTempFile("systest-stub", ".sh",
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        Files.writeString(stubSystest, "#!/bin/sh\nsleep 0.05\nexit 0\n");
+        targets = new ArrayList<>();
+        for (int i = 1; i <= tests; i++) {
+            targets.add("Synthetic.test:" + String.format("%02d", i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(stubSystest);
+    }
+
+    @Benchmark
+    public int shardedRun() throws InterruptedException {
+        List<List<String>> shards = SysTestShardPlanner.plan(targets, target -> -1, parallelism);
+        return SysTestShardExecutor.execute(
+                shards,
+                target -> new ProcessBuilder(stubSystest.toString(), "-t", target).start().waitFor(),
+                result -> {
+                },
+                () -> false).size();
+    }
+}
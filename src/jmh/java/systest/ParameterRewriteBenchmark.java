@@ -0,0 +1,65 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Measures the rewriting of the "systest" configuration's program parameters for a plugin run:
+/// stripping '-t' and '--testLocation' with SysTestParameters.clean and assembling the parameters of one or many targets.
+/// Since the launch context is cached, clean runs once per configuration change and assemble once per launch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParameterRewriteBenchmark {
+
+    /// Number of targets of a merged launch, see SysTestLaunchQueue
+    @Param({"1", "10", "100"})
+    public int targets;
+
+    private String existingParameters;
+    private String cleanedParameters;
+    private List<String> testLocations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        existingParameters = "-t /home/user/nebulastream/nes-systests/function/Filter.test:03 --workerConfiguration "
+                + "/home/user/worker.yaml --testLocation /home/user/nebulastream/nes-systests --data /home/user/data -n 4";
+        cleanedParameters = SysTestParameters.clean(existingParameters);
+        testLocations = new ArrayList<>();
+        for (int i = 1; i <= targets; i++) {
+            testLocations.add("/home/user/nebulastream/nes-systests/function/Synthetic.test:" + String.format("%02d", i));
+        }
+    }
+
+    @Benchmark
+    public String clean() {
+        return SysTestParameters.clean(existingParameters);
+    }
+
+    @Benchmark
+    public String assemble() {
+        return SysTestParameters.assemble(testLocations, cleanedParameters);
+    }
+
+    /// The work of an uncached launch: both steps
+    @Benchmark
+    public String cleanAndAssemble() {
+        return SysTestParameters.assemble(testLocations, SysTestParameters.clean(existingParameters));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/// Measures comparing an expected result with an actual result that differs in a single row,
+/// in order and ignoring the order, i.e. via the hash partitions on disk
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResultDiffBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int rows;
+
+    private List<String> expected;
+    private List<String> actual;
+    private List<String> shuffled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        expected = IntStream.range(0, rows).mapToObj(i -> i + "," + (i % 97) + "," + (i * 31L)).toList();
+        actual = IntStream.range(0, rows).mapToObj(i -> i == rows / 2 ? i + ",-1," + (i * 31L) : expected.get(i)).toList();
+        shuffled = new ArrayList<>(actual);
+        Collections.shuffle(shuffled, new Random(42));
+    }
+
+    @Benchmark
+    public SysTestResultDiff.Result ordered() {
+        return SysTestResultDiff.compareOrdered(expected.iterator(), actual.iterator(), 200);
+    }
+
+    @Benchmark
+    public SysTestResultDiff.Result unordered() throws IOException {
+        return SysTestResultDiff.compareUnordered(expected.iterator(), shuffled.iterator(), 200,
+                Path.of(System.getProperty("java.io.tmpdir")));
+    }
+}
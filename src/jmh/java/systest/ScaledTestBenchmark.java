@@ -0,0 +1,49 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/// Measures writing the scaled copy of a single test of a large file, i.e. dropping all other tests and repeating
+/// the inline source data. The copy goes to a null writer, so that only the plugin's work is measured
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScaledTestBenchmark {
+
+    @Param({"1000"})
+    public int queries;
+
+    @Param({"1", "100"})
+    public int factor;
+
+    private String text;
+    private int[] markers;
+
+    @Setup
+    public void setUp() {
+        text = SysTestCorpus.load(queries);
+        markers = SysTestBoundaryIndex.build(text).toArray();
+    }
+
+    @Benchmark
+    public SysTestScaledTest.Result write() throws IOException {
+        return SysTestScaledTest.write(text, markers, queries / 2, factor, (path, times) -> null, Writer.nullWriter());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/// Generates synthetic system test files and systest output logs for the benchmarks.
+/// The 'generateSysTestCorpus' Gradle task writes them to build/jmh-corpus before the benchmarks run and passes the
+/// directory via the 'systest.corpus.dir' system property; without it, e.g. when run from the IDE, they are generated in memory
+public final class SysTestCorpus {
+    /// The sizes that are generated at build time, benchmarks may use other sizes, which are generated in memory
+    public static final int[] SIZES = {10, 100, 1000, 10000, 100000};
+    public static final int RESULT_ROWS = 3;
+    /// Every this many tests fail in a generated output log
+    public static final int FAIL_EVERY = 50;
+    /// Lines of the result mismatch that systest prints below a failed test
+    public static final int MISMATCH_LINES = 20;
+
+    private SysTestCorpus() {
+    }
+
+    /// Writes 'Synthetic-N.test' and 'systest-output-N.log' for all SIZES to the directory given as first argument
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args[0]);
+        Files.createDirectories(directory);
+        for (int size : SIZES) {
+            Files.writeString(directory.resolve(testFileName(size)), generate(size, RESULT_ROWS));
+            Files.writeString(directory.resolve(outputFileName(size)), generateOutput(size));
+        }
+    }
+
+    /// The test file with the given number of queries, read from the build-time corpus if it exists
+    public static String load(int queries) {
+        return loadOrGenerate(testFileName(queries), () -> generate(queries, RESULT_ROWS));
+    }
+
+    /// The systest output of a run of the given number of tests, read from the build-time corpus if it exists
+    public static String loadOutput(int tests) {
+        return loadOrGenerate(outputFileName(tests), () -> generateOutput(tests));
+    }
+
+    private static String loadOrGenerate(String fileName, Supplier<String> generator) {
+        String directory = System.getProperty("systest.corpus.dir");
+        if (directory != null) {
+            Path file = Path.of(directory, fileName);
+            if (Files.isRegularFile(file)) {
+                try {
+                    return Files.readString(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return generator.get();
+    }
+
+    private static String testFileName(int queries) {
+        return "Synthetic-" + queries + ".test";
+    }
+
+    private static String outputFileName(int tests) {
+        return "systest-output-" + tests + ".log";
+    }
+
+    /// systest's stdout for a run of all tests of a synthetic file: a result line per test, a mismatch dump below
+    /// every failed test and a throughput summary at the end
+    public static String generateOutput(int tests) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Running ").append(tests).append(" system tests\n");
+        for (int test = 1; test <= tests; test++) {
+            boolean failed = test % FAIL_EVERY == 0;
+            builder.append(test).append('/').append(tests).append(" Synthetic:").append(String.format("%02d", test))
+                    .append(" ").append(".".repeat(20)).append(failed ? " FAILED" : " PASSED")
+                    .append(" in 0.").append(String.format("%03d", test % 1000)).append(" s\n");
+            if (failed) {
+                builder.append("Result mismatch, expected vs actual:\n");
+                for (int line = 0; line < MISMATCH_LINES; line++) {
+                    builder.append(line).append(',').append(line * 7).append(" | ").append(line).append(',').append(line * 7 + 1).append('\n');
+                }
+            }
+        }
+        builder.append("Throughput: 1.25 M tuples/s\n");
+        return builder.toString();
+    }
+
+    public static String generate(int queries, int resultRows) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("# name: synthetic/Synthetic.test\n");
+        builder.append("# description: generated benchmark corpus\n");
+        builder.append("# groups: [Synthetic]\n\n");
+        builder.append("Source stream UINT64 id UINT64 value\n");
+        for (int row = 0; row < resultRows; row++) {
+            builder.append(row).append(',').append(row * 7).append('\n');
+        }
+        builder.append("\nSINK sink UINT64 stream$id UINT64 stream$value\n\n");
+        for (int query = 0; query < queries; query++) {
+            builder.append("SELECT * FROM stream WHERE value >= ").append(query).append(" INTO sink;\n");
+            builder.append("----\n");
+            for (int row = 0; row < resultRows; row++) {
+                builder.append(row).append(',').append(row * 7).append('\n');
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -27,12 +27,41 @@ import org.jetbrains.annotations.Nullable;
 )
 
 /// Plugin Settings of the NES-Systest-Runner Plugin displayed in Settings/Tools/NES-Systest-Runner
-/// NOTE: All settings have become obsolete for now and have been hidden
+/// NOTE: The path setting has become obsolete for now and has been hidden
 public class PluginSettings implements PersistentStateComponent<PluginSettings> {
     private String pathSetting = "";
+    /// Runs direct systest runs in a warm docker container, see SysTestWarmContainers
     private boolean dockerCommandCheckBox;
+    /// '<docker CLI> run <options> <image>' that starts the warm container
     private String dockerCommand = "";
+    /// The path of the project root inside the warm container, empty maps paths with the CMake profile's toolchain
     private String dockerTestFilePath = "";
+    /// Number of concurrent systest processes of a parallel run, 0 uses one process per CPU core
+    private int parallelism = 0;
+    /// Maximum number of passed tests kept in the result cache
+    private int resultCacheSize = 10000;
+    /// Number of measured iterations of a benchmark run
+    private int benchmarkIterations = 10;
+    /// Number of warm-up iterations of a benchmark run, which are not measured
+    private int benchmarkWarmupIterations = 2;
+    /// Gutter clicks within this many milliseconds are merged into a single build and systest process, 0 disables merging
+    private int launchCoalescingMillis = 300;
+    /// Seconds after the last test run until a warm docker container is removed, 0 keeps it until the project is closed
+    private int dockerIdleTimeoutSeconds = 300;
+    /// Kilobytes of output that a NES-Systest-Runner console keeps in memory, older output is only in the full log
+    private int consoleBufferKilobytes = 1024;
+    /// Where systest writes the actual result of a test, relative to the working directory of the 'systest' configuration
+    private String resultFilePattern = "result/{name}_{ordinal}.csv";
+    /// Time without edits after which watch mode reruns the changed tests
+    private int watchDebounceMillis = 700;
+    /// Whether a run from the gutter skips the before-run build if no input of the systest target changed since its last successful build
+    private boolean skipUpToDateBuild = false;
+    /// Sampling profiler that starts systest, '{output}' is replaced with the data file
+    private String profilerCommand = "perf record -F 999 -g -o {output} --";
+    /// Prints the samples of the profiler's data file, either as 'perf script' output or as collapsed stacks
+    private String profilerScriptCommand = "perf script -i {output}";
+    /// Factors by which a scale test replicates the source data of a test, separated by commas
+    private String scaleFactors = "1,10,100";
 
     public static PluginSettings getInstance() {
         return ServiceManager.getService(PluginSettings.class);
@@ -50,6 +79,19 @@ public class PluginSettings implements PersistentStateComponent<PluginSettings>
         this.dockerCommand = state.dockerCommand;
         this.dockerCommandCheckBox = state.dockerCommandCheckBox;
         this.dockerTestFilePath = state.dockerTestFilePath;
+        this.parallelism = state.parallelism;
+        this.resultCacheSize = state.resultCacheSize;
+        this.benchmarkIterations = state.benchmarkIterations;
+        this.benchmarkWarmupIterations = state.benchmarkWarmupIterations;
+        this.launchCoalescingMillis = state.launchCoalescingMillis;
+        this.dockerIdleTimeoutSeconds = state.dockerIdleTimeoutSeconds;
+        this.consoleBufferKilobytes = state.consoleBufferKilobytes;
+        this.resultFilePattern = state.resultFilePattern;
+        this.watchDebounceMillis = state.watchDebounceMillis;
+        this.skipUpToDateBuild = state.skipUpToDateBuild;
+        this.profilerCommand = state.profilerCommand;
+        this.profilerScriptCommand = state.profilerScriptCommand;
+        this.scaleFactors = state.scaleFactors;
     }
 
     public String getPathSetting() {
@@ -83,4 +125,117 @@ public class PluginSettings implements PersistentStateComponent<PluginSettings>
     public void setDockerTestFilePath(String dockerTestFilePath) {
         this.dockerTestFilePath = dockerTestFilePath;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getEffectiveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    public void setResultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+    }
+
+    public int getBenchmarkIterations() {
+        return benchmarkIterations;
+    }
+
+    public void setBenchmarkIterations(int benchmarkIterations) {
+        this.benchmarkIterations = benchmarkIterations;
+    }
+
+    public int getBenchmarkWarmupIterations() {
+        return benchmarkWarmupIterations;
+    }
+
+    public void setBenchmarkWarmupIterations(int benchmarkWarmupIterations) {
+        this.benchmarkWarmupIterations = benchmarkWarmupIterations;
+    }
+
+    public int getLaunchCoalescingMillis() {
+        return launchCoalescingMillis;
+    }
+
+    public void setLaunchCoalescingMillis(int launchCoalescingMillis) {
+        this.launchCoalescingMillis = launchCoalescingMillis;
+    }
+
+    public int getDockerIdleTimeoutSeconds() {
+        return dockerIdleTimeoutSeconds;
+    }
+
+    public void setDockerIdleTimeoutSeconds(int dockerIdleTimeoutSeconds) {
+        this.dockerIdleTimeoutSeconds = dockerIdleTimeoutSeconds;
+    }
+
+    /// Whether direct systest runs use a warm docker container
+    public boolean isWarmContainerEnabled() {
+        return dockerCommandCheckBox && !dockerCommand.isBlank();
+    }
+
+    public int getConsoleBufferKilobytes() {
+        return consoleBufferKilobytes;
+    }
+
+    public void setConsoleBufferKilobytes(int consoleBufferKilobytes) {
+        this.consoleBufferKilobytes = consoleBufferKilobytes;
+    }
+
+    public String getResultFilePattern() {
+        return resultFilePattern;
+    }
+
+    public void setResultFilePattern(String resultFilePattern) {
+        this.resultFilePattern = resultFilePattern;
+    }
+
+    public int getWatchDebounceMillis() {
+        return watchDebounceMillis;
+    }
+
+    public void setWatchDebounceMillis(int watchDebounceMillis) {
+        this.watchDebounceMillis = watchDebounceMillis;
+    }
+
+    public boolean getSkipUpToDateBuild() {
+        return skipUpToDateBuild;
+    }
+
+    public void setSkipUpToDateBuild(boolean skipUpToDateBuild) {
+        this.skipUpToDateBuild = skipUpToDateBuild;
+    }
+
+    public String getProfilerCommand() {
+        return profilerCommand;
+    }
+
+    public void setProfilerCommand(String profilerCommand) {
+        this.profilerCommand = profilerCommand;
+    }
+
+    public String getProfilerScriptCommand() {
+        return profilerScriptCommand;
+    }
+
+    public void setProfilerScriptCommand(String profilerScriptCommand) {
+        this.profilerScriptCommand = profilerScriptCommand;
+    }
+
+    public String getScaleFactors() {
+        return scaleFactors;
+    }
+
+    public void setScaleFactors(String scaleFactors) {
+        this.scaleFactors = scaleFactors;
+    }
 }
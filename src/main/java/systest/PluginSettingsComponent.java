@@ -26,6 +26,19 @@ public class PluginSettingsComponent {
     private final JTextField dockerCommandField;
     private final JCheckBox dockerCommandCheckBox;
     private final JTextField dockerTestFilePath;
+    private final JSpinner parallelismSpinner;
+    private final JSpinner resultCacheSizeSpinner;
+    private final JSpinner benchmarkIterationsSpinner;
+    private final JSpinner benchmarkWarmupIterationsSpinner;
+    private final JSpinner launchCoalescingMillisSpinner;
+    private final JSpinner dockerIdleTimeoutSecondsSpinner;
+    private final JSpinner consoleBufferKilobytesSpinner;
+    private final JTextField resultFilePatternField;
+    private final JSpinner watchDebounceMillisSpinner;
+    private final JCheckBox skipUpToDateBuildCheckBox;
+    private final JTextField profilerCommandField;
+    private final JTextField profilerScriptCommandField;
+    private final JTextField scaleFactorsField;
 
     public PluginSettingsComponent() {
         /// Main Panel
@@ -44,17 +57,16 @@ public class PluginSettingsComponent {
 
         /// Docker Command
         JLabel dockerCommandLabel = new JLabel("Docker Command:");
-        dockerCommandLabel.setToolTipText("The command to run the system tests in docker, e.g.: \n " +
-                "'docker run -it -v /home/user/workspace/nebulastream-public/:/tmp local:latest" +
-                " /tmp/nebulastream-public/cmake-build-docker/nes-systests/systest/systest'");
+        dockerCommandLabel.setToolTipText("The command that starts the warm container, without a command to run in it, e.g.: \n " +
+                "'docker run -v /home/user/workspace/nebulastream-public/:/tmp local:latest'. " +
+                "Everything in front of 'run' is used as the docker CLI");
         dockerCommandField = new JTextField();
         JPanel dockerCommandPanel = createSettingPanel(dockerCommandLabel, dockerCommandField);
-        dockerCommandPanel.add(dockerCommandLabel);
-        dockerCommandPanel.add(dockerCommandField);
 
         /// Use Docker CheckBox
         JLabel dockerCommandCheckBoxLabel = new JLabel("Use Docker?:");
-        dockerCommandCheckBoxLabel.setToolTipText("Check this box to run the system tests in the docker instead");
+        dockerCommandCheckBoxLabel.setToolTipText("Check this box to run the system tests with 'docker exec' in a warm container " +
+                "that is started once per CMake profile, instead of starting a container for every run");
         dockerCommandCheckBox = new JCheckBox();
         JPanel dockerCommandCheckBoxPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
         dockerCommandCheckBoxLabel.setPreferredSize(new Dimension(120, 25));
@@ -65,18 +77,99 @@ public class PluginSettingsComponent {
 
         /// Docker Test File Path
         JLabel dockerTestFilePathLabel = new JLabel("Docker Test File Path:");
-        dockerTestFilePathLabel.setToolTipText("The docker's temp folder path that leads to the project root counterpart, e.g.: \n " +
-                "'tmp' in the case for:" +
-                "'docker run -it -v /home/user/workspace/nebulastream-public/:/tmp local:latest" +
-                " /tmp/nebulastream-public/cmake-build-docker/nes-systests/systest/systest" +
-                " -t /tmp/nebulastream-public/nes-systests/operator/filter/Filter.test:01'");
+        dockerTestFilePathLabel.setToolTipText("The path of the project root inside the container, e.g.: \n " +
+                "'/tmp/nebulastream-public' in the case for:" +
+                "'docker run -v /home/user/workspace/nebulastream-public/:/tmp/nebulastream-public local:latest'. " +
+                "Leave empty to map the paths with the toolchain of the CMake profile");
         dockerTestFilePath = new JTextField();
+        JPanel dockerTestFilePathPanel = createSettingPanel(dockerTestFilePathLabel, dockerTestFilePath);
+
+        /// Parallelism
+        JLabel parallelismLabel = new JLabel("Parallel processes:");
+        parallelismLabel.setToolTipText("The number of concurrent systest processes of a parallel run, " +
+                "0 uses one process per CPU core");
+        parallelismSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 1024, 1));
+        panel.add(createSpinnerPanel(parallelismLabel, parallelismSpinner));
+
+        /// Result Cache Size
+        JLabel resultCacheSizeLabel = new JLabel("Result cache size:");
+        resultCacheSizeLabel.setToolTipText("The maximum number of passed tests that are remembered, " +
+                "batch runs skip tests that passed before with the same test text, executable and parameters");
+        resultCacheSizeSpinner = new JSpinner(new SpinnerNumberModel(10000, 0, 1000000, 1000));
+        panel.add(createSpinnerPanel(resultCacheSizeLabel, resultCacheSizeSpinner));
+
+        /// Benchmark iterations
+        JLabel benchmarkIterationsLabel = new JLabel("Benchmark iterations:");
+        benchmarkIterationsLabel.setToolTipText("The number of measured runs of a benchmarked system test");
+        benchmarkIterationsSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 100000, 1));
+        panel.add(createSpinnerPanel(benchmarkIterationsLabel, benchmarkIterationsSpinner));
+
+        /// Warm-up iterations
+        JLabel benchmarkWarmupIterationsLabel = new JLabel("Warm-up iterations:");
+        benchmarkWarmupIterationsLabel.setToolTipText("The number of runs of a benchmarked system test before the measurement starts");
+        benchmarkWarmupIterationsSpinner = new JSpinner(new SpinnerNumberModel(2, 0, 100000, 1));
+        panel.add(createSpinnerPanel(benchmarkWarmupIterationsLabel, benchmarkWarmupIterationsSpinner));
+
+        /// Merge launches within (ms)
+        JLabel launchCoalescingMillisLabel = new JLabel("Merge launches within (ms):");
+        launchCoalescingMillisLabel.setToolTipText("Gutter clicks within this time window are run together in a single build and systest process, 0 runs every click on its own");
+        launchCoalescingMillisSpinner = new JSpinner(new SpinnerNumberModel(300, 0, 10000, 50));
+        panel.add(createSpinnerPanel(launchCoalescingMillisLabel, launchCoalescingMillisSpinner));
 
         /// Main Panel
-        /// NOTE: these settings have become obsolete and have been hidden. However, we may need to implement settings in the future.
+        /// NOTE: this setting has become obsolete and has been hidden. However, we may need to implement settings in the future.
         //panel.add(pathPanel);
-        //panel.add(dockerCommandCheckBoxPanel);
-        //panel.add(dockerCommandPanel);
+        panel.add(dockerCommandCheckBoxPanel);
+        panel.add(dockerCommandPanel);
+        panel.add(dockerTestFilePathPanel);
+
+        /// Container idle time (s)
+        JLabel dockerIdleTimeoutSecondsLabel = new JLabel("Container idle time (s):");
+        dockerIdleTimeoutSecondsLabel.setToolTipText("A warm docker container is removed when no test has run in it for this many seconds, 0 keeps it running until the project is closed");
+        dockerIdleTimeoutSecondsSpinner = new JSpinner(new SpinnerNumberModel(300, 0, 86400, 60));
+        panel.add(createSpinnerPanel(dockerIdleTimeoutSecondsLabel, dockerIdleTimeoutSecondsSpinner));
+
+        /// Console buffer (KB)
+        JLabel consoleBufferKilobytesLabel = new JLabel("Console buffer (KB):");
+        consoleBufferKilobytesLabel.setToolTipText("The output a NES-Systest-Runner console keeps in memory, older output is only kept in the full log");
+        consoleBufferKilobytesSpinner = new JSpinner(new SpinnerNumberModel(1024, 64, 1048576, 256));
+        panel.add(createSpinnerPanel(consoleBufferKilobytesLabel, consoleBufferKilobytesSpinner));
+
+        /// Result file pattern
+        JLabel resultFilePatternLabel = new JLabel("Result file pattern:");
+        resultFilePatternLabel.setToolTipText("Where systest writes the actual result of a test, relative to the working directory of the 'systest' configuration. '{name}' is the test file name without '.test', '{ordinal}' the 1-based and '{index}' the 0-based number of the test, '{workingDir}' the working directory");
+        resultFilePatternField = new JTextField();
+        panel.add(createSettingPanel(resultFilePatternLabel, resultFilePatternField));
+
+        /// Watch delay (ms)
+        JLabel watchDebounceMillisLabel = new JLabel("Watch delay (ms):");
+        watchDebounceMillisLabel.setToolTipText("Watch mode reruns the changed tests once no test file has been edited for this long");
+        watchDebounceMillisSpinner = new JSpinner(new SpinnerNumberModel(700, 100, 60000, 100));
+        panel.add(createSpinnerPanel(watchDebounceMillisLabel, watchDebounceMillisSpinner));
+
+        /// Skip up-to-date build
+        JLabel skipUpToDateBuildLabel = new JLabel("Skip up-to-date build:");
+        skipUpToDateBuildLabel.setToolTipText("A run from the gutter skips the before-run build if no project file other than a test file changed since the last successful build with the same CMake profile");
+        skipUpToDateBuildCheckBox = new JCheckBox();
+        panel.add(createCheckBoxPanel(skipUpToDateBuildLabel, skipUpToDateBuildCheckBox));
+
+        /// Profiler command
+        JLabel profilerCommandLabel = new JLabel("Profiler command:");
+        profilerCommandLabel.setToolTipText("The sampling profiler that starts systest, '{output}' is replaced with the path of its data file, e.g. 'perf record -F 999 -g -o {output} --'");
+        profilerCommandField = new JTextField();
+        panel.add(createSettingPanel(profilerCommandLabel, profilerCommandField));
+
+        /// Profiler script
+        JLabel profilerScriptCommandLabel = new JLabel("Profiler script:");
+        profilerScriptCommandLabel.setToolTipText("Prints the samples of the data file as 'perf script' output or as collapsed stacks, e.g. 'perf script -i {output}'");
+        profilerScriptCommandField = new JTextField();
+        panel.add(createSettingPanel(profilerScriptCommandLabel, profilerScriptCommandField));
+
+        /// Scale factors
+        JLabel scaleFactorsLabel = new JLabel("Scale factors:");
+        scaleFactorsLabel.setToolTipText("A scale test runs a test once per factor with its source data replicated that many times, e.g. '1,10,100'");
+        scaleFactorsField = new JTextField();
+        panel.add(createSettingPanel(scaleFactorsLabel, scaleFactorsField));
 
         browseButton.addActionListener(new ActionListener() {
             @Override
@@ -128,6 +221,110 @@ public class PluginSettingsComponent {
         dockerTestFilePath.setText(text);
     }
 
+    public int getParallelism() {
+        return (Integer) parallelismSpinner.getValue();
+    }
+
+    public void setParallelism(int parallelism) {
+        parallelismSpinner.setValue(parallelism);
+    }
+
+    public int getResultCacheSize() {
+        return (Integer) resultCacheSizeSpinner.getValue();
+    }
+
+    public void setResultCacheSize(int resultCacheSize) {
+        resultCacheSizeSpinner.setValue(resultCacheSize);
+    }
+
+    public int getBenchmarkIterations() {
+        return (Integer) benchmarkIterationsSpinner.getValue();
+    }
+
+    public void setBenchmarkIterations(int benchmarkIterations) {
+        benchmarkIterationsSpinner.setValue(benchmarkIterations);
+    }
+
+    public int getBenchmarkWarmupIterations() {
+        return (Integer) benchmarkWarmupIterationsSpinner.getValue();
+    }
+
+    public void setBenchmarkWarmupIterations(int benchmarkWarmupIterations) {
+        benchmarkWarmupIterationsSpinner.setValue(benchmarkWarmupIterations);
+    }
+
+    public int getLaunchCoalescingMillis() {
+        return (Integer) launchCoalescingMillisSpinner.getValue();
+    }
+
+    public void setLaunchCoalescingMillis(int launchCoalescingMillis) {
+        launchCoalescingMillisSpinner.setValue(launchCoalescingMillis);
+    }
+
+    public int getDockerIdleTimeoutSeconds() {
+        return (Integer) dockerIdleTimeoutSecondsSpinner.getValue();
+    }
+
+    public void setDockerIdleTimeoutSeconds(int dockerIdleTimeoutSeconds) {
+        dockerIdleTimeoutSecondsSpinner.setValue(dockerIdleTimeoutSeconds);
+    }
+
+    public int getConsoleBufferKilobytes() {
+        return (Integer) consoleBufferKilobytesSpinner.getValue();
+    }
+
+    public void setConsoleBufferKilobytes(int consoleBufferKilobytes) {
+        consoleBufferKilobytesSpinner.setValue(consoleBufferKilobytes);
+    }
+
+    public String getResultFilePattern() {
+        return resultFilePatternField.getText();
+    }
+
+    public void setResultFilePattern(String resultFilePattern) {
+        resultFilePatternField.setText(resultFilePattern);
+    }
+
+    public int getWatchDebounceMillis() {
+        return (Integer) watchDebounceMillisSpinner.getValue();
+    }
+
+    public void setWatchDebounceMillis(int watchDebounceMillis) {
+        watchDebounceMillisSpinner.setValue(watchDebounceMillis);
+    }
+
+    public boolean getSkipUpToDateBuild() {
+        return skipUpToDateBuildCheckBox.isSelected();
+    }
+
+    public void setSkipUpToDateBuild(boolean skipUpToDateBuild) {
+        skipUpToDateBuildCheckBox.setSelected(skipUpToDateBuild);
+    }
+
+    public String getProfilerCommand() {
+        return profilerCommandField.getText();
+    }
+
+    public void setProfilerCommand(String profilerCommand) {
+        profilerCommandField.setText(profilerCommand);
+    }
+
+    public String getProfilerScriptCommand() {
+        return profilerScriptCommandField.getText();
+    }
+
+    public void setProfilerScriptCommand(String profilerScriptCommand) {
+        profilerScriptCommandField.setText(profilerScriptCommand);
+    }
+
+    public String getScaleFactors() {
+        return scaleFactorsField.getText();
+    }
+
+    public void setScaleFactors(String scaleFactors) {
+        scaleFactorsField.setText(scaleFactors);
+    }
+
     private JPanel createSettingPanel(JLabel label, JTextField textField) {
 
         label.setPreferredSize(new Dimension(120, 25));
@@ -142,4 +339,32 @@ public class PluginSettingsComponent {
 
         return settingPanel;
     }
+
+    private JPanel createSpinnerPanel(JLabel label, JSpinner spinner) {
+
+        label.setPreferredSize(new Dimension(120, 25));
+
+        JPanel settingPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        settingPanel.add(label);
+        settingPanel.add(spinner);
+
+        settingPanel.setMaximumSize(new Dimension(800, 35));
+        settingPanel.setPreferredSize(new Dimension(600, 35));
+
+        return settingPanel;
+    }
+
+    private JPanel createCheckBoxPanel(JLabel label, JCheckBox checkBox) {
+
+        label.setPreferredSize(new Dimension(120, 25));
+
+        JPanel settingPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        settingPanel.add(label);
+        settingPanel.add(checkBox);
+
+        settingPanel.setMaximumSize(new Dimension(800, 35));
+        settingPanel.setPreferredSize(new Dimension(600, 35));
+
+        return settingPanel;
+    }
 }
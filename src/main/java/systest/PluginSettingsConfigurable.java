@@ -41,7 +41,20 @@ public class PluginSettingsConfigurable implements Configurable {
         boolean modified = !component.getPathText().equals(settings.getPathSetting()) ||
                 !component.getDockerCommandText().equals(settings.getDockerCommand()) ||
                 !component.getDockerTestFilePath().equals(settings.getDockerTestFilePath()) ||
-                component.getDockerCommandCheckBox() != settings.getDockerCommandCheckBox();
+                component.getDockerCommandCheckBox() != settings.getDockerCommandCheckBox() ||
+                component.getParallelism() != settings.getParallelism() ||
+                component.getResultCacheSize() != settings.getResultCacheSize() ||
+                component.getBenchmarkIterations() != settings.getBenchmarkIterations() ||
+                component.getBenchmarkWarmupIterations() != settings.getBenchmarkWarmupIterations() ||
+                component.getLaunchCoalescingMillis() != settings.getLaunchCoalescingMillis() ||
+                component.getDockerIdleTimeoutSeconds() != settings.getDockerIdleTimeoutSeconds() ||
+                component.getConsoleBufferKilobytes() != settings.getConsoleBufferKilobytes() ||
+                !component.getResultFilePattern().equals(settings.getResultFilePattern()) ||
+                component.getWatchDebounceMillis() != settings.getWatchDebounceMillis() ||
+                component.getSkipUpToDateBuild() != settings.getSkipUpToDateBuild() ||
+                !component.getProfilerCommand().equals(settings.getProfilerCommand()) ||
+                !component.getProfilerScriptCommand().equals(settings.getProfilerScriptCommand()) ||
+                !component.getScaleFactors().equals(settings.getScaleFactors());
         return modified;
     }
 
@@ -52,6 +65,19 @@ public class PluginSettingsConfigurable implements Configurable {
         settings.setDockerCommand(component.getDockerCommandText());
         settings.setDockerTestFilePath(component.getDockerTestFilePath());
         settings.setDockerCommandCheckBox(component.getDockerCommandCheckBox());
+        settings.setParallelism(component.getParallelism());
+        settings.setResultCacheSize(component.getResultCacheSize());
+        settings.setBenchmarkIterations(component.getBenchmarkIterations());
+        settings.setBenchmarkWarmupIterations(component.getBenchmarkWarmupIterations());
+        settings.setLaunchCoalescingMillis(component.getLaunchCoalescingMillis());
+        settings.setDockerIdleTimeoutSeconds(component.getDockerIdleTimeoutSeconds());
+        settings.setConsoleBufferKilobytes(component.getConsoleBufferKilobytes());
+        settings.setResultFilePattern(component.getResultFilePattern());
+        settings.setWatchDebounceMillis(component.getWatchDebounceMillis());
+        settings.setSkipUpToDateBuild(component.getSkipUpToDateBuild());
+        settings.setProfilerCommand(component.getProfilerCommand());
+        settings.setProfilerScriptCommand(component.getProfilerScriptCommand());
+        settings.setScaleFactors(component.getScaleFactors());
     }
 
     @Override
@@ -61,6 +87,19 @@ public class PluginSettingsConfigurable implements Configurable {
         component.setDockerCommandField(settings.getDockerCommand());
         component.setDockerTestFilePath(settings.getDockerTestFilePath());
         component.setDockerCommandCheckBox(settings.getDockerCommandCheckBox());
+        component.setParallelism(settings.getParallelism());
+        component.setResultCacheSize(settings.getResultCacheSize());
+        component.setBenchmarkIterations(settings.getBenchmarkIterations());
+        component.setBenchmarkWarmupIterations(settings.getBenchmarkWarmupIterations());
+        component.setLaunchCoalescingMillis(settings.getLaunchCoalescingMillis());
+        component.setDockerIdleTimeoutSeconds(settings.getDockerIdleTimeoutSeconds());
+        component.setConsoleBufferKilobytes(settings.getConsoleBufferKilobytes());
+        component.setResultFilePattern(settings.getResultFilePattern());
+        component.setWatchDebounceMillis(settings.getWatchDebounceMillis());
+        component.setSkipUpToDateBuild(settings.getSkipUpToDateBuild());
+        component.setProfilerCommand(settings.getProfilerCommand());
+        component.setProfilerScriptCommand(settings.getProfilerScriptCommand());
+        component.setScaleFactors(settings.getScaleFactors());
     }
 
     @Override
@@ -0,0 +1,114 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/// Runs a single system test repeatedly and reports the latency percentiles of the measured iterations
+/// together with the average throughput that systest reports.
+/// The first iterations are warm-up iterations (e.g. page cache, lazy initialization) and are not measured
+public final class SysTestBenchmarkRunner {
+    private SysTestBenchmarkRunner() {
+    }
+
+    public static void run(Project project, SysTestTarget target) {
+        SysTestLineMarkerProvider.saveTarget(project, target);
+        ConsoleView consoleView = SysTestToolWindow.showConsole(project, "Benchmark");
+
+        PluginSettings settings = PluginSettings.getInstance();
+        int warmupIterations = settings.getBenchmarkWarmupIterations();
+        int iterations = Math.max(1, settings.getBenchmarkIterations());
+        String testName = SysTestFileIndex.testName(target.location().getName(), target.testIndex());
+        new Task.Backgroundable(project, "Benchmarking system test " + testName, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                SysTestLaunchContext launchContext = SysTestLaunchContext.resolveOrPrintError(
+                        project, error -> consoleView.print(error, ConsoleViewContentType.ERROR_OUTPUT));
+                if (launchContext == null) {
+                    return;
+                }
+                consoleView.print("Benchmarking " + testName + ": " + warmupIterations + " warm-up and "
+                        + iterations + " measured iterations\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+                try {
+                    benchmark(launchContext, target, warmupIterations, iterations, consoleView, indicator);
+                } catch (ExecutionException e) {
+                    consoleView.print("Error: " + e.getMessage() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
+                }
+            }
+        }.queue();
+    }
+
+    private static void benchmark(SysTestLaunchContext launchContext,
+                                  SysTestTarget target,
+                                  int warmupIterations,
+                                  int iterations,
+                                  ConsoleView consoleView,
+                                  ProgressIndicator indicator) throws ExecutionException {
+        long[] durationsNanos = new long[iterations];
+        double throughputSum = 0;
+        int throughputSamples = 0;
+        for (int iteration = 0; iteration < warmupIterations + iterations; iteration++) {
+            boolean warmup = iteration < warmupIterations;
+            indicator.setFraction((double) iteration / (warmupIterations + iterations));
+            indicator.setText2((warmup ? "Warm-up iteration " : "Iteration ") + (iteration + 1));
+
+            long start = System.nanoTime();
+            SysTestProcesses.Result result = launchContext.run(target, indicator);
+            long durationNanos = System.nanoTime() - start;
+            if (result.canceled()) {
+                return;
+            }
+            if (result.exitCode() != 0) {
+                consoleView.print("The test failed, the benchmark is stopped:\n" + result.outputTail() + "\n",
+                        ConsoleViewContentType.ERROR_OUTPUT);
+                return;
+            }
+
+            double throughput = SysTestOutputParser.parseThroughput(result.outputTail());
+            consoleView.print(String.format("%s %d: %.3f ms%s\n",
+                    warmup ? "Warm-up" : "Iteration",
+                    iteration + 1,
+                    durationNanos / 1e6,
+                    Double.isNaN(throughput) ? "" : String.format(", %.0f tuples/s", throughput)),
+                    ConsoleViewContentType.NORMAL_OUTPUT);
+            if (!warmup) {
+                durationsNanos[iteration - warmupIterations] = durationNanos;
+                if (!Double.isNaN(throughput)) {
+                    throughputSum += throughput;
+                    throughputSamples++;
+                }
+            }
+        }
+
+        SysTestLatencyStats stats = SysTestLatencyStats.of(durationsNanos);
+        consoleView.print(String.format(
+                "\nWall time of %d iterations:\n  min  %10.3f ms\n  p50  %10.3f ms\n  p95  %10.3f ms\n  p99  %10.3f ms\n  max  %10.3f ms\n",
+                stats.samples(),
+                stats.minNanos() / 1e6,
+                stats.p50Nanos() / 1e6,
+                stats.p95Nanos() / 1e6,
+                stats.p99Nanos() / 1e6,
+                stats.maxNanos() / 1e6), ConsoleViewContentType.SYSTEM_OUTPUT);
+        consoleView.print(throughputSamples == 0
+                        ? "systest did not report a throughput\n"
+                        : String.format("Throughput reported by systest: %.0f tuples/s (average)\n", throughputSum / throughputSamples),
+                ConsoleViewContentType.SYSTEM_OUTPUT);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.util.Arrays;
+
+/// Sorted offsets of all "----" occurrences in a system test file, i.e. the end of every test query.
+/// The offsets are kept in a gap buffer: entries in front of the gap are stored as absolute offsets,
+/// entries behind the gap are stored as distance to the end of the text.
+/// An edit therefore only rescans the edited lines and moves the gap to the edit position,
+/// all offsets behind the edit shift implicitly with the text length.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestBoundaryIndex {
+    public static final String MARKER = "----";
+
+    private int[] offsets;
+    private int gapStart;
+    private int gapEnd;
+    private int textLength;
+
+    private SysTestBoundaryIndex(int capacity) {
+        offsets = new int[Math.max(capacity, 16)];
+        gapStart = 0;
+        gapEnd = offsets.length;
+    }
+
+    /// Scans the whole text once, used when a document is indexed for the first time
+    public static SysTestBoundaryIndex build(CharSequence text) {
+        SysTestBoundaryIndex index = new SysTestBoundaryIndex(16);
+        index.textLength = text.length();
+        index.scan(text, 0, text.length());
+        return index;
+    }
+
+    /// Number of test queries, i.e. occurrences of "----"
+    public int size() {
+        return gapStart + (offsets.length - gapEnd);
+    }
+
+    /// Offset of the "----" that ends the test with the zero-based index 'i'
+    public int getOffset(int i) {
+        if (i < gapStart) {
+            return offsets[i];
+        }
+        return textLength - offsets[i - gapStart + gapEnd];
+    }
+
+    /// Zero-based index of the first marker with an offset >= 'offset', or size() if there is none
+    public int indexOfFirstAtOrAfter(int offset) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getOffset(mid) < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = getOffset(i);
+        }
+        return result;
+    }
+
+    /// Applies a text change that replaced 'oldLength' characters at 'offset' with 'newLength' characters.
+    /// 'newText' is the text after the change. Only the lines touched by the change are rescanned.
+    public void update(CharSequence newText, int offset, int oldLength, int newLength) {
+        int delta = newLength - oldLength;
+
+        /// The text before 'offset' and after the replaced fragment is unchanged, so the affected lines
+        /// can be determined from the new text alone
+        int regionStart = SysTestQueryBlocks.lineStart(newText, offset);
+        int regionEndNew = SysTestQueryBlocks.lineEnd(newText, offset + newLength);
+        int regionEndOld = regionEndNew - delta;
+
+        /// Move the gap to the first marker of the affected lines, using the old text length
+        moveGap(indexOfFirstAtOrAfter(regionStart));
+
+        /// Drop markers of the affected lines
+        while (gapEnd < offsets.length && textLength - offsets[gapEnd] < regionEndOld) {
+            gapEnd++;
+        }
+
+        /// Entries behind the gap are relative to the end of the text and shift implicitly
+        textLength = newText.length();
+        scan(newText, regionStart, regionEndNew);
+    }
+
+    /// Finds all non-overlapping occurrences of "----" in [start, end) and inserts them at the gap.
+    /// 'start' must be a line start, so that the matches align exactly with a scan of the whole text.
+    private void scan(CharSequence text, int start, int end) {
+        int run = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != '-') {
+                run = 0;
+                continue;
+            }
+            run++;
+            if (run == MARKER.length()) {
+                insert(i - MARKER.length() + 1);
+                run = 0;
+            }
+        }
+    }
+
+    private void insert(int offset) {
+        if (gapStart == gapEnd) {
+            grow();
+        }
+        offsets[gapStart++] = offset;
+    }
+
+    private void grow() {
+        int tail = offsets.length - gapEnd;
+        int[] grown = Arrays.copyOf(offsets, offsets.length * 2);
+        System.arraycopy(offsets, gapEnd, grown, grown.length - tail, tail);
+        gapEnd = grown.length - tail;
+        offsets = grown;
+    }
+
+    private void moveGap(int index) {
+        while (gapStart > index) {
+            offsets[--gapEnd] = textLength - offsets[--gapStart];
+        }
+        while (gapStart < index) {
+            offsets[gapStart++] = textLength - offsets[gapEnd++];
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.execution.impl.ConsoleViewImpl;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// The console of the NES-Systest-Runner tool window. Its memory is bounded by the 'consoleBufferKilobytes' setting,
+/// no matter how large the output gets, see SysTestOutputLog: it only shows the latest lines with runs of tuple lines
+/// folded, the whole output is paged from a temp file and can be searched via "Show Full Log"
+public class SysTestBoundedConsole extends ConsoleViewImpl {
+    private static final Logger LOG = Logger.getInstance(SysTestBoundedConsole.class);
+    private static final int IDLE_FLUSH_MILLIS = 200;
+
+    private final Project project;
+    private final String title;
+    private final int capacityChars;
+    /// Null if the temp file could not be created, the console is unbounded then
+    private final @Nullable SysTestOutputLog log;
+    private int shownChars;
+    private final Alarm flushAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicInteger printsSinceFlush = new AtomicInteger();
+
+    public SysTestBoundedConsole(Project project, String title) {
+        super(project, false);
+        this.project = project;
+        this.title = title;
+        this.capacityChars = PluginSettings.getInstance().getConsoleBufferKilobytes() * 1024;
+        this.log = createLog(capacityChars);
+        if (log != null) {
+            Disposer.register(this, log::close);
+        }
+    }
+
+    private static @Nullable SysTestOutputLog createLog(int capacityChars) {
+        try {
+            return SysTestOutputLog.create(capacityChars);
+        } catch (IOException e) {
+            LOG.warn("Could not create the temp file of the console, its output is kept in memory", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void print(@NotNull String text, @NotNull ConsoleViewContentType contentType) {
+        if (log == null) {
+            super.print(text, contentType);
+            return;
+        }
+        show(log.append(text), contentType);
+        printsSinceFlush.incrementAndGet();
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushAlarm.addRequest(this::flushWhenIdle, IDLE_FLUSH_MILLIS);
+        }
+    }
+
+    /// Shows a trailing partial line and the end of a folded run once nothing has been printed for a while,
+    /// e.g. because the process has terminated
+    private void flushWhenIdle() {
+        flushScheduled.set(false);
+        if (printsSinceFlush.getAndSet(0) > 0) {
+            if (flushScheduled.compareAndSet(false, true)) {
+                flushAlarm.addRequest(this::flushWhenIdle, IDLE_FLUSH_MILLIS);
+            }
+            return;
+        }
+        show(log.flush(), ConsoleViewContentType.NORMAL_OUTPUT);
+    }
+
+    private synchronized void show(String display, ConsoleViewContentType contentType) {
+        if (display.isEmpty()) {
+            return;
+        }
+        shownChars += display.length();
+        if (shownChars <= 2 * capacityChars) {
+            super.print(display, contentType);
+            return;
+        }
+        /// Replace the content with the ring buffer, so that the console never holds more than twice the buffer
+        String tail = log.tail();
+        shownChars = tail.length();
+        super.clear();
+        super.print(tail, ConsoleViewContentType.NORMAL_OUTPUT);
+    }
+
+    @Override
+    public AnAction @NotNull [] createConsoleActions() {
+        AnAction[] actions = super.createConsoleActions();
+        if (log == null) {
+            return actions;
+        }
+        AnAction[] withFullLog = new AnAction[actions.length + 1];
+        withFullLog[0] = new DumbAwareAction("Show Full Log", "Pages and searches the whole output", AllIcons.Actions.ShowAsTree) {
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                SysTestFullLogView.show(project, title, log);
+            }
+        };
+        System.arraycopy(actions, 0, withFullLog, 1, actions.length);
+        return withFullLog;
+    }
+}
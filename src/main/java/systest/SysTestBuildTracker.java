@@ -0,0 +1,160 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Decides whether a run from the gutter can skip the before-run build of the systest target, because nothing the
+/// target is built from changed since its last successful build with the same CMake profile.
+/// Instead of asking the build system, which has to stat every input and is the expensive part of a no-op build,
+/// the tracker counts changes of project files through the VFS: every created, deleted, moved or modified file in the
+/// project content, except system test files, bumps a counter. A build is up to date if the counter has not moved
+/// since a build with the profile started, its executable is unchanged and no source document is unsaved.
+/// The tracker starts with no successful builds, i.e. the first run of every IDE session builds
+public class SysTestBuildTracker implements Disposable {
+    private record Build(long changeCount, String executable, long lastModified, long length) {
+    }
+
+    private record PendingBuild(String profile, long changeCount, File executable) {
+    }
+
+    private final Project project;
+    /// Guarded by 'this'
+    private long changeCount;
+    private final Map<String, Build> builds = new HashMap<>();
+    private @Nullable PendingBuild pendingBuild;
+
+    public SysTestBuildTracker(Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            /// Before the change, so that deleted and moved files can still be looked up in the project content
+            @Override
+            public void before(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    if (affectsBuild(event)) {
+                        sourcesChanged();
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    public static SysTestBuildTracker getInstance(Project project) {
+        return project.getService(SysTestBuildTracker.class);
+    }
+
+    /// Whether the systest target of the launch's profile does not have to be built again
+    public boolean isUpToDate(SysTestLaunchContext launchContext) {
+        File executable = launchContext.executable();
+        if (executable == null || !executable.isFile() || hasUnsavedSources()) {
+            return false;
+        }
+        synchronized (this) {
+            Build build = builds.get(profileOf(launchContext));
+            return build != null
+                    && build.changeCount() == changeCount
+                    && build.executable().equals(executable.getPath())
+                    && build.lastModified() == executable.lastModified()
+                    && build.length() == executable.length();
+        }
+    }
+
+    /// Called before a launch that builds, the build counts as successful once the systest process starts
+    public synchronized void buildStarted(SysTestLaunchContext launchContext) {
+        File executable = launchContext.executable();
+        pendingBuild = executable == null ? null : new PendingBuild(profileOf(launchContext), changeCount, executable);
+    }
+
+    /// Called by the SysTestExecutionListener when a 'systest_plugin' process has started, i.e. its build succeeded
+    public synchronized void processStarted() {
+        PendingBuild build = pendingBuild;
+        pendingBuild = null;
+        if (build != null && build.executable().isFile()) {
+            builds.put(build.profile(), new Build(build.changeCount(), build.executable().getPath(),
+                    build.executable().lastModified(), build.executable().length()));
+        }
+    }
+
+    /// Called by the SysTestExecutionListener when a 'systest_plugin' process could not be started, e.g. the build failed
+    public synchronized void processNotStarted() {
+        pendingBuild = null;
+    }
+
+    /// Forgets all successful builds, e.g. after a CMake reload
+    public synchronized void sourcesChanged() {
+        changeCount++;
+    }
+
+    private boolean affectsBuild(VFileEvent event) {
+        if (event instanceof VFileCreateEvent create) {
+            return !SysTestLineMarkerProvider.isSysTestFile(create.getChildName())
+                    && !isGenerated(create.getParent().getPath() + "/" + create.getChildName())
+                    && isBuildInput(create.getParent());
+        }
+        VirtualFile file = event.getFile();
+        return file != null && file.isValid() && isBuildInput(file);
+    }
+
+    /// System test files are read by systest at runtime, files outside the project content, e.g. build directories,
+    /// are outputs or not part of the project, and so are the inputs of scale tests and the samples of profiled runs
+    private boolean isBuildInput(VirtualFile file) {
+        return !SysTestLineMarkerProvider.isSysTestFile(file.getName())
+                && ProjectFileIndex.getInstance(project).isInContent(file)
+                && !file.getPath().contains("/.idea/")
+                && !isGenerated(file.getPath());
+    }
+
+    /// Written by the plugin's own runs below the working directory, which may be part of the project content
+    private static boolean isGenerated(String path) {
+        return (path + "/").contains("/" + SysTestScaleRunner.SCALE_DIRECTORY + "/")
+                || path.endsWith("/" + SysTestProfileRunner.DATA_FILE);
+    }
+
+    /// A build saves all documents first, so an unsaved source would be built
+    private boolean hasUnsavedSources() {
+        for (Document document : FileDocumentManager.getInstance().getUnsavedDocuments()) {
+            VirtualFile file = FileDocumentManager.getInstance().getFile(document);
+            if (file != null && isBuildInput(file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String profileOf(SysTestLaunchContext launchContext) {
+        return launchContext.profile().getProfile().getName();
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
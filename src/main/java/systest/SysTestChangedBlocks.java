@@ -0,0 +1,67 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/// Finds the tests of a file whose block changed compared with another version of the file, e.g. its VCS base.
+/// The block of a test is its query and its expected results, i.e. everything from the start of its query up to
+/// the start of the next test's query. A test has changed if the other version has no block with the same text,
+/// so that inserting, removing or moving tests only selects the inserted tests.
+/// If the header changed, e.g. a source definition, all tests are selected, since every test may depend on it.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestChangedBlocks {
+    private SysTestChangedBlocks() {
+    }
+
+    /// One-based ordinals of the changed tests of 'current', in ascending order
+    public static List<Integer> changedTests(CharSequence base, CharSequence current) {
+        SysTestBoundaryIndex baseBoundaries = SysTestBoundaryIndex.build(base);
+        SysTestBoundaryIndex currentBoundaries = SysTestBoundaryIndex.build(current);
+        boolean headerChanged = !normalize(SysTestQueryBlocks.header(base, baseBoundaries))
+                .equals(normalize(SysTestQueryBlocks.header(current, currentBoundaries)));
+        Set<String> baseBlocks = headerChanged ? Set.of() : new HashSet<>(blocks(base, baseBoundaries));
+
+        List<String> currentBlocks = blocks(current, currentBoundaries);
+        List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < currentBlocks.size(); i++) {
+            if (!baseBlocks.contains(currentBlocks.get(i))) {
+                changed.add(i + 1);
+            }
+        }
+        return changed;
+    }
+
+    private static List<String> blocks(CharSequence text, SysTestBoundaryIndex boundaries) {
+        List<String> blocks = new ArrayList<>(boundaries.size());
+        int start = boundaries.size() == 0 ? 0 : SysTestQueryBlocks.queryStart(text, boundaries.getOffset(0));
+        for (int i = 0; i < boundaries.size(); i++) {
+            int end = i + 1 < boundaries.size()
+                    ? SysTestQueryBlocks.queryStart(text, boundaries.getOffset(i + 1))
+                    : text.length();
+            blocks.add(normalize(text.subSequence(start, end)));
+            start = end;
+        }
+        return blocks;
+    }
+
+    /// Leading and trailing blank lines and whitespace do not change a block
+    private static String normalize(CharSequence block) {
+        return block.toString().strip();
+    }
+}
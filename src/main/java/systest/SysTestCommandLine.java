@@ -0,0 +1,313 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.ExecutionTarget;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.application.ex.ApplicationEx;
+import com.intellij.openapi.application.ex.ApplicationManagerEx;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.jetbrains.cidr.cpp.execution.CMakeAppRunConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/// Headless entry point that runs system tests from the command line, e.g. for nightly runs on a build server:
+///
+///     clion.sh nes-systest [options] <project directory> [<test file, directory or file:NN>...]
+///
+/// The project is opened like in the IDE, so that the "systest" configuration, the CMake profile and its environment
+/// and the '-t' parameters are resolved exactly like for a click on a gutter icon. The tests are run in parallel like
+/// "Run System Tests in Parallel", every result is printed with its duration and all of them are written as a JUnit
+/// XML report. Without tests, all tests of the project are run. The systest target has to be built beforehand.
+/// Relative paths are resolved against the current directory, like those of any other command line tool.
+/// Exits with 0 if all tests passed, 1 if a test failed and 2 if the tests could not be run at all
+public class SysTestCommandLine implements ApplicationStarter {
+    private static final String USAGE = """
+            Usage: nes-systest [options] <project directory> [<test file, directory or file:NN>...]
+              Relative paths are resolved against the current directory, NN is the 1-based ordinal of a test in its file
+              --parallelism <n>     number of concurrent systest processes, the plugin setting by default
+              --profile <name>      CMake profile to run with, the active profile of the project by default
+              --junit-xml <file>    JUnit XML report to write, 'nes-systest-report.xml' by default
+              --passed-output       keep the output of passed tests in the report, only failures keep it by default
+              --use-result-cache    report tests that passed before with the same inputs without running them
+              --timeout <seconds>   how long to wait for the project, its indexes and CMake to load, 600 by default
+            """;
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_ERROR = 2;
+
+    private record Options(Path projectDirectory,
+                           List<String> tests,
+                           int parallelism,
+                           @Nullable String profile,
+                           Path junitXml,
+                           boolean passedOutput,
+                           boolean useResultCache,
+                           long timeoutSeconds) {
+    }
+
+    /// A problem that stops the run before any test ran, reported without a stack trace
+    private static final class UsageException extends Exception {
+        private UsageException(String message) {
+            super(message);
+        }
+    }
+
+    @Override
+    public int getRequiredModality() {
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+        int exitCode;
+        try {
+            exitCode = run(parseOptions(args.subList(1, args.size())));
+        } catch (UsageException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.print(USAGE);
+            exitCode = EXIT_ERROR;
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            exitCode = EXIT_ERROR;
+        }
+        ApplicationManagerEx.getApplicationEx().exit(ApplicationEx.FORCE_EXIT | ApplicationEx.EXIT_CONFIRMED, exitCode);
+    }
+
+    private static int run(Options options) throws Exception {
+        /// The timeout covers the whole startup: opening the project, indexing and the CMake reload
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.timeoutSeconds());
+        Project project = openProject(options, deadline);
+        SysTestLaunchContext launchContext = awaitLaunchContext(project, options, deadline);
+        awaitSmartMode(project, options, deadline);
+        List<SysTestTarget> targets = resolveTargets(project, options);
+        if (targets.isEmpty()) {
+            throw new UsageException("There are no system tests to run");
+        }
+
+        VirtualFile projectDirectory = LocalFileSystem.getInstance().findFileByNioFile(options.projectDirectory());
+        SysTestJUnitReport report = new SysTestJUnitReport(project.getName());
+        SysTestParallelRunner.Reporter reporter = new SysTestParallelRunner.Reporter() {
+            @Override
+            public void testFinished(SysTestTarget target, boolean passed, long durationMillis, String output) {
+                String suite = projectDirectory == null ? null : VfsUtilCore.getRelativePath(target.location(), projectDirectory);
+                String name = SysTestFileIndex.testName(target.location().getName(), target.testIndex());
+                /// The report holds every test until the end of the run, the output of a passed test is rarely read
+                report.add(new SysTestJUnitReport.TestCase(suite == null ? target.location().getPath() : suite,
+                        name, passed, durationMillis, passed && !options.passedOutput() ? null : output));
+                synchronized (System.out) {
+                    System.out.printf("%-6s %s (%d ms)%n", passed ? "PASSED" : "FAILED", name, durationMillis);
+                    if (!passed && output != null && !output.isEmpty()) {
+                        System.out.println(output.stripTrailing());
+                    }
+                }
+            }
+
+            @Override
+            public void print(String text) {
+                System.out.print(text);
+            }
+        };
+
+        System.out.println("Running " + targets.size() + " system tests with " + launchContext.profile().getProfile().getName()
+                + " in up to " + options.parallelism() + " processes");
+        boolean passed = SysTestParallelRunner.runShards(project, launchContext, targets, options.parallelism(),
+                !options.useResultCache(), reporter, new EmptyProgressIndicator());
+
+        Path junitXml = options.junitXml().toAbsolutePath();
+        if (junitXml.getParent() != null) {
+            Files.createDirectories(junitXml.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(junitXml, StandardCharsets.UTF_8)) {
+            report.write(writer);
+        }
+        System.out.println("JUnit XML report: " + junitXml);
+        return passed && report.failures() == 0 ? 0 : EXIT_FAILED;
+    }
+
+    private static Project openProject(Options options, long deadline) throws Exception {
+        Future<Project> opening = ApplicationManager.getApplication().executeOnPooledThread(
+                () -> ProjectUtil.openOrImport(options.projectDirectory(), null, false));
+        Project project;
+        try {
+            project = opening.get(remainingMillis(deadline), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            opening.cancel(true);
+            throw new UsageException("The project '" + options.projectDirectory() + "' did not open within "
+                    + options.timeoutSeconds() + " s");
+        }
+        if (project == null) {
+            throw new UsageException("Could not open the project '" + options.projectDirectory() + "'");
+        }
+        return project;
+    }
+
+    private static void awaitSmartMode(Project project, Options options, long deadline) throws UsageException {
+        if (!DumbService.getInstance(project).waitForSmartMode(remainingMillis(deadline))) {
+            throw new UsageException("The project was not indexed within " + options.timeoutSeconds() + " s");
+        }
+    }
+
+    /// At least 1 ms, a timeout of 0 would mean no timeout
+    private static long remainingMillis(long deadline) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /// Opening the project triggers the CMake reload, which creates the "systest" configuration and the model it is
+    /// resolved from. Both may not exist yet, so keep resolving until it succeeds or the timeout expires
+    private static SysTestLaunchContext awaitLaunchContext(Project project, Options options, long deadline) throws Exception {
+        String error = "Could not find the 'systest' Run/Debug configuration";
+        while (System.nanoTime() < deadline) {
+            awaitSmartMode(project, options, deadline);
+            SysTestLaunchCache launchCache = SysTestLaunchCache.getInstance(project);
+            RunnerAndConfigurationSettings settings = launchCache.getSystestSettings();
+            if (settings != null) {
+                try {
+                    SysTestLaunchContext launchContext = options.profile() == null
+                            ? launchCache.getLaunchContext(settings)
+                            : resolveProfile(project, settings, options.profile());
+                    launchContext.requireExecutable();
+                    return launchContext;
+                } catch (ExecutionException e) {
+                    error = e.getMessage();
+                }
+            }
+            Thread.sleep(1000);
+        }
+        throw new UsageException(error);
+    }
+
+    /// The launch context for the CMake profile with the given name, like a column of a CMake profile matrix run
+    private static SysTestLaunchContext resolveProfile(Project project, RunnerAndConfigurationSettings settings, String profile)
+            throws ExecutionException, UsageException {
+        List<ExecutionTarget> executionTargets = SysTestLaunchContext.executionTargets(project, settings);
+        for (ExecutionTarget executionTarget : executionTargets) {
+            if (executionTarget.getDisplayName().equals(profile)) {
+                return SysTestLaunchContext.resolve(project, (CMakeAppRunConfiguration) settings.getConfiguration(), executionTarget);
+            }
+        }
+        if (executionTargets.isEmpty()) {
+            throw new ExecutionException("The 'systest' configuration has no CMake profiles yet");
+        }
+        throw new UsageException("There is no CMake profile '" + profile + "', the profiles are: "
+                + String.join(", ", executionTargets.stream().map(ExecutionTarget::getDisplayName).toList()));
+    }
+
+    /// One target per test of the given files and directories; 'file:NN' selects a single test.
+    /// Relative paths are resolved against the current directory, not the project directory
+    private static List<SysTestTarget> resolveTargets(Project project, Options options) throws UsageException {
+        List<String> tests = options.tests().isEmpty() ? List.of(options.projectDirectory().toString()) : options.tests();
+        List<SysTestTarget> targets = new ArrayList<>();
+        for (String test : tests) {
+            int testIndex = 0;
+            String path = test;
+            int separator = test.lastIndexOf(':');
+            if (separator > 0 && separator < test.length() - 1 && test.substring(separator + 1).chars().allMatch(Character::isDigit)) {
+                testIndex = Integer.parseInt(test.substring(separator + 1));
+                path = test.substring(0, separator);
+            }
+            Path resolved = Path.of(path).toAbsolutePath().normalize();
+            VirtualFile file = LocalFileSystem.getInstance().refreshAndFindFileByNioFile(resolved);
+            if (file == null || (!file.isDirectory() && !SysTestLineMarkerProvider.isSysTestFile(file.getName()))) {
+                throw new UsageException("'" + test + "' is neither a system test file nor a directory");
+            }
+            if (testIndex > 0) {
+                int tests = file.isDirectory() ? 0 : ReadAction.compute(() -> SysTestFileIndex.getTests(project, file).size());
+                if (testIndex > tests) {
+                    throw new UsageException("'" + test + "' does not exist, " + (file.isDirectory()
+                            ? "a directory has no ordinals" : file.getName() + " has " + tests + " tests"));
+                }
+                targets.add(new SysTestTarget(file, testIndex));
+            } else {
+                targets.addAll(ReadAction.compute(() -> SysTestFileIndex.getTestTargets(project, file)));
+            }
+        }
+        return targets.stream().distinct().toList();
+    }
+
+    private static Options parseOptions(List<String> args) throws UsageException {
+        int parallelism = PluginSettings.getInstance().getEffectiveParallelism();
+        String profile = null;
+        Path junitXml = Path.of("nes-systest-report.xml");
+        boolean passedOutput = false;
+        boolean useResultCache = false;
+        long timeoutSeconds = 600;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            switch (arg) {
+                case "--parallelism" -> parallelism = parsePositive(arg, value(args, ++i, arg));
+                case "--profile" -> profile = value(args, ++i, arg);
+                case "--junit-xml" -> junitXml = Path.of(value(args, ++i, arg));
+                case "--passed-output" -> passedOutput = true;
+                case "--use-result-cache" -> useResultCache = true;
+                case "--timeout" -> timeoutSeconds = parsePositive(arg, value(args, ++i, arg));
+                default -> {
+                    if (arg.startsWith("--")) {
+                        throw new UsageException("Unknown option '" + arg + "'");
+                    }
+                    positional.add(arg);
+                }
+            }
+        }
+        if (positional.isEmpty()) {
+            throw new UsageException("The project directory is missing");
+        }
+        Path projectDirectory = Path.of(positional.get(0)).toAbsolutePath().normalize();
+        if (!Files.isDirectory(projectDirectory)) {
+            throw new UsageException("'" + projectDirectory + "' is not a directory");
+        }
+        return new Options(projectDirectory, positional.subList(1, positional.size()), parallelism, profile, junitXml,
+                passedOutput, useResultCache, timeoutSeconds);
+    }
+
+    private static String value(List<String> args, int i, String option) throws UsageException {
+        if (i >= args.size()) {
+            throw new UsageException("'" + option + "' needs a value");
+        }
+        return args.get(i);
+    }
+
+    private static int parsePositive(String option, String value) throws UsageException {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            /// Reported below
+        }
+        throw new UsageException("'" + option + "' needs a positive number, not '" + value + "'");
+    }
+}
@@ -0,0 +1,51 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.Executor;
+import com.intellij.execution.configurations.RunConfiguration;
+import com.intellij.execution.testframework.TestConsoleProperties;
+import com.intellij.execution.testframework.sm.SMCustomMessagesParsing;
+import com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter;
+import com.intellij.execution.testframework.sm.runner.SMTRunnerConsoleProperties;
+import com.intellij.execution.testframework.sm.runner.SMTestLocator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.ObjLongConsumer;
+
+/// Console properties of the systest test tree: systest's stdout is converted by SysTestEventsConverter
+public class SysTestConsoleProperties extends SMTRunnerConsoleProperties implements SMCustomMessagesParsing {
+    public static final String FRAMEWORK_NAME = "NES-Systest";
+
+    private final @Nullable ObjLongConsumer<SysTestOutputParser.Result> resultListener;
+
+    public SysTestConsoleProperties(@NotNull RunConfiguration configuration,
+                                    @NotNull Executor executor,
+                                    @Nullable ObjLongConsumer<SysTestOutputParser.Result> resultListener) {
+        super(configuration, FRAMEWORK_NAME, executor);
+        this.resultListener = resultListener;
+    }
+
+    @Override
+    public OutputToGeneralTestEventsConverter createTestEventsConverter(@NotNull String testFrameworkName,
+                                                                        @NotNull TestConsoleProperties consoleProperties) {
+        return new SysTestEventsConverter(testFrameworkName, consoleProperties, resultListener);
+    }
+
+    @Override
+    public SMTestLocator getTestLocator() {
+        return SysTestLocator.INSTANCE;
+    }
+}
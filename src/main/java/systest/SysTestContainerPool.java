@@ -0,0 +1,228 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/// The lifecycle of the warm docker containers of SysTestWarmContainers, one per CMake profile:
+/// a container is started on first use, reused by every later run, removed once no run has used it for the idle time
+/// and started again if it died from outside, e.g. by 'docker stop'. Whether a container still runs is asked from
+/// 'docker inspect', never guessed from the output of the test that ran in it.
+/// The docker CLI is called through the Docker interface, so that the lifecycle can be tested against a fake docker.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestContainerPool implements Closeable {
+
+    /// The result of a docker CLI call
+    public record Output(int exitCode, String stdout, String stderr) {
+    }
+
+    @FunctionalInterface
+    public interface Docker {
+        Output call(List<String> arguments) throws IOException;
+    }
+
+    /// Runs something in the running container with the given name, e.g. a 'docker exec' of systest
+    @FunctionalInterface
+    public interface Exec<R, E extends Exception> {
+        R run(String containerName) throws E;
+    }
+
+    /// One per profile for the lifetime of the pool, so that starting and removing its docker container, which always
+    /// has the same name, are serialized by the container's lock: a removal can never hit a container started after it
+    private final class Container {
+        private final String name;
+        /// Guarded by the container, like the running counter, the started flag and the idle stop
+        private List<String> dockerCommand;
+        private int running;
+        private boolean started;
+        private ScheduledFuture<?> idleStop;
+
+        private Container(String profileName) {
+            this.name = SysTestDockerCommands.containerName(profileName, projectHash);
+        }
+
+        /// Starts the container if it is not running yet, a stale container with the same name is removed first
+        private synchronized void ensureStarted() throws IOException {
+            if (started) {
+                return;
+            }
+            List<String> runArguments = SysTestDockerCommands.run(dockerCommand, name);
+            docker.call(SysTestDockerCommands.remove(dockerCommand, name));
+            Output output = docker.call(runArguments);
+            if (output.exitCode() != 0) {
+                throw new IOException("Could not start the docker container '" + name + "':\n" + output.stderr());
+            }
+            started = true;
+        }
+
+        private synchronized void restart() throws IOException {
+            started = false;
+            ensureStarted();
+        }
+
+        /// Removes the docker container and waits for it, called with the lock held
+        private void remove() {
+            if (idleStop != null) {
+                idleStop.cancel(false);
+                idleStop = null;
+            }
+            if (!started) {
+                return;
+            }
+            started = false;
+            try {
+                docker.call(SysTestDockerCommands.remove(dockerCommand, name));
+            } catch (IOException ignored) {
+                /// The container is removed with '--rm' once it stops anyway
+            }
+        }
+    }
+
+    private final String projectHash;
+    private final Docker docker;
+    private final ScheduledExecutorService scheduler;
+    /// Guarded by itself
+    private final Map<String, Container> containers = new HashMap<>();
+
+    public SysTestContainerPool(String projectHash, Docker docker) {
+        this.projectHash = projectHash;
+        this.docker = docker;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "NES-Systest-Runner warm containers");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /// Runs 'exec' in the warm container of the profile, starting the container if needed. If the run 'failed' and
+    /// the container is no longer running, the container is started again and 'exec' is retried once.
+    /// The container is removed once it has not been used for 'idleMillis', it is kept forever if 'idleMillis' is 0
+    public <R, E extends Exception> R run(String profileName,
+                                          List<String> dockerCommand,
+                                          long idleMillis,
+                                          Exec<R, E> exec,
+                                          Predicate<R> failed) throws E, IOException {
+        Container container = acquire(profileName, dockerCommand);
+        try {
+            R result = exec.run(container.name);
+            if (failed.test(result) && !isRunning(container)) {
+                container.restart();
+                result = exec.run(container.name);
+            }
+            return result;
+        } finally {
+            release(container, idleMillis);
+        }
+    }
+
+    /// The names of the containers that are started or starting, e.g. for tests
+    public List<String> containerNames() {
+        List<String> names = new ArrayList<>();
+        for (Container container : containers()) {
+            synchronized (container) {
+                if (container.started || container.running > 0) {
+                    names.add(container.name);
+                }
+            }
+        }
+        return names;
+    }
+
+    private List<Container> containers() {
+        synchronized (containers) {
+            return new ArrayList<>(containers.values());
+        }
+    }
+
+    private Container acquire(String profileName, List<String> dockerCommand) throws IOException {
+        Container container;
+        synchronized (containers) {
+            container = containers.computeIfAbsent(profileName, Container::new);
+        }
+        /// Waits for a removal of the container that is in progress, see stopIfIdle
+        synchronized (container) {
+            if (container.idleStop != null) {
+                container.idleStop.cancel(false);
+                container.idleStop = null;
+            }
+            if (container.started && container.running == 0 && !container.dockerCommand.equals(dockerCommand)) {
+                /// The docker command has been changed in the settings
+                container.remove();
+            }
+            if (!container.started) {
+                container.dockerCommand = dockerCommand;
+            }
+            container.running++;
+            try {
+                container.ensureStarted();
+            } catch (IOException | RuntimeException e) {
+                container.running--;
+                throw e;
+            }
+        }
+        return container;
+    }
+
+    private void release(Container container, long idleMillis) {
+        synchronized (container) {
+            container.running--;
+            if (container.running == 0 && idleMillis > 0) {
+                container.idleStop = scheduler.schedule(() -> stopIfIdle(container), idleMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /// Removes the container synchronously while holding its lock, so that a run that starts meanwhile waits for the
+    /// removal and then starts a new container, instead of having its new container removed by a late 'docker rm -f'
+    private void stopIfIdle(Container container) {
+        synchronized (container) {
+            if (container.running == 0) {
+                container.remove();
+            }
+        }
+    }
+
+    /// Asks docker instead of guessing from the output, a test may print anything
+    private boolean isRunning(Container container) throws IOException {
+        Output output = docker.call(SysTestDockerCommands.inspectRunning(container.dockerCommand, container.name));
+        return SysTestDockerCommands.isRunning(output.exitCode(), output.stdout());
+    }
+
+    /// Removes all containers; the removals finish in the background
+    @Override
+    public void close() {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        for (Container container : containers()) {
+            scheduler.execute(() -> {
+                synchronized (container) {
+                    container.remove();
+                }
+            });
+        }
+        scheduler.shutdown();
+    }
+}
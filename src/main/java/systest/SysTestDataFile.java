@@ -0,0 +1,537 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/// A read-only view of a source data file of a test, e.g. a CSV file of several gigabytes, that is never loaded onto
+/// the heap: rows are read block by block via memory mapping, and a single background scan builds a sparse index of
+/// the row starts and the statistics of every column, so that both grow while the file is scanned.
+/// Rows can be read as soon as the scan has passed them, random samples can be taken right away.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestDataFile implements Closeable {
+    /// Every this many rows, the file offset of the row start is indexed
+    public static final int INDEX_STRIDE = 1024;
+    /// The scan maps the file in windows of this size and copies each window into a reused array, which is scanned
+    /// several times faster than the mapped buffer itself. A row that crosses a window is scanned with the next window
+    static final int SCAN_WINDOW = 4 * 1024 * 1024;
+    /// Rows longer than this are cut when they are read, e.g. a file that is not line-based
+    static final int MAX_ROW_BYTES = 64 * 1024;
+    /// Single rows are read in chunks of this size
+    private static final int READ_BYTES = 4 * 1024;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18};
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final char delimiter;
+    private final String firstRow;
+
+    /// rowStarts[i] is the file offset of row i * INDEX_STRIDE, guarded by this like all other scan results
+    private long[] rowStarts = new long[64];
+    private long rowCount;
+    /// Rows before this offset are indexed and counted in the statistics
+    private long scannedBytes;
+    private final List<ColumnStats> columns = new ArrayList<>();
+    /// Only used by the thread that scans
+    private byte[] scanBuffer = new byte[0];
+
+    /// The most recently read block, scrolling through a page reads the same block again and again
+    private long cachedBlock = -1;
+    private String[] cachedRows;
+    private boolean closed;
+
+    /// Statistics of a single column, numbers are parsed as doubles
+    public static final class ColumnStats {
+        private long values;
+        private long empty;
+        private long numeric;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+        private int maxLength;
+
+        private void add(ColumnStats other) {
+            values += other.values;
+            empty += other.empty;
+            numeric += other.numeric;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            sum += other.sum;
+            maxLength = Math.max(maxLength, other.maxLength);
+        }
+
+        private Stats snapshot(int column) {
+            return new Stats(column, values, empty, numeric,
+                    numeric == 0 ? Double.NaN : min,
+                    numeric == 0 ? Double.NaN : max,
+                    numeric == 0 ? Double.NaN : sum / numeric,
+                    maxLength);
+        }
+    }
+
+    /// A snapshot of the statistics of the zero-based 'column', min, max and mean are NaN without numeric values
+    public record Stats(int column, long values, long empty, long numeric, double min, double max, double mean, int maxLength) {
+    }
+
+    /// A row found by sampling, its row number is unknown until the scan has passed it
+    public record Sample(long offset, String row) {
+    }
+
+    private SysTestDataFile(Path path, FileChannel channel, String firstRow) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.size = channel.size();
+        this.firstRow = firstRow;
+        this.delimiter = guessDelimiter(firstRow);
+    }
+
+    /// Opens the file read-only, the delimiter is guessed from its first row
+    public static SysTestDataFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            String firstRow = channel.size() == 0 ? "" : readRow(channel, 0, channel.size());
+            return new SysTestDataFile(path, channel, firstRow);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public char delimiter() {
+        return delimiter;
+    }
+
+    /// The first row, available before the scan has started, e.g. to determine the number of columns
+    public String firstRow() {
+        return firstRow;
+    }
+
+    /// Number of rows the scan has passed so far, they can be read via row()
+    public synchronized long rowCount() {
+        return rowCount;
+    }
+
+    public synchronized long scannedBytes() {
+        return scannedBytes;
+    }
+
+    public synchronized boolean isScanned() {
+        return scannedBytes >= size;
+    }
+
+    /// The statistics of all columns of the rows scanned so far
+    public synchronized List<Stats> stats() {
+        List<Stats> stats = new ArrayList<>();
+        for (int column = 0; column < columns.size(); column++) {
+            stats.add(columns.get(column).snapshot(column));
+        }
+        return stats;
+    }
+
+    /// A row the scan has already passed, without its line break
+    public synchronized String row(long index) {
+        if (closed || index < 0 || index >= rowCount) {
+            return "";
+        }
+        return readBlock(index / INDEX_STRIDE)[(int) (index % INDEX_STRIDE)];
+    }
+
+    /// The fields of a row, split at the delimiter
+    public String[] fields(String row) {
+        List<String> fields = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < row.length(); i++) {
+            if (row.charAt(i) == delimiter) {
+                fields.add(row.substring(start, i));
+                start = i + 1;
+            }
+        }
+        fields.add(row.substring(start));
+        return fields.toArray(String[]::new);
+    }
+
+    /// 'count' rows at random offsets in file order. Every row is found by seeking to a random byte and skipping to
+    /// the next row start, so that sampling does not need the index; longer rows are slightly more likely to be
+    /// skipped, i.e. the sample is only approximately uniform
+    public List<Sample> sample(int count, Random random) {
+        long[] offsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = size == 0 ? 0 : random.nextLong(size);
+        }
+        Arrays.sort(offsets);
+        List<Sample> samples = new ArrayList<>();
+        long previous = -1;
+        for (long offset : offsets) {
+            long rowStart;
+            synchronized (this) {
+                if (closed) {
+                    break;
+                }
+                rowStart = nextRowStart(offset);
+                if (rowStart >= size || rowStart == previous) {
+                    continue;
+                }
+                try {
+                    samples.add(new Sample(rowStart, readRow(channel, rowStart, size)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            previous = rowStart;
+        }
+        return samples;
+    }
+
+    /// Scans the rest of the file window by window: indexes the row starts and adds every row to the column statistics.
+    /// The results of a window are published at once, so that rowCount() and stats() always agree
+    public void scan(BooleanSupplier canceled) {
+        while (!canceled.getAsBoolean()) {
+            long start;
+            synchronized (this) {
+                if (closed || scannedBytes >= size) {
+                    return;
+                }
+                start = scannedBytes;
+            }
+            try {
+                scanWindow(start, SCAN_WINDOW);
+            } catch (IOException e) {
+                synchronized (this) {
+                    if (closed) {
+                        /// Closed while a window was read, e.g. because the view was closed
+                        return;
+                    }
+                }
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        cachedRows = null;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            /// The file is only read, there is nothing to lose
+        }
+    }
+
+    private void scanWindow(long start, long window) throws IOException {
+        long length = Math.min(window, size - start);
+        if (scanBuffer.length < length) {
+            scanBuffer = new byte[(int) length];
+        }
+        byte[] bytes = scanBuffer;
+        channel.map(FileChannel.MapMode.READ_ONLY, start, length).get(0, bytes, 0, (int) length);
+        boolean last = start + length >= size;
+        /// Only complete rows are scanned, the row that crosses the window is scanned with the next window
+        int limit = (int) length;
+        if (!last) {
+            while (limit > 0 && bytes[limit - 1] != '\n') {
+                limit--;
+            }
+            if (limit == 0) {
+                if (window * 2 > Integer.MAX_VALUE) {
+                    throw new IOException("Rows longer than " + window + " bytes are not supported");
+                }
+                scanWindow(start, window * 2);
+                return;
+            }
+        }
+
+        long firstRow;
+        synchronized (this) {
+            firstRow = rowCount;
+        }
+        List<Long> starts = new ArrayList<>();
+        ColumnStats[] stats = new ColumnStats[0];
+        byte separator = (byte) delimiter;
+        long rows = firstRow;
+        int rowStart = 0;
+        int column = 0;
+        int fieldStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            /// A last row without a line break ends at the end of the file
+            if (i == limit && rowStart == limit) {
+                break;
+            }
+            byte b = i == limit ? (byte) '\n' : bytes[i];
+            if (b != separator && b != '\n') {
+                continue;
+            }
+            int fieldEnd = b == '\n' && i > fieldStart && bytes[i - 1] == '\r' ? i - 1 : i;
+            if (column == stats.length) {
+                stats = Arrays.copyOf(stats, column + 1);
+                stats[column] = new ColumnStats();
+            }
+            addField(stats[column], bytes, fieldStart, fieldEnd);
+            column++;
+            fieldStart = i + 1;
+            if (b == '\n') {
+                if (rows % INDEX_STRIDE == 0) {
+                    starts.add(start + rowStart);
+                }
+                rows++;
+                rowStart = i + 1;
+                column = 0;
+            }
+        }
+
+        synchronized (this) {
+            if (closed || rowCount != firstRow) {
+                return;
+            }
+            int block = (int) ((firstRow + INDEX_STRIDE - 1) / INDEX_STRIDE);
+            for (long indexed : starts) {
+                ensureIndexCapacity(block);
+                rowStarts[block++] = indexed;
+            }
+            rowCount = rows;
+            scannedBytes = last ? size : start + limit;
+            for (int i = 0; i < stats.length; i++) {
+                if (i == columns.size()) {
+                    columns.add(new ColumnStats());
+                }
+                columns.get(i).add(stats[i]);
+            }
+            if (firstRow > 0 && cachedBlock == (firstRow - 1) / INDEX_STRIDE) {
+                /// The cached block has grown
+                cachedBlock = -1;
+            }
+        }
+    }
+
+    private void ensureIndexCapacity(int block) {
+        if (block >= rowStarts.length) {
+            rowStarts = Arrays.copyOf(rowStarts, Math.max(rowStarts.length * 2, block + 1));
+        }
+    }
+
+    /// Plain integers and decimals are parsed without allocation, e.g. an exponent via Double.parseDouble
+    private static void addField(ColumnStats stats, byte[] bytes, int start, int end) {
+        stats.values++;
+        stats.maxLength = Math.max(stats.maxLength, end - start);
+        if (start == end) {
+            stats.empty++;
+            return;
+        }
+        int i = start;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        boolean plain = true;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (b == 'e' || b == 'E' || b == '-' || b == '+' || b == '.') {
+                plain = false;
+            } else {
+                return;
+            }
+        }
+        double value;
+        if (plain && digits > 0 && digits <= 18) {
+            value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+            value = negative ? -value : value;
+        } else if (digits > 0) {
+            try {
+                value = Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+            } catch (NumberFormatException e) {
+                return;
+            }
+        } else {
+            return;
+        }
+        stats.numeric++;
+        stats.sum += value;
+        stats.min = Math.min(stats.min, value);
+        stats.max = Math.max(stats.max, value);
+    }
+
+    private String[] readBlock(long block) {
+        if (block == cachedBlock) {
+            return cachedRows;
+        }
+        try {
+            long start = rowStarts[(int) block];
+            long firstOfNext = (block + 1) * INDEX_STRIDE;
+            long end = firstOfNext < rowCount ? rowStarts[(int) block + 1] : scannedBytes;
+            int rows = (int) (Math.min(firstOfNext, rowCount) - block * INDEX_STRIDE);
+            String[] result = new String[rows];
+            if (end - start > SCAN_WINDOW) {
+                /// Very long rows, every row is read on its own and cut
+                long rowStart = start;
+                for (int row = 0; row < rows; row++) {
+                    result[row] = readRow(channel, rowStart, end);
+                    rowStart = nextRowStart(rowStart + 1, end);
+                }
+            } else {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                int rowStart = 0;
+                for (int row = 0; row < rows; row++) {
+                    int rowEnd = rowStart;
+                    while (rowEnd < mapped.limit() && mapped.get(rowEnd) != '\n') {
+                        rowEnd++;
+                    }
+                    result[row] = decode(mapped, rowStart, rowEnd);
+                    rowStart = rowEnd + 1;
+                }
+            }
+            cachedBlock = block;
+            cachedRows = result;
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /// The first row start after 'offset', i.e. behind the next line break, or the file size
+    private long nextRowStart(long offset) {
+        if (offset == 0) {
+            return 0;
+        }
+        return nextRowStart(offset, size);
+    }
+
+    /// The first offset behind the line break at or after 'offset - 1', or 'end'.
+    /// Reads instead of maps, since many small mappings are only released by the garbage collector
+    private long nextRowStart(long offset, long end) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BYTES);
+            long position = offset - 1;
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(READ_BYTES, end - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+            return end;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /// The row at 'start' without its line break, cut after MAX_ROW_BYTES
+    private static String readRow(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(0, Math.min(MAX_ROW_BYTES, end - start)));
+        int scanned = 0;
+        while (buffer.hasRemaining()) {
+            buffer.limit(Math.min(buffer.capacity(), buffer.position() + READ_BYTES));
+            if (channel.read(buffer, start + buffer.position()) <= 0) {
+                break;
+            }
+            for (; scanned < buffer.position(); scanned++) {
+                if (buffer.get(scanned) == '\n') {
+                    return decode(buffer, 0, scanned);
+                }
+            }
+        }
+        return decode(buffer, 0, buffer.position());
+    }
+
+    /// The row in [start, end) without a trailing carriage return, cut after MAX_ROW_BYTES
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[Math.min(end - start, MAX_ROW_BYTES)];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /// The path of the data file of the source defined at 'definitionStart', e.g. 'data/stream.csv' below
+    /// 'Source stream UINT64 id UINT64 value FILE', or null if the source has inline data
+    public static String sourcePath(CharSequence text, int definitionStart) {
+        int definitionEnd = SysTestQueryBlocks.lineEnd(text, definitionStart);
+        String[] tokens = text.subSequence(definitionStart, definitionEnd).toString().trim().split("\\s+");
+        if (!tokens[tokens.length - 1].equalsIgnoreCase("FILE") || definitionEnd >= text.length()) {
+            return null;
+        }
+        String path = text.subSequence(definitionEnd + 1, SysTestQueryBlocks.lineEnd(text, definitionEnd + 1)).toString().trim();
+        return path.isEmpty() ? null : path;
+    }
+
+    /// The column names of a source definition, e.g. [id, value] for 'Source stream UINT64 id UINT64 value FILE'
+    public static List<String> columnNames(String definition) {
+        String[] tokens = definition.trim().split("\\s+");
+        int end = tokens[tokens.length - 1].equalsIgnoreCase("FILE") ? tokens.length - 1 : tokens.length;
+        List<String> names = new ArrayList<>();
+        for (int i = 3; i < end; i += 2) {
+            names.add(tokens[i]);
+        }
+        return names;
+    }
+
+    /// The most frequent of the usual delimiters in the first row, a comma if there is none
+    static char guessDelimiter(String firstRow) {
+        char best = ',';
+        long bestCount = 0;
+        for (char candidate : new char[]{',', '|', '\t', ';'}) {
+            long count = firstRow.chars().filter(c -> c == candidate).count();
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.editor.colors.EditorFontType;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Splitter;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/// The "Source Data" tab of the NES-Systest-Runner tool window, opened from the gutter marker of a file source:
+/// pages through the source's data file, which may be far too large for the editor, via SysTestDataFile.
+/// Rows and column statistics appear while the file is scanned in the background, "Go to row" jumps to a scanned row
+/// and "Sample" shows rows at random offsets of the whole file right away
+public final class SysTestDataFileView {
+    public static final String TITLE = "Source Data";
+    private static final int REFRESH_MILLIS = 1000;
+    private static final int SAMPLE_ROWS = 100;
+    private static final String[] STATS_COLUMNS = {"Column", "Values", "Empty", "Numeric", "Min", "Max", "Mean", "Max length"};
+
+    private SysTestDataFileView() {
+    }
+
+    /// Opens the data file and starts its scan, errors are shown in a console of the NES-Systest-Runner tool window
+    public static void show(Project project, Path path, List<String> columnNames) {
+        SysTestDataFile file;
+        try {
+            file = SysTestDataFile.open(path);
+        } catch (IOException e) {
+            SysTestToolWindow.showConsole(project, TITLE).print("Could not open " + path + ": " + e.getMessage() + "\n",
+                    ConsoleViewContentType.ERROR_OUTPUT);
+            return;
+        }
+        List<String> columns = new ArrayList<>(columnNames);
+        for (int column = columns.size(); column < file.fields(file.firstRow()).length; column++) {
+            columns.add("Column " + (column + 1));
+        }
+
+        RowTableModel rows = new RowTableModel(file, columns);
+        JBTable rowTable = new JBTable(rows);
+        rowTable.setFont(EditorColorsManager.getInstance().getGlobalScheme().getFont(EditorFontType.PLAIN));
+        rowTable.getColumnModel().getColumn(0).setMaxWidth(120);
+        DefaultTableModel samples = readOnlyModel(columnsWith("Byte offset", columns));
+        JBTable sampleTable = new JBTable(samples);
+        sampleTable.setFont(rowTable.getFont());
+        DefaultTableModel stats = readOnlyModel(STATS_COLUMNS);
+
+        JBTabbedPane tabs = new JBTabbedPane();
+        tabs.addTab("Rows", new JBScrollPane(rowTable));
+        tabs.addTab("Sample", new JBScrollPane(sampleTable));
+        Splitter splitter = new Splitter(true, 0.7f);
+        splitter.setFirstComponent(tabs);
+        splitter.setSecondComponent(new JBScrollPane(new JBTable(stats)));
+
+        JBLabel status = new JBLabel();
+        JBTextField goToRow = new JBTextField(12);
+        goToRow.getEmptyText().setText("Go to row");
+        goToRow.addActionListener(e -> {
+            tabs.setSelectedIndex(0);
+            goToRow(rowTable, rows, goToRow.getText().trim(), status);
+        });
+        JButton sample = new JButton("Sample " + SAMPLE_ROWS + " Rows");
+        sample.addActionListener(e -> {
+            tabs.setSelectedIndex(1);
+            sample(project, file, columns.size(), samples);
+        });
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 2));
+        toolbar.add(new JBLabel(path.getFileName() + " (" + StringUtil.formatFileSize(file.size()) + ")"));
+        toolbar.add(goToRow);
+        toolbar.add(sample);
+        toolbar.add(status);
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(toolbar, BorderLayout.NORTH);
+        panel.add(splitter, BorderLayout.CENTER);
+
+        AtomicBoolean disposed = new AtomicBoolean();
+        Timer refresh = new Timer(REFRESH_MILLIS, null);
+        refresh.addActionListener(e -> {
+            rows.refresh();
+            refreshStats(file, columns, stats);
+            status.setText(file.isScanned()
+                    ? file.rowCount() + " rows"
+                    : "Scanning... " + file.rowCount() + " rows so far (" + 100 * file.scannedBytes() / Math.max(1, file.size()) + " %)");
+            if (file.isScanned()) {
+                refresh.stop();
+            }
+        });
+        refresh.setInitialDelay(0);
+        refresh.start();
+        Disposable disposable = Disposer.newDisposable("Source data " + path);
+        Disposer.register(disposable, () -> {
+            disposed.set(true);
+            refresh.stop();
+            file.close();
+        });
+        SysTestToolWindow.showContent(project, TITLE, panel, disposable);
+
+        new Task.Backgroundable(project, "Scanning " + path.getFileName(), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                try {
+                    file.scan(() -> {
+                        indicator.setFraction((double) file.scannedBytes() / Math.max(1, file.size()));
+                        return indicator.isCanceled() || disposed.get();
+                    });
+                } catch (UncheckedIOException e) {
+                    ApplicationManager.getApplication().invokeLater(() -> {
+                        refresh.stop();
+                        status.setText("Could not read the file: " + e.getCause().getMessage());
+                    }, project.getDisposed());
+                }
+            }
+        }.queue();
+    }
+
+    /// Rows are numbered from 1 like in an editor
+    private static void goToRow(JBTable table, RowTableModel model, String text, JBLabel status) {
+        long row;
+        try {
+            row = Long.parseLong(text) - 1;
+        } catch (NumberFormatException e) {
+            status.setText("Not a row number: " + text);
+            return;
+        }
+        model.refresh();
+        if (row < 0 || row >= model.getRowCount()) {
+            status.setText("Row " + text + " has not been scanned yet, " + model.getRowCount() + " rows so far");
+            return;
+        }
+        table.getSelectionModel().setSelectionInterval((int) row, (int) row);
+        table.scrollRectToVisible(table.getCellRect((int) row, 0, true));
+    }
+
+    private static void sample(Project project, SysTestDataFile file, int columns, DefaultTableModel model) {
+        new Task.Backgroundable(project, "Sampling " + file.path().getFileName(), true) {
+            private List<SysTestDataFile.Sample> sampled = List.of();
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    sampled = file.sample(SAMPLE_ROWS, new Random());
+                } catch (UncheckedIOException ignored) {
+                    /// The view was closed while sampling
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                model.setRowCount(0);
+                for (SysTestDataFile.Sample sample : sampled) {
+                    model.addRow(withFirst(sample.offset(), file.fields(sample.row()), columns));
+                }
+            }
+        }.queue();
+    }
+
+    private static void refreshStats(SysTestDataFile file, List<String> columns, DefaultTableModel model) {
+        List<SysTestDataFile.Stats> stats = file.stats();
+        model.setRowCount(0);
+        for (SysTestDataFile.Stats column : stats) {
+            model.addRow(new Object[]{
+                    column.column() < columns.size() ? columns.get(column.column()) : "Column " + (column.column() + 1),
+                    column.values(),
+                    column.empty(),
+                    column.numeric(),
+                    format(column.min()),
+                    format(column.max()),
+                    format(column.mean()),
+                    column.maxLength()});
+        }
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "";
+        }
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : String.format("%.4g", value);
+    }
+
+    private static String[] columnsWith(String first, List<String> columns) {
+        List<String> names = new ArrayList<>();
+        names.add(first);
+        names.addAll(columns);
+        return names.toArray(String[]::new);
+    }
+
+    private static Object[] withFirst(Object first, String[] fields, int columns) {
+        Object[] row = new Object[columns + 1];
+        row[0] = first;
+        System.arraycopy(fields, 0, row, 1, Math.min(fields.length, columns));
+        return row;
+    }
+
+    private static DefaultTableModel readOnlyModel(String[] columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    /// Reads only the visible rows from the file, the row count grows with the scan
+    private static final class RowTableModel extends AbstractTableModel {
+        private final SysTestDataFile file;
+        private final List<String> columns;
+        private int rows;
+
+        private RowTableModel(SysTestDataFile file, List<String> columns) {
+            this.file = file;
+            this.columns = columns;
+        }
+
+        private void refresh() {
+            int count = (int) Math.min(file.rowCount(), Integer.MAX_VALUE);
+            if (count > rows) {
+                int first = rows;
+                rows = count;
+                fireTableRowsInserted(first, count - 1);
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.size() + 1;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return column == 0 ? "Row" : columns.get(column - 1);
+        }
+
+        /// The row is cached by the file, so splitting it again for every cell is cheap enough for a visible page
+        @Override
+        public Object getValueAt(int row, int column) {
+            if (column == 0) {
+                return row + 1;
+            }
+            String[] fields = file.fields(file.row(row));
+            return column - 1 < fields.length ? fields[column - 1] : "";
+        }
+    }
+}
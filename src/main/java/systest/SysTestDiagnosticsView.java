@@ -0,0 +1,138 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+/// The "Diagnostics" tab of the NES-Systest-Runner tool window: the SysTestMetrics of the plugin's own hot paths,
+/// e.g. marker passes, saving files, resolving the launch and the click-to-process-start latency.
+/// The table is refreshed every second and the metrics can be exported as JSON, e.g. to attach them to a report
+public final class SysTestDiagnosticsView {
+    public static final String TITLE = "Diagnostics";
+    private static final int REFRESH_MILLIS = 1000;
+    private static final String[] COLUMNS = {"Metric", "Count", "Mean", "p50", "p95", "p99", "Max"};
+
+    private SysTestDiagnosticsView() {
+    }
+
+    public static void show(Project project) {
+        DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JBTable table = new JBTable(model);
+        JBLabel latency = new JBLabel();
+        latency.setBorder(JBUI.Borders.empty(4, 8));
+        Runnable refresh = () -> {
+            fill(model, SysTestMetrics.GLOBAL);
+            latency.setText("<html>" + SysTestLaunchCache.getInstance(project).getLatency().summary().replace("\n", "<br>") + "</html>");
+        };
+        refresh.run();
+
+        JButton export = new JButton("Export as JSON...");
+        export.addActionListener(e -> export(project));
+        JButton reset = new JButton("Reset");
+        reset.addActionListener(e -> {
+            SysTestMetrics.GLOBAL.reset();
+            refresh.run();
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttons.add(export);
+        buttons.add(reset);
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(buttons, BorderLayout.NORTH);
+        header.add(latency, BorderLayout.CENTER);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(header, BorderLayout.NORTH);
+        panel.add(new JBScrollPane(table), BorderLayout.CENTER);
+
+        Timer timer = new Timer(REFRESH_MILLIS, e -> refresh.run());
+        timer.start();
+        Disposable disposable = Disposer.newDisposable(TITLE);
+        Disposer.register(disposable, timer::stop);
+        SysTestToolWindow.showContent(project, TITLE, panel, disposable);
+    }
+
+    /// Replaces the rows in place, so that the selection survives a refresh as long as no metric is added
+    private static void fill(DefaultTableModel model, SysTestMetrics metrics) {
+        int row = 0;
+        for (SysTestMetrics.Stats stats : metrics.histogramStats()) {
+            boolean nanos = stats.unit() == SysTestMetrics.Unit.NANOSECONDS;
+            row = setRow(model, row, new Object[]{
+                    stats.name() + (nanos ? " (ms)" : ""),
+                    stats.count(),
+                    format(stats.mean(), nanos),
+                    format(stats.p50(), nanos),
+                    format(stats.p95(), nanos),
+                    format(stats.p99(), nanos),
+                    format(stats.max(), nanos)});
+        }
+        for (Map.Entry<String, Long> counter : metrics.counterValues().entrySet()) {
+            row = setRow(model, row, new Object[]{counter.getKey(), counter.getValue(), "", "", "", "", ""});
+        }
+        model.setRowCount(row);
+    }
+
+    private static int setRow(DefaultTableModel model, int row, Object[] values) {
+        if (row >= model.getRowCount()) {
+            model.addRow(values);
+            return row + 1;
+        }
+        for (int column = 0; column < values.length; column++) {
+            if (!values[column].equals(model.getValueAt(row, column))) {
+                model.setValueAt(values[column], row, column);
+            }
+        }
+        return row + 1;
+    }
+
+    private static String format(long value, boolean nanos) {
+        return nanos ? String.format("%.2f", value / 1e6) : Long.toString(value);
+    }
+
+    private static void export(Project project) {
+        VirtualFileWrapper target = FileChooserFactory.getInstance()
+                .createSaveFileDialog(new FileSaverDescriptor("Export Diagnostics", "Saves the plugin's metrics as JSON", "json"), project)
+                .save("nes-systest-diagnostics.json");
+        if (target == null) {
+            return;
+        }
+        try {
+            Files.writeString(target.getFile().toPath(), SysTestMetrics.GLOBAL.toJson(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Messages.showErrorDialog(project, "Could not export the diagnostics: " + e.getMessage(), "NES-Systest-Runner");
+        }
+    }
+}
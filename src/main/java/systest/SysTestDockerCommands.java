@@ -0,0 +1,98 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/// Arguments of the docker CLI calls that manage a warm container, see SysTestWarmContainers.
+/// The configured docker command has the form '<docker CLI> run <options> <image>', e.g.
+/// 'docker run -v /home/user/nebulastream:/home/user/nebulastream nebulastream/nes-development:latest'.
+/// Everything in front of 'run' is used as the CLI for all calls, so that e.g. 'sudo docker', 'podman'
+/// or a shim script that fakes docker work the same way.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestDockerCommands {
+    private SysTestDockerCommands() {
+    }
+
+    /// Starts the container detached, kept alive by 'sleep infinity' instead of the image's entrypoint
+    public static List<String> run(List<String> dockerCommand, String containerName) {
+        int runIndex = runIndex(dockerCommand);
+        List<String> arguments = new ArrayList<>(dockerCommand.subList(0, runIndex + 1));
+        arguments.addAll(List.of("-d", "--rm", "--name", containerName, "--entrypoint", "sleep"));
+        arguments.addAll(dockerCommand.subList(runIndex + 1, dockerCommand.size()));
+        arguments.add("infinity");
+        return arguments;
+    }
+
+    /// Runs the executable inside the running container
+    public static List<String> exec(List<String> dockerCommand,
+                                    String containerName,
+                                    String workingDirectory,
+                                    Map<String, String> environment,
+                                    String executable,
+                                    List<String> parameters) {
+        List<String> arguments = new ArrayList<>(cli(dockerCommand));
+        arguments.add("exec");
+        arguments.add("-w");
+        arguments.add(workingDirectory);
+        environment.forEach((name, value) -> {
+            arguments.add("-e");
+            arguments.add(name + "=" + value);
+        });
+        arguments.add(containerName);
+        arguments.add(executable);
+        arguments.addAll(parameters);
+        return arguments;
+    }
+
+    /// Stops and removes the container
+    public static List<String> remove(List<String> dockerCommand, String containerName) {
+        List<String> arguments = new ArrayList<>(cli(dockerCommand));
+        arguments.addAll(List.of("rm", "-f", containerName));
+        return arguments;
+    }
+
+    /// A valid container name, e.g. 'nes-systest-Debug-Docker-1a2b3c'
+    public static String containerName(String profileName, String projectHash) {
+        return "nes-systest-" + profileName.replaceAll("[^a-zA-Z0-9_.-]", "-") + "-" + projectHash;
+    }
+
+    /// Prints 'true' if the container is running; fails if there is no such container
+    public static List<String> inspectRunning(List<String> dockerCommand, String containerName) {
+        List<String> arguments = new ArrayList<>(cli(dockerCommand));
+        arguments.addAll(List.of("inspect", "-f", "{{.State.Running}}", containerName));
+        return arguments;
+    }
+
+    /// Whether the output of inspectRunning reports a running container
+    public static boolean isRunning(int exitCode, String stdout) {
+        return exitCode == 0 && stdout.trim().equals("true");
+    }
+
+    private static List<String> cli(List<String> dockerCommand) {
+        return dockerCommand.subList(0, runIndex(dockerCommand));
+    }
+
+    private static int runIndex(List<String> dockerCommand) {
+        int runIndex = dockerCommand.indexOf("run");
+        if (runIndex < 1) {
+            throw new IllegalArgumentException("The docker command must have the form '<docker CLI> run <options> <image>', "
+                    + "e.g. 'docker run -v /path/to/nebulastream:/path/to/nebulastream image:tag'");
+        }
+        return runIndex;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderEx;
+import org.jetbrains.annotations.NotNull;
+
+/// Caches the SysTestBoundaryIndex of a document in its user data, keyed by the document's modification stamp.
+/// The index is built once when a system test file is first scanned; afterward, every document change only rescans
+/// the edited lines. If an update was missed, the stamp does not match anymore and the index is rebuilt.
+/// Registered as 'editorFactoryDocumentListener', so that it sees every change of every document
+public class SysTestDocumentIndex implements DocumentListener {
+    private static final Key<Holder> INDEX_KEY = Key.create("systest.boundary.index");
+
+    private static final class Holder {
+        private SysTestBoundaryIndex index;
+        private long modificationStamp = -1;
+    }
+
+    /// Returns the up-to-date boundaries of the document, building them on first access
+    public static SysTestBoundaryIndex getBoundaries(@NotNull Document document) {
+        Holder holder = document.getUserData(INDEX_KEY);
+        if (holder == null) {
+            holder = ((UserDataHolderEx) document).putUserDataIfAbsent(INDEX_KEY, new Holder());
+        }
+        synchronized (holder) {
+            long stamp = document.getModificationStamp();
+            if (holder.index == null || holder.modificationStamp != stamp) {
+                holder.index = SysTestBoundaryIndex.build(document.getImmutableCharSequence());
+                holder.modificationStamp = stamp;
+            }
+            return holder.index;
+        }
+    }
+
+    /// Only documents that have already been scanned carry a holder, all other documents return immediately
+    @Override
+    public void documentChanged(@NotNull DocumentEvent event) {
+        Document document = event.getDocument();
+        Holder holder = document.getUserData(INDEX_KEY);
+        if (holder == null) {
+            return;
+        }
+        synchronized (holder) {
+            if (holder.index == null || holder.modificationStamp != event.getOldTimeStamp()) {
+                /// We missed a change, the next access rebuilds the index
+                holder.index = null;
+                return;
+            }
+            holder.index.update(
+                    document.getImmutableCharSequence(),
+                    event.getOffset(),
+                    event.getOldLength(),
+                    event.getNewLength());
+            holder.modificationStamp = document.getModificationStamp();
+        }
+    }
+}
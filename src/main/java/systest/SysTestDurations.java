@@ -0,0 +1,97 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@State(
+        name = "systest.SysTestDurations",
+        storages = @Storage(StoragePathMacros.WORKSPACE_FILE)
+)
+
+/// The duration of the last run of every system test, keyed by SysTestTarget.hostLocation()
+/// Used to order the shards of a parallel run longest-first. The shards record their durations concurrently,
+/// the serializer gets a copy. Durations of test files that no longer exist are dropped in the background after the
+/// state is loaded, so that loading does not stat every test file on project open
+public class SysTestDurations implements PersistentStateComponent<SysTestDurations.DurationsState> {
+
+    public static class DurationsState {
+        public Map<String, Long> durations = new HashMap<>();
+    }
+
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+    public static SysTestDurations getInstance(Project project) {
+        return project.getService(SysTestDurations.class);
+    }
+
+    @Override
+    public DurationsState getState() {
+        DurationsState state = new DurationsState();
+        state.durations = new HashMap<>(durations);
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull DurationsState state) {
+        durations.clear();
+        state.durations.forEach((location, durationMillis) -> {
+            if (location != null && durationMillis != null) {
+                durations.put(location, durationMillis);
+            }
+        });
+        ApplicationManager.getApplication().executeOnPooledThread(this::pruneDeletedFiles);
+    }
+
+    /// Drops the durations of test files that no longer exist or whose location is malformed
+    private void pruneDeletedFiles() {
+        durations.keySet().removeIf(location -> {
+            try {
+                return !Files.isRegularFile(Path.of(testFile(location)));
+            } catch (InvalidPathException e) {
+                return true;
+            }
+        });
+    }
+
+    /// The duration in milliseconds of the last run, or -1 if the test has not been run yet
+    public long getDuration(SysTestTarget target) {
+        return durations.getOrDefault(target.hostLocation(), -1L);
+    }
+
+    public void setDuration(SysTestTarget target, long durationMillis) {
+        durations.put(target.hostLocation(), durationMillis);
+    }
+
+    /// The file of a host location, e.g. '/path/to/Filter.test' of '/path/to/Filter.test:03'
+    private static String testFile(String location) {
+        int separator = location.lastIndexOf(':');
+        return separator > 0 && separator < location.length() - 1 && location.substring(separator + 1).chars().allMatch(Character::isDigit)
+                ? location.substring(0, separator)
+                : location;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.execution.testframework.TestConsoleProperties;
+import com.intellij.execution.testframework.sm.ServiceMessageBuilder;
+import com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter;
+import com.intellij.openapi.util.Key;
+import jetbrains.buildServer.messages.serviceMessages.ServiceMessageVisitor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+
+/// Converts systest's stdout into test events of the SMTestRunner tree while the output streams in.
+/// Every line is parsed on its own by SysTestOutputParser, nothing of the log is kept except the state of the
+/// last failed test, whose following output (e.g. the result mismatch) is attached to it until the next result.
+/// The output attached to a single test is capped, so that huge mismatch dumps do not end up on the heap
+public class SysTestEventsConverter extends OutputToGeneralTestEventsConverter {
+    public static final int MAX_OUTPUT_LINES_PER_TEST = 1000;
+
+    private ServiceMessageVisitor visitor;
+    private String pendingFailedTest;
+    private long pendingFailedDuration;
+    private long lastResultNanos = System.nanoTime();
+    private int outputLines;
+    private final @Nullable ObjLongConsumer<SysTestOutputParser.Result> resultListener;
+
+    /// 'resultListener' is notified of every reported result together with its duration in milliseconds
+    public SysTestEventsConverter(@NotNull String testFrameworkName,
+                                  @NotNull TestConsoleProperties consoleProperties,
+                                  @Nullable ObjLongConsumer<SysTestOutputParser.Result> resultListener) {
+        super(testFrameworkName, consoleProperties);
+        this.resultListener = resultListener;
+    }
+
+    @Override
+    protected synchronized boolean processServiceMessages(@NotNull String text,
+                                                          @NotNull Key<?> outputType,
+                                                          @NotNull ServiceMessageVisitor visitor) throws ParseException {
+        this.visitor = visitor;
+        if (text.startsWith("##teamcity[")) {
+            return super.processServiceMessages(text, outputType, visitor);
+        }
+
+        SysTestOutputParser.Result result = SysTestOutputParser.parseLine(text.strip());
+        if (result == null) {
+            /// Plain output, swallow it once the current test has printed too much
+            return ++outputLines > MAX_OUTPUT_LINES_PER_TEST;
+        }
+
+        finishPendingFailedTest();
+        long now = System.nanoTime();
+        /// systest does not always report durations, the time since the previous result is the next best thing
+        long durationMillis = result.durationMillis() >= 0
+                ? result.durationMillis()
+                : TimeUnit.NANOSECONDS.toMillis(now - lastResultNanos);
+        lastResultNanos = now;
+        outputLines = 0;
+        if (resultListener != null) {
+            resultListener.accept(result, durationMillis);
+        }
+
+        String name = result.testName();
+        dispatch(ServiceMessageBuilder.testStarted(name)
+                .addAttribute("locationHint", SysTestLocator.locationHint(result)));
+        switch (result.status()) {
+            case PASSED -> dispatch(ServiceMessageBuilder.testFinished(name)
+                    .addAttribute("duration", String.valueOf(durationMillis)));
+            case SKIPPED -> {
+                dispatch(ServiceMessageBuilder.testIgnored(name));
+                dispatch(ServiceMessageBuilder.testFinished(name));
+            }
+            case FAILED -> {
+                /// The failure details follow the result line, the test is finished with the next result
+                dispatch(ServiceMessageBuilder.testFailed(name).addAttribute("message", "FAILED"));
+                pendingFailedTest = name;
+                pendingFailedDuration = durationMillis;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void flushBufferOnProcessTermination(int exitCode) {
+        super.flushBufferOnProcessTermination(exitCode);
+        try {
+            finishPendingFailedTest();
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void finishPendingFailedTest() throws ParseException {
+        if (pendingFailedTest == null || visitor == null) {
+            return;
+        }
+        if (outputLines > MAX_OUTPUT_LINES_PER_TEST) {
+            dispatch(ServiceMessageBuilder.testStdErr(pendingFailedTest)
+                    .addAttribute("out", "... " + (outputLines - MAX_OUTPUT_LINES_PER_TEST) + " more lines truncated\n"));
+        }
+        dispatch(ServiceMessageBuilder.testFinished(pendingFailedTest)
+                .addAttribute("duration", String.valueOf(pendingFailedDuration)));
+        pendingFailedTest = null;
+    }
+
+    private void dispatch(ServiceMessageBuilder message) throws ParseException {
+        super.processServiceMessages(message.toString(), ProcessOutputTypes.STDOUT, visitor);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.ExecutionListener;
+import com.intellij.execution.configurations.RunConfiguration;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.ObjLongConsumer;
+
+/// Observes the runs of the 'systest_plugin' configuration, i.e. all runs started from the gutter icons
+public class SysTestExecutionListener implements ExecutionListener {
+    private static final Logger LOG = Logger.getInstance(SysTestExecutionListener.class);
+
+    private final Project project;
+
+    public SysTestExecutionListener(Project project) {
+        this.project = project;
+    }
+
+    /// Shows the output of the run as test tree, the tree has to be attached before the process starts.
+    /// The durations of the reported tests are recorded in the SysTestPerformanceHistory, failures in SysTestLastRun
+    @Override
+    public void processStarting(@NotNull String executorId,
+                                @NotNull ExecutionEnvironment env,
+                                @NotNull ProcessHandler handler) {
+        if (!"systest_plugin".equals(env.getRunProfile().getName())
+                || !(env.getRunProfile() instanceof RunConfiguration configuration)) {
+            return;
+        }
+        SysTestResultCacheService.getInstance(project).processStarting(env, handler);
+        ObjLongConsumer<SysTestOutputParser.Result> historyRecorder = SysTestPerformanceHistory.getInstance(project).createRecorder(env);
+        ObjLongConsumer<SysTestOutputParser.Result> lastRunRecorder = SysTestLastRun.getInstance(project).createRecorder(env, handler);
+        try {
+            SysTestResultsView.attach(project, configuration, env.getExecutor(), handler, both(historyRecorder, lastRunRecorder));
+        } catch (ExecutionException e) {
+            LOG.warn("Could not create the test tree of the systest run", e);
+        }
+    }
+
+    @Override
+    public void processStartScheduled(@NotNull String executorId, @NotNull ExecutionEnvironment env) {
+        if ("systest_plugin".equals(env.getRunProfile().getName())) {
+            SysTestLaunchCache.getInstance(project).getLatency().scheduled(System.nanoTime());
+        }
+    }
+
+    /// Reports the latency from the click on the gutter icon until the process has been started
+    @Override
+    public void processStarted(@NotNull String executorId,
+                               @NotNull ExecutionEnvironment env,
+                               @NotNull ProcessHandler handler) {
+        if (!"systest_plugin".equals(env.getRunProfile().getName())) {
+            return;
+        }
+        SysTestWatchMode.getInstance(project).processStarted(handler);
+        SysTestBuildTracker.getInstance(project).processStarted();
+        SysTestLaunchLatency latency = SysTestLaunchCache.getInstance(project).getLatency();
+        SysTestLaunchLatency.Measurement measurement = latency.started(System.nanoTime());
+        if (measurement != null) {
+            SysTestMetrics.GLOBAL.timer(SysTestMetrics.CLICK_TO_SCHEDULED).record(measurement.clickToScheduledNanos());
+            SysTestMetrics.GLOBAL.timer(SysTestMetrics.CLICK_TO_PROCESS_START).record(measurement.clickToStartedNanos());
+            LOG.info("systest launch: " + measurement + "\n" + latency.summary());
+        }
+    }
+
+    @Override
+    public void processTerminated(@NotNull String executorId,
+                                  @NotNull ExecutionEnvironment env,
+                                  @NotNull ProcessHandler handler,
+                                  int exitCode) {
+        if (!"systest_plugin".equals(env.getRunProfile().getName())) {
+            return;
+        }
+        SysTestResultCacheService.getInstance(project).launchFinished(handler, exitCode);
+        SysTestLastRun.getInstance(project).launchFinished(handler, exitCode);
+        SysTestWatchMode.getInstance(project).processFinished(handler);
+        SysTestLaunchPipeline.getInstance(project).processFinished(env);
+    }
+
+    /// E.g. the before-run build failed
+    @Override
+    public void processNotStarted(@NotNull String executorId, @NotNull ExecutionEnvironment env) {
+        if ("systest_plugin".equals(env.getRunProfile().getName())) {
+            SysTestWatchMode.getInstance(project).processFinished(null);
+            SysTestBuildTracker.getInstance(project).processNotStarted();
+            SysTestLaunchPipeline.getInstance(project).processFinished(env);
+        }
+    }
+
+    private static @Nullable ObjLongConsumer<SysTestOutputParser.Result> both(
+            @Nullable ObjLongConsumer<SysTestOutputParser.Result> first,
+            @Nullable ObjLongConsumer<SysTestOutputParser.Result> second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        return (result, durationMillis) -> {
+            first.accept(result, durationMillis);
+            second.accept(result, durationMillis);
+        };
+    }
+}
@@ -0,0 +1,142 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/// Project-wide index of all system tests in '.test', '.test.disabled' and '.test_disabled' files.
+/// Every test is stored under its systest name 'Filter.test:03', so that tests can be found via Goto/Search Everywhere
+/// and batches of tests can be selected without opening any file
+public class SysTestFileIndex extends FileBasedIndexExtension<String, SysTestIndexEntry> {
+    public static final ID<String, SysTestIndexEntry> NAME = ID.create("systest.SysTestFileIndex");
+
+    @Override
+    public @NotNull ID<String, SysTestIndexEntry> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, SysTestIndexEntry, FileContent> getIndexer() {
+        return inputData -> {
+            /// Files without a registered file type are considered binary, their content is still plain text
+            CharSequence text = inputData.getFileType().isBinary()
+                    ? new String(inputData.getContent(), StandardCharsets.UTF_8)
+                    : inputData.getContentAsText();
+            return SysTestIndexEntry.scan(inputData.getFileName(), text);
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<SysTestIndexEntry> getValueExternalizer() {
+        return new DataExternalizer<>() {
+            @Override
+            public void save(@NotNull DataOutput out, SysTestIndexEntry value) throws IOException {
+                DataInputOutputUtil.writeINT(out, value.ordinal());
+                DataInputOutputUtil.writeINT(out, value.offset());
+                IOUtil.writeUTF(out, value.firstQueryLine());
+            }
+
+            @Override
+            public SysTestIndexEntry read(@NotNull DataInput in) throws IOException {
+                int ordinal = DataInputOutputUtil.readINT(in);
+                int offset = DataInputOutputUtil.readINT(in);
+                return new SysTestIndexEntry(ordinal, offset, IOUtil.readUTF(in));
+            }
+        };
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return file -> !file.isDirectory() && SysTestLineMarkerProvider.isSysTestFile(file.getName());
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /// The name of a test as used by systest and as shown in Goto/Search Everywhere, e.g. 'Filter.test:03'
+    public static String testName(String fileName, int ordinal) {
+        return SysTestIndexEntry.testName(fileName, ordinal);
+    }
+
+    /// Extensions of system test files as FilenameIndex sees them, 'disabled' also matches other files
+    private static final List<String> EXTENSIONS = List.of("test", "test_disabled", "disabled");
+
+    /// All test files below 'directory' that contain at least one test, ordered by path.
+    /// The files are enumerated by extension within the directory scope, only their own index entries are read
+    public static List<VirtualFile> getTestFilesUnder(Project project, VirtualFile directory) {
+        GlobalSearchScope scope = GlobalSearchScopesCore.directoryScope(project, directory, true);
+        FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        List<VirtualFile> result = new ArrayList<>();
+        for (String extension : EXTENSIONS) {
+            for (VirtualFile file : FilenameIndex.getAllFilesByExt(project, extension, scope)) {
+                if (SysTestLineMarkerProvider.isSysTestFile(file.getName())
+                        && !fileBasedIndex.getFileData(NAME, file, project).isEmpty()) {
+                    result.add(file);
+                }
+            }
+        }
+        result.sort(Comparator.comparing(VirtualFile::getPath));
+        return result;
+    }
+
+    /// All indexed tests of a single file, ordered by ordinal
+    public static List<SysTestIndexEntry> getTests(Project project, VirtualFile file) {
+        List<SysTestIndexEntry> tests = new ArrayList<>(FileBasedIndex.getInstance().getFileData(NAME, file, project).values());
+        tests.sort(Comparator.comparingInt(SysTestIndexEntry::ordinal));
+        return tests;
+    }
+
+    /// One target per indexed test of a test file, or of all enabled '.test' files below a directory
+    public static List<SysTestTarget> getTestTargets(Project project, VirtualFile fileOrDirectory) {
+        List<VirtualFile> files = fileOrDirectory.isDirectory()
+                ? getTestFilesUnder(project, fileOrDirectory).stream().filter(file -> file.getName().endsWith(".test")).toList()
+                : List.of(fileOrDirectory);
+        List<SysTestTarget> targets = new ArrayList<>();
+        for (VirtualFile file : files) {
+            for (SysTestIndexEntry test : getTests(project, file)) {
+                targets.add(new SysTestTarget(file, test.ordinal()));
+            }
+        }
+        return targets;
+    }
+}
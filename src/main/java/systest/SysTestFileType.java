@@ -0,0 +1,49 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+
+/// The file type of '.test', '.test_disabled' and '.test.disabled' files, see plugin.xml
+public final class SysTestFileType extends LanguageFileType {
+    public static final SysTestFileType INSTANCE = new SysTestFileType();
+
+    private SysTestFileType() {
+        super(SysTestLanguage.INSTANCE);
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return "NES-Systest";
+    }
+
+    @Override
+    public @NotNull String getDescription() {
+        return "NebulaStream system test";
+    }
+
+    @Override
+    public @NotNull String getDefaultExtension() {
+        return "test";
+    }
+
+    @Override
+    public Icon getIcon() {
+        return AllIcons.FileTypes.Text;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/// The samples of a profiled system test as collapsed stacks, i.e. 'command;root;...;leaf' with their sample count,
+/// and the frame tree and hottest frames derived from them for the flame graph, see SysTestFlameGraphView.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestFlameGraph {
+    private SysTestFlameGraph() {
+    }
+
+    /// Collapses 'perf script' output line by line: a sample is a header line, e.g.
+    /// 'systest 4711/4712 [003] 1234.567890: 1010101 cpu-clock:u:', followed by one indented frame per line, leaf first,
+    /// e.g. '        55d0c0ffee12 NES::Runtime::Execution::scan+0x1f (/path/to/libnes.so)', and an empty line.
+    /// Lines that are already collapsed, e.g. 'main;run;scan 42', are counted as they are, so that any profiler that
+    /// prints collapsed stacks can be used as well
+    public static final class Collapser {
+        private final Map<String, Long> stacks = new HashMap<>();
+        private final List<String> frames = new ArrayList<>();
+        private String command;
+
+        public void accept(String line) {
+            if (line.isBlank()) {
+                flushSample();
+                return;
+            }
+            if (Character.isWhitespace(line.charAt(0))) {
+                if (command != null) {
+                    frames.add(frameName(line.trim()));
+                }
+                return;
+            }
+            flushSample();
+            int lastSpace = line.lastIndexOf(' ');
+            if (lastSpace > 0 && isNumber(line, lastSpace + 1, line.length())) {
+                stacks.merge(line.substring(0, lastSpace).trim(), Long.parseLong(line.substring(lastSpace + 1)), Long::sum);
+                return;
+            }
+            command = commandName(line);
+        }
+
+        /// The collapsed stacks of all samples so far
+        public Map<String, Long> finish() {
+            flushSample();
+            return stacks;
+        }
+
+        private void flushSample() {
+            if (command != null && !frames.isEmpty()) {
+                StringBuilder stack = new StringBuilder(command);
+                for (int i = frames.size() - 1; i >= 0; i--) {
+                    stack.append(';').append(frames.get(i));
+                }
+                stacks.merge(stack.toString(), 1L, Long::sum);
+            }
+            command = null;
+            frames.clear();
+        }
+    }
+
+    /// A frame of the tree, its value is the number of samples of all stacks through it
+    public static final class Node {
+        private final String name;
+        private final Node parent;
+        private final Map<String, Node> children = new HashMap<>();
+        private long value;
+        private List<Node> sortedChildren;
+
+        private Node(String name, Node parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public Node parent() {
+            return parent;
+        }
+
+        public long value() {
+            return value;
+        }
+
+        /// Sorted by name like a classic flame graph, so that the same stacks always end up at the same position
+        public List<Node> children() {
+            if (sortedChildren == null) {
+                sortedChildren = new ArrayList<>(children.values());
+                sortedChildren.sort(Comparator.comparing(Node::name));
+            }
+            return sortedChildren;
+        }
+
+        public int depth() {
+            int depth = 0;
+            for (Node node : children()) {
+                depth = Math.max(depth, node.depth() + 1);
+            }
+            return depth;
+        }
+    }
+
+    /// selfSamples counts the samples with the frame as leaf, totalSamples the samples with the frame anywhere on the
+    /// stack, recursive frames count once per sample
+    public record Frame(String name, long selfSamples, long totalSamples) {
+    }
+
+    /// The frame tree below a root "all" that holds every sample
+    public static Node tree(Map<String, Long> stacks) {
+        Node root = new Node("all", null);
+        for (Map.Entry<String, Long> stack : stacks.entrySet()) {
+            Node node = root;
+            root.value += stack.getValue();
+            for (String frame : stack.getKey().split(";")) {
+                Node parent = node;
+                node = parent.children.computeIfAbsent(frame, name -> new Node(name, parent));
+                node.value += stack.getValue();
+            }
+        }
+        return root;
+    }
+
+    /// The frames with the most self samples, e.g. the loops an operator spends its time in
+    public static List<Frame> hottest(Map<String, Long> stacks, int limit) {
+        Map<String, long[]> samples = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (Map.Entry<String, Long> stack : stacks.entrySet()) {
+            String[] frames = stack.getKey().split(";");
+            seen.clear();
+            for (String frame : frames) {
+                if (seen.add(frame)) {
+                    samples.computeIfAbsent(frame, name -> new long[2])[1] += stack.getValue();
+                }
+            }
+            samples.get(frames[frames.length - 1])[0] += stack.getValue();
+        }
+        List<Frame> frames = new ArrayList<>();
+        samples.forEach((name, counts) -> frames.add(new Frame(name, counts[0], counts[1])));
+        frames.sort(Comparator.comparingLong(Frame::selfSamples).thenComparingLong(Frame::totalSamples).reversed()
+                .thenComparing(Frame::name));
+        return Collections.unmodifiableList(frames.subList(0, Math.min(limit, frames.size())));
+    }
+
+    /// 'addr symbol+0x1f (module)' becomes 'symbol', an unknown symbol becomes '[module]'
+    static String frameName(String frame) {
+        int symbolStart = frame.indexOf(' ');
+        String symbol = symbolStart < 0 ? frame : frame.substring(symbolStart + 1);
+        String module = "";
+        int moduleStart = symbol.lastIndexOf(" (");
+        if (moduleStart >= 0 && symbol.endsWith(")")) {
+            module = symbol.substring(moduleStart + 2, symbol.length() - 1);
+            symbol = symbol.substring(0, moduleStart);
+        }
+        int offset = symbol.lastIndexOf("+0x");
+        if (offset > 0) {
+            symbol = symbol.substring(0, offset);
+        }
+        if (symbol.isEmpty() || symbol.equals("[unknown]")) {
+            return "[" + module.substring(module.lastIndexOf('/') + 1) + "]";
+        }
+        return symbol.replace(';', ':');
+    }
+
+    /// The command of a sample header is everything in front of its pid, which may be followed by '/tid'
+    static String commandName(String header) {
+        String[] tokens = header.trim().split("\\s+");
+        StringBuilder command = new StringBuilder(tokens[0]);
+        for (int i = 1; i < tokens.length; i++) {
+            String token = tokens[i];
+            int slash = token.indexOf('/');
+            if (isNumber(token, 0, slash < 0 ? token.length() : slash)) {
+                break;
+            }
+            command.append('_').append(token);
+        }
+        return command.toString().replace(';', ':');
+    }
+
+    private static boolean isNumber(String text, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Splitter;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Map;
+
+/// The "Flame Graph" tab of the NES-Systest-Runner tool window, opened by the profile gutter marker:
+/// the collapsed stacks of a profiled test as a flame graph, i.e. one box per frame with a width proportional to its
+/// samples and its callees stacked on top, next to a table of the frames with the most self samples.
+/// Click a frame to zoom into it, click the base frame to zoom out again
+public final class SysTestFlameGraphView {
+    public static final String TITLE = "Flame Graph";
+    private static final int HOTTEST_FRAMES = 100;
+    private static final String[] COLUMNS = {"Frame", "Self", "Self %", "Total", "Total %"};
+
+    private SysTestFlameGraphView() {
+    }
+
+    public static void show(Project project, String testName, Map<String, Long> stacks) {
+        SysTestFlameGraph.Node root = SysTestFlameGraph.tree(stacks);
+
+        DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 0 ? String.class : column % 2 == 1 ? Long.class : String.class;
+            }
+        };
+        for (SysTestFlameGraph.Frame frame : SysTestFlameGraph.hottest(stacks, HOTTEST_FRAMES)) {
+            model.addRow(new Object[]{
+                    frame.name(),
+                    frame.selfSamples(),
+                    percent(frame.selfSamples(), root.value()),
+                    frame.totalSamples(),
+                    percent(frame.totalSamples(), root.value())});
+        }
+        JBTable table = new JBTable(model);
+        table.setAutoCreateRowSorter(true);
+
+        FlameGraph graph = new FlameGraph(root);
+        JPanel graphPanel = new JPanel(new BorderLayout());
+        graphPanel.add(new JBLabel(testName + ": " + root.value() + " samples"), BorderLayout.NORTH);
+        graphPanel.add(new JBScrollPane(graph), BorderLayout.CENTER);
+        graphPanel.setBorder(JBUI.Borders.empty(4));
+
+        Splitter splitter = new Splitter(true, 0.65f);
+        splitter.setFirstComponent(graphPanel);
+        splitter.setSecondComponent(new JBScrollPane(table));
+        SysTestToolWindow.showContent(project, TITLE, splitter, Disposer.newDisposable());
+    }
+
+    private static String percent(long samples, long total) {
+        return String.format("%.1f %%", 100.0 * samples / Math.max(1, total));
+    }
+
+    /// Paints the frames bottom-up from the zoomed frame, which spans the whole width.
+    /// Its ancestors are painted below it with the full width as well, so that a click on them zooms out again
+    private static final class FlameGraph extends JComponent {
+        private static final int ROW_HEIGHT = 18;
+        private static final int MIN_WIDTH = 2;
+
+        private final SysTestFlameGraph.Node root;
+        private final int maxDepth;
+        private SysTestFlameGraph.Node zoomed;
+
+        private FlameGraph(SysTestFlameGraph.Node root) {
+            this.root = root;
+            this.zoomed = root;
+            this.maxDepth = root.depth() + 1;
+            setToolTipText("");
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    SysTestFlameGraph.Node node = nodeAt(e.getPoint());
+                    if (node != null) {
+                        zoomed = node == zoomed && node.parent() != null ? node.parent() : node;
+                        repaint();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(JBUI.scale(400), JBUI.scale(ROW_HEIGHT) * maxDepth);
+        }
+
+        @Override
+        public String getToolTipText(MouseEvent event) {
+            SysTestFlameGraph.Node node = nodeAt(event.getPoint());
+            if (node == null) {
+                return null;
+            }
+            return node.name() + ": " + node.value() + " samples (" + percent(node.value(), root.value()) + ")";
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g.create();
+            try {
+                UIUtil.applyRenderingHints(g2);
+                g2.setFont(JBUI.Fonts.label(11));
+                int rowHeight = JBUI.scale(ROW_HEIGHT);
+                int level = 0;
+                for (SysTestFlameGraph.Node ancestor = zoomed; ancestor != null; ancestor = ancestor.parent()) {
+                    level++;
+                }
+                int baseLevel = level - 1;
+                for (SysTestFlameGraph.Node ancestor = zoomed.parent(); ancestor != null; ancestor = ancestor.parent()) {
+                    level--;
+                    paintFrame(g2, ancestor, 0, getWidth(), level - 1, rowHeight);
+                }
+                paintSubtree(g2, zoomed, 0, getWidth(), baseLevel, rowHeight);
+            } finally {
+                g2.dispose();
+            }
+        }
+
+        private void paintSubtree(Graphics2D g, SysTestFlameGraph.Node node, double x, double width, int level, int rowHeight) {
+            paintFrame(g, node, x, width, level, rowHeight);
+            double childX = x;
+            for (SysTestFlameGraph.Node child : node.children()) {
+                double childWidth = width * child.value() / node.value();
+                if (childWidth >= MIN_WIDTH) {
+                    paintSubtree(g, child, childX, childWidth, level + 1, rowHeight);
+                }
+                childX += childWidth;
+            }
+        }
+
+        private void paintFrame(Graphics2D g, SysTestFlameGraph.Node node, double x, double width, int level, int rowHeight) {
+            int left = (int) x;
+            int boxWidth = Math.max(1, (int) (x + width) - left - 1);
+            int top = getHeight() - (level + 1) * rowHeight;
+            g.setColor(colorOf(node));
+            g.fillRect(left, top, boxWidth, rowHeight - 1);
+            FontMetrics metrics = g.getFontMetrics();
+            if (boxWidth > metrics.charWidth('m') * 3) {
+                g.setColor(JBColor.BLACK);
+                String label = fit(node.name(), metrics, boxWidth - 4);
+                g.drawString(label, left + 2, top + (rowHeight + metrics.getAscent() - metrics.getDescent()) / 2);
+            }
+        }
+
+        /// The frame under the point, found by walking down from the zoomed frame like paint does
+        private SysTestFlameGraph.Node nodeAt(Point point) {
+            int rowHeight = JBUI.scale(ROW_HEIGHT);
+            int level = (getHeight() - point.y) / rowHeight;
+            int baseLevel = -1;
+            for (SysTestFlameGraph.Node ancestor = zoomed; ancestor != null; ancestor = ancestor.parent()) {
+                baseLevel++;
+            }
+            if (level < baseLevel) {
+                SysTestFlameGraph.Node ancestor = zoomed;
+                for (int i = baseLevel; i > level; i--) {
+                    ancestor = ancestor.parent();
+                }
+                return ancestor;
+            }
+            SysTestFlameGraph.Node node = zoomed;
+            double x = 0;
+            double width = getWidth();
+            for (int i = baseLevel; i < level; i++) {
+                SysTestFlameGraph.Node hit = null;
+                double childX = x;
+                for (SysTestFlameGraph.Node child : node.children()) {
+                    double childWidth = width * child.value() / node.value();
+                    if (point.x >= childX && point.x < childX + childWidth && childWidth >= MIN_WIDTH) {
+                        hit = child;
+                        x = childX;
+                        width = childWidth;
+                        break;
+                    }
+                    childX += childWidth;
+                }
+                if (hit == null) {
+                    return null;
+                }
+                node = hit;
+            }
+            return node;
+        }
+
+        /// Warm colors like a classic CPU flame graph, derived from the name so that a frame keeps its color
+        private static Color colorOf(SysTestFlameGraph.Node node) {
+            int hash = node.name().hashCode();
+            int red = 205 + Math.floorMod(hash, 50);
+            int green = Math.floorMod(hash >>> 8, 230);
+            int blue = Math.floorMod(hash >>> 16, 55);
+            return new Color(red, green, blue);
+        }
+
+        private static String fit(String name, FontMetrics metrics, int width) {
+            if (metrics.stringWidth(name) <= width) {
+                return name;
+            }
+            /// C++ symbols easily have hundreds of characters, so search the longest prefix that fits
+            int available = width - metrics.stringWidth("..");
+            int low = 0;
+            int high = name.length();
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (metrics.stringWidth(name.substring(0, mid)) <= available) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low == 0 ? "" : name.substring(0, low) + "..";
+        }
+    }
+}
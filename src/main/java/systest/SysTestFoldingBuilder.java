@@ -0,0 +1,86 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.folding.FoldingBuilderEx;
+import com.intellij.lang.folding.FoldingDescriptor;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Folds blocks of inline source data and expected results with many lines, huge blocks are folded by default.
+/// Only the top level of the flat PSI is visited and the line counts come from the document, so the chameleon blocks
+/// are never parsed for folding
+public class SysTestFoldingBuilder extends FoldingBuilderEx implements DumbAware {
+    public static final int MIN_FOLDED_LINES = 10;
+    public static final int COLLAPSED_LINES = 100;
+
+    @Override
+    public FoldingDescriptor @NotNull [] buildFoldRegions(@NotNull PsiElement root, @NotNull Document document, boolean quick) {
+        List<FoldingDescriptor> descriptors = new ArrayList<>();
+        for (ASTNode child = root.getNode().getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (child.getElementType() == SysTestTokenTypes.SOURCE) {
+                ASTNode data = child.findChildByType(SysTestTokenTypes.SOURCE_DATA_BLOCK);
+                if (data != null) {
+                    addBlock(data, document, descriptors);
+                }
+            } else if (child.getElementType() == SysTestTokenTypes.RESULT_BLOCK) {
+                addBlock(child, document, descriptors);
+            }
+        }
+        return descriptors.toArray(FoldingDescriptor.EMPTY_ARRAY);
+    }
+
+    @Override
+    public String getPlaceholderText(@NotNull ASTNode node) {
+        return "...";
+    }
+
+    @Override
+    public boolean isCollapsedByDefault(@NotNull ASTNode node) {
+        return lineCount(node.getChars()) >= COLLAPSED_LINES;
+    }
+
+    private static void addBlock(ASTNode block, Document document, List<FoldingDescriptor> descriptors) {
+        TextRange range = block.getTextRange();
+        /// The block ends with a line break, which stays visible
+        int end = range.getEndOffset() > range.getStartOffset() && document.getCharsSequence().charAt(range.getEndOffset() - 1) == '\n'
+                ? range.getEndOffset() - 1
+                : range.getEndOffset();
+        int lines = document.getLineNumber(end) - document.getLineNumber(range.getStartOffset()) + 1;
+        if (lines < MIN_FOLDED_LINES) {
+            return;
+        }
+        IElementType type = block.getElementType();
+        String rows = type == SysTestTokenTypes.RESULT_BLOCK ? " expected rows" : " source rows";
+        descriptors.add(new FoldingDescriptor(block, new TextRange(range.getStartOffset(), end), null, "... " + lines + rows));
+    }
+
+    private static int lineCount(CharSequence text) {
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.editor.colors.EditorFontType;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+
+/// Pages through the whole output of a SysTestBoundedConsole: the table only reads its visible rows from the log's
+/// temp file, and the search scans the file block by block in the background, so the output never has to be on the heap
+public final class SysTestFullLogView {
+    private static final int REFRESH_MILLIS = 1000;
+
+    private SysTestFullLogView() {
+    }
+
+    public static void show(Project project, String title, SysTestOutputLog log) {
+        LogTableModel model = new LogTableModel(log);
+        JBTable table = new JBTable(model);
+        table.setShowGrid(false);
+        table.setFont(EditorColorsManager.getInstance().getGlobalScheme().getFont(EditorFontType.PLAIN));
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_LAST_COLUMN);
+        table.getColumnModel().getColumn(0).setMaxWidth(100);
+        table.getColumnModel().getColumn(0).setPreferredWidth(80);
+
+        JBLabel status = new JBLabel();
+        SearchTextField search = new SearchTextField(false);
+        search.addKeyboardListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER && !search.getText().isEmpty()) {
+                    find(project, log, table, status, search.getText());
+                }
+            }
+        });
+
+        JPanel searchPanel = new JPanel(new BorderLayout(10, 0));
+        searchPanel.add(search, BorderLayout.CENTER);
+        searchPanel.add(status, BorderLayout.EAST);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(searchPanel, BorderLayout.NORTH);
+        panel.add(new JBScrollPane(table), BorderLayout.CENTER);
+
+        /// The log keeps growing while the process runs
+        Timer refresh = new Timer(REFRESH_MILLIS, e -> model.refresh());
+        refresh.start();
+        Disposable disposable = Disposer.newDisposable("Full log of " + title);
+        Disposer.register(disposable, refresh::stop);
+        SysTestToolWindow.showContent(project, "Full Log", panel, disposable);
+    }
+
+    /// Searches from the row after the selection and wraps around to the first line once
+    private static void find(Project project, SysTestOutputLog log, JBTable table, JBLabel status, String needle) {
+        long from = table.getSelectedRow() + 1L;
+        status.setText("Searching...");
+        new Task.Backgroundable(project, "Searching the full log", true) {
+            private long found = -1;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                found = log.find(needle, from, indicator::isCanceled);
+                if (found < 0 && from > 0) {
+                    found = log.find(needle, 0, indicator::isCanceled);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (found < 0 || found >= table.getRowCount()) {
+                    status.setText(found < 0 ? "Not found" : "Found in line " + (found + 1) + ", which is not shown yet");
+                    return;
+                }
+                int row = (int) found;
+                status.setText("Line " + (row + 1));
+                table.getSelectionModel().setSelectionInterval(row, row);
+                table.scrollRectToVisible(table.getCellRect(row, 0, true));
+            }
+        }.queue();
+    }
+
+    private static final class LogTableModel extends AbstractTableModel {
+        private final SysTestOutputLog log;
+        private int rows;
+
+        private LogTableModel(SysTestOutputLog log) {
+            this.log = log;
+            this.rows = (int) Math.min(log.lineCount(), Integer.MAX_VALUE);
+        }
+
+        private void refresh() {
+            int count = (int) Math.min(log.lineCount(), Integer.MAX_VALUE);
+            if (count > rows) {
+                int first = rows;
+                rows = count;
+                fireTableRowsInserted(first, count - 1);
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return column == 0 ? "Line" : "Output";
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return column == 0 ? row + 1 : log.line(row);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/// Reads the checked out git revision directly from the '.git' directory, so that no VCS integration is required.
+/// Supports regular repositories, worktrees ('.git' file with a 'gitdir:' line) and packed refs
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestGitRevision {
+    public static final String UNKNOWN = "unknown";
+    private static final int SHORT_LENGTH = 12;
+
+    private SysTestGitRevision() {
+    }
+
+    /// The abbreviated commit hash of HEAD of the repository containing 'directory', or UNKNOWN
+    public static String read(Path directory) {
+        try {
+            Path gitDir = findGitDir(directory);
+            if (gitDir == null) {
+                return UNKNOWN;
+            }
+            String head = Files.readString(gitDir.resolve("HEAD"), StandardCharsets.UTF_8).trim();
+            if (!head.startsWith("ref:")) {
+                return abbreviate(head);
+            }
+            String ref = head.substring("ref:".length()).trim();
+            /// Worktrees share the refs of the main repository
+            Path commonDir = gitDir;
+            Path commonDirFile = gitDir.resolve("commondir");
+            if (Files.isRegularFile(commonDirFile)) {
+                commonDir = gitDir.resolve(Files.readString(commonDirFile, StandardCharsets.UTF_8).trim()).normalize();
+            }
+            for (Path dir : List.of(gitDir, commonDir)) {
+                Path refFile = dir.resolve(ref);
+                if (Files.isRegularFile(refFile)) {
+                    return abbreviate(Files.readString(refFile, StandardCharsets.UTF_8).trim());
+                }
+            }
+            Path packedRefs = commonDir.resolve("packed-refs");
+            if (Files.isRegularFile(packedRefs)) {
+                for (String line : Files.readAllLines(packedRefs, StandardCharsets.UTF_8)) {
+                    if (line.endsWith(" " + ref)) {
+                        return abbreviate(line.substring(0, line.indexOf(' ')));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            /// An unreadable repository is treated like no repository
+        }
+        return UNKNOWN;
+    }
+
+    private static Path findGitDir(Path directory) throws IOException {
+        for (Path dir = directory.toAbsolutePath(); dir != null; dir = dir.getParent()) {
+            Path git = dir.resolve(".git");
+            if (Files.isDirectory(git)) {
+                return git;
+            }
+            if (Files.isRegularFile(git)) {
+                String content = Files.readString(git, StandardCharsets.UTF_8).trim();
+                if (content.startsWith("gitdir:")) {
+                    return dir.resolve(content.substring("gitdir:".length()).trim()).normalize();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String abbreviate(String hash) {
+        return hash.length() > SHORT_LENGTH ? hash.substring(0, SHORT_LENGTH) : hash;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.navigation.ChooseByNameContributorEx;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FindSymbolParameters;
+import com.intellij.util.indexing.IdFilter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+/// Makes all system tests of the SysTestFileIndex searchable by their name, e.g. 'Filter.test:03',
+/// in Goto Symbol and Search Everywhere
+public class SysTestGotoContributor implements ChooseByNameContributorEx {
+
+    @Override
+    public void processNames(@NotNull Processor<? super String> processor,
+                             @NotNull GlobalSearchScope scope,
+                             @Nullable IdFilter filter) {
+        FileBasedIndex.getInstance().processAllKeys(SysTestFileIndex.NAME, processor, scope, filter);
+    }
+
+    @Override
+    public void processElementsWithName(@NotNull String name,
+                                        @NotNull Processor<? super NavigationItem> processor,
+                                        @NotNull FindSymbolParameters parameters) {
+        Project project = parameters.getProject();
+        FileBasedIndex.getInstance().processValues(
+                SysTestFileIndex.NAME,
+                name,
+                null,
+                (file, entry) -> processor.process(new SysTestNavigationItem(project, file, entry)),
+                parameters.getSearchScope(),
+                parameters.getIdFilter());
+    }
+
+    /// Navigates to the "----" of an indexed test and presents its first query line
+    private record SysTestNavigationItem(Project project, VirtualFile file, SysTestIndexEntry entry)
+            implements NavigationItem {
+
+        @Override
+        public String getName() {
+            return SysTestFileIndex.testName(file.getName(), entry.ordinal());
+        }
+
+        @Override
+        public ItemPresentation getPresentation() {
+            return new ItemPresentation() {
+                @Override
+                public String getPresentableText() {
+                    return getName();
+                }
+
+                @Override
+                public String getLocationString() {
+                    return entry.firstQueryLine();
+                }
+
+                @Override
+                public Icon getIcon(boolean unused) {
+                    return AllIcons.Actions.Execute;
+                }
+            };
+        }
+
+        @Override
+        public void navigate(boolean requestFocus) {
+            new OpenFileDescriptor(project, file, entry.offset()).navigate(requestFocus);
+        }
+
+        @Override
+        public boolean canNavigate() {
+            return file.isValid();
+        }
+
+        @Override
+        public boolean canNavigateToSource() {
+            return canNavigate();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/// The part of a gutter marker pass that does not need the PSI: which markers a "----" gets and the ordinal of its test.
+/// SysTestLineMarkerProvider turns every reported marker into a LineMarkerInfo with the shared tooltip and handler of
+/// its kind, so that the benchmarks run the same decisions as the editor.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestGutterMarkers {
+    private SysTestGutterMarkers() {
+    }
+
+    /// The markers of a "----", in the order in which they are added to the gutter
+    public enum Kind {
+        RUN("Run System Test "),
+        DEBUG("Debug System Test "),
+        /// A single marker whose popup benchmarks, profiles or scales the test, so that a "----" keeps few icons
+        PERFORMANCE("Benchmark, Profile or Scale System Test "),
+        BADGE("System Test "),
+        DIFF("Show Result Diff of Failed System Test ");
+
+        private final String tooltipPrefix;
+
+        Kind(String tooltipPrefix) {
+            this.tooltipPrefix = tooltipPrefix;
+        }
+
+        /// The tooltip of the marker of the test with the given ordinal, the badge adds its assessment
+        public String tooltip(int ordinal) {
+            return tooltipPrefix + ordinal;
+        }
+    }
+
+    /// Receives the markers of a "----", 'assessment' is only set for a BADGE
+    @FunctionalInterface
+    public interface Sink<T> {
+        void marker(T separator, Kind kind, SysTestRegressionDetector.Assessment assessment);
+    }
+
+    /// The ordinal of the test that ends at the "----" at 'separatorOffset', looked up in the maintained boundaries
+    public static int ordinalAt(SysTestBoundaryIndex boundaries, int separatorOffset) {
+        return boundaries.indexOfFirstAtOrAfter(separatorOffset) + 1;
+    }
+
+    /// Reports the markers of the "----" of the test with the given ordinal: run, debug and performance always, the badge if the test has a noteworthy performance history and the diff if it failed in the last run
+    public static <T> void collect(T separator,
+                                   int ordinal,
+                                   Map<Integer, SysTestRegressionDetector.Assessment> badges,
+                                   IntPredicate failed,
+                                   Sink<? super T> sink) {
+        sink.marker(separator, Kind.RUN, null);
+        sink.marker(separator, Kind.DEBUG, null);
+        sink.marker(separator, Kind.PERFORMANCE, null);
+        /// Most files have no badges and share the empty map
+        if (!badges.isEmpty()) {
+            SysTestRegressionDetector.Assessment assessment = badges.get(ordinal);
+            if (assessment != null) {
+                sink.marker(separator, Kind.BADGE, assessment);
+            }
+        }
+        if (failed.test(ordinal)) {
+            sink.marker(separator, Kind.DIFF, null);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/// A single system test as stored in the SysTestFileIndex
+/// ordinal: the one-based test number used by systest, i.e. 'file:NN'
+/// offset: the offset of the test's "----" marker
+/// firstQueryLine: the first line of the test's query, trimmed
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public record SysTestIndexEntry(int ordinal, int offset, String firstQueryLine) {
+
+    /// The name of a test as used by systest and as shown in Goto/Search Everywhere, e.g. 'Filter.test:03'
+    /// Pads without String.format, which dominated indexing files with many tests, see FileIndexBenchmark
+    public static String testName(String fileName, int ordinal) {
+        return fileName + (ordinal < 10 ? ":0" : ":") + ordinal;
+    }
+
+    /// All tests of a file, keyed by their test name
+    public static Map<String, SysTestIndexEntry> scan(String fileName, CharSequence text) {
+        SysTestBoundaryIndex boundaries = SysTestBoundaryIndex.build(text);
+        Map<String, SysTestIndexEntry> tests = new HashMap<>();
+        for (int i = 0; i < boundaries.size(); i++) {
+            int ordinal = i + 1;
+            int offset = boundaries.getOffset(i);
+            tests.put(
+                    testName(fileName, ordinal),
+                    new SysTestIndexEntry(ordinal, offset, SysTestQueryBlocks.firstQueryLine(text, offset)));
+        }
+        return tests;
+    }
+}
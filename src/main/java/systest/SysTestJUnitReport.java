@@ -0,0 +1,121 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/// Collects the results of a batch run and writes them as a JUnit XML report, the format build servers understand.
+/// Every test file becomes a <testsuite>, every test of it a <testcase> with its duration in seconds;
+/// the output of a failed test is attached to its <failure>, the output of a passed test, if it was kept, to its <system-out>.
+/// Results may be added from several threads, e.g. the shards of a parallel run.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestJUnitReport {
+    /// 'suite' is the test file, e.g. 'Filter.test', 'name' the test, e.g. 'Filter.test:03'
+    public record TestCase(String suite, String name, boolean passed, long durationMillis, String output) {
+    }
+
+    private final String name;
+    /// Guarded by 'this'
+    private final List<TestCase> testCases = new ArrayList<>();
+
+    public SysTestJUnitReport(String name) {
+        this.name = name;
+    }
+
+    public synchronized void add(TestCase testCase) {
+        testCases.add(testCase);
+    }
+
+    public synchronized int failures() {
+        return (int) testCases.stream().filter(testCase -> !testCase.passed()).count();
+    }
+
+    /// Suites are ordered by name, the tests of a suite in the order in which they were added
+    public void write(Writer writer) throws IOException {
+        Map<String, List<TestCase>> suites = new TreeMap<>();
+        synchronized (this) {
+            for (TestCase testCase : testCases) {
+                suites.computeIfAbsent(testCase.suite(), suite -> new ArrayList<>()).add(testCase);
+            }
+        }
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<testsuites name=\"" + escape(name) + "\"" + counts(suites.values().stream().flatMap(List::stream).toList()) + ">\n");
+        for (Map.Entry<String, List<TestCase>> suite : suites.entrySet()) {
+            writer.write("  <testsuite name=\"" + escape(suite.getKey()) + "\"" + counts(suite.getValue()) + ">\n");
+            for (TestCase testCase : suite.getValue()) {
+                writer.write("    <testcase classname=\"" + escape(testCase.suite())
+                        + "\" name=\"" + escape(testCase.name())
+                        + "\" time=\"" + seconds(testCase.durationMillis()) + "\"");
+                String output = testCase.output() == null ? "" : testCase.output();
+                if (testCase.passed() && output.isEmpty()) {
+                    writer.write("/>\n");
+                    continue;
+                }
+                writer.write(">\n");
+                if (!testCase.passed()) {
+                    writer.write("      <failure message=\"FAILED\">" + escape(output) + "</failure>\n");
+                } else {
+                    writer.write("      <system-out>" + escape(output) + "</system-out>\n");
+                }
+                writer.write("    </testcase>\n");
+            }
+            writer.write("  </testsuite>\n");
+        }
+        writer.write("</testsuites>\n");
+    }
+
+    private static String counts(List<TestCase> testCases) {
+        long failures = testCases.stream().filter(testCase -> !testCase.passed()).count();
+        long millis = testCases.stream().mapToLong(TestCase::durationMillis).sum();
+        return " tests=\"" + testCases.size() + "\" failures=\"" + failures + "\" errors=\"0\" time=\"" + seconds(millis) + "\"";
+    }
+
+    private static String seconds(long millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+    }
+
+    /// Escapes text and attribute values; control characters that XML 1.0 does not allow at all, e.g. the escape
+    /// sequences of a colored systest output, are dropped
+    static String escape(String text) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\n', '\r', '\t' -> null;
+                default -> c < 0x20 || c == 0xFFFE || c == 0xFFFF ? "" : null;
+            };
+            if (replacement == null) {
+                if (escaped != null) {
+                    escaped.append(c);
+                }
+                continue;
+            }
+            if (escaped == null) {
+                escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            escaped.append(replacement);
+        }
+        return escaped == null ? text : escaped.toString();
+    }
+}
@@ -0,0 +1,25 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.lang.Language;
+
+/// The language of system test files, see SysTestParserDefinition
+public final class SysTestLanguage extends Language {
+    public static final SysTestLanguage INSTANCE = new SysTestLanguage();
+
+    private SysTestLanguage() {
+        super("NES-Systest");
+    }
+}
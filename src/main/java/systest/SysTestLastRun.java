@@ -0,0 +1,187 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjLongConsumer;
+
+@State(
+        name = "systest.SysTestLastRun",
+        storages = @Storage(StoragePathMacros.WORKSPACE_FILE)
+)
+
+/// The tests that failed in the most recent run, i.e. a run started from the gutter or a parallel run,
+/// so that "Rerun Failed System Tests" can run only them. Stored in the workspace file, so that they survive a restart.
+/// A run replaces the failures of the previous run only once it reports its first result, so that e.g. a failing
+/// before-run build does not forget them
+public class SysTestLastRun implements PersistentStateComponent<SysTestLastRun.LastRunState> {
+
+    public static class LastRunState {
+        /// Host locations of the failed tests, e.g. '/path/to/Filter.test:03'
+        public List<String> failedTests = new ArrayList<>();
+    }
+
+    /// A single run that reports its results one by one
+    public final class Run {
+        private boolean started;
+
+        public void record(SysTestTarget test, boolean passed) {
+            synchronized (failedTests) {
+                if (!started) {
+                    started = true;
+                    failedTests.clear();
+                }
+                if (passed) {
+                    failedTests.remove(test.hostLocation());
+                } else {
+                    failedTests.add(test.hostLocation());
+                }
+            }
+        }
+
+        private boolean hasStarted() {
+            synchronized (failedTests) {
+                return started;
+            }
+        }
+    }
+
+    /// A single run via the 'systest_plugin' configuration, from its launch until its process terminates
+    private record PendingLaunch(List<SysTestTarget> targets, Run run) {
+    }
+
+    /// On the ExecutionEnvironment of a launch until its process starts, then on the ProcessHandler
+    private static final Key<PendingLaunch> PENDING_LAUNCH = Key.create("systest.SysTestLastRun.pendingLaunch");
+
+    private final Project project;
+    /// Guarded by itself
+    private final Set<String> failedTests = new LinkedHashSet<>();
+
+    public SysTestLastRun(Project project) {
+        this.project = project;
+    }
+
+    public static SysTestLastRun getInstance(Project project) {
+        return project.getService(SysTestLastRun.class);
+    }
+
+    @Override
+    public LastRunState getState() {
+        LastRunState state = new LastRunState();
+        synchronized (failedTests) {
+            state.failedTests = new ArrayList<>(failedTests);
+        }
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull LastRunState state) {
+        synchronized (failedTests) {
+            failedTests.clear();
+            failedTests.addAll(state.failedTests);
+        }
+    }
+
+    public Run startRun() {
+        return new Run();
+    }
+
+    /// Remembers the targets of a single run, so that the reported test names can be mapped to their files
+    public void launchStarted(ExecutionEnvironment environment, List<SysTestTarget> targets) {
+        environment.putUserData(PENDING_LAUNCH, new PendingLaunch(targets, startRun()));
+    }
+
+    /// A listener for the results of the environment's launch, see SysTestEventsConverter, or null if there is none.
+    /// The launch moves to the process, where launchFinished finds it
+    public @Nullable ObjLongConsumer<SysTestOutputParser.Result> createRecorder(ExecutionEnvironment environment, ProcessHandler handler) {
+        PendingLaunch launch = environment.getUserData(PENDING_LAUNCH);
+        environment.putUserData(PENDING_LAUNCH, null);
+        handler.putUserData(PENDING_LAUNCH, launch);
+        if (launch == null) {
+            return null;
+        }
+        Map<String, Optional<VirtualFile>> filesByName = new ConcurrentHashMap<>();
+        return (result, durationMillis) -> {
+            if (result.status() == SysTestOutputParser.Status.SKIPPED) {
+                return;
+            }
+            String fileName = result.name().endsWith(".test") ? result.name() : result.name() + ".test";
+            filesByName.computeIfAbsent(fileName, name -> SysTestTarget.findTestFile(project, launch.targets(), name))
+                    .ifPresent(file -> launch.run().record(
+                            new SysTestTarget(file, result.ordinal()),
+                            result.status() == SysTestOutputParser.Status.PASSED));
+        };
+    }
+
+    /// A single test whose process failed without reporting a result, e.g. because systest crashed, has failed as well
+    public void launchFinished(ProcessHandler handler, int exitCode) {
+        PendingLaunch launch = handler.getUserData(PENDING_LAUNCH);
+        handler.putUserData(PENDING_LAUNCH, null);
+        if (launch == null || exitCode == 0 || launch.run().hasStarted()) {
+            return;
+        }
+        if (launch.targets().size() == 1 && launch.targets().get(0).testIndex() > 0) {
+            launch.run().record(launch.targets().get(0), false);
+        }
+    }
+
+    public boolean hasFailedTests() {
+        synchronized (failedTests) {
+            return !failedTests.isEmpty();
+        }
+    }
+
+    public boolean isFailed(SysTestTarget test) {
+        synchronized (failedTests) {
+            return failedTests.contains(test.hostLocation());
+        }
+    }
+
+    /// The failed tests whose files still exist
+    public List<SysTestTarget> getFailedTests() {
+        List<String> locations;
+        synchronized (failedTests) {
+            locations = new ArrayList<>(failedTests);
+        }
+        List<SysTestTarget> tests = new ArrayList<>();
+        for (String location : locations) {
+            int separator = location.lastIndexOf(':');
+            VirtualFile file = LocalFileSystem.getInstance().findFileByPath(location.substring(0, separator));
+            if (file != null) {
+                tests.add(new SysTestTarget(file, Integer.parseInt(location.substring(separator + 1))));
+            }
+        }
+        return tests;
+    }
+}
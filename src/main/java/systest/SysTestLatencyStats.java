@@ -0,0 +1,48 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.util.Arrays;
+
+/// Latency percentiles of repeated runs of a system test, computed with the nearest-rank method.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public record SysTestLatencyStats(int samples, long minNanos, long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos,
+                                  long meanNanos) {
+
+    public static SysTestLatencyStats of(long[] durationsNanos) {
+        if (durationsNanos.length == 0) {
+            return new SysTestLatencyStats(0, 0, 0, 0, 0, 0, 0);
+        }
+        long[] sorted = durationsNanos.clone();
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long duration : sorted) {
+            sum += duration;
+        }
+        return new SysTestLatencyStats(
+                sorted.length,
+                sorted[0],
+                percentile(sorted, 50),
+                percentile(sorted, 95),
+                percentile(sorted, 99),
+                sorted[sorted.length - 1],
+                sum / sorted.length);
+    }
+
+    /// 'sorted' must be sorted ascending and not empty
+    public static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
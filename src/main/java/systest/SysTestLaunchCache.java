@@ -0,0 +1,95 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.Nullable;
+
+/// Keeps the "systest" and "systest_plugin" configurations and the launch context resolved from "systest" across clicks,
+/// so that a click on a gutter icon goes straight to launching.
+/// Everything is resolved again after a CMake reload, a change of the active execution target (i.e. the CMake profile)
+/// or a change of one of the two configurations, see SysTestLaunchCacheInvalidator
+public class SysTestLaunchCache {
+    private final Project project;
+    private final SysTestLaunchLatency latency = new SysTestLaunchLatency();
+    private RunnerAndConfigurationSettings systestSettings;
+    private RunnerAndConfigurationSettings pluginSettings;
+    private SysTestLaunchContext launchContext;
+    /// Bumped by invalidate(), so that a resolution that raced with an invalidation is not cached
+    private long generation;
+
+    public SysTestLaunchCache(Project project) {
+        this.project = project;
+    }
+
+    public static SysTestLaunchCache getInstance(Project project) {
+        return project.getService(SysTestLaunchCache.class);
+    }
+
+    public SysTestLaunchLatency getLatency() {
+        return latency;
+    }
+
+    /// The "systest" configuration, or null if CMake has not generated it (yet)
+    public synchronized @Nullable RunnerAndConfigurationSettings getSystestSettings() {
+        if (systestSettings == null) {
+            systestSettings = SysTestLaunchContext.findConfiguration(project, "systest");
+        }
+        return systestSettings;
+    }
+
+    /// The "systest_plugin" copy, or null if no test has been run from the gutter yet
+    public synchronized @Nullable RunnerAndConfigurationSettings getPluginSettings() {
+        if (pluginSettings == null) {
+            pluginSettings = SysTestLaunchContext.findConfiguration(project, "systest_plugin");
+        }
+        return pluginSettings;
+    }
+
+    /// The launch context of the given "systest" configuration, resolved only if it is not cached yet
+    public SysTestLaunchContext getLaunchContext(RunnerAndConfigurationSettings settings) throws ExecutionException {
+        long start = System.nanoTime();
+        SysTestLaunchContext cached;
+        long resolvedGeneration;
+        synchronized (this) {
+            cached = launchContext != null && settings == systestSettings ? launchContext : null;
+            resolvedGeneration = generation;
+        }
+        if (cached != null) {
+            latency.resolved(System.nanoTime() - start, true);
+            SysTestMetrics.GLOBAL.timer(SysTestMetrics.RESOLVE_CACHED).recordSince(start);
+            return cached;
+        }
+        SysTestLaunchContext resolved = SysTestLaunchContext.resolve(project, settings);
+        synchronized (this) {
+            /// CMake or the configurations changed while resolving, the next launch resolves again
+            if (generation == resolvedGeneration) {
+                systestSettings = settings;
+                launchContext = resolved;
+            }
+        }
+        latency.resolved(System.nanoTime() - start, false);
+        SysTestMetrics.GLOBAL.timer(SysTestMetrics.RESOLVE_FRESH).recordSince(start);
+        return resolved;
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        systestSettings = null;
+        pluginSettings = null;
+        launchContext = null;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionTarget;
+import com.intellij.execution.ExecutionTargetListener;
+import com.intellij.execution.RunManagerListener;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.project.Project;
+import com.jetbrains.cidr.cpp.cmake.workspace.CMakeWorkspaceListener;
+import org.jetbrains.annotations.NotNull;
+
+/// Invalidates the SysTestLaunchCache whenever its content may have become stale.
+/// Registered for the RunManagerListener, ExecutionTargetListener and CMakeWorkspaceListener topics
+public class SysTestLaunchCacheInvalidator implements RunManagerListener, ExecutionTargetListener, CMakeWorkspaceListener {
+    private final Project project;
+
+    public SysTestLaunchCacheInvalidator(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void runConfigurationAdded(@NotNull RunnerAndConfigurationSettings settings) {
+        invalidateIfSysTest(settings);
+    }
+
+    @Override
+    public void runConfigurationRemoved(@NotNull RunnerAndConfigurationSettings settings) {
+        invalidateIfSysTest(settings);
+    }
+
+    @Override
+    public void runConfigurationChanged(@NotNull RunnerAndConfigurationSettings settings) {
+        invalidateIfSysTest(settings);
+    }
+
+    @Override
+    public void activeTargetChanged(@NotNull ExecutionTarget newTarget) {
+        SysTestLaunchCache.getInstance(project).invalidate();
+    }
+
+    @Override
+    public void reloadingFinished(boolean canceled) {
+        SysTestLaunchCache.getInstance(project).invalidate();
+        /// The reload may have regenerated the build files
+        SysTestBuildTracker.getInstance(project).sourcesChanged();
+    }
+
+    /// Selecting or editing other configurations does not affect the launch
+    private void invalidateIfSysTest(RunnerAndConfigurationSettings settings) {
+        String name = settings.getName();
+        if ("systest".equals(name) || "systest_plugin".equals(name)) {
+            SysTestLaunchCache.getInstance(project).invalidate();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.ExecutionTarget;
+import com.intellij.execution.ExecutionTargetManager;
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.execution.ParametersListUtil;
+import com.jetbrains.cidr.cpp.cmake.model.CMakeConfiguration;
+import com.jetbrains.cidr.cpp.cmake.workspace.CMakeProfileInfo;
+import com.jetbrains.cidr.cpp.cmake.workspace.CMakeWorkspace;
+import com.jetbrains.cidr.cpp.execution.CMakeAppRunConfiguration;
+import com.jetbrains.cidr.cpp.toolchains.CPPEnvironment;
+import com.jetbrains.cidr.toolchains.CidrToolEnvironment;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/// Everything that is resolved from the "systest" Run/Debug configuration before a test can be launched:
+/// the configuration itself, the CMake profile of its execution target, the profile's environment
+/// (which maps host paths to e.g. docker paths), the built executable and the cleaned program parameters
+public record SysTestLaunchContext(
+        CMakeAppRunConfiguration configuration,
+        CMakeProfileInfo profile,
+        CPPEnvironment cppEnvironment,
+        @Nullable File executable,
+        String cleanedParameters) {
+
+    /// Finds a Run/Debug configuration by name, e.g. "systest" or "systest_plugin"
+    public static @Nullable RunnerAndConfigurationSettings findConfiguration(Project project, String name) {
+        return RunManager.getInstance(project)
+                .getAllSettings()
+                .stream()
+                .filter(confsettings -> name.equals(confsettings.getName()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /// Get the currently selected CMake profile and environment of the "systest" configuration
+    public static SysTestLaunchContext resolve(Project project, RunnerAndConfigurationSettings runnerAndConfigurationSettings)
+            throws ExecutionException {
+        CMakeAppRunConfiguration configuration = (CMakeAppRunConfiguration) runnerAndConfigurationSettings.getConfiguration();
+        return resolve(project, configuration, ExecutionTargetManager.getInstance(project).findTarget(configuration));
+    }
+
+    /// The CMake execution targets, i.e. profiles, the "systest" configuration can run with
+    public static List<ExecutionTarget> executionTargets(Project project, RunnerAndConfigurationSettings runnerAndConfigurationSettings) {
+        return ExecutionTargetManager.getInstance(project).getTargetsFor(runnerAndConfigurationSettings.getConfiguration());
+    }
+
+    /// Get the CMake profile and environment of the "systest" configuration for the given execution target,
+    /// e.g. to run the same tests with several profiles
+    public static SysTestLaunchContext resolve(Project project, CMakeAppRunConfiguration configuration, ExecutionTarget executionTarget)
+            throws ExecutionException {
+        CMakeWorkspace cMakeWorkspace = CMakeWorkspace.getInstance(project);
+        CMakeAppRunConfiguration.BuildAndRunConfigurations buildAndRunConfigurations = configuration.getBuildAndRunConfigurations(executionTarget);
+        if (buildAndRunConfigurations == null) {
+            throw new ExecutionException("The 'systest' configuration has no CMake target for '" + executionTarget.getDisplayName() + "'");
+        }
+        CMakeConfiguration cMakeConfiguration = buildAndRunConfigurations.getRunConfiguration();
+        CMakeProfileInfo activeProfile = cMakeWorkspace.getProfileInfoFor(cMakeConfiguration);
+        return new SysTestLaunchContext(
+                configuration,
+                activeProfile,
+                activeProfile.getEnvironment(),
+                buildAndRunConfigurations.getRunFile(),
+                SysTestParameters.clean(configuration.getProgramParameters()));
+    }
+
+    public static final String MISSING_CONFIGURATION =
+            "Could not find the 'systest' Run/Debug configuration. \nPlease reload CMake or run a single system test first.\n";
+
+    /// Resolves the launch context for a run that starts the systest executable directly, e.g. a parallel run.
+    /// Called in the background like the SysTestLaunchPipeline resolves a launch, since resolving the CMake profile
+    /// may block. Errors are printed with 'printError', null is returned then
+    public static @Nullable SysTestLaunchContext resolveOrPrintError(Project project, Consumer<String> printError) {
+        SysTestLaunchCache launchCache = SysTestLaunchCache.getInstance(project);
+        RunnerAndConfigurationSettings runnerAndConfigurationSettings = ReadAction.compute(launchCache::getSystestSettings);
+        if (runnerAndConfigurationSettings == null) {
+            printError.accept(MISSING_CONFIGURATION);
+            return null;
+        }
+        try {
+            return launchCache.getLaunchContext(runnerAndConfigurationSettings);
+        } catch (ExecutionException e) {
+            printError.accept("Error: " + e.getMessage() + "\n");
+            return null;
+        }
+    }
+
+    /// The program parameters to run the given target with the "systest" configuration's other parameters
+    public String parametersFor(SysTestTarget target) {
+        return parametersFor(target, cppEnvironment::toEnvPath);
+    }
+
+    /// The program parameters with the test location mapped by 'toEnvPath', e.g. into a warm docker container
+    public String parametersFor(SysTestTarget target, UnaryOperator<String> toEnvPath) {
+        return SysTestParameters.assemble(target.toTestLocation(toEnvPath), cleanedParameters);
+    }
+
+    /// The program parameters to run all given targets in a single systest process
+    public String parametersFor(List<SysTestTarget> targets) {
+        return SysTestParameters.assemble(
+                targets.stream().map(target -> target.toTestLocation(cppEnvironment)).toList(),
+                cleanedParameters);
+    }
+
+    /// A command line that runs the built systest executable directly, i.e. without a Run/Debug configuration.
+    /// The command line is prepared by the profile's environment, so that it also works for e.g. docker toolchains
+    public GeneralCommandLine createCommandLine(SysTestTarget target) throws ExecutionException {
+        return createCommandLine(target, List.of());
+    }
+
+    /// A command line that runs the built systest executable behind 'prefix', e.g. a profiler that starts systest itself
+    public GeneralCommandLine createCommandLine(SysTestTarget target, List<String> prefix) throws ExecutionException {
+        List<String> command = new ArrayList<>(prefix);
+        command.add(cppEnvironment.toEnvPath(requireExecutable().getPath()));
+        command.addAll(ParametersListUtil.parse(parametersFor(target)));
+        return createToolCommandLine(command);
+    }
+
+    /// A command line in the profile's environment with the working directory and environment variables of the
+    /// "systest" configuration, e.g. for a tool that post-processes the output of a run
+    public GeneralCommandLine createToolCommandLine(List<String> command) throws ExecutionException {
+        GeneralCommandLine commandLine = new GeneralCommandLine(command);
+        commandLine.setWorkDirectory(workingDirectory());
+        commandLine.getEnvironment().putAll(configuration.getEnvs());
+        cppEnvironment.prepare(commandLine, CidrToolEnvironment.PrepareFor.RUN);
+        return commandLine;
+    }
+
+    /// Runs the built systest executable directly, in the warm docker container if it is enabled in the settings
+    public SysTestProcesses.Result run(SysTestTarget target, ProgressIndicator indicator) throws ExecutionException {
+        if (PluginSettings.getInstance().isWarmContainerEnabled()) {
+            return SysTestWarmContainers.getInstance(configuration.getProject()).run(this, target, indicator);
+        }
+        return SysTestProcesses.run(createCommandLine(target), indicator);
+    }
+
+    public File requireExecutable() throws ExecutionException {
+        if (executable == null || !executable.exists()) {
+            throw new ExecutionException("The systest executable has not been built yet, please build the 'systest' target first");
+        }
+        return executable;
+    }
+
+    /// The working directory of the "systest" configuration on the host, the executable's directory by default
+    public String workingDirectory() throws ExecutionException {
+        String workingDirectory = configuration.getWorkingDirectory();
+        return workingDirectory != null && !workingDirectory.isBlank()
+                ? workingDirectory
+                : requireExecutable().getParent();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/// Measures the latency of single runs from the click on a gutter icon until the systest process has started,
+/// split into the plugin's own work until the run is scheduled (resolving configurations, profile and parameters)
+/// and the before-run tasks (i.e. the build) plus the process start.
+/// Launches with a cached and with a freshly resolved launch context are tracked separately, so that the effect of
+/// the SysTestLaunchCache can be compared directly.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestLaunchLatency {
+    /// Number of measurements per kind that are kept for the summary
+    public static final int HISTORY = 100;
+
+    public record Measurement(boolean cached, long resolveNanos, long clickToScheduledNanos, long clickToStartedNanos) {
+        @Override
+        public String toString() {
+            return String.format("click-to-process-start %d ms (click-to-scheduled %d ms, resolve %d ms, launch context %s)",
+                    TimeUnit.NANOSECONDS.toMillis(clickToStartedNanos),
+                    TimeUnit.NANOSECONDS.toMillis(clickToScheduledNanos),
+                    TimeUnit.NANOSECONDS.toMillis(resolveNanos),
+                    cached ? "cached" : "resolved");
+        }
+    }
+
+    private final ArrayDeque<Measurement> cachedMeasurements = new ArrayDeque<>();
+    private final ArrayDeque<Measurement> resolvedMeasurements = new ArrayDeque<>();
+    private long clickNanos = -1;
+    private long resolveNanos;
+    private boolean cached;
+    private long scheduledNanos = -1;
+
+    public synchronized void clicked(long nanos) {
+        clickNanos = nanos;
+        scheduledNanos = -1;
+    }
+
+    public synchronized void resolved(long durationNanos, boolean fromCache) {
+        resolveNanos = durationNanos;
+        cached = fromCache;
+    }
+
+    public synchronized void scheduled(long nanos) {
+        if (clickNanos >= 0) {
+            scheduledNanos = nanos;
+        }
+    }
+
+    /// Completes the measurement of the pending click, returns null if the process was not started by a click
+    public synchronized Measurement started(long nanos) {
+        if (clickNanos < 0 || scheduledNanos < 0) {
+            return null;
+        }
+        Measurement measurement = new Measurement(cached, resolveNanos, scheduledNanos - clickNanos, nanos - clickNanos);
+        clickNanos = -1;
+        ArrayDeque<Measurement> measurements = cached ? cachedMeasurements : resolvedMeasurements;
+        measurements.addLast(measurement);
+        if (measurements.size() > HISTORY) {
+            measurements.removeFirst();
+        }
+        return measurement;
+    }
+
+    /// Percentiles of the click-to-scheduled latency, i.e. the plugin's own work, with and without the cache
+    public synchronized String summary() {
+        return "click-to-scheduled with cached launch context: " + describe(cachedMeasurements)
+                + "\nclick-to-scheduled with resolved launch context: " + describe(resolvedMeasurements);
+    }
+
+    private static String describe(ArrayDeque<Measurement> measurements) {
+        SysTestLatencyStats stats = SysTestLatencyStats.of(
+                measurements.stream().mapToLong(Measurement::clickToScheduledNanos).toArray());
+        if (stats.samples() == 0) {
+            return "no launches";
+        }
+        return String.format("%d launches, p50 %.1f ms, p95 %.1f ms, max %.1f ms",
+                stats.samples(), stats.p50Nanos() / 1e6, stats.p95Nanos() / 1e6, stats.maxNanos() / 1e6);
+    }
+}
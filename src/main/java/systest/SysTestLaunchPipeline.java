@@ -0,0 +1,299 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.messages.MessageBusConnection;
+import com.jetbrains.cidr.cpp.cmake.workspace.CMakeWorkspace;
+import com.jetbrains.cidr.cpp.cmake.workspace.CMakeWorkspaceListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Prepares a gutter launch in a cancellable background task, so that a click never blocks the EDT:
+/// finding the "systest" configuration, resolving the CMake profile (which can take seconds over remote development)
+/// and assembling the program parameters. Only saving the documents before and creating, selecting and executing
+/// the "systest_plugin" configuration after the preparation happen on the EDT.
+/// A new launch supersedes a pending one: its preparation is canceled and a pending CMake reload no longer launches it.
+/// The targets of the launch that is being prepared and of all launched processes are in flight until the process
+/// terminates, see isInFlight
+public class SysTestLaunchPipeline implements Disposable {
+    private final Project project;
+    private long generation;
+    private @Nullable ProgressIndicator pendingIndicator;
+    private @Nullable MessageBusConnection pendingReload;
+    /// The launch that is being prepared or waits for a CMake reload
+    private @Nullable Launch preparing;
+    /// The targets of the launched 'systest_plugin' processes that have not terminated yet
+    private final Map<ExecutionEnvironment, List<SysTestTarget>> running = new HashMap<>();
+
+    /// Everything runSysTest needs, resolved in the background
+    public record PreparedLaunch(
+            RunnerAndConfigurationSettings systestSettings,
+            SysTestLaunchContext launchContext,
+            String parameters) {
+    }
+
+    private record Launch(long generation, boolean runDebugger, List<SysTestTarget> targets, ConsoleView consoleView) {
+    }
+
+    public SysTestLaunchPipeline(Project project) {
+        this.project = project;
+    }
+
+    public static SysTestLaunchPipeline getInstance(Project project) {
+        return project.getService(SysTestLaunchPipeline.class);
+    }
+
+    /// Saves the targets and starts preparing their launch, called on the EDT
+    public void start(boolean runDebugger, List<SysTestTarget> targets) {
+        start(runDebugger, targets, true);
+    }
+
+    /// Starts preparing the launch, 'save' is false if the caller has already saved the targets, e.g. SysTestWatchMode
+    public void start(boolean runDebugger, List<SysTestTarget> targets, boolean save) {
+        SysTestLaunchCache.getInstance(project).getLatency().clicked(System.nanoTime());
+
+        /// Save File to ensure recent changes apply to System Test run
+        if (save) {
+            for (SysTestTarget target : targets) {
+                SysTestLineMarkerProvider.saveTarget(project, target);
+            }
+        }
+
+        Launch launch;
+        synchronized (this) {
+            cancelPending();
+            /// Create Nes-Systest-Runner window or reuse existing one to show console output / potential errors
+            launch = new Launch(++generation, runDebugger, targets, SysTestToolWindow.replaceWithConsole(project, "Command Output"));
+            preparing = launch;
+        }
+        prepare(launch, false);
+    }
+
+    /// Cancels the launch that is being prepared or waits for a CMake reload, if any
+    public synchronized void cancelPending() {
+        if ((pendingIndicator != null && pendingIndicator.isRunning()) || pendingReload != null) {
+            SysTestMetrics.GLOBAL.counter(SysTestMetrics.LAUNCHES_SUPERSEDED).increment();
+        }
+        if (pendingIndicator != null) {
+            pendingIndicator.cancel();
+            pendingIndicator = null;
+        }
+        if (pendingReload != null) {
+            pendingReload.disconnect();
+            pendingReload = null;
+        }
+        preparing = null;
+    }
+
+    /// Whether the target is already covered by the launch that is being prepared or by a process that is running
+    public synchronized boolean isInFlight(SysTestTarget target) {
+        if (preparing != null && preparing.targets().stream().anyMatch(inFlight -> inFlight.covers(target))) {
+            return true;
+        }
+        return running.values().stream().flatMap(List::stream).anyMatch(inFlight -> inFlight.covers(target));
+    }
+
+    /// Called by the SysTestExecutionListener when a 'systest_plugin' process has terminated or could not be started
+    public synchronized void processFinished(ExecutionEnvironment environment) {
+        running.remove(environment);
+    }
+
+    private void prepare(Launch launch, boolean afterReload) {
+        new Task.Backgroundable(project, "Preparing system test launch", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                if (!registerIndicator(launch, indicator)) {
+                    return;
+                }
+                try {
+                    PreparedLaunch prepared = resolve(launch, afterReload, indicator);
+                    if (prepared == null) {
+                        if (afterReload) {
+                            preparationEnded(launch);
+                        }
+                        return;
+                    }
+                    indicator.checkCanceled();
+                    ApplicationManager.getApplication().invokeLater(() -> {
+                        if (isCurrent(launch) && !indicator.isCanceled()) {
+                            runOrShowError(launch, prepared);
+                        } else {
+                            preparationEnded(launch);
+                        }
+                    }, project.getDisposed());
+                } catch (ProcessCanceledException e) {
+                    preparationEnded(launch);
+                    throw e;
+                } catch (ExecutionException | RuntimeException e) {
+                    preparationEnded(launch);
+                    showError(launch, e);
+                }
+            }
+        }.queue();
+    }
+
+    /// The launch is resolved, or null if the 'systest' configuration does not exist yet and CMake is reloaded
+    private @Nullable PreparedLaunch resolve(Launch launch, boolean afterReload, ProgressIndicator indicator)
+            throws ExecutionException {
+        SysTestLaunchCache launchCache = SysTestLaunchCache.getInstance(project);
+
+        /// Find the "systest" Run/Debug configuration
+        indicator.setText2("Finding the 'systest' configuration");
+        RunnerAndConfigurationSettings systestSettings = ReadAction.compute(launchCache::getSystestSettings);
+        if (systestSettings == null) {
+            if (afterReload) {
+                printError(launch, "Could not find 'systest' configuration after CMake reload. \n " +
+                        "Please ensure that CMake can create the Run/Debug Configuration from the 'systest' target " +
+                        "or create the configuration manually if it is missing.\n");
+            } else {
+                printError(launch, "Could not find the 'systest' Run/Debug configuration. Reloading CMake... \n");
+                reloadCMake(launch);
+            }
+            return null;
+        }
+        indicator.checkCanceled();
+
+        /// Get the currently selected CMake profile and environment, resolved only once until CMake or the configurations change
+        indicator.setText2("Resolving the CMake profile");
+        SysTestLaunchContext launchContext = launchCache.getLaunchContext(systestSettings);
+        indicator.checkCanceled();
+
+        /// Get the correct test path from the environment, if index is specified, only run that single test.
+        /// Old test paths in the parameters are filtered out, the plugin path takes priority
+        indicator.setText2("Assembling the program parameters");
+        return new PreparedLaunch(systestSettings, launchContext, launchContext.parametersFor(launch.targets()));
+    }
+
+    /// Prepares the launch again once CMake has been reloaded, unless it has been superseded in the meantime
+    private void reloadCMake(Launch launch) {
+        synchronized (this) {
+            if (!isCurrent(launch)) {
+                return;
+            }
+            long reloadStart = System.nanoTime();
+            MessageBusConnection connection = project.getMessageBus().connect(this);
+            connection.subscribe(CMakeWorkspaceListener.TOPIC, new CMakeWorkspaceListener() {
+                @Override
+                public void reloadingFinished(boolean canceled) {
+                    synchronized (SysTestLaunchPipeline.this) {
+                        connection.disconnect();
+                        if (pendingReload != connection) {
+                            return;
+                        }
+                        pendingReload = null;
+                    }
+                    SysTestMetrics.GLOBAL.timer(SysTestMetrics.CMAKE_RELOAD_WAIT).recordSince(reloadStart);
+                    if (canceled) {
+                        printError(launch, "CMake Reload canceled. \n");
+                    }
+                    prepare(launch, true);
+                }
+            });
+            pendingReload = connection;
+        }
+
+        /// trigger cmake reload
+        CMakeWorkspace.getInstance(project).scheduleReload(true);
+    }
+
+    private synchronized boolean registerIndicator(Launch launch, ProgressIndicator indicator) {
+        if (!isCurrent(launch)) {
+            return false;
+        }
+        pendingIndicator = indicator;
+        return true;
+    }
+
+    private synchronized void preparationEnded(Launch launch) {
+        if (preparing == launch) {
+            preparing = null;
+        }
+    }
+
+    private synchronized boolean isCurrent(Launch launch) {
+        return launch.generation() == generation;
+    }
+
+    private void runOrShowError(Launch launch, PreparedLaunch prepared) {
+        synchronized (this) {
+            pendingIndicator = null;
+        }
+        preparationEnded(launch);
+        try {
+            if (!launch.runDebugger() && PluginSettings.getInstance().isWarmContainerEnabled()) {
+                /// A warm docker container runs the tests with 'docker exec', i.e. like a parallel run without a Run/Debug configuration
+                SysTestParallelRunner.run(project, testsOf(launch.targets()), true);
+                return;
+            }
+            ExecutionEnvironment environment = SysTestLineMarkerProvider.runSysTest(project, launch.runDebugger(), prepared, launch.targets());
+            synchronized (this) {
+                running.put(environment, launch.targets());
+            }
+        } catch (ExecutionException | RuntimeException e) {
+            showError(launch, e);
+        }
+    }
+
+    /// The single tests of the targets, whole files and directories are expanded via the SysTestFileIndex
+    private List<SysTestTarget> testsOf(List<SysTestTarget> targets) {
+        List<SysTestTarget> tests = new ArrayList<>();
+        for (SysTestTarget target : targets) {
+            if (target.testIndex() > 0) {
+                tests.add(target);
+            } else {
+                tests.addAll(SysTestFileIndex.getTestTargets(project, target.location()));
+            }
+        }
+        return tests;
+    }
+
+    private void showError(Launch launch, Exception e) {
+        StringBuilder message = new StringBuilder("Error: " + e.getMessage() + "\n");
+        for (StackTraceElement element : e.getStackTrace()) {
+            message.append(element).append("\n");
+        }
+        printError(launch, message.toString());
+    }
+
+    /// Prints to the launch's console, which is thread-safe, and shows the tool window
+    private void printError(Launch launch, String text) {
+        launch.consoleView().print(text, ConsoleViewContentType.ERROR_OUTPUT);
+        ApplicationManager.getApplication().invokeLater(
+                () -> SysTestToolWindow.getOrRegister(project).activate(null),
+                project.getDisposed());
+    }
+
+    @Override
+    public void dispose() {
+        cancelPending();
+    }
+}
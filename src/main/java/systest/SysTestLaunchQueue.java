@@ -0,0 +1,83 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.Alarm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Merges gutter clicks that arrive within a short time window into a single launch, i.e. a single before-run build
+/// and a single systest process for all requested targets. The window starts with the first click and is not extended
+/// by further clicks, so that a burst of clicks never delays the launch by more than the window.
+/// Targets that are covered by a target that is already queued, e.g. a test of a file that runs as a whole, or by a
+/// launch that is being prepared or running, see SysTestLaunchPipeline.isInFlight, are dropped
+public class SysTestLaunchQueue implements Disposable {
+    private final Project project;
+    private final Alarm alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+    /// Guarded by itself, like 'scheduled'
+    private final List<SysTestTarget> queued = new ArrayList<>();
+    /// Whether the launch of the queued targets has been scheduled, a target that replaces queued ones does not schedule it again
+    private boolean scheduled;
+
+    public SysTestLaunchQueue(Project project) {
+        this.project = project;
+    }
+
+    public static SysTestLaunchQueue getInstance(Project project) {
+        return project.getService(SysTestLaunchQueue.class);
+    }
+
+    /// Queues a run of the target, which is launched together with all targets queued within the window
+    public void submit(SysTestTarget target) {
+        if (SysTestLaunchPipeline.getInstance(project).isInFlight(target)) {
+            return;
+        }
+        int windowMillis = PluginSettings.getInstance().getLaunchCoalescingMillis();
+        if (windowMillis <= 0) {
+            SysTestLineMarkerProvider.startRunSysTest(project, false, target);
+            return;
+        }
+        synchronized (queued) {
+            if (queued.stream().anyMatch(pending -> pending.covers(target))) {
+                return;
+            }
+            queued.removeIf(target::covers);
+            queued.add(target);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        alarm.addRequest(this::launch, windowMillis);
+    }
+
+    private void launch() {
+        List<SysTestTarget> targets;
+        synchronized (queued) {
+            targets = List.copyOf(queued);
+            queued.clear();
+            scheduled = false;
+        }
+        if (!targets.isEmpty()) {
+            SysTestLineMarkerProvider.startRunSysTest(project, false, targets);
+        }
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -0,0 +1,170 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.lexer.LexerBase;
+import com.intellij.lexer.RestartableLexer;
+import com.intellij.lexer.TokenIterator;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/// Line-based lexer of system test files, every token is one whole line including its line break.
+/// A line's token type only depends on the line itself and on the state at its start, i.e. whether it follows a query,
+/// a "----" (expected results) or a source definition (inline source data). Since every line start is a valid restart
+/// point, the editor highlighter only relexes from the edited line on, even within huge blocks of expected results.
+/// Lines containing "----" are separators, consistent with SysTestBoundaryIndex
+public class SysTestLexer extends LexerBase implements RestartableLexer {
+    public static final int QUERY_STATE = 0;
+    public static final int RESULT_STATE = 1;
+    public static final int SOURCE_DATA_STATE = 2;
+
+    private CharSequence buffer;
+    private int bufferEnd;
+    private int tokenStart;
+    private int tokenEnd;
+    private int state;
+    private int nextState;
+    private IElementType tokenType;
+
+    @Override
+    public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+        this.buffer = buffer;
+        this.bufferEnd = endOffset;
+        this.tokenEnd = startOffset;
+        this.nextState = initialState;
+        advance();
+    }
+
+    @Override
+    public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState, TokenIterator tokenIterator) {
+        start(buffer, startOffset, endOffset, initialState);
+    }
+
+    @Override
+    public int getStartState() {
+        return QUERY_STATE;
+    }
+
+    @Override
+    public boolean isRestartableState(int state) {
+        return true;
+    }
+
+    @Override
+    public int getState() {
+        return state;
+    }
+
+    @Override
+    public @Nullable IElementType getTokenType() {
+        return tokenType;
+    }
+
+    @Override
+    public int getTokenStart() {
+        return tokenStart;
+    }
+
+    @Override
+    public int getTokenEnd() {
+        return tokenEnd;
+    }
+
+    @Override
+    public @NotNull CharSequence getBufferSequence() {
+        return buffer;
+    }
+
+    @Override
+    public int getBufferEnd() {
+        return bufferEnd;
+    }
+
+    @Override
+    public void advance() {
+        tokenStart = tokenEnd;
+        state = nextState;
+        if (tokenStart >= bufferEnd) {
+            tokenType = null;
+            return;
+        }
+        int lineEnd = tokenStart;
+        while (lineEnd < bufferEnd && buffer.charAt(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        tokenEnd = lineEnd < bufferEnd ? lineEnd + 1 : lineEnd;
+        tokenType = classify(lineEnd);
+    }
+
+    private IElementType classify(int lineEnd) {
+        int first = tokenStart;
+        while (first < lineEnd && Character.isWhitespace(buffer.charAt(first))) {
+            first++;
+        }
+        if (first == lineEnd) {
+            nextState = QUERY_STATE;
+            return SysTestTokenTypes.WHITE_SPACE;
+        }
+        if (containsMarker(first, lineEnd)) {
+            nextState = RESULT_STATE;
+            return SysTestTokenTypes.SEPARATOR;
+        }
+        if (buffer.charAt(first) == '#') {
+            nextState = QUERY_STATE;
+            return SysTestTokenTypes.COMMENT;
+        }
+        if (state == RESULT_STATE) {
+            return SysTestTokenTypes.RESULT_LINE;
+        }
+        if (startsWithKeyword(first, lineEnd, "Source")) {
+            nextState = SOURCE_DATA_STATE;
+            return SysTestTokenTypes.SOURCE_DEFINITION;
+        }
+        if (startsWithKeyword(first, lineEnd, "Sink") || startsWithKeyword(first, lineEnd, "Attach")
+                || startsWithKeyword(first, lineEnd, "Create")) {
+            nextState = QUERY_STATE;
+            return SysTestTokenTypes.SOURCE_DEFINITION;
+        }
+        if (state == SOURCE_DATA_STATE && !startsWithKeyword(first, lineEnd, "Select")) {
+            return SysTestTokenTypes.SOURCE_DATA;
+        }
+        nextState = QUERY_STATE;
+        return SysTestTokenTypes.QUERY_LINE;
+    }
+
+    private boolean containsMarker(int start, int end) {
+        int run = 0;
+        for (int i = start; i < end; i++) {
+            run = buffer.charAt(i) == '-' ? run + 1 : 0;
+            if (run == SysTestBoundaryIndex.MARKER.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /// Case-insensitive keyword followed by whitespace or the end of the line
+    private boolean startsWithKeyword(int start, int end, String keyword) {
+        if (end - start < keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toLowerCase(buffer.charAt(start + i)) != Character.toLowerCase(keyword.charAt(i))) {
+                return false;
+            }
+        }
+        return start + keyword.length() == end || Character.isWhitespace(buffer.charAt(start + keyword.length()));
+    }
+}
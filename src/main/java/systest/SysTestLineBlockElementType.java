@@ -0,0 +1,67 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.lang.ASTFactory;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementType;
+import org.jetbrains.annotations.NotNull;
+
+/// A block of consecutive lines of the same type, i.e. inline source data or expected results.
+/// The block is a chameleon: its content is a single leaf that is only created when the block is accessed,
+/// so that a test file with 100k lines of expected tuples consists of a handful of PSI nodes.
+/// An edit within the block only replaces the block, as long as all of its lines keep their type
+public class SysTestLineBlockElementType extends IReparseableElementType {
+    private final IElementType lineType;
+    private final int lexerState;
+
+    public SysTestLineBlockElementType(String debugName, IElementType lineType, int lexerState) {
+        super(debugName, SysTestLanguage.INSTANCE);
+        this.lineType = lineType;
+        this.lexerState = lexerState;
+    }
+
+    public IElementType getLineType() {
+        return lineType;
+    }
+
+    @Override
+    protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
+        return ASTFactory.leaf(lineType, chameleon.getChars());
+    }
+
+    /// The new text must still consist of complete lines that all lex as this block's line type
+    @Override
+    public boolean isReparseable(@NotNull ASTNode currentNode,
+                                 @NotNull CharSequence newText,
+                                 @NotNull Language fileLanguage,
+                                 @NotNull Project project) {
+        if (newText.isEmpty() || newText.charAt(newText.length() - 1) != '\n') {
+            return false;
+        }
+        SysTestLexer lexer = new SysTestLexer();
+        lexer.start(newText, 0, newText.length(), lexerState);
+        while (lexer.getTokenType() != null) {
+            if (lexer.getTokenType() != lineType) {
+                return false;
+            }
+            lexer.advance();
+        }
+        return true;
+    }
+}
@@ -15,41 +15,48 @@
 package systest;
 
 import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.codeInsight.daemon.GutterIconNavigationHandler;
 import com.intellij.codeInsight.daemon.LineMarkerProvider;
 import com.intellij.execution.*;
 import com.intellij.execution.executors.DefaultDebugExecutor;
 import com.intellij.execution.executors.DefaultRunExecutor;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.runners.ExecutionEnvironmentBuilder;
 import com.intellij.execution.ui.*;
+import com.intellij.ide.DataManager;
 import com.intellij.lang.Language;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.markup.GutterIconRenderer;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
-import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.*;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.ui.awt.RelativePoint;
 import com.intellij.icons.AllIcons;
-import com.intellij.ui.content.ContentFactory;
-import com.intellij.util.messages.MessageBusConnection;
 import com.jetbrains.cidr.cpp.cmake.model.CMakeConfiguration;
 import com.jetbrains.cidr.cpp.cmake.workspace.CMakeProfileInfo;
-import com.jetbrains.cidr.cpp.cmake.workspace.CMakeWorkspace;
-import com.jetbrains.cidr.cpp.cmake.workspace.CMakeWorkspaceListener;
 import com.jetbrains.cidr.cpp.execution.*;
 import com.jetbrains.cidr.cpp.toolchains.CPPEnvironment;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import com.intellij.openapi.project.Project;
+import javax.swing.*;
+import java.awt.event.MouseEvent;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import com.intellij.execution.impl.ConsoleViewImpl;
-import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
-import com.intellij.execution.ui.ConsoleView;
 import com.intellij.execution.RunManager;
 import com.intellij.execution.RunnerAndConfigurationSettings;
 import com.intellij.execution.ExecutionTarget;
@@ -57,16 +64,65 @@ import com.jetbrains.cidr.cpp.execution.CMakeAppRunConfiguration;
 
 public class SysTestLineMarkerProvider implements LineMarkerProvider  {
 
+    /// Tooltips and click handlers are shared by all markers and find their test from the marker's "----" leaf
+    /// only when they are used, so that a marker pass allocates nothing but the markers of the range it was asked about
+    private static final Function<PsiElement, String> RUN_ALL_TOOLTIP =
+            element -> "Run All System Tests in " + element.getContainingFile().getName();
+    private static final GutterIconNavigationHandler<PsiElement> RUN_ALL_HANDLER =
+            (e, element) -> SysTestLaunchQueue.getInstance(element.getProject())
+                    .submit(new SysTestTarget(element.getContainingFile().getVirtualFile(), 0));
+    private static final Function<PsiElement, String> RUN_TOOLTIP =
+            element -> SysTestGutterMarkers.Kind.RUN.tooltip(ordinalOf(element));
+    private static final GutterIconNavigationHandler<PsiElement> RUN_HANDLER =
+            (e, element) -> SysTestLaunchQueue.getInstance(element.getProject()).submit(targetOf(element));
+    private static final Function<PsiElement, String> DEBUG_TOOLTIP =
+            element -> SysTestGutterMarkers.Kind.DEBUG.tooltip(ordinalOf(element));
+    private static final GutterIconNavigationHandler<PsiElement> DEBUG_HANDLER =
+            (e, element) -> startRunSysTest(element.getProject(), true, targetOf(element));
+    private static final Function<PsiElement, String> PERFORMANCE_TOOLTIP =
+            element -> SysTestGutterMarkers.Kind.PERFORMANCE.tooltip(ordinalOf(element));
+    private static final GutterIconNavigationHandler<PsiElement> PERFORMANCE_HANDLER =
+            (e, element) -> showPerformancePopup(e, element.getProject(), targetOf(element));
+    private static final Function<PsiElement, String> SOURCE_DATA_TOOLTIP =
+            element -> "Open Source Data " + SysTestDataFile.sourcePath(
+                    element.getContainingFile().getViewProvider().getContents(), element.getTextRange().getStartOffset());
+    private static final GutterIconNavigationHandler<PsiElement> SOURCE_DATA_HANDLER =
+            (e, element) -> openSourceData(element);
+    private static final Function<PsiElement, String> BADGE_TOOLTIP = element -> {
+        SysTestRegressionDetector.Assessment assessment = SysTestPerformanceHistory.getInstance(element.getProject())
+                .getBadges(element.getContainingFile().getVirtualFile())
+                .get(ordinalOf(element));
+        return SysTestGutterMarkers.Kind.BADGE.tooltip(ordinalOf(element)) + " " + (assessment == null ? "has no recent runs" : assessment.describe());
+    };
+    private static final GutterIconNavigationHandler<PsiElement> BADGE_HANDLER =
+            (e, element) -> SysTestPerformanceView.show(element.getProject(), targetOf(element));
+    private static final Function<PsiElement, String> DIFF_TOOLTIP =
+            element -> SysTestGutterMarkers.Kind.DIFF.tooltip(ordinalOf(element));
+    private static final GutterIconNavigationHandler<PsiElement> DIFF_HANDLER =
+            (e, element) -> SysTestResultDiffView.show(element.getProject(), targetOf(element));
+
+    /// General Gutter Icon that runs all test in current file, attached to the first leaf of the file
     @Nullable
     @Override
     public LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
-
-        return null;
+        if (element.getFirstChild() != null || element.getTextRange().getStartOffset() != 0
+                || !(element.getContainingFile() instanceof SysTestFile)) {
+            return null;
+        }
+        return new LineMarkerInfo<>(
+                element,
+                element.getTextRange(),
+                AllIcons.Actions.RunAll,
+                RUN_ALL_TOOLTIP,
+                RUN_ALL_HANDLER,
+                GutterIconRenderer.Alignment.CENTER
+        );
     }
 
     /// The Plugin affects all files of type '.test' and '.test.disabled'
-    /// This searches the currently open file for queries and adds an interactable Gutter Icon
-    /// that can run/debug the corresponding system test
+    /// This adds interactable Gutter Icons to every "----" of the given elements that can run/debug/benchmark the
+    /// corresponding system test. The daemon asks for the visible range first and for the rest of the file afterward,
+    /// so only the markers of the requested elements are created
     @Override
     public void collectSlowLineMarkers(@NotNull List<? extends PsiElement> elements,
                                        @NotNull Collection<? super LineMarkerInfo<?>> result) {
@@ -75,184 +131,161 @@ public class SysTestLineMarkerProvider implements LineMarkerProvider  {
 
         PsiFile file = elements.get(0).getContainingFile();
 
-        if (file == null || !file.getName().endsWith(".test") && !file.getName().endsWith(".test_disabled") && !file.getName().endsWith(".test.disabled")) {
+        if (!(file instanceof SysTestFile)) {
             return;
         }
-
-        /// Pattern match all occurrences of a test using "----", which indicates the end of the system test query
-        String fileText = file.getText();
-        Pattern pattern = Pattern.compile("----");
-        Matcher matcher = pattern.matcher(fileText);
-
-        int systestIndex = 1;
-
-        /// General Gutter Icon that runs all test in current file
-        PsiElement firstElement = file.getFirstChild();
-        if (firstElement != null) {
-            /// Get the range of the first line
-            int firstLineEndOffset = fileText.indexOf('\n');
-            if (firstLineEndOffset == -1) {
-                firstLineEndOffset = fileText.length();
+        long start = System.nanoTime();
+        int matches = 0;
+
+        /// Only tests with a noteworthy performance history get a badge, most files have none
+        Map<Integer, SysTestRegressionDetector.Assessment> badges =
+                SysTestPerformanceHistory.getInstance(file.getProject()).getBadges(file.getVirtualFile());
+        SysTestLastRun lastRun = SysTestLastRun.getInstance(file.getProject());
+        VirtualFile virtualFile = file.getVirtualFile();
+        IntPredicate failed = lastRun.hasFailedTests()
+                ? ordinal -> lastRun.isFailed(new SysTestTarget(virtualFile, ordinal))
+                : ordinal -> false;
+        Document document = PsiDocumentManager.getInstance(file.getProject()).getDocument(file);
+        SysTestBoundaryIndex boundaries = document == null ? null : SysTestDocumentIndex.getBoundaries(document);
+        SysTestGutterMarkers.Sink<PsiElement> sink = (separator, kind, assessment) -> result.add(createMarker(separator, kind, assessment));
+
+        for (PsiElement element : elements) {
+            /// File sources can open their data, which is often far too large for the editor
+            if (element.getNode() != null && element.getNode().getElementType() == SysTestTokenTypes.SOURCE_DEFINITION) {
+                if (SysTestDataFile.sourcePath(file.getViewProvider().getContents(), element.getTextRange().getStartOffset()) != null) {
+                    result.add(new LineMarkerInfo<>(
+                            element,
+                            element.getTextRange(),
+                            AllIcons.Nodes.DataTables,
+                            SOURCE_DATA_TOOLTIP,
+                            SOURCE_DATA_HANDLER,
+                            GutterIconRenderer.Alignment.RIGHT
+                    ));
+                }
+                continue;
             }
+            /// Markers attach to the "----" leaves of the flat PSI, see SysTestParserDefinition
+            if (element.getNode() == null || element.getNode().getElementType() != SysTestTokenTypes.SEPARATOR) {
+                continue;
+            }
+            matches++;
+            int ordinal = boundaries == null ? 0 : SysTestGutterMarkers.ordinalAt(boundaries, element.getTextRange().getStartOffset());
+            SysTestGutterMarkers.collect(element, ordinal, badges, failed, sink);
+        }
+        SysTestMetrics.GLOBAL.timer(SysTestMetrics.MARKER_PASS).recordSince(start);
+        SysTestMetrics.GLOBAL.histogram(SysTestMetrics.MARKER_MATCHES).record(matches);
+    }
 
-            TextRange firstLineRange = new TextRange(0, firstLineEndOffset);
-
-            LineMarkerInfo<PsiElement> firstLineMarkerInfo = new LineMarkerInfo<>(
-                    firstElement,
-                    firstLineRange,
-                    AllIcons.Actions.RunAll,
-                    psiElement -> "Run All System Tests in " + file.getVirtualFile().getName(),
-                    (e, elt) -> { startRunSysTest(elt.getProject(), false, file, 0); },
-                    GutterIconRenderer.Alignment.CENTER
-            );
-            result.add(firstLineMarkerInfo);
+    /// The ordinal of the test that ends at the given "----" leaf, looked up in the incrementally maintained boundaries
+    public static int ordinalOf(PsiElement separator) {
+        Document document = PsiDocumentManager.getInstance(separator.getProject()).getDocument(separator.getContainingFile());
+        if (document == null) {
+            return 0;
         }
+        return SysTestGutterMarkers.ordinalAt(SysTestDocumentIndex.getBoundaries(document), separator.getTextRange().getStartOffset());
+    }
 
-        while (matcher.find()) {
+    public static SysTestTarget targetOf(PsiElement separator) {
+        return new SysTestTarget(separator.getContainingFile().getVirtualFile(), ordinalOf(separator));
+    }
 
-            int startOffset = matcher.start();
+    /// Opens the data file of a file source, its path is relative to the directory of the test file
+    private static void openSourceData(PsiElement definition) {
+        CharSequence text = definition.getContainingFile().getViewProvider().getContents();
+        int definitionStart = definition.getTextRange().getStartOffset();
+        String sourcePath = SysTestDataFile.sourcePath(text, definitionStart);
+        VirtualFile testFile = definition.getContainingFile().getVirtualFile();
+        if (sourcePath == null || testFile == null || testFile.getParent() == null) {
+            return;
+        }
+        Path path = Path.of(testFile.getParent().getPath()).resolve(sourcePath);
+        if (!Files.isRegularFile(path)) {
+            SysTestToolWindow.showConsole(definition.getProject(), SysTestDataFileView.TITLE).print(
+                    "The data file " + path + " does not exist\n", ConsoleViewContentType.ERROR_OUTPUT);
+            return;
+        }
+        String definitionLine = text.subSequence(definitionStart, SysTestQueryBlocks.lineEnd(text, definitionStart)).toString();
+        SysTestDataFileView.show(definition.getProject(), path, SysTestDataFile.columnNames(definitionLine));
+    }
 
-            /// Calculate line start and end offsets manually
-            int lineStartOffset = fileText.lastIndexOf('\n', startOffset - 1) + 1;
-            int lineEndOffset = fileText.indexOf('\n', startOffset);
-            if (lineEndOffset == -1) {
-                lineEndOffset = fileText.length();
-            }
+    /// The marker of the given kind with its shared tooltip and handler, see SysTestGutterMarkers
+    private static LineMarkerInfo<PsiElement> createMarker(PsiElement separator,
+                                                           SysTestGutterMarkers.Kind kind,
+                                                           @Nullable SysTestRegressionDetector.Assessment assessment) {
+        return switch (kind) {
+            case RUN -> new LineMarkerInfo<>(separator, separator.getTextRange(), AllIcons.Actions.Execute,
+                    RUN_TOOLTIP, RUN_HANDLER, GutterIconRenderer.Alignment.CENTER);
+            case DEBUG -> new LineMarkerInfo<>(separator, separator.getTextRange(), AllIcons.Actions.StartDebugger,
+                    DEBUG_TOOLTIP, DEBUG_HANDLER, GutterIconRenderer.Alignment.LEFT);
+            case PERFORMANCE -> new LineMarkerInfo<>(separator, separator.getTextRange(), AllIcons.Actions.Profile,
+                    PERFORMANCE_TOOLTIP, PERFORMANCE_HANDLER, GutterIconRenderer.Alignment.RIGHT);
+            /// Badge of the recent durations compared to the performance history
+            case BADGE -> new LineMarkerInfo<>(separator, separator.getTextRange(), badgeIcon(assessment.verdict()),
+                    BADGE_TOOLTIP, BADGE_HANDLER, GutterIconRenderer.Alignment.RIGHT);
+            /// Failed tests of the last run can compare their expected rows with the actual result
+            case DIFF -> new LineMarkerInfo<>(separator, separator.getTextRange(), AllIcons.Actions.Diff,
+                    DIFF_TOOLTIP, DIFF_HANDLER, GutterIconRenderer.Alignment.RIGHT);
+        };
+    }
 
-            /// Find the element that corresponds to the start of the line
-            PsiElement lineElement = file.findElementAt(lineStartOffset);
-            if (lineElement == null) continue;
-
-            TextRange lineTextRange = new TextRange(lineStartOffset, lineEndOffset);
-            int currentSystestIndex = systestIndex;
-
-            /// Create the LineMarkerInfo for the gutter icon
-            LineMarkerInfo<PsiElement> lineMarkerInfo = new LineMarkerInfo<>(
-                    lineElement,
-                    lineTextRange,
-                    AllIcons.Actions.Execute,
-                    psiElement -> "Run System Test " + currentSystestIndex,
-                    (e, elt) -> { startRunSysTest(elt.getProject(), false, file, currentSystestIndex); },
-                    GutterIconRenderer.Alignment.CENTER
-            );
-            result.add(lineMarkerInfo);
-
-            /// Create the LineMarkerInfo for the gutter icon, debugging variant
-            LineMarkerInfo<PsiElement> lineMarkerInfoDebug = new LineMarkerInfo<>(
-                    lineElement,
-                    lineTextRange,
-                    AllIcons.Actions.StartDebugger,
-                    psiElement -> "Debug System Test " + currentSystestIndex,
-                    (e, elt) -> { startRunSysTest(elt.getProject(), true, file, currentSystestIndex); },
-                    GutterIconRenderer.Alignment.LEFT
-            );
-            result.add(lineMarkerInfoDebug);
+    /// The benchmark, profile and scale runs of a test, offered in a popup at the clicked marker
+    private static void showPerformancePopup(MouseEvent e, Project project, SysTestTarget target) {
+        DefaultActionGroup group = new DefaultActionGroup(
+                DumbAwareAction.create("Benchmark", AllIcons.Actions.Profile, event -> SysTestBenchmarkRunner.run(project, target)),
+                DumbAwareAction.create("Profile", AllIcons.Actions.ProfileCPU, event -> SysTestProfileRunner.run(project, target)),
+                DumbAwareAction.create("Scale", AllIcons.Actions.ZoomIn, event -> SysTestScaleRunner.run(project, target)));
+        JBPopupFactory.getInstance()
+                .createActionGroupPopup("System Test " + target.testIndex(), group,
+                        DataManager.getInstance().getDataContext(e.getComponent()),
+                        JBPopupFactory.ActionSelectionAid.SPEEDSEARCH, true)
+                .show(new RelativePoint(e));
+    }
 
-            systestIndex++;
-        }
+    private static Icon badgeIcon(SysTestRegressionDetector.Verdict verdict) {
+        return switch (verdict) {
+            case FAST -> AllIcons.Actions.Lightning;
+            case SLOW -> AllIcons.General.Warning;
+            default -> AllIcons.General.Error;
+        };
+    }
+
+    /// The Plugin affects all files of type '.test', '.test.disabled' and '.test_disabled'
+    public static boolean isSysTestFile(String fileName) {
+        return fileName.endsWith(".test") || fileName.endsWith(".test_disabled") || fileName.endsWith(".test.disabled");
     }
 
     /// This function is called when the systest Gutter Icon is clicked.
     /// It finds the "systest" configuration, makes a "systest_plugin" copy and modifies the program arguments
     /// Then run/debug the plugin configuration
     public static void startRunSysTest(Project project, boolean runDebugger, PsiFile file, int testIndex) {
+        startRunSysTest(project, runDebugger, new SysTestTarget(file.getVirtualFile(), testIndex));
+    }
 
-        /// Save File to ensure recent changes apply to System Test run
-        saveFile(file);
-
-        /// Create Nes-Systest-Runner window or reuse existing one to show console output / potential errors
-        ConsoleView consoleView = new ConsoleViewImpl(project, false);
-        ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow("NES-Systest-Runner");
-        if (toolWindow == null) {
-            toolWindow = ToolWindowManager.getInstance(project).registerToolWindow(
-                    "NES-Systest-Runner",
-                    true,
-                    ToolWindowAnchor.BOTTOM);
-        }
-        var contentManager = toolWindow.getContentManager();
-        contentManager.removeAllContents(true);
-
-        /// Add console to the tool window content
-        var contentFactory = ContentFactory.getInstance();
-        var content = contentFactory.createContent(consoleView.getComponent(), "Command Output", false);
-        toolWindow.getContentManager().addContent(content);
-
-        try {
-            /// Find the "systest" Run/Debug configuration
-            RunManager runManager = RunManager.getInstance(project);
-            RunnerAndConfigurationSettings runnerAndConfigurationSettings = runManager
-                    .getAllSettings()
-                    .stream()
-                    .filter(confsettings -> "systest".equals(confsettings.getName()))
-                    .findFirst()
-                    .orElse(null);
-
-            if(runnerAndConfigurationSettings == null){
-                toolWindow.activate(null);
-                consoleView.print("Could not find the 'systest' Run/Debug configuration. Reloading CMake... \n", ConsoleViewContentType.ERROR_OUTPUT);
-                toolWindow.show(null);
-
-                CMakeWorkspace cMakeWorkspace = CMakeWorkspace.getInstance(project);
-
-                MessageBusConnection connection = project.getMessageBus().connect();
-
-                connection.subscribe(CMakeWorkspaceListener.TOPIC, new CMakeWorkspaceListener() {
-                    @Override
-                    public void reloadingFinished(boolean canceled) {
-                        if (canceled) {
-                            consoleView.print("CMake Reload canceled. \n", ConsoleViewContentType.ERROR_OUTPUT);
-                        }
-                        RunnerAndConfigurationSettings runnerAndConfigurationSettings = runManager
-                                .getAllSettings()
-                                .stream()
-                                .filter(confsettings -> "systest".equals(confsettings.getName()))
-                                .findFirst()
-                                .orElse(null);
-                        if(runnerAndConfigurationSettings == null){
-                            consoleView.print("Could not find 'systest' configuration after CMake reload. \n " +
-                                    "Please ensure that CMake can create the Run/Debug Configuration from the 'systest' target " +
-                                    "or create the configuration manually if it is missing.", ConsoleViewContentType.ERROR_OUTPUT);
-                            return;
-                        }
-
-                        runSysTest(project, runDebugger, runnerAndConfigurationSettings, file, testIndex);
-                        connection.disconnect();
-                    }
-                });
-
-                /// trigger cmake reload
-                CMakeWorkspace.getInstance(project).scheduleReload(true);
-            }
-            else{
-                runSysTest(project, runDebugger, runnerAndConfigurationSettings, file, testIndex);
-            }
-        }
-        catch(Exception e) {
-            toolWindow.activate(null);
-            consoleView.print("Error: " + e.getMessage() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
-            for (StackTraceElement element : e.getStackTrace()) {
-                consoleView.print(element.toString() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
-            }
-            toolWindow.show(null);
-        }
+    /// Runs/debugs a single test, a whole file or a whole directory
+    public static void startRunSysTest(Project project, boolean runDebugger, SysTestTarget target) {
+        startRunSysTest(project, runDebugger, List.of(target));
     }
-    public static void runSysTest(
+
+    /// Runs/debugs several targets within a single build and a single systest process, see SysTestLaunchQueue.
+    /// The launch is prepared in the background, see SysTestLaunchPipeline
+    public static void startRunSysTest(Project project, boolean runDebugger, List<SysTestTarget> targets) {
+        SysTestLaunchPipeline.getInstance(project).start(runDebugger, targets);
+    }
+
+    /// Copies the prepared launch into the "systest_plugin" configuration and runs/debugs it, called on the EDT.
+    /// Returns the execution environment of the launch
+    public static ExecutionEnvironment runSysTest(
             Project project,
             boolean runDebugger,
-            RunnerAndConfigurationSettings runnerAndConfigurationSettings,
-            PsiFile file,
-            int testIndex
-            ) {
+            SysTestLaunchPipeline.PreparedLaunch prepared,
+            List<SysTestTarget> targets
+            ) throws ExecutionException {
         RunManager runManager = RunManager.getInstance(project);
-        CMakeAppRunConfiguration cMakeAppRunConfigurationExisting = (CMakeAppRunConfiguration) runnerAndConfigurationSettings.getConfiguration();
+        SysTestLaunchCache launchCache = SysTestLaunchCache.getInstance(project);
+        CMakeAppRunConfiguration cMakeAppRunConfigurationExisting = (CMakeAppRunConfiguration) prepared.systestSettings().getConfiguration();
 
         /// Check if 'systest_plugin' configuration already exists and reuse
-        RunnerAndConfigurationSettings pluginConfigSettings = runManager
-                .getAllSettings()
-                .stream()
-                .filter(confsettings -> "systest_plugin".equals(confsettings.getName()))
-                .findFirst()
-                .orElse(null);
+        RunnerAndConfigurationSettings pluginConfigSettings = launchCache.getPluginSettings();
 
         if(pluginConfigSettings == null){
             /// Create systest_plugin configuration
@@ -263,64 +296,68 @@ public class SysTestLineMarkerProvider implements LineMarkerProvider  {
             runManager.addConfiguration(pluginConfigSettings);
         }
 
-        /// Get the currently selected CMake profile and environment
-        CMakeWorkspace cMakeWorkspace = CMakeWorkspace.getInstance(project);
-        ExecutionTarget executionTarget = ExecutionTargetManager.getInstance(project).findTarget(cMakeAppRunConfigurationExisting);
-        CMakeConfiguration cMakeConfiguration = cMakeAppRunConfigurationExisting.getBuildAndRunConfigurations(executionTarget).getRunConfiguration();
-        CMakeProfileInfo activeProfile = null;
-        try {
-            activeProfile = cMakeWorkspace.getProfileInfoFor(cMakeConfiguration);
-        } catch (ExecutionException e) {
-            throw new RuntimeException(e);
-        }
-        CPPEnvironment cppEnvironment = activeProfile.getEnvironment();
-
-        /// If index is specified, only run that single test
-        String testPath = file.getVirtualFile().getPath();
-        String testIndexSuffix = "";
-        if(testIndex > 0){
-            testIndexSuffix = ":" + String.format("%02d", testIndex);
-        }
-
-        /// Get the correct test path from the environment
-        String executablePath = cppEnvironment.toEnvPath(testPath);
-        String Parameters = "-t " + executablePath + testIndexSuffix;
-
-        /// Filter out old test path in parameters, if it exists; plugin path takes priority
-        String existingParameters = cMakeAppRunConfigurationExisting.getProgramParameters();
-        String cleanedOldParameters = "";
-        if(existingParameters != null){
-            String tPattern = "-t\\s+\\S+";
-            cleanedOldParameters = existingParameters.replaceAll(tPattern, "").trim();
-            tPattern = "--testLocation\\s+\\S+";
-            cleanedOldParameters = cleanedOldParameters.replaceAll(tPattern, "").trim();
-        }
-
         /// Change program parameters of plugin configuration
         CMakeAppRunConfiguration cMakeAppRunConfigurationPlugin = (CMakeAppRunConfiguration)  pluginConfigSettings.getConfiguration();
         cMakeAppRunConfigurationPlugin.setTargetAndConfigurationData(cMakeAppRunConfigurationExisting.getTargetAndConfigurationData());
         cMakeAppRunConfigurationPlugin.setExecutableData(cMakeAppRunConfigurationExisting.getExecutableData());
-        cMakeAppRunConfigurationPlugin.setProgramParameters(Parameters + " " + cleanedOldParameters);
+        cMakeAppRunConfigurationPlugin.setProgramParameters(prepared.parameters());
         pluginConfigSettings.setTemporary(false);
         cMakeAppRunConfigurationPlugin.setExplicitBuildTargetName(cMakeAppRunConfigurationExisting.getExplicitBuildTargetName());
+
+        /// Build before the run like the "systest" configuration. The saved configuration always keeps the build,
+        /// so that a later run of it, e.g. via Shift+F10, never runs a stale executable
+        List<BeforeRunTask<?>> beforeRunTasks = new ArrayList<>();
+        for (BeforeRunTask<?> task : cMakeAppRunConfigurationExisting.getBeforeRunTasks()) {
+            beforeRunTasks.add(task.clone());
+        }
+        cMakeAppRunConfigurationPlugin.setBeforeRunTasks(beforeRunTasks);
         runManager.setSelectedConfiguration(pluginConfigSettings);
 
+        /// If nothing the systest target is built from has changed since its last successful build with this profile,
+        /// e.g. only a '.test' file was edited, an unregistered copy without the before-run build is launched
+        SysTestBuildTracker buildTracker = SysTestBuildTracker.getInstance(project);
+        boolean skipBuild = PluginSettings.getInstance().getSkipUpToDateBuild() && buildTracker.isUpToDate(prepared.launchContext());
+        RunnerAndConfigurationSettings launchSettings = pluginConfigSettings;
+        if (skipBuild) {
+            CMakeAppRunConfiguration withoutBuild = (CMakeAppRunConfiguration) cMakeAppRunConfigurationPlugin.clone();
+            withoutBuild.setBeforeRunTasks(List.of());
+            launchSettings = runManager.createConfiguration(withoutBuild, pluginConfigSettings.getFactory());
+        } else {
+            buildTracker.buildStarted(prepared.launchContext());
+        }
+        SysTestMetrics.GLOBAL.counter(skipBuild ? SysTestMetrics.BUILDS_SKIPPED : SysTestMetrics.BUILDS_RUN).increment();
+
+        /// Remember the test text, so that a passing run can be recorded in the result cache,
+        /// and the profile and revision, so that the durations can be recorded in the performance history.
+        /// They are kept on the execution environment of this launch, so that the results of launches that overlap,
+        /// e.g. a debug click during a run, are not mixed up. The failures of the run replace those of the previous run,
+        /// see SysTestLastRun
+        Executor executor = runDebugger ? DefaultDebugExecutor.getDebugExecutorInstance() : DefaultRunExecutor.getRunExecutorInstance();
+        ExecutionEnvironment environment = ExecutionEnvironmentBuilder.create(executor, launchSettings).build();
+        SysTestResultCacheService.getInstance(project).launchStarted(environment, targets, prepared.launchContext());
+        SysTestPerformanceHistory.getInstance(project).launchStarted(environment, targets, prepared.launchContext());
+        SysTestLastRun.getInstance(project).launchStarted(environment, targets);
+
         /// Run/Debug the plugin configuration
-        if(runDebugger){
-            ProgramRunnerUtil.executeConfiguration(
-                    pluginConfigSettings,
-                    DefaultDebugExecutor.getDebugExecutorInstance()
-            );
+        ProgramRunnerUtil.executeConfiguration(environment, false, true);
+        return environment;
+    }
+
+    /// Saves the document of a test file or, for a directory, all documents
+    public static void saveTarget(Project project, SysTestTarget target) {
+        if (target.location().isDirectory()) {
+            PsiDocumentManager.getInstance(project).commitAllDocuments();
+            FileDocumentManager.getInstance().saveAllDocuments();
+            return;
         }
-        else{
-            ProgramRunnerUtil.executeConfiguration(
-                    pluginConfigSettings,
-                    DefaultRunExecutor.getRunExecutorInstance()
-            );
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(target.location());
+        if (psiFile != null) {
+            saveFile(psiFile);
         }
     }
 
     public static void saveFile(PsiFile psiFile) {
+        long start = System.nanoTime();
         VirtualFile virtualFile = psiFile.getVirtualFile();
         Document document = FileDocumentManager.getInstance().getDocument(virtualFile);
         if (document != null) {
@@ -328,5 +365,6 @@ public class SysTestLineMarkerProvider implements LineMarkerProvider  {
             psiDocumentManager.commitDocument(document);
             FileDocumentManager.getInstance().saveDocument(document);
         }
+        SysTestMetrics.GLOBAL.timer(SysTestMetrics.SAVE_FILE).recordSince(start);
     }
 }
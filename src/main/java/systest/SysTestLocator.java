@@ -0,0 +1,84 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.Location;
+import com.intellij.execution.PsiLocation;
+import com.intellij.execution.testframework.sm.runner.SMTestLocator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Navigates from a node of the test tree to the "----" line of the test.
+/// Location hints are either 'systest:///abs/path/Filter.test:03', if the file is known,
+/// or 'systest://Filter.test:03', which is looked up in the SysTestFileIndex
+public class SysTestLocator implements SMTestLocator {
+    public static final String PROTOCOL = "systest";
+    public static final SysTestLocator INSTANCE = new SysTestLocator();
+
+    public static String locationHint(SysTestTarget target) {
+        return PROTOCOL + "://" + target.hostLocation();
+    }
+
+    public static String locationHint(SysTestOutputParser.Result result) {
+        String fileName = result.name().endsWith(".test") ? result.name() : result.name() + ".test";
+        return PROTOCOL + "://" + SysTestFileIndex.testName(fileName, result.ordinal());
+    }
+
+    @Override
+    public @NotNull List<Location> getLocation(@NotNull String protocol,
+                                               @NotNull String path,
+                                               @NotNull Project project,
+                                               @NotNull GlobalSearchScope scope) {
+        List<Location> locations = new ArrayList<>();
+        int separator = path.lastIndexOf(':');
+        if (!PROTOCOL.equals(protocol) || separator < 0) {
+            return locations;
+        }
+
+        if (path.contains("/")) {
+            VirtualFile file = LocalFileSystem.getInstance().findFileByPath(path.substring(0, separator));
+            if (file != null) {
+                String key = SysTestFileIndex.testName(file.getName(), Integer.parseInt(path.substring(separator + 1)));
+                SysTestIndexEntry entry = FileBasedIndex.getInstance().getFileData(SysTestFileIndex.NAME, file, project).get(key);
+                addLocation(project, file, entry, locations);
+            }
+            return locations;
+        }
+
+        FileBasedIndex.getInstance().processValues(SysTestFileIndex.NAME, path, null, (file, entry) -> {
+            addLocation(project, file, entry, locations);
+            return true;
+        }, scope);
+        return locations;
+    }
+
+    private static void addLocation(Project project, VirtualFile file, SysTestIndexEntry entry, List<Location> locations) {
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        if (psiFile == null || entry == null) {
+            return;
+        }
+        PsiElement element = psiFile.findElementAt(entry.offset());
+        locations.add(new PsiLocation<>(project, element != null ? element : psiFile));
+    }
+}
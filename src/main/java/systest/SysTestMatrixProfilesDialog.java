@@ -0,0 +1,76 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.execution.ExecutionTarget;
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBCheckBox;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/// Asks which CMake profiles a SysTestMatrixRunner run uses. The selection is remembered per project
+public final class SysTestMatrixProfilesDialog extends DialogWrapper {
+    private static final String SELECTION_PROPERTY = "systest.matrix.profiles";
+
+    private final List<ExecutionTarget> profiles;
+    private final List<JBCheckBox> checkBoxes = new ArrayList<>();
+
+    private SysTestMatrixProfilesDialog(Project project, List<ExecutionTarget> profiles) {
+        super(project);
+        this.profiles = profiles;
+        List<String> selected = PropertiesComponent.getInstance(project).getList(SELECTION_PROPERTY);
+        for (ExecutionTarget profile : profiles) {
+            checkBoxes.add(new JBCheckBox(profile.getDisplayName(),
+                    selected == null || selected.contains(profile.getDisplayName())));
+        }
+        setTitle("Run System Tests with CMake Profiles");
+        init();
+    }
+
+    /// The chosen profiles, or null if the dialog was canceled or no profile was chosen
+    public static @Nullable List<ExecutionTarget> choose(Project project, List<ExecutionTarget> profiles) {
+        SysTestMatrixProfilesDialog dialog = new SysTestMatrixProfilesDialog(project, profiles);
+        if (!dialog.showAndGet()) {
+            return null;
+        }
+        List<ExecutionTarget> chosen = new ArrayList<>();
+        for (int i = 0; i < profiles.size(); i++) {
+            if (dialog.checkBoxes.get(i).isSelected()) {
+                chosen.add(profiles.get(i));
+            }
+        }
+        PropertiesComponent.getInstance(project).setList(SELECTION_PROPERTY,
+                chosen.stream().map(ExecutionTarget::getDisplayName).toList());
+        return chosen.isEmpty() ? null : chosen;
+    }
+
+    @Override
+    protected JComponent createCenterPanel() {
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        if (profiles.isEmpty()) {
+            panel.add(new JLabel("The 'systest' configuration has no CMake profiles, please reload CMake"));
+        }
+        for (JBCheckBox checkBox : checkBoxes) {
+            panel.add(checkBox);
+        }
+        return panel;
+    }
+}
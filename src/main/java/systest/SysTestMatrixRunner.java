@@ -0,0 +1,136 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.ExecutionTarget;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.jetbrains.cidr.cpp.execution.CMakeAppRunConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// Runs the same system tests with several CMake profiles at once, e.g. Debug, RelWithDebInfo, a sanitizer build and
+/// a docker toolchain, and shows pass/fail and duration side by side in the SysTestMatrixView.
+/// Every profile resolves its own launch context, i.e. its own built executable and CPPEnvironment path translation,
+/// and runs the tests one after another in its own thread, so the profiles run concurrently
+public final class SysTestMatrixRunner {
+    private SysTestMatrixRunner() {
+    }
+
+    /// A single test run with the profile in column 'profile' of the matrix
+    record Cell(int profile, SysTestTarget test) {
+    }
+
+    /// Asks for the profiles and runs the targets with each of them, 'targets' are single tests
+    public static void run(Project project, List<SysTestTarget> targets) {
+        FileDocumentManager.getInstance().saveAllDocuments();
+
+        RunnerAndConfigurationSettings systestSettings = SysTestLaunchCache.getInstance(project).getSystestSettings();
+        if (systestSettings == null) {
+            SysTestToolWindow.showConsole(project, SysTestMatrixView.TITLE).print("Could not find the 'systest' Run/Debug configuration. \n" +
+                    "Please reload CMake or run a single system test first.\n", ConsoleViewContentType.ERROR_OUTPUT);
+            return;
+        }
+        List<ExecutionTarget> profiles = SysTestMatrixProfilesDialog.choose(
+                project, SysTestLaunchContext.executionTargets(project, systestSettings));
+        if (profiles == null) {
+            return;
+        }
+
+        CMakeAppRunConfiguration configuration = (CMakeAppRunConfiguration) systestSettings.getConfiguration();
+        SysTestMatrixView view = SysTestMatrixView.show(project, targets,
+                profiles.stream().map(ExecutionTarget::getDisplayName).toList());
+        new Task.Backgroundable(project, "Running " + targets.size() + " system tests with " + profiles.size() + " CMake profiles", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                runMatrix(project, configuration, profiles, targets, view, indicator);
+            }
+        }.queue();
+    }
+
+    private static void runMatrix(Project project,
+                                  CMakeAppRunConfiguration configuration,
+                                  List<ExecutionTarget> profiles,
+                                  List<SysTestTarget> targets,
+                                  SysTestMatrixView view,
+                                  ProgressIndicator indicator) {
+        SysTestPerformanceHistory history = SysTestPerformanceHistory.getInstance(project);
+        List<SysTestLaunchContext> launchContexts = new ArrayList<>();
+        List<SysTestPerformanceHistory.Session> sessions = new ArrayList<>();
+        List<List<Cell>> shards = new ArrayList<>();
+        for (int profile = 0; profile < profiles.size(); profile++) {
+            SysTestLaunchContext launchContext = null;
+            try {
+                launchContext = SysTestLaunchContext.resolve(project, configuration, profiles.get(profile));
+                launchContext.requireExecutable();
+            } catch (ExecutionException e) {
+                view.profileFailed(profile, e.getMessage());
+                launchContext = null;
+            }
+            launchContexts.add(launchContext);
+            sessions.add(launchContext == null ? null : history.startSession(launchContext, false));
+            if (launchContext != null) {
+                int column = profile;
+                shards.add(targets.stream().map(test -> new Cell(column, test)).toList());
+            }
+        }
+
+        int total = shards.stream().mapToInt(List::size).sum();
+        AtomicInteger finished = new AtomicInteger();
+        try {
+            SysTestShardExecutor.execute(
+                    shards,
+                    cell -> runCell(launchContexts.get(cell.profile()), cell, view, indicator),
+                    result -> {
+                        if (indicator.isCanceled()) {
+                            return;
+                        }
+                        Cell cell = result.test();
+                        if (result.error() != null) {
+                            view.cellFinished(cell, false, result.durationMillis(), result.error() + "\n");
+                        } else {
+                            sessions.get(cell.profile()).record(cell.test(), result.durationMillis(), result.passed());
+                        }
+                        indicator.setFraction((double) finished.incrementAndGet() / total);
+                    },
+                    indicator::isCanceled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /// Runs a single test with the launch context of its profile and reports it to the matrix together with its output
+    private static int runCell(SysTestLaunchContext launchContext,
+                               Cell cell,
+                               SysTestMatrixView view,
+                               ProgressIndicator indicator) throws ExecutionException {
+        long start = System.nanoTime();
+        SysTestProcesses.Result result = launchContext.run(cell.test(), indicator);
+        if (!result.canceled()) {
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            view.cellFinished(cell, result.exitCode() == 0, durationMillis, result.outputTail());
+        }
+        return result.exitCode();
+    }
+}
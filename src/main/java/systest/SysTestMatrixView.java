@@ -0,0 +1,156 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.testFramework.LightVirtualFile;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+
+import javax.swing.table.DefaultTableModel;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// The "Profile Matrix" tab of the NES-Systest-Runner tool window: one row per test and one column per CMake profile
+/// with the pass/fail status and duration of the test with that profile, and a last row with the totals per profile.
+/// Double-click a cell to open the output of the run. Updated from the threads of the SysTestMatrixRunner
+public final class SysTestMatrixView {
+    public static final String TITLE = "Profile Matrix";
+
+    /// Per profile, only accessed on the EDT
+    private static final class Totals {
+        private int passed;
+        private int failed;
+        private long durationMillis;
+        private String error;
+
+        @Override
+        public String toString() {
+            if (error != null) {
+                return "not run: " + error;
+            }
+            return passed + " passed, " + failed + " failed, " + durationMillis + " ms";
+        }
+    }
+
+    private final Project project;
+    private final List<SysTestTarget> tests;
+    private final List<String> profiles;
+    private final DefaultTableModel model;
+    private final Map<SysTestTarget, Integer> rows = new HashMap<>();
+    private final List<Totals> totals = new ArrayList<>();
+    /// Output of every finished cell, keyed by row and column, only accessed on the EDT
+    private final Map<Position, String> outputs = new HashMap<>();
+
+    private record Position(int row, int column) {
+    }
+
+    private SysTestMatrixView(Project project, List<SysTestTarget> tests, List<String> profiles) {
+        this.project = project;
+        this.tests = tests;
+        this.profiles = profiles;
+        List<String> columns = new ArrayList<>();
+        columns.add("Test");
+        columns.addAll(profiles);
+        this.model = new DefaultTableModel(columns.toArray(), 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (SysTestTarget test : tests) {
+            rows.put(test, model.getRowCount());
+            Object[] row = new Object[columns.size()];
+            row[0] = test.location().getName() + ":" + test.testIndex();
+            for (int column = 1; column < row.length; column++) {
+                row[column] = "...";
+            }
+            model.addRow(row);
+        }
+        Object[] totalRow = new Object[columns.size()];
+        totalRow[0] = "Total";
+        for (int profile = 0; profile < profiles.size(); profile++) {
+            Totals profileTotals = new Totals();
+            totals.add(profileTotals);
+            totalRow[profile + 1] = profileTotals.toString();
+        }
+        model.addRow(totalRow);
+    }
+
+    /// Shows an empty matrix of the tests and profiles, the cells are filled while the tests finish
+    public static SysTestMatrixView show(Project project, List<SysTestTarget> tests, List<String> profiles) {
+        SysTestMatrixView view = new SysTestMatrixView(project, tests, profiles);
+        JBTable table = new JBTable(view.model);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    view.openOutput(table.rowAtPoint(e.getPoint()), table.columnAtPoint(e.getPoint()));
+                }
+            }
+        });
+        SysTestToolWindow.showContent(project, TITLE, new JBScrollPane(table), Disposer.newDisposable());
+        return view;
+    }
+
+    /// Called from the thread of the profile's runs
+    public void cellFinished(SysTestMatrixRunner.Cell cell, boolean passed, long durationMillis, String output) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            int row = rows.get(cell.test());
+            int column = cell.profile() + 1;
+            model.setValueAt((passed ? "✓ " : "✗ ") + durationMillis + " ms", row, column);
+            outputs.put(new Position(row, column), output);
+            Totals profileTotals = totals.get(cell.profile());
+            if (passed) {
+                profileTotals.passed++;
+            } else {
+                profileTotals.failed++;
+            }
+            profileTotals.durationMillis += durationMillis;
+            model.setValueAt(profileTotals.toString(), tests.size(), column);
+        }, project.getDisposed());
+    }
+
+    /// The profile could not run any test, e.g. because its systest executable has not been built
+    public void profileFailed(int profile, String error) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            Totals profileTotals = totals.get(profile);
+            profileTotals.error = error;
+            for (int row = 0; row < tests.size(); row++) {
+                model.setValueAt("not run", row, profile + 1);
+            }
+            model.setValueAt(profileTotals.toString(), tests.size(), profile + 1);
+        }, project.getDisposed());
+    }
+
+    private void openOutput(int row, int column) {
+        String output = outputs.get(new Position(row, column));
+        if (output == null) {
+            return;
+        }
+        SysTestTarget test = tests.get(row);
+        LightVirtualFile file = new LightVirtualFile(
+                test.location().getName() + ":" + test.testIndex() + " [" + profiles.get(column - 1) + "].log", output);
+        file.setWritable(false);
+        FileEditorManager.getInstance(project).openFile(file, true);
+    }
+}
@@ -0,0 +1,222 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/// Low-overhead counters and histograms of the plugin's own hot paths, shown in the "Diagnostics" tab, see
+/// SysTestDiagnosticsView. Recording a value only increments a few atomics and never allocates or locks, so that the
+/// metrics can stay enabled in every marker pass. Histograms have logarithmic buckets with 8 linear sub-buckets per
+/// power of two, i.e. percentiles are exact up to 16 and within 12.5 % above.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestMetrics {
+    /// The metrics of the whole IDE session, all projects share them
+    public static final SysTestMetrics GLOBAL = new SysTestMetrics();
+
+    public static final String MARKER_PASS = "marker.pass";
+    public static final String MARKER_MATCHES = "marker.matches";
+    public static final String SAVE_FILE = "save.file";
+    public static final String RESOLVE_CACHED = "launch.resolve.cached";
+    public static final String RESOLVE_FRESH = "launch.resolve.fresh";
+    public static final String CMAKE_RELOAD_WAIT = "cmake.reload.wait";
+    public static final String CLICK_TO_SCHEDULED = "launch.click-to-scheduled";
+    public static final String CLICK_TO_PROCESS_START = "launch.click-to-process-start";
+    public static final String LAUNCHES_SUPERSEDED = "launch.superseded";
+    public static final String BUILDS_RUN = "build.run";
+    public static final String BUILDS_SKIPPED = "build.skipped";
+
+    private static final int LINEAR_LIMIT = 16;
+    private static final int SUB_BUCKETS = 8;
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - 4) * SUB_BUCKETS;
+
+    public enum Unit {
+        NANOSECONDS, COUNT
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    public static final class Histogram {
+        private final Unit unit;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder sum = new LongAdder();
+        /// Only written when a new maximum is recorded, i.e. rarely once the histogram has warmed up
+        private final AtomicLong max = new AtomicLong();
+
+        private Histogram(Unit unit) {
+            this.unit = unit;
+        }
+
+        /// Negative values are recorded as 0
+        public void record(long value) {
+            long clamped = Math.max(0, value);
+            buckets.incrementAndGet(bucketOf(clamped));
+            sum.add(clamped);
+            long current = max.get();
+            while (clamped > current && !max.compareAndSet(current, clamped)) {
+                current = max.get();
+            }
+        }
+
+        /// Records the time since 'startNanos', a value of System.nanoTime()
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        /// A consistent enough view for display, values recorded concurrently may be missing from some fields
+        public Stats stats(String name) {
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+                total += snapshot[i];
+            }
+            long maximum = max.get();
+            return new Stats(name, unit, total, sum.sum(),
+                    percentile(snapshot, total, 50, maximum),
+                    percentile(snapshot, total, 95, maximum),
+                    percentile(snapshot, total, 99, maximum),
+                    maximum);
+        }
+    }
+
+    public record Stats(String name, Unit unit, long count, long sum, long p50, long p95, long p99, long max) {
+        public long mean() {
+            return count == 0 ? 0 : sum / count;
+        }
+    }
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /// Durations in nanoseconds, e.g. via recordSince
+    public Histogram timer(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram(Unit.NANOSECONDS));
+    }
+
+    /// Plain numbers, e.g. the number of markers of a pass
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram(Unit.COUNT));
+    }
+
+    /// All histograms, sorted by name
+    public List<Stats> histogramStats() {
+        List<Stats> stats = new ArrayList<>();
+        new ConcurrentSkipListMap<>(histograms).forEach((name, histogram) -> stats.add(histogram.stats(name)));
+        return stats;
+    }
+
+    /// All counters, sorted by name
+    public Map<String, Long> counterValues() {
+        Map<String, Long> values = new ConcurrentSkipListMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.get()));
+        return values;
+    }
+
+    public void reset() {
+        counters.clear();
+        histograms.clear();
+    }
+
+    /// All metrics as a JSON object, e.g. to attach to a report that the plugin "feels slow"
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"counters\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Long> counter : counterValues().entrySet()) {
+            json.append(separator).append("    ").append(quote(counter.getKey())).append(": ").append(counter.getValue());
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"histograms\": {");
+        separator = "\n";
+        for (Stats stats : histogramStats()) {
+            json.append(separator).append("    ").append(quote(stats.name())).append(": {")
+                    .append("\"unit\": ").append(quote(stats.unit().name().toLowerCase()))
+                    .append(", \"count\": ").append(stats.count())
+                    .append(", \"sum\": ").append(stats.sum())
+                    .append(", \"mean\": ").append(stats.mean())
+                    .append(", \"p50\": ").append(stats.p50())
+                    .append(", \"p95\": ").append(stats.p95())
+                    .append(", \"p99\": ").append(stats.p99())
+                    .append(", \"max\": ").append(stats.max())
+                    .append("}");
+            separator = ",\n";
+        }
+        return json.append("\n  }\n}\n").toString();
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    /// The smallest value of a bucket
+    static long lowerBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 4;
+        int subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - 3);
+    }
+
+    /// Nearest-rank percentile, reported as the middle of its bucket but never above the maximum
+    private static long percentile(long[] buckets, long total, int percent, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank) {
+                if (bucket < LINEAR_LIMIT) {
+                    return bucket;
+                }
+                long lower = lowerBound(bucket);
+                long upper = bucket + 1 < BUCKETS ? lowerBound(bucket + 1) : Long.MAX_VALUE;
+                return Math.min(max, lower + (upper - lower) / 2);
+            }
+        }
+        return max;
+    }
+
+    private static String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
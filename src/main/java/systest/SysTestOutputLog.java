@@ -0,0 +1,294 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/// The output of a run, kept off the heap: every line is appended to a temp file that is read back block by block
+/// via memory mapping, so that the whole output can be paged and searched.
+/// On the heap, only a ring buffer with the last lines for display is kept, in which runs of tuple lines with the same
+/// layout, e.g. the rows of a result mismatch dump, are folded after their first lines.
+/// Text is processed line by line, a trailing partial line is kept until its line break arrives.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestOutputLog implements Closeable {
+    /// Every this many lines, the file offset of the line start is indexed
+    public static final int INDEX_STRIDE = 256;
+    /// Lines of a run of tuple lines with the same layout that are shown before the rest of the run is folded
+    public static final int FOLD_AFTER = 3;
+
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(64 * 1024);
+    private long fileLength;
+    /// lineStarts[i] is the file offset of line i * INDEX_STRIDE
+    private long[] lineStarts = new long[64];
+    private long lineCount;
+    private final StringBuilder partialLine = new StringBuilder();
+
+    private final int capacityChars;
+    private final ArrayDeque<String> ring = new ArrayDeque<>();
+    private int ringChars;
+    private long droppedLines;
+
+    /// The run of tuple lines that is currently being folded
+    private String runLayout;
+    private long runLength;
+
+    /// The most recently read block, scrolling through a page reads the same block again and again
+    private long cachedBlock = -1;
+    private String[] cachedLines;
+    private boolean closed;
+
+    private SysTestOutputLog(FileChannel channel, int capacityChars) {
+        this.channel = channel;
+        this.capacityChars = capacityChars;
+    }
+
+    /// A new log in a temp file that is deleted on close (on Linux, already when it is opened), showing about 'capacityChars' characters of the latest output
+    public static SysTestOutputLog create(int capacityChars) throws IOException {
+        Path file = Files.createTempFile("nes-systest-output", ".log");
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        return new SysTestOutputLog(channel, capacityChars);
+    }
+
+    /// Appends output and returns the text to display for it: all completed lines, with tuple runs folded
+    public synchronized String append(CharSequence text) {
+        if (closed) {
+            return "";
+        }
+        StringBuilder display = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                partialLine.append(text, start, i);
+                completeLine(partialLine.toString(), display);
+                partialLine.setLength(0);
+                start = i + 1;
+            }
+        }
+        partialLine.append(text, start, text.length());
+        return display.toString();
+    }
+
+    /// Completes a trailing partial line and a pending fold, e.g. when the process has terminated
+    public synchronized String flush() {
+        if (closed) {
+            return "";
+        }
+        StringBuilder display = new StringBuilder();
+        if (!partialLine.isEmpty()) {
+            completeLine(partialLine.toString(), display);
+            partialLine.setLength(0);
+        }
+        endRun(display);
+        return display.toString();
+    }
+
+    /// The displayed lines that are still in the ring buffer, preceded by a note about dropped lines
+    public synchronized String tail() {
+        StringBuilder tail = new StringBuilder();
+        if (droppedLines > 0) {
+            tail.append("... ").append(droppedLines).append(" earlier lines are only in the full log\n");
+        }
+        for (String line : ring) {
+            tail.append(line);
+        }
+        return tail.toString();
+    }
+
+    /// Number of completed lines in the full log
+    public synchronized long lineCount() {
+        return lineCount;
+    }
+
+    /// A line of the full log, read from the temp file
+    public synchronized String line(long index) {
+        if (closed || index < 0 || index >= lineCount) {
+            return "";
+        }
+        return readBlock(index / INDEX_STRIDE)[(int) (index % INDEX_STRIDE)];
+    }
+
+    /// Index of the first line at or after 'fromLine' that contains 'needle', or -1.
+    /// Reads the temp file block by block, so that appending is only blocked for a single block at a time
+    public long find(String needle, long fromLine, BooleanSupplier canceled) {
+        long block = Math.max(0, fromLine) / INDEX_STRIDE;
+        while (!canceled.getAsBoolean()) {
+            String[] lines;
+            long count;
+            synchronized (this) {
+                count = lineCount;
+                if (closed || block * INDEX_STRIDE >= count) {
+                    return -1;
+                }
+                lines = readBlock(block);
+            }
+            long first = block * INDEX_STRIDE;
+            for (int i = (int) Math.max(0, fromLine - first); i < lines.length && first + i < count; i++) {
+                if (lines[i].contains(needle)) {
+                    return first + i;
+                }
+            }
+            block++;
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        cachedLines = null;
+        ring.clear();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            /// The file is deleted on close, there is nothing left to do
+        }
+    }
+
+    private void completeLine(String line, StringBuilder display) {
+        write(line);
+        String layout = tupleLayout(line);
+        if (layout != null && layout.equals(runLayout)) {
+            runLength++;
+        } else {
+            endRun(display);
+            runLayout = layout;
+            runLength = layout == null ? 0 : 1;
+        }
+        if (runLength <= FOLD_AFTER) {
+            show(line + "\n", display);
+        }
+    }
+
+    private void endRun(StringBuilder display) {
+        if (runLength > FOLD_AFTER) {
+            show("    ... " + (runLength - FOLD_AFTER) + " more rows folded, see the full log\n", display);
+        }
+        runLayout = null;
+        runLength = 0;
+    }
+
+    private void show(String line, StringBuilder display) {
+        display.append(line);
+        ring.addLast(line);
+        ringChars += line.length();
+        while (ringChars > capacityChars && ring.size() > 1) {
+            ringChars -= ring.removeFirst().length();
+            droppedLines++;
+        }
+    }
+
+    /// The separators of a tuple line, e.g. ",,|,," for '1,2,3 | 1,2,4' or "" for '42', or null if the line is no tuple line.
+    /// Tuple lines consist of numbers and separators only, so that test results and log messages are never folded
+    static String tupleLayout(String line) {
+        StringBuilder layout = new StringBuilder();
+        boolean hasDigit = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (c == ',' || c == '|') {
+                layout.append(c);
+            } else if (c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E' && c != ' ' && c != '\t' && c != '\r') {
+                return null;
+            }
+        }
+        return hasDigit ? layout.toString() : null;
+    }
+
+    private void write(String line) {
+        if (lineCount % INDEX_STRIDE == 0) {
+            int block = (int) (lineCount / INDEX_STRIDE);
+            if (block == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+            }
+            lineStarts[block] = fileLength;
+        }
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            if (bytes.length > writeBuffer.remaining()) {
+                flushWrites();
+            }
+            if (bytes.length > writeBuffer.capacity()) {
+                channel.write(ByteBuffer.wrap(bytes), fileLength);
+            } else {
+                writeBuffer.put(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fileLength += bytes.length;
+        lineCount++;
+        if ((lineCount - 1) / INDEX_STRIDE == cachedBlock) {
+            /// The cached block has grown
+            cachedBlock = -1;
+        }
+    }
+
+    private void flushWrites() throws IOException {
+        writeBuffer.flip();
+        long position = fileLength - writeBuffer.remaining();
+        while (writeBuffer.hasRemaining()) {
+            position += channel.write(writeBuffer, position);
+        }
+        writeBuffer.clear();
+    }
+
+    private String[] readBlock(long block) {
+        if (block == cachedBlock) {
+            return cachedLines;
+        }
+        try {
+            flushWrites();
+            long start = lineStarts[(int) block];
+            long firstOfNext = (block + 1) * INDEX_STRIDE;
+            long end = firstOfNext < lineCount ? lineStarts[(int) block + 1] : fileLength;
+            int lines = (int) (Math.min(firstOfNext, lineCount) - block * INDEX_STRIDE);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            String[] result = new String[lines];
+            int lineStart = 0;
+            int line = 0;
+            for (int i = 0; i < mapped.limit() && line < lines; i++) {
+                if (mapped.get(i) == '\n') {
+                    byte[] bytes = new byte[i - lineStart];
+                    mapped.get(lineStart, bytes);
+                    result[line++] = new String(bytes, StandardCharsets.UTF_8);
+                    lineStart = i + 1;
+                }
+            }
+            cachedBlock = block;
+            cachedLines = result;
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/// Parses single lines of systest's stdout. systest reports every finished test on one line, e.g.
+/// '3/12 Filter:03 .................... PASSED in 0.013 s' or 'Filter:04 ... FAILED',
+/// all other lines, e.g. result mismatch dumps, belong to the previously reported test.
+/// The parser is stateless and works line by line, so that the output never has to be buffered.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestOutputParser {
+    /// The name is a test file name, with or without '.test', so it starts with a letter; the status is upper case.
+    /// Log lines like '12:34:56 worker: failed to connect' are therefore not taken for results
+    private static final Pattern RESULT_LINE = Pattern.compile(
+            "^\\s*(?:\\d+/\\d+\\s+)?(?<name>[A-Za-z_][\\w.-]*?(?:\\.test)?):(?<ordinal>\\d+)\\b.*?\\b(?<status>PASSED|FAILED|SKIPPED)\\b"
+                    + "(?:.*?(?<duration>\\d+(?:\\.\\d+)?)\\s*(?<unit>ms|s)\\b)?");
+
+    private static final Pattern THROUGHPUT = Pattern.compile(
+            "(?<value>\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?)\\s*(?<unit>[kKmM])?\\s*(?:tuples|tuple|records|rows)\\s*/\\s*s",
+            Pattern.CASE_INSENSITIVE);
+
+    /// Lines longer than this are never result lines and are not matched, which keeps matching linear
+    public static final int MAX_RESULT_LINE_LENGTH = 4096;
+
+    public enum Status { PASSED, FAILED, SKIPPED }
+
+    /// durationMillis is -1 if systest did not report a duration
+    public record Result(String name, int ordinal, Status status, long durationMillis) {
+        /// The test name in the systest notation, e.g. 'Filter:03'
+        public String testName() {
+            return name + ":" + String.format("%02d", ordinal);
+        }
+    }
+
+    private SysTestOutputParser() {
+    }
+
+    /// The result reported by the line, or null if the line does not report a result
+    public static Result parseLine(CharSequence line) {
+        if (line.length() > MAX_RESULT_LINE_LENGTH) {
+            return null;
+        }
+        Matcher matcher = RESULT_LINE.matcher(line);
+        if (!matcher.find()) {
+            return null;
+        }
+        long durationMillis = -1;
+        if (matcher.group("duration") != null) {
+            double duration = Double.parseDouble(matcher.group("duration"));
+            durationMillis = Math.round("s".equals(matcher.group("unit")) ? duration * 1000 : duration);
+        }
+        return new Result(
+                matcher.group("name"),
+                Integer.parseInt(matcher.group("ordinal")),
+                Status.valueOf(matcher.group("status")),
+                durationMillis);
+    }
+
+    /// The last throughput in tuples per second that systest reports in the output, e.g. '1.5 M tuples/s',
+    /// or NaN if the output does not report a throughput
+    public static double parseThroughput(CharSequence output) {
+        Matcher matcher = THROUGHPUT.matcher(output);
+        double throughput = Double.NaN;
+        while (matcher.find()) {
+            throughput = Double.parseDouble(matcher.group("value"));
+            String unit = matcher.group("unit");
+            if ("k".equalsIgnoreCase(unit)) {
+                throughput *= 1e3;
+            } else if ("m".equalsIgnoreCase(unit)) {
+                throughput *= 1e6;
+            }
+        }
+        return throughput;
+    }
+}
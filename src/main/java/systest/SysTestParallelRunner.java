@@ -0,0 +1,194 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.executors.DefaultRunExecutor;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// Runs many system tests across several concurrent systest processes.
+/// The tests are sharded longest-first by the durations of earlier runs, every shard runs its tests one after another
+/// with the executable and environment resolved from the "systest" configuration.
+/// The results of all shards are merged into a single test tree together with the wall-clock speedup
+/// compared to running the same tests one after another.
+/// Tests that passed before with the same inputs are reported from the SysTestResultCacheService without running,
+/// unless 'forceRerun' is set
+public final class SysTestParallelRunner {
+    private SysTestParallelRunner() {
+    }
+
+    /// Receives the results of a parallel run, e.g. the test tree or the report of a headless run.
+    /// testFinished is called from the shard threads
+    public interface Reporter {
+        /// 'output' is attached to the test, e.g. the failure details of systest
+        void testFinished(SysTestTarget target, boolean passed, long durationMillis, String output);
+
+        /// Output that does not belong to a single test, e.g. a summary
+        void print(String text);
+    }
+
+    public static void run(Project project, List<SysTestTarget> targets, boolean forceRerun) {
+        FileDocumentManager.getInstance().saveAllDocuments();
+
+        /// Only the configuration is looked up here, its CMake profile is resolved in the background
+        RunnerAndConfigurationSettings systestSettings = SysTestLaunchCache.getInstance(project).getSystestSettings();
+        if (systestSettings == null) {
+            SysTestToolWindow.showConsole(project, "Parallel Run").print(SysTestLaunchContext.MISSING_CONFIGURATION, ConsoleViewContentType.ERROR_OUTPUT);
+            return;
+        }
+        SysTestTreeReporter reporter;
+        try {
+            reporter = SysTestTreeReporter.attach(project, systestSettings.getConfiguration(), DefaultRunExecutor.getRunExecutorInstance());
+        } catch (ExecutionException e) {
+            SysTestToolWindow.showConsole(project, "Parallel Run").print("Error: " + e.getMessage() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
+            return;
+        }
+
+        int parallelism = PluginSettings.getInstance().getEffectiveParallelism();
+        new Task.Backgroundable(project, "Running " + targets.size() + " system tests in parallel", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    SysTestLaunchContext launchContext = SysTestLaunchContext.resolveOrPrintError(project, reporter::print);
+                    if (launchContext == null) {
+                        return;
+                    }
+                    runShards(project, launchContext, targets, parallelism, forceRerun, reporter, indicator);
+                } finally {
+                    reporter.finish();
+                }
+            }
+        }.queue();
+    }
+
+    /// Runs the targets in shards and blocks until all of them are done, canceled or interrupted.
+    /// Returns whether every target ran and passed
+    public static boolean runShards(Project project,
+                                     SysTestLaunchContext launchContext,
+                                     List<SysTestTarget> targets,
+                                     int parallelism,
+                                     boolean forceRerun,
+                                     Reporter reporter,
+                                     ProgressIndicator indicator) {
+        SysTestDurations durations = SysTestDurations.getInstance(project);
+        SysTestResultCacheService resultCache = SysTestResultCacheService.getInstance(project);
+        SysTestPerformanceHistory.Session history = SysTestPerformanceHistory.getInstance(project).startSession(launchContext);
+        SysTestLastRun.Run lastRun = SysTestLastRun.getInstance(project).startRun();
+
+        /// Report cached passes instantly and only run the tests whose inputs changed
+        Map<SysTestTarget, String> keys = testKeys(resultCache, launchContext, targets);
+        List<SysTestTarget> invalidated = new ArrayList<>();
+        for (SysTestTarget target : targets) {
+            String key = keys.get(target);
+            if (!forceRerun && key != null && resultCache.isPassed(key)) {
+                reporter.testFinished(target, true, 0, "Passed before with the same test text, executable and parameters\n");
+            } else {
+                invalidated.add(target);
+            }
+        }
+        int cached = targets.size() - invalidated.size();
+
+        List<List<SysTestTarget>> shards = SysTestShardPlanner.plan(invalidated, durations::getDuration, parallelism);
+        reporter.print("Running " + invalidated.size() + " system tests in " + shards.size() + " shards, "
+                + cached + " passed before with the same inputs\n");
+
+        AtomicInteger finished = new AtomicInteger();
+        long wallStart = System.nanoTime();
+        List<SysTestShardExecutor.Result<SysTestTarget>> results;
+        try {
+            results = SysTestShardExecutor.execute(
+                    shards,
+                    target -> runTest(launchContext, target, reporter, indicator),
+                    result -> {
+                        if (indicator.isCanceled()) {
+                            return;
+                        }
+                        durations.setDuration(result.test(), result.durationMillis());
+                        String key = keys.get(result.test());
+                        if (key != null) {
+                            resultCache.recordResult(key, result.passed());
+                        }
+                        lastRun.record(result.test(), result.passed());
+                        if (result.error() != null) {
+                            reporter.testFinished(result.test(), false, result.durationMillis(), result.error() + "\n");
+                        } else {
+                            history.record(result.test(), result.durationMillis(), result.passed());
+                        }
+                        indicator.setFraction((double) finished.incrementAndGet() / invalidated.size());
+                    },
+                    indicator::isCanceled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - wallStart);
+
+        /// The serial path would run the same processes one after another, i.e. take the sum of all durations
+        long serialMillis = results.stream().mapToLong(SysTestShardExecutor.Result::durationMillis).sum();
+        long passed = results.stream().filter(SysTestShardExecutor.Result::passed).count();
+        reporter.print(String.format(
+                "\n%d passed, %d cached, %d failed, %d not run\nWall time: %d ms, serial time: %d ms, speedup: %.2fx\n",
+                passed,
+                cached,
+                results.size() - passed,
+                invalidated.size() - results.size(),
+                wallMillis,
+                serialMillis,
+                wallMillis == 0 ? 1.0 : (double) serialMillis / wallMillis));
+        return passed == invalidated.size();
+    }
+
+    /// The result cache key of every target, targets without a key cannot be cached
+    private static Map<SysTestTarget, String> testKeys(SysTestResultCacheService resultCache,
+                                                       SysTestLaunchContext launchContext,
+                                                       List<SysTestTarget> targets) {
+        Map<VirtualFile, String[]> keysByFile = new HashMap<>();
+        Map<SysTestTarget, String> keys = new HashMap<>();
+        for (SysTestTarget target : targets) {
+            String[] fileKeys = keysByFile.computeIfAbsent(target.location(), file -> resultCache.testKeys(file, launchContext));
+            if (fileKeys != null && target.testIndex() > 0 && target.testIndex() <= fileKeys.length) {
+                keys.put(target, fileKeys[target.testIndex() - 1]);
+            }
+        }
+        return keys;
+    }
+
+    /// Runs a single test and reports it to the tree together with its output
+    private static int runTest(SysTestLaunchContext launchContext,
+                               SysTestTarget target,
+                               Reporter reporter,
+                               ProgressIndicator indicator) throws ExecutionException {
+        long start = System.nanoTime();
+        SysTestProcesses.Result result = launchContext.run(target, indicator);
+        if (!result.canceled()) {
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            reporter.testFinished(target, result.exitCode() == 0, durationMillis, result.outputTail());
+        }
+        return result.exitCode();
+    }
+}
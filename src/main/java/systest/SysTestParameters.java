@@ -0,0 +1,52 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/// Rewrites the program parameters of the "systest" configuration for a plugin run:
+/// any test location of the user is removed, the test location of the plugin takes priority.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestParameters {
+    private static final Pattern TEST_LOCATION_SHORT = Pattern.compile("-t\\s+\\S+");
+    private static final Pattern TEST_LOCATION_LONG = Pattern.compile("--testLocation\\s+\\S+");
+
+    private SysTestParameters() {
+    }
+
+    /// Filter out old test path in parameters, if it exists; plugin path takes priority
+    public static String clean(String existingParameters) {
+        if (existingParameters == null) {
+            return "";
+        }
+        String cleaned = TEST_LOCATION_SHORT.matcher(existingParameters).replaceAll("").trim();
+        return TEST_LOCATION_LONG.matcher(cleaned).replaceAll("").trim();
+    }
+
+    /// The program parameters of a plugin run, e.g. '-t /path/Filter.test:03 --workerConfiguration ...'
+    public static String assemble(String testLocation, String cleanedParameters) {
+        return assemble(List.of(testLocation), cleanedParameters);
+    }
+
+    /// The program parameters of a plugin run of several tests, systest accepts '-t' repeatedly,
+    /// e.g. '-t /path/Filter.test:03 -t /path/Join.test --workerConfiguration ...'
+    public static String assemble(List<String> testLocations, String cleanedParameters) {
+        StringBuilder parameters = new StringBuilder();
+        for (String testLocation : testLocations) {
+            parameters.append("-t ").append(testLocation).append(' ');
+        }
+        return parameters.append(cleanedParameters).toString();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.ParserDefinition;
+import com.intellij.lang.PsiParser;
+import com.intellij.lexer.Lexer;
+import com.intellij.lexer.MergeFunction;
+import com.intellij.lexer.MergingLexerAdapterBase;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.tree.IFileElementType;
+import com.intellij.psi.tree.TokenSet;
+import org.jetbrains.annotations.NotNull;
+
+/// Flat PSI of system test files: the file consists of comments, sources (a definition with its inline data),
+/// queries, "----" separators and blocks of expected results, nothing is nested deeper.
+/// The parsing lexer merges consecutive lines of inline source data and expected results into a single chameleon token
+public class SysTestParserDefinition implements ParserDefinition {
+
+    @Override
+    public @NotNull Lexer createLexer(Project project) {
+        return new MergingLexerAdapterBase(new SysTestLexer()) {
+            private final MergeFunction mergeFunction = (type, originalLexer) -> {
+                SysTestLineBlockElementType blockType = type == SysTestTokenTypes.RESULT_LINE ? SysTestTokenTypes.RESULT_BLOCK
+                        : type == SysTestTokenTypes.SOURCE_DATA ? SysTestTokenTypes.SOURCE_DATA_BLOCK
+                        : null;
+                if (blockType == null) {
+                    return type;
+                }
+                while (originalLexer.getTokenType() == type) {
+                    originalLexer.advance();
+                }
+                return blockType;
+            };
+
+            @Override
+            public MergeFunction getMergeFunction() {
+                return mergeFunction;
+            }
+        };
+    }
+
+    @Override
+    public @NotNull PsiParser createParser(Project project) {
+        return (root, builder) -> {
+            var file = builder.mark();
+            while (!builder.eof()) {
+                var type = builder.getTokenType();
+                if (type == SysTestTokenTypes.SOURCE_DEFINITION) {
+                    var source = builder.mark();
+                    builder.advanceLexer();
+                    if (builder.getTokenType() == SysTestTokenTypes.SOURCE_DATA_BLOCK) {
+                        builder.advanceLexer();
+                    }
+                    source.done(SysTestTokenTypes.SOURCE);
+                } else if (type == SysTestTokenTypes.QUERY_LINE) {
+                    /// A query ends at a blank line or comment, which the builder would skip otherwise
+                    var query = builder.mark();
+                    do {
+                        builder.advanceLexer();
+                    } while (builder.getTokenType() == SysTestTokenTypes.QUERY_LINE && builder.rawLookup(-1) == SysTestTokenTypes.QUERY_LINE);
+                    query.done(SysTestTokenTypes.QUERY);
+                } else {
+                    builder.advanceLexer();
+                }
+            }
+            file.done(root);
+            return builder.getTreeBuilt();
+        };
+    }
+
+    @Override
+    public @NotNull IFileElementType getFileNodeType() {
+        return SysTestTokenTypes.FILE;
+    }
+
+    @Override
+    public @NotNull TokenSet getWhitespaceTokens() {
+        return SysTestTokenTypes.WHITE_SPACES;
+    }
+
+    @Override
+    public @NotNull TokenSet getCommentTokens() {
+        return SysTestTokenTypes.COMMENTS;
+    }
+
+    @Override
+    public @NotNull TokenSet getStringLiteralElements() {
+        return TokenSet.EMPTY;
+    }
+
+    @Override
+    public @NotNull PsiElement createElement(ASTNode node) {
+        return new ASTWrapperPsiElement(node);
+    }
+
+    @Override
+    public @NotNull PsiFile createFile(@NotNull FileViewProvider viewProvider) {
+        return new SysTestFile(viewProvider);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjLongConsumer;
+
+/// Per-project history of system test durations, persisted as SysTestPerformanceStore log in the IDE's system directory.
+/// Every run started from the gutter and every parallel run records the duration of each test together with the
+/// CMake profile and git revision it ran with. The gutter shows a fast/slow/regressed badge per test, assessed by
+/// SysTestRegressionDetector against the history of the profile that was used last
+public class SysTestPerformanceHistory implements Disposable {
+    private static final Logger LOG = Logger.getInstance(SysTestPerformanceHistory.class);
+    /// Number of runs per test and profile that are kept
+    public static final int WINDOW = 30;
+    private static final String PROFILE_PROPERTY = "systest.performance.profile";
+
+    private final Project project;
+    private final Map<String, Map<Integer, SysTestRegressionDetector.Assessment>> badges = new ConcurrentHashMap<>();
+    private final Set<VirtualFile> pendingRefresh = new HashSet<>();
+    private SysTestPerformanceStore store;
+    private boolean storeFailed;
+
+    /// A single run that has been started via the 'systest_plugin' configuration and has no test tree yet
+    private record PendingLaunch(Session session, List<SysTestTarget> targets) {
+    }
+
+    /// On the ExecutionEnvironment of a launch until its test tree is attached
+    private static final Key<PendingLaunch> PENDING_LAUNCH = Key.create("systest.SysTestPerformanceHistory.pendingLaunch");
+
+    /// The CMake profile and git revision of one launch, all durations of the launch are recorded with them
+    public final class Session {
+        private final String profile;
+        private final String revision;
+
+        private Session(String profile, String revision) {
+            this.profile = profile;
+            this.revision = revision;
+        }
+
+        public void record(SysTestTarget target, long durationMillis, boolean passed) {
+            SysTestPerformanceStore performanceStore = getStore();
+            if (performanceStore == null || durationMillis < 0) {
+                return;
+            }
+            SysTestPerformanceStore.Key key = new SysTestPerformanceStore.Key(target.hostLocation(), profile);
+            try {
+                performanceStore.append(key, new SysTestPerformanceStore.Sample(revision, System.currentTimeMillis(), durationMillis, passed));
+            } catch (IOException e) {
+                LOG.warn("Could not record the duration of " + key.test(), e);
+                return;
+            }
+            badges.remove(target.location().getPath());
+            scheduleRefresh(target.location());
+        }
+    }
+
+    public SysTestPerformanceHistory(Project project) {
+        this.project = project;
+    }
+
+    public static SysTestPerformanceHistory getInstance(Project project) {
+        return project.getService(SysTestPerformanceHistory.class);
+    }
+
+    /// Starts recording a launch with the given context, its profile becomes the one the gutter badges refer to
+    public Session startSession(SysTestLaunchContext launchContext) {
+        return startSession(launchContext, true);
+    }
+
+    /// Starts recording a launch with the given context. A run with several profiles at once, see SysTestMatrixRunner,
+    /// records all of them but keeps the profile of the gutter badges
+    public Session startSession(SysTestLaunchContext launchContext, boolean selectProfile) {
+        String profile = launchContext.profile().getProfile().getName();
+        if (selectProfile && !profile.equals(currentProfile())) {
+            PropertiesComponent.getInstance(project).setValue(PROFILE_PROPERTY, profile);
+            badges.clear();
+        }
+        String basePath = project.getBasePath();
+        return new Session(profile, basePath == null ? SysTestGitRevision.UNKNOWN : SysTestGitRevision.read(Path.of(basePath)));
+    }
+
+    /// Remembers a single run via the 'systest_plugin' configuration until its test tree is attached
+    public void launchStarted(ExecutionEnvironment environment, List<SysTestTarget> targets, SysTestLaunchContext launchContext) {
+        environment.putUserData(PENDING_LAUNCH, new PendingLaunch(startSession(launchContext), targets));
+    }
+
+    /// A listener for the results of the environment's launch, see SysTestEventsConverter, or null if there is none
+    public @Nullable ObjLongConsumer<SysTestOutputParser.Result> createRecorder(ExecutionEnvironment environment) {
+        PendingLaunch launch = environment.getUserData(PENDING_LAUNCH);
+        environment.putUserData(PENDING_LAUNCH, null);
+        if (launch == null) {
+            return null;
+        }
+        Map<String, Optional<VirtualFile>> filesByName = new ConcurrentHashMap<>();
+        return (result, durationMillis) -> {
+            if (result.status() == SysTestOutputParser.Status.SKIPPED) {
+                return;
+            }
+            String fileName = result.name().endsWith(".test") ? result.name() : result.name() + ".test";
+            filesByName.computeIfAbsent(fileName, name -> SysTestTarget.findTestFile(project, launch.targets(), name))
+                    .ifPresent(file -> launch.session().record(
+                            new SysTestTarget(file, result.ordinal()),
+                            durationMillis,
+                            result.status() == SysTestOutputParser.Status.PASSED));
+        };
+    }
+
+    /// The tests of a file whose latest runs with the profile that was used last are fast, slow or regressed,
+    /// keyed by ordinal. Computed once per file until one of its tests is recorded again, so that a marker pass
+    /// only does a map lookup per "----", and files without a noteworthy history share the empty map
+    public Map<Integer, SysTestRegressionDetector.Assessment> getBadges(VirtualFile file) {
+        return badges.computeIfAbsent(file.getPath(), this::computeBadges);
+    }
+
+    private Map<Integer, SysTestRegressionDetector.Assessment> computeBadges(String path) {
+        SysTestPerformanceStore performanceStore = getStore();
+        return performanceStore == null ? Map.of() : SysTestRegressionDetector.fileBadges(performanceStore, path, currentProfile());
+    }
+
+    private String currentProfile() {
+        return PropertiesComponent.getInstance(project).getValue(PROFILE_PROPERTY, "");
+    }
+
+    public List<SysTestPerformanceStore.Key> keys() {
+        SysTestPerformanceStore performanceStore = getStore();
+        return performanceStore == null ? List.of() : performanceStore.keys();
+    }
+
+    public List<SysTestPerformanceStore.Sample> samples(SysTestPerformanceStore.Key key) {
+        SysTestPerformanceStore performanceStore = getStore();
+        return performanceStore == null ? List.of() : performanceStore.samples(key);
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                LOG.warn("Could not close the system test performance history", e);
+            }
+            store = null;
+        }
+    }
+
+    /// Opens the log on first access, a broken log disables the history instead of failing every marker pass
+    private synchronized @Nullable SysTestPerformanceStore getStore() {
+        if (store == null && !storeFailed) {
+            Path file = Path.of(PathManager.getSystemPath(), "nes-systest-runner", "performance-" + project.getLocationHash() + ".log");
+            try {
+                store = SysTestPerformanceStore.open(file, WINDOW);
+            } catch (IOException e) {
+                storeFailed = true;
+                LOG.warn("Could not open the system test performance history " + file, e);
+            }
+        }
+        return store;
+    }
+
+    /// Restarts the marker pass of updated files once, even if many of their tests were recorded in a row
+    private void scheduleRefresh(VirtualFile file) {
+        synchronized (pendingRefresh) {
+            if (!pendingRefresh.add(file) || pendingRefresh.size() > 1) {
+                return;
+            }
+        }
+        ApplicationManager.getApplication().invokeLater(() -> {
+            List<VirtualFile> files;
+            synchronized (pendingRefresh) {
+                files = List.copyOf(pendingRefresh);
+                pendingRefresh.clear();
+            }
+            for (VirtualFile updated : files) {
+                PsiFile psiFile = updated.isValid() ? PsiManager.getInstance(project).findFile(updated) : null;
+                if (psiFile != null) {
+                    DaemonCodeAnalyzer.getInstance(project).restart(psiFile);
+                }
+            }
+        }, project.getDisposed());
+    }
+}
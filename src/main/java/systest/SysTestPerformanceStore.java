@@ -0,0 +1,210 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/// Compact append-only log of system test durations, keyed by test, CMake profile and git revision.
+/// The log consists of string definitions (test locations, profiles, revisions are stored once and referenced by id)
+/// and fixed-size samples. In memory, only a rolling window of the latest samples per test and profile is kept,
+/// the log is compacted to that window once it contains too many outdated samples.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestPerformanceStore implements Closeable {
+    private static final byte STRING_RECORD = 0;
+    private static final byte SAMPLE_RECORD = 1;
+
+    public record Sample(String revision, long timestampMillis, long durationMillis, boolean passed) {
+    }
+
+    /// A test location, e.g. '/path/Filter.test:03', together with the CMake profile it ran with
+    public record Key(String test, String profile) {
+    }
+
+    private final Path file;
+    private final int window;
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<Key, ArrayDeque<Sample>> history = new LinkedHashMap<>();
+    private DataOutputStream out;
+    private long sampleRecords;
+
+    private SysTestPerformanceStore(Path file, int window) {
+        this.file = file;
+        this.window = window;
+    }
+
+    /// Reads the log into memory, a truncated last record (e.g. after a crash) is dropped
+    public static SysTestPerformanceStore open(Path file, int window) throws IOException {
+        SysTestPerformanceStore store = new SysTestPerformanceStore(file, window);
+        Files.createDirectories(file.getParent());
+        if (Files.exists(file)) {
+            long validLength = store.read(Files.readAllBytes(file));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        store.out = store.openAppend();
+        store.compactIfNeeded();
+        return store;
+    }
+
+    public synchronized void append(Key key, Sample sample) throws IOException {
+        write(key, sample);
+        out.flush();
+        compactIfNeeded();
+    }
+
+    private void write(Key key, Sample sample) throws IOException {
+        int testId = stringId(key.test());
+        int profileId = stringId(key.profile());
+        int revisionId = stringId(sample.revision());
+        out.writeByte(SAMPLE_RECORD);
+        out.writeInt(testId);
+        out.writeInt(profileId);
+        out.writeInt(revisionId);
+        out.writeLong(sample.timestampMillis());
+        out.writeInt((int) Math.min(Integer.MAX_VALUE, sample.durationMillis()));
+        out.writeBoolean(sample.passed());
+        sampleRecords++;
+        addToWindow(key, sample);
+    }
+
+    /// The samples of the rolling window, oldest first
+    public synchronized List<Sample> samples(Key key) {
+        ArrayDeque<Sample> samples = history.get(key);
+        return samples == null ? List.of() : new ArrayList<>(samples);
+    }
+
+    public synchronized List<Key> keys() {
+        return new ArrayList<>(history.keySet());
+    }
+
+    public synchronized long sampleRecords() {
+        return sampleRecords;
+    }
+
+    /// Rewrites the log with the rolling windows only, the new log replaces the old one atomically.
+    /// The new log is written by a fresh store, whose state replaces this state only once the log has been replaced,
+    /// so that a failure leaves this store appending to the old log
+    public synchronized void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        SysTestPerformanceStore compactedStore = new SysTestPerformanceStore(file, window);
+        try {
+            try (DataOutputStream compactedOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(compacted)))) {
+                compactedStore.out = compactedOut;
+                for (Map.Entry<Key, ArrayDeque<Sample>> entry : history.entrySet()) {
+                    for (Sample sample : entry.getValue()) {
+                        compactedStore.write(entry.getKey(), sample);
+                    }
+                }
+            }
+            out.close();
+            try {
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                out = openAppend();
+            }
+        } finally {
+            Files.deleteIfExists(compacted);
+        }
+        stringIds.clear();
+        stringIds.putAll(compactedStore.stringIds);
+        strings.clear();
+        strings.addAll(compactedStore.strings);
+        history.clear();
+        history.putAll(compactedStore.history);
+        sampleRecords = compactedStore.sampleRecords;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /// Compaction is amortized: the log may grow to about twice its live size before it is rewritten
+    private void compactIfNeeded() throws IOException {
+        long liveSamples = 0;
+        for (ArrayDeque<Sample> samples : history.values()) {
+            liveSamples += samples.size();
+        }
+        if (sampleRecords > 2 * liveSamples + 1024) {
+            compact();
+        }
+    }
+
+    /// Returns the length of the valid prefix of the log
+    private long read(byte[] log) throws IOException {
+        ByteArrayInputStream bytes = new ByteArrayInputStream(log);
+        DataInputStream in = new DataInputStream(bytes);
+        long validLength = 0;
+        try {
+            while (bytes.available() > 0) {
+                byte type = in.readByte();
+                if (type == STRING_RECORD) {
+                    int id = in.readInt();
+                    String value = in.readUTF();
+                    while (strings.size() <= id) {
+                        strings.add(null);
+                    }
+                    strings.set(id, value);
+                    stringIds.put(value, id);
+                } else if (type == SAMPLE_RECORD) {
+                    Key key = new Key(strings.get(in.readInt()), strings.get(in.readInt()));
+                    String revision = strings.get(in.readInt());
+                    addToWindow(key, new Sample(revision, in.readLong(), in.readInt(), in.readBoolean()));
+                    sampleRecords++;
+                } else {
+                    break;
+                }
+                validLength = log.length - bytes.available();
+            }
+        } catch (EOFException | IndexOutOfBoundsException e) {
+            /// A truncated or corrupted last record, e.g. after a crash
+        }
+        return validLength;
+    }
+
+    private DataOutputStream openAppend() throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    private int stringId(String value) throws IOException {
+        Integer id = stringIds.get(value);
+        if (id != null) {
+            return id;
+        }
+        int newId = strings.size();
+        strings.add(value);
+        stringIds.put(value, newId);
+        out.writeByte(STRING_RECORD);
+        out.writeInt(newId);
+        out.writeUTF(value);
+        return newId;
+    }
+
+    private void addToWindow(Key key, Sample sample) {
+        ArrayDeque<Sample> samples = history.computeIfAbsent(key, k -> new ArrayDeque<>());
+        samples.addLast(sample);
+        while (samples.size() > window) {
+            samples.removeFirst();
+        }
+    }
+}
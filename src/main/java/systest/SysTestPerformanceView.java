@@ -0,0 +1,129 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/// The "Performance" tab of the NES-Systest-Runner tool window: one row per test and CMake profile of the
+/// SysTestPerformanceHistory with its baseline, the latest run, a trend of the rolling window and the verdict
+public final class SysTestPerformanceView {
+    public static final String TITLE = "Performance";
+    private static final String[] COLUMNS = {"Test", "Profile", "Revision", "Runs", "Baseline (ms)", "Last (ms)", "Trend", "Verdict"};
+    private static final char[] SPARKS = {'▁', '▂', '▃', '▄', '▅', '▆', '▇', '█'};
+
+    private SysTestPerformanceView() {
+    }
+
+    /// The recorded runs of a test with a profile
+    private record Row(SysTestPerformanceStore.Key key,
+                       List<SysTestPerformanceStore.Sample> samples,
+                       List<Long> durations,
+                       SysTestRegressionDetector.Assessment assessment) {
+        private SysTestPerformanceStore.Sample last() {
+            return samples.get(samples.size() - 1);
+        }
+
+        private String verdict() {
+            return last().passed() ? assessment.verdict().toString() : "FAILED";
+        }
+
+        /// Regressions first, then slow tests, then tests whose last run failed, then all others
+        private int rank() {
+            if (!last().passed()) {
+                return 2;
+            }
+            return switch (assessment.verdict()) {
+                case REGRESSED -> 0;
+                case SLOW -> 1;
+                default -> 3;
+            };
+        }
+    }
+
+    /// Shows the table of all recorded tests, regressions first, then slow and failed tests, and selects the row of 'selected' if given
+    public static void show(Project project, @Nullable SysTestTarget selected) {
+        SysTestPerformanceHistory history = SysTestPerformanceHistory.getInstance(project);
+        DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 3 || column == 4 || column == 5 ? Long.class : String.class;
+            }
+        };
+
+        List<Row> rows = new ArrayList<>();
+        for (SysTestPerformanceStore.Key key : history.keys()) {
+            List<SysTestPerformanceStore.Sample> samples = history.samples(key);
+            if (samples.isEmpty()) {
+                continue;
+            }
+            List<Long> durations = SysTestRegressionDetector.passedDurations(samples);
+            rows.add(new Row(key, samples, durations, SysTestRegressionDetector.assess(durations)));
+        }
+        rows.sort(Comparator.comparingInt(Row::rank)
+                .thenComparing(row -> row.key().test())
+                .thenComparing(row -> row.key().profile()));
+
+        int selectedRow = -1;
+        for (Row row : rows) {
+            SysTestPerformanceStore.Sample last = row.last();
+            if (selected != null && row.key().test().equals(selected.hostLocation())) {
+                selectedRow = model.getRowCount();
+            }
+            model.addRow(new Object[]{
+                    row.key().test(),
+                    row.key().profile(),
+                    last.revision(),
+                    (long) row.samples().size(),
+                    row.assessment().baselineMedian(),
+                    last.durationMillis(),
+                    sparkline(row.durations()),
+                    row.verdict()});
+        }
+
+        JBTable table = new JBTable(model);
+        table.setAutoCreateRowSorter(true);
+        if (selectedRow >= 0) {
+            table.setRowSelectionInterval(selectedRow, selectedRow);
+            table.scrollRectToVisible(table.getCellRect(selectedRow, 0, true));
+        }
+        SysTestToolWindow.showContent(project, TITLE, new JBScrollPane(table), Disposer.newDisposable());
+    }
+
+    /// One block character per run, scaled between the fastest and the slowest run of the window
+    static String sparkline(List<Long> durations) {
+        long min = durations.stream().mapToLong(Long::longValue).min().orElse(0);
+        long max = durations.stream().mapToLong(Long::longValue).max().orElse(0);
+        StringBuilder sparkline = new StringBuilder(durations.size());
+        for (long duration : durations) {
+            int level = max == min ? 0 : (int) ((duration - min) * (SPARKS.length - 1) / (max - min));
+            sparkline.append(SPARKS[level]);
+        }
+        return sparkline.toString();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.KillableProcessHandler;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessListener;
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.Key;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/// Runs systest processes outside of a Run/Debug configuration, e.g. for parallel runs.
+/// Only the tail of the output is kept, so that huge outputs do not end up on the heap
+public final class SysTestProcesses {
+    public static final int MAX_OUTPUT_CHARS = 64 * 1024;
+
+    private SysTestProcesses() {
+    }
+
+    /// exitCode is -1 if the process was canceled
+    public record Result(int exitCode, String outputTail, boolean canceled) {
+    }
+
+    /// Runs the command line to completion, the process is destroyed as soon as the indicator is canceled
+    public static Result run(GeneralCommandLine commandLine, ProgressIndicator indicator) throws ExecutionException {
+        return run(commandLine, indicator, null);
+    }
+
+    /// Runs the command line to completion and passes every line of its standard output to 'stdoutLines' instead of
+    /// keeping it, e.g. to aggregate an output that is far too large for the heap. The lines are passed from a single
+    /// thread, the result holds the tail of the error output. A line is cut after MAX_OUTPUT_CHARS characters and the
+    /// rest of it is dropped, so that an output without line breaks does not end up on the heap either
+    public static Result run(GeneralCommandLine commandLine, ProgressIndicator indicator, @Nullable Consumer<String> stdoutLines)
+            throws ExecutionException {
+        StringBuilder outputTail = new StringBuilder();
+        StringBuilder partialLine = new StringBuilder();
+        KillableProcessHandler processHandler = new KillableProcessHandler(commandLine);
+        processHandler.addProcessListener(new ProcessListener() {
+            /// Whether the current line has been cut and its rest is dropped up to the next line break
+            private boolean dropping;
+
+            @Override
+            public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
+                if (stdoutLines != null && outputType == ProcessOutputTypes.STDOUT) {
+                    String text = event.getText();
+                    for (int i = 0; i < text.length(); i++) {
+                        char c = text.charAt(i);
+                        if (c == '\n') {
+                            if (!dropping) {
+                                stdoutLines.accept(partialLine.toString());
+                            }
+                            partialLine.setLength(0);
+                            dropping = false;
+                        } else if (!dropping) {
+                            partialLine.append(c);
+                            if (partialLine.length() == MAX_OUTPUT_CHARS) {
+                                stdoutLines.accept(partialLine.toString());
+                                partialLine.setLength(0);
+                                dropping = true;
+                            }
+                        }
+                    }
+                    return;
+                }
+                synchronized (outputTail) {
+                    outputTail.append(event.getText());
+                    if (outputTail.length() > 2 * MAX_OUTPUT_CHARS) {
+                        outputTail.delete(0, outputTail.length() - MAX_OUTPUT_CHARS);
+                    }
+                }
+            }
+        });
+        processHandler.startNotify();
+        while (!processHandler.waitFor(100)) {
+            if (indicator.isCanceled()) {
+                processHandler.destroyProcess();
+                processHandler.waitFor();
+                return new Result(-1, "", true);
+            }
+        }
+        Integer exitCode = processHandler.getExitCode();
+        if (stdoutLines != null && !partialLine.isEmpty()) {
+            stdoutLines.accept(partialLine.toString());
+        }
+        synchronized (outputTail) {
+            int start = Math.max(0, outputTail.length() - MAX_OUTPUT_CHARS);
+            return new Result(exitCode == null ? -1 : exitCode, outputTail.substring(start), false);
+        }
+    }
+}
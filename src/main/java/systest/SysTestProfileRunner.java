@@ -0,0 +1,120 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.execution.ParametersListUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/// Runs a single system test under the sampling profiler of the settings, e.g. 'perf record', and shows the collapsed
+/// stacks of the samples as a flame graph, see SysTestFlameGraphView.
+/// The test always runs in the profile's environment, i.e. never in the warm container, so that the profiler starts
+/// systest itself. The samples are collapsed while the profiler prints them, only the collapsed stacks are kept
+public final class SysTestProfileRunner {
+    public static final String TITLE = "Profile";
+    public static final String DATA_FILE = "nes-systest-profile.data";
+
+    private SysTestProfileRunner() {
+    }
+
+    public static void run(Project project, SysTestTarget target) {
+        SysTestLineMarkerProvider.saveTarget(project, target);
+        ConsoleView consoleView = SysTestToolWindow.showConsole(project, TITLE);
+
+        PluginSettings settings = PluginSettings.getInstance();
+        String profilerCommand = settings.getProfilerCommand();
+        String scriptCommand = settings.getProfilerScriptCommand();
+        String testName = SysTestFileIndex.testName(target.location().getName(), target.testIndex());
+        new Task.Backgroundable(project, "Profiling system test " + testName, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                SysTestLaunchContext launchContext = SysTestLaunchContext.resolveOrPrintError(
+                        project, error -> consoleView.print(error, ConsoleViewContentType.ERROR_OUTPUT));
+                if (launchContext == null) {
+                    return;
+                }
+                try {
+                    Map<String, Long> stacks = profile(launchContext, target, profilerCommand, scriptCommand, consoleView, indicator);
+                    if (stacks == null) {
+                        return;
+                    }
+                    if (stacks.isEmpty()) {
+                        consoleView.print("The profiler did not record any samples. If 'perf' is used, check that "
+                                + "/proc/sys/kernel/perf_event_paranoid allows sampling, e.g. with a value of 1 or lower\n",
+                                ConsoleViewContentType.ERROR_OUTPUT);
+                        return;
+                    }
+                    ApplicationManager.getApplication().invokeLater(
+                            () -> SysTestFlameGraphView.show(project, testName, stacks), project.getDisposed());
+                } catch (ExecutionException e) {
+                    consoleView.print("Error: " + e.getMessage() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
+                }
+            }
+        }.queue();
+    }
+
+    /// The collapsed stacks of the samples, or null if the run was canceled or failed
+    private static Map<String, Long> profile(SysTestLaunchContext launchContext,
+                                             SysTestTarget target,
+                                             String profilerCommand,
+                                             String scriptCommand,
+                                             ConsoleView consoleView,
+                                             ProgressIndicator indicator) throws ExecutionException {
+        String dataFile = launchContext.cppEnvironment().toEnvPath(
+                new File(launchContext.workingDirectory(), DATA_FILE).getPath());
+
+        indicator.setText2("Recording samples");
+        List<String> profiler = command(profilerCommand, dataFile);
+        consoleView.print("Profiling " + target.location().getName() + ":" + target.testIndex()
+                + " with '" + String.join(" ", profiler) + "'\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+        SysTestProcesses.Result record = SysTestProcesses.run(launchContext.createCommandLine(target, profiler), indicator);
+        if (record.canceled()) {
+            return null;
+        }
+        consoleView.print(record.outputTail() + "\n", ConsoleViewContentType.NORMAL_OUTPUT);
+        if (record.exitCode() != 0) {
+            /// A failing test is still worth a look at its samples, a missing profiler has none
+            consoleView.print("The profiled run exited with code " + record.exitCode() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
+        }
+
+        indicator.setText2("Collapsing stacks");
+        SysTestFlameGraph.Collapser collapser = new SysTestFlameGraph.Collapser();
+        SysTestProcesses.Result script = SysTestProcesses.run(
+                launchContext.createToolCommandLine(command(scriptCommand, dataFile)), indicator, collapser::accept);
+        if (script.canceled()) {
+            return null;
+        }
+        if (script.exitCode() != 0) {
+            consoleView.print("Could not read the samples:\n" + script.outputTail() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
+            return null;
+        }
+        return collapser.finish();
+    }
+
+    private static List<String> command(String template, String dataFile) {
+        return ParametersListUtil.parse(template).stream()
+                .map(parameter -> parameter.replace("{output}", dataFile))
+                .toList();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+/// Text helpers to find the parts of a system test around its "----" marker.
+/// A test consists of its query, i.e. the block of non-empty lines directly above the "----",
+/// followed by the expected results below it.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestQueryBlocks {
+    private SysTestQueryBlocks() {
+    }
+
+    /// Start offset of the query that ends at the "----" at 'markerOffset'.
+    /// Walks upward until an empty line, a comment or the previous "----" is reached
+    public static int queryStart(CharSequence text, int markerOffset) {
+        int queryStart = lineStart(text, markerOffset);
+        while (queryStart > 0) {
+            int previousLineStart = lineStart(text, queryStart - 1);
+            if (isBlank(text, previousLineStart, queryStart - 1)
+                    || text.charAt(firstNonWhitespace(text, previousLineStart, queryStart - 1)) == '#'
+                    || contains(text, previousLineStart, queryStart - 1, SysTestBoundaryIndex.MARKER)) {
+                break;
+            }
+            queryStart = previousLineStart;
+        }
+        return queryStart;
+    }
+
+    /// First line of the query that ends at the "----" at 'markerOffset', trimmed
+    public static String firstQueryLine(CharSequence text, int markerOffset) {
+        int start = queryStart(text, markerOffset);
+        int end = lineEnd(text, start);
+        return text.subSequence(start, end).toString().trim();
+    }
+
+    /// The query that ends at the "----" at 'markerOffset', without the "----" line
+    public static CharSequence query(CharSequence text, int markerOffset) {
+        return text.subSequence(queryStart(text, markerOffset), lineStart(text, markerOffset));
+    }
+
+    /// End offset of the expected results below the "----" at 'markerOffset', which start at lineEnd(text, markerOffset).
+    /// The results end at the first empty line, comment or "----", the next query is separated by one of them
+    public static int expectedEnd(CharSequence text, int markerOffset) {
+        int end = lineEnd(text, markerOffset);
+        while (end < text.length()) {
+            int nextLineStart = end + 1;
+            int nextLineEnd = lineEnd(text, nextLineStart);
+            if (isBlank(text, nextLineStart, nextLineEnd)
+                    || text.charAt(firstNonWhitespace(text, nextLineStart, nextLineEnd)) == '#'
+                    || contains(text, nextLineStart, nextLineEnd, SysTestBoundaryIndex.MARKER)) {
+                break;
+            }
+            end = nextLineEnd;
+        }
+        return end;
+    }
+
+    /// Start offset of the block of the test with the zero-based index 'i':
+    /// everything after the previous "----" line, i.e. the previous expected results and this test's query
+    public static int blockStart(CharSequence text, SysTestBoundaryIndex boundaries, int i) {
+        if (i == 0) {
+            return 0;
+        }
+        return lineEnd(text, boundaries.getOffset(i - 1));
+    }
+
+    /// End offset of the block of the test with the zero-based index 'i':
+    /// everything up to the next "----" line, i.e. this test's expected results and the next test's query
+    public static int blockEnd(CharSequence text, SysTestBoundaryIndex boundaries, int i) {
+        if (i + 1 >= boundaries.size()) {
+            return text.length();
+        }
+        return lineStart(text, boundaries.getOffset(i + 1));
+    }
+
+    /// The part of the file in front of the first query, e.g. name, groups and source definitions
+    public static CharSequence header(CharSequence text, SysTestBoundaryIndex boundaries) {
+        if (boundaries.size() == 0) {
+            return text;
+        }
+        return text.subSequence(0, queryStart(text, boundaries.getOffset(0)));
+    }
+
+    public static int lineStart(CharSequence text, int offset) {
+        int i = Math.min(offset, text.length());
+        while (i > 0 && text.charAt(i - 1) != '\n') {
+            i--;
+        }
+        return i;
+    }
+
+    public static int lineEnd(CharSequence text, int offset) {
+        int i = offset;
+        while (i < text.length() && text.charAt(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isBlank(CharSequence text, int start, int end) {
+        return firstNonWhitespace(text, start, end) == end;
+    }
+
+    private static int firstNonWhitespace(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean contains(CharSequence text, int start, int end, String needle) {
+        for (int i = start; i + needle.length() <= end; i++) {
+            int matched = 0;
+            while (matched < needle.length() && text.charAt(i + matched) == needle.charAt(matched)) {
+                matched++;
+            }
+            if (matched == needle.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
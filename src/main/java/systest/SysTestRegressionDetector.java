@@ -0,0 +1,127 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Classifies the latest runs of a system test against its history.
+/// The baseline are all passed runs of the rolling window except the most recent ones. A regression is reported if
+/// the median of the recent runs is both significantly (robust z-score over the median absolute deviation) and
+/// noticeably (relative threshold) slower than the baseline median, so that single noisy runs never count as regression.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestRegressionDetector {
+    public static final int RECENT_RUNS = 3;
+    public static final int MIN_BASELINE_RUNS = 5;
+    private static final double Z_THRESHOLD = 3.0;
+    private static final double SLOW_RATIO = 1.10;
+    private static final double FAST_RATIO = 0.90;
+    /// Scales the median absolute deviation to the standard deviation of a normal distribution
+    private static final double MAD_SCALE = 1.4826;
+
+    public enum Verdict {
+        UNKNOWN, FAST, NORMAL, SLOW, REGRESSED
+    }
+
+    public record Assessment(Verdict verdict, long baselineMedian, long recentMedian, long lastDuration, int baselineRuns) {
+        public String describe() {
+            if (verdict == Verdict.UNKNOWN) {
+                return "Not enough runs to compare, " + baselineRuns + " in history";
+            }
+            long change = baselineMedian == 0 ? 0 : Math.round(100.0 * (lastDuration - baselineMedian) / baselineMedian);
+            return verdict + ": last run " + lastDuration + " ms (" + (change >= 0 ? "+" : "") + change + "%), median of the last "
+                    + RECENT_RUNS + " runs " + recentMedian + " ms, baseline median " + baselineMedian + " ms over " + baselineRuns + " runs";
+        }
+    }
+
+    private SysTestRegressionDetector() {
+    }
+
+    /// The tests of the file at 'path' whose latest runs with 'profile' are fast, slow or regressed, keyed by ordinal.
+    /// Files without a noteworthy history share the empty map, see SysTestPerformanceHistory.getBadges
+    public static Map<Integer, Assessment> fileBadges(SysTestPerformanceStore store, String path, String profile) {
+        String prefix = path + ":";
+        Map<Integer, Assessment> fileBadges = new HashMap<>();
+        for (SysTestPerformanceStore.Key key : store.keys()) {
+            if (!key.profile().equals(profile) || !key.test().startsWith(prefix)) {
+                continue;
+            }
+            Assessment assessment = assess(passedDurations(store.samples(key)));
+            switch (assessment.verdict()) {
+                case FAST, SLOW, REGRESSED -> fileBadges.put(Integer.parseInt(key.test().substring(prefix.length())), assessment);
+                default -> {
+                }
+            }
+        }
+        return fileBadges.isEmpty() ? Map.of() : fileBadges;
+    }
+
+    /// The durations of the passed runs among 'samples', in the same order
+    public static List<Long> passedDurations(Collection<SysTestPerformanceStore.Sample> samples) {
+        return samples.stream()
+                .filter(SysTestPerformanceStore.Sample::passed)
+                .map(SysTestPerformanceStore.Sample::durationMillis)
+                .toList();
+    }
+
+    /// 'durations' of passed runs, oldest first
+    public static Assessment assess(List<Long> durations) {
+        int baselineRuns = durations.size() - RECENT_RUNS;
+        if (baselineRuns < MIN_BASELINE_RUNS) {
+            return new Assessment(Verdict.UNKNOWN, 0, 0, 0, durations.size());
+        }
+        long[] baseline = durations.subList(0, baselineRuns).stream().mapToLong(Long::longValue).toArray();
+        long[] recent = durations.subList(baselineRuns, durations.size()).stream().mapToLong(Long::longValue).toArray();
+        long last = recent[recent.length - 1];
+        double baselineMedian = median(baseline);
+        double recentMedian = median(recent);
+
+        double[] deviations = new double[baseline.length];
+        for (int i = 0; i < baseline.length; i++) {
+            deviations[i] = Math.abs(baseline[i] - baselineMedian);
+        }
+        /// Timer resolution and perfectly stable tests would give a deviation of zero, so it is floored
+        double sigma = Math.max(MAD_SCALE * median(deviations), Math.max(1.0, 0.02 * baselineMedian));
+        double z = (recentMedian - baselineMedian) / sigma;
+
+        Verdict verdict;
+        if (z > Z_THRESHOLD && recentMedian > SLOW_RATIO * baselineMedian) {
+            verdict = Verdict.REGRESSED;
+        } else if (last > SLOW_RATIO * baselineMedian) {
+            verdict = Verdict.SLOW;
+        } else if (last < FAST_RATIO * baselineMedian) {
+            verdict = Verdict.FAST;
+        } else {
+            verdict = Verdict.NORMAL;
+        }
+        return new Assessment(verdict, Math.round(baselineMedian), Math.round(recentMedian), last, baselineRuns);
+    }
+
+    private static double median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2.0;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2.0;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/// Least recently used set of system tests that passed, keyed by the content hash of the inputs of a test:
+/// the file header, every source definition in front of the test with its inline data, the fingerprint of every data
+/// file a 'FILE' source in front of the test reads, the test's block between its neighboring "----" lines,
+/// the systest executable and the cleaned program parameters. Files that the test reads in other ways, e.g. via
+/// a path in a query, are not covered.
+/// A test whose key is contained passed before with exactly the same inputs and does not need to run again.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestResultCache {
+    private final LinkedHashMap<String, Boolean> passed = new LinkedHashMap<>(16, 0.75f, true);
+    private int capacity;
+
+    public SysTestResultCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /// Whether the test passed with the same inputs before, also marks the entry as recently used
+    public synchronized boolean isPassed(String key) {
+        return passed.get(key) != null;
+    }
+
+    public synchronized void recordPass(String key) {
+        passed.put(key, Boolean.TRUE);
+        evict();
+    }
+
+    public synchronized void invalidate(String key) {
+        passed.remove(key);
+    }
+
+    public synchronized void clear() {
+        passed.clear();
+    }
+
+    public synchronized int size() {
+        return passed.size();
+    }
+
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = capacity;
+        evict();
+    }
+
+    /// All keys from least to most recently used, used to persist the cache
+    public synchronized List<String> keys() {
+        return new ArrayList<>(passed.keySet());
+    }
+
+    private void evict() {
+        var iterator = passed.entrySet().iterator();
+        while (passed.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /// A source definition with its inline data or data file path, 'dataFile' is null for inline data
+    private record Source(int start, int end, String dataFile) {
+    }
+
+    /// Keys of all tests of a file, index i belongs to the test with the ordinal i + 1.
+    /// 'dataFileFingerprint' identifies the current content of a data file by the path in the test file,
+    /// e.g. by its size and modification time
+    public static String[] testKeys(CharSequence text, String executableFingerprint, String cleanedParameters,
+                                    Function<String, String> dataFileFingerprint) {
+        SysTestBoundaryIndex boundaries = SysTestBoundaryIndex.build(text);
+        List<Source> sources = sources(text);
+        String headerHash = hash(SysTestQueryBlocks.header(text, boundaries));
+        StringBuilder sourceHashes = new StringBuilder();
+        String sourcesHash = hash(sourceHashes);
+        int sourceCount = 0;
+        String[] keys = new String[boundaries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            /// Sources are defined in front of their use, so only those in front of the test's "----" affect it
+            int markerStart = SysTestQueryBlocks.lineStart(text, boundaries.getOffset(i));
+            if (sourceCount < sources.size() && sources.get(sourceCount).start() < markerStart) {
+                while (sourceCount < sources.size() && sources.get(sourceCount).start() < markerStart) {
+                    Source source = sources.get(sourceCount++);
+                    sourceHashes.append(hash(text.subSequence(source.start(), source.end()))).append('\0');
+                    if (source.dataFile() != null) {
+                        sourceHashes.append(dataFileFingerprint.apply(source.dataFile())).append('\0');
+                    }
+                }
+                sourcesHash = hash(sourceHashes);
+            }
+            CharSequence block = text.subSequence(
+                    SysTestQueryBlocks.blockStart(text, boundaries, i),
+                    SysTestQueryBlocks.blockEnd(text, boundaries, i));
+            keys[i] = hash(headerHash + '\0' + sourcesHash + '\0' + hash(block) + '\0' + executableFingerprint + '\0' + cleanedParameters);
+        }
+        return keys;
+    }
+
+    /// The data file paths of all 'FILE' sources of a test file as written in the file, e.g. to fingerprint them
+    /// when a run starts
+    public static List<String> dataFilePaths(CharSequence text) {
+        List<String> paths = new ArrayList<>();
+        for (Source source : sources(text)) {
+            if (source.dataFile() != null) {
+                paths.add(source.dataFile());
+            }
+        }
+        return paths;
+    }
+
+    /// All source definitions of the file, in file order
+    private static List<Source> sources(CharSequence text) {
+        List<Source> sources = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = SysTestQueryBlocks.lineEnd(text, lineStart);
+            if (!SysTestScaledTest.isKeywordLine(text, lineStart, lineEnd, "Source")) {
+                lineStart = lineEnd + 1;
+                continue;
+            }
+            int end = lineEnd;
+            while (end < text.length()) {
+                int nextLineEnd = SysTestQueryBlocks.lineEnd(text, end + 1);
+                if (SysTestScaledTest.isDataEnd(text, end + 1, nextLineEnd)) {
+                    break;
+                }
+                end = nextLineEnd;
+            }
+            sources.add(new Source(lineStart, end, SysTestDataFile.sourcePath(text, lineStart)));
+            lineStart = end + 1;
+        }
+        return sources;
+    }
+
+    public static String hash(CharSequence text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /// Keys of a persisted cache, restored from least to most recently used
+    public synchronized void restore(List<String> keys) {
+        passed.clear();
+        for (String key : keys) {
+            passed.put(key, Boolean.TRUE);
+        }
+        evict();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@State(
+        name = "systest.SysTestResultCache",
+        storages = @Storage(StoragePathMacros.CACHE_FILE)
+)
+
+/// Persistent SysTestResultCache of a project, stored in the IDE's cache directory.
+/// Batch runs skip tests that passed before with the same test text, source data files, executable and parameters.
+/// Results of single runs are recorded when their 'systest_plugin' process terminates, see SysTestExecutionListener
+public class SysTestResultCacheService implements PersistentStateComponent<SysTestResultCacheService.CacheState> {
+
+    public static class CacheState {
+        /// Keys of passed tests, from least to most recently used
+        public List<String> passedKeys = new ArrayList<>();
+    }
+
+    /// A single run that has been started via the 'systest_plugin' configuration and has not terminated yet
+    private record PendingLaunch(List<LaunchedFile> files, SysTestLaunchContext launchContext) {
+    }
+
+    /// A launched test file with its text and the fingerprints of its data files at launch time,
+    /// testIndex 0 if the whole file was launched
+    private record LaunchedFile(SysTestTarget target, CharSequence text, Map<String, String> dataFileFingerprints) {
+    }
+
+    /// On the ExecutionEnvironment of a launch until its process starts, then on the ProcessHandler
+    private static final Key<PendingLaunch> PENDING_LAUNCH = Key.create("systest.SysTestResultCacheService.pendingLaunch");
+
+    private final SysTestResultCache cache = new SysTestResultCache(PluginSettings.getInstance().getResultCacheSize());
+
+    public static SysTestResultCacheService getInstance(Project project) {
+        return project.getService(SysTestResultCacheService.class);
+    }
+
+    @Override
+    public CacheState getState() {
+        CacheState state = new CacheState();
+        state.passedKeys = cache.keys();
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull CacheState state) {
+        cache.restore(state.passedKeys);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /// Keys of all tests of a file with the current executable, or null if the tests cannot be cached,
+    /// e.g. because the executable has not been built yet
+    public @Nullable String[] testKeys(VirtualFile file, SysTestLaunchContext launchContext) {
+        String executableFingerprint = executableFingerprint(launchContext);
+        CharSequence text = readText(file);
+        if (executableFingerprint == null || text == null) {
+            return null;
+        }
+        return SysTestResultCache.testKeys(text, executableFingerprint, launchContext.cleanedParameters(),
+                path -> dataFileFingerprint(file, path));
+    }
+
+    public boolean isPassed(String key) {
+        return cache.isPassed(key);
+    }
+
+    public void recordResult(String key, boolean passed) {
+        cache.setCapacity(PluginSettings.getInstance().getResultCacheSize());
+        if (passed) {
+            cache.recordPass(key);
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    /// Remembers the texts of a single run's test files, the result is recorded once the process terminates.
+    /// Directories are not remembered, they may contain files that have never been opened
+    public void launchStarted(ExecutionEnvironment environment, List<SysTestTarget> targets, SysTestLaunchContext launchContext) {
+        List<LaunchedFile> files = new ArrayList<>();
+        for (SysTestTarget target : targets) {
+            CharSequence text = target.location().isDirectory() ? null : readText(target.location());
+            if (text != null) {
+                Map<String, String> dataFileFingerprints = new HashMap<>();
+                for (String path : SysTestResultCache.dataFilePaths(text)) {
+                    dataFileFingerprints.put(path, dataFileFingerprint(target.location(), path));
+                }
+                files.add(new LaunchedFile(target, text, dataFileFingerprints));
+            }
+        }
+        environment.putUserData(PENDING_LAUNCH, files.isEmpty() ? null : new PendingLaunch(files, launchContext));
+    }
+
+    /// Moves the launch to its process, so that a rerun of the same environment is not taken for it
+    public void processStarting(ExecutionEnvironment environment, ProcessHandler handler) {
+        handler.putUserData(PENDING_LAUNCH, environment.getUserData(PENDING_LAUNCH));
+        environment.putUserData(PENDING_LAUNCH, null);
+    }
+
+    /// The executable is fingerprinted only now, after the before-run build of the launch has finished
+    public void launchFinished(ProcessHandler handler, int exitCode) {
+        PendingLaunch launch = handler.getUserData(PENDING_LAUNCH);
+        handler.putUserData(PENDING_LAUNCH, null);
+        if (launch == null) {
+            return;
+        }
+        String executableFingerprint = executableFingerprint(launch.launchContext());
+        if (executableFingerprint == null) {
+            return;
+        }
+        /// A failing run of several tests does not tell which of them failed
+        boolean singleTest = launch.files().size() == 1 && launch.files().get(0).target().testIndex() > 0;
+        if (exitCode != 0 && !singleTest) {
+            return;
+        }
+        for (LaunchedFile file : launch.files()) {
+            String[] keys = SysTestResultCache.testKeys(file.text(), executableFingerprint, launch.launchContext().cleanedParameters(),
+                    file.dataFileFingerprints()::get);
+            int testIndex = file.target().testIndex();
+            if (testIndex == 0) {
+                for (String key : keys) {
+                    recordResult(key, true);
+                }
+            } else if (testIndex <= keys.length) {
+                recordResult(keys[testIndex - 1], exitCode == 0);
+            }
+        }
+    }
+
+    /// Hashing a multi-hundred MB executable on every click would defeat the cache,
+    /// so the executable is identified by its path, size and modification time
+    private static @Nullable String executableFingerprint(SysTestLaunchContext launchContext) {
+        File executable = launchContext.executable();
+        if (executable == null || !executable.isFile()) {
+            return null;
+        }
+        return executable.getAbsolutePath() + ':' + executable.length() + ':' + executable.lastModified();
+    }
+
+    /// A data file of a source, identified like the executable, relative paths are relative to the test file
+    private static String dataFileFingerprint(VirtualFile testFile, String path) {
+        VirtualFile directory = testFile.getParent();
+        try {
+            File dataFile = directory == null ? new File(path) : Path.of(directory.getPath()).resolve(path).toFile();
+            return dataFile.getAbsolutePath() + ':' + dataFile.length() + ':' + dataFile.lastModified();
+        } catch (InvalidPathException e) {
+            return path;
+        }
+    }
+
+    private static @Nullable CharSequence readText(VirtualFile file) {
+        return ReadAction.compute(() -> {
+            Document document = FileDocumentManager.getInstance().getDocument(file);
+            return document == null ? null : document.getImmutableCharSequence();
+        });
+    }
+}
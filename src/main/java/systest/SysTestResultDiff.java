@@ -0,0 +1,343 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/// Compares the expected rows of a test with the actual rows systest produced, both streamed row by row.
+/// Rows are compared in order if the query orders its result, otherwise as multisets: both sides are hash-partitioned
+/// into temp files first, and each partition pair is compared with a hash map, so only a single partition has to fit
+/// on the heap, not a million-row result. Small expected results skip the partitions, the actual rows are streamed
+/// against the expected rows' counts directly.
+/// Rows are trimmed, blank rows are ignored and columns are separated by ','.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestResultDiff {
+    /// Number of partitions of an unordered comparison
+    public static final int PARTITIONS = 64;
+    /// Expected results up to this number of rows are compared on the heap, without partitions
+    public static final int IN_MEMORY_ROWS = 100_000;
+
+    private SysTestResultDiff() {
+    }
+
+    /// A differing row: in an ordered comparison, the rows at the same position, either of which may be null if one
+    /// side ended early. In an unordered comparison, a missing and an unexpected row are paired in sorted order, 'number' is 0
+    public record Row(long number, String expected, String actual) {
+    }
+
+    /// pairedColumnMismatches[i] counts the paired differing rows whose column i differs, including rows of different
+    /// width. An ordered comparison pairs the rows by position and counts all differing rows. An unordered comparison
+    /// cannot pair a missing with an unexpected row in general, so it only counts the sampled pairs of firstDifferences
+    public record Result(boolean ordered,
+                         long expectedRows,
+                         long actualRows,
+                         long missingRows,
+                         long unexpectedRows,
+                         List<Row> firstDifferences,
+                         long[] pairedColumnMismatches) {
+        public boolean matches() {
+            return missingRows == 0 && unexpectedRows == 0;
+        }
+    }
+
+    /// Whether the result of the query has a defined order, i.e. the rows have to be compared in order
+    public static boolean isOrdered(CharSequence query) {
+        return query.toString().toUpperCase().matches("(?s).*\\bORDER\\s+BY\\b.*");
+    }
+
+    public static Result compareOrdered(Iterator<String> expected, Iterator<String> actual, int maxDifferences) {
+        Iterator<String> expectedRows = rows(expected);
+        Iterator<String> actualRows = rows(actual);
+        List<Row> differences = new ArrayList<>();
+        long[] columnMismatches = new long[0];
+        long expectedCount = 0;
+        long actualCount = 0;
+        long differing = 0;
+        while (expectedRows.hasNext() || actualRows.hasNext()) {
+            String expectedRow = expectedRows.hasNext() ? expectedRows.next() : null;
+            String actualRow = actualRows.hasNext() ? actualRows.next() : null;
+            expectedCount += expectedRow == null ? 0 : 1;
+            actualCount += actualRow == null ? 0 : 1;
+            if (expectedRow != null && expectedRow.equals(actualRow)) {
+                continue;
+            }
+            differing++;
+            columnMismatches = countColumnMismatches(expectedRow, actualRow, columnMismatches);
+            if (differences.size() < maxDifferences) {
+                differences.add(new Row(Math.max(expectedCount, actualCount), expectedRow, actualRow));
+            }
+        }
+        /// A row at a differing position is missing and another row is unexpected, unless one side has ended
+        long missing = differing - Math.max(0, actualCount - expectedCount);
+        long unexpected = differing - Math.max(0, expectedCount - actualCount);
+        return new Result(true, expectedCount, actualCount, missing, unexpected, differences, columnMismatches);
+    }
+
+    public static Result compareUnordered(Iterator<String> expected, Iterator<String> actual, int maxDifferences, Path tempDirectory)
+            throws IOException {
+        Iterator<String> expectedRows = rows(expected);
+        Map<String, Long> counts = new HashMap<>();
+        long expectedCount = 0;
+        while (expectedRows.hasNext() && expectedCount < IN_MEMORY_ROWS) {
+            counts.merge(expectedRows.next(), 1L, Long::sum);
+            expectedCount++;
+        }
+        Differences differences = new Differences(maxDifferences);
+        if (!expectedRows.hasNext()) {
+            long actualCount = differences.compare(counts, rows(actual));
+            return differences.toResult(expectedCount, actualCount);
+        }
+
+        Path directory = Files.createTempDirectory(tempDirectory, "nes-systest-diff");
+        try {
+            /// The rows counted so far are partitioned as well, so that every partition holds all copies of its rows
+            Iterator<String> counted = counts.entrySet().stream()
+                    .flatMap(entry -> Collections.nCopies(entry.getValue().intValue(), entry.getKey()).stream())
+                    .iterator();
+            expectedCount = partition(counted, expectedRows, directory, "expected");
+            counts = null;
+            long actualCount = partition(Collections.emptyIterator(), rows(actual), directory, "actual");
+
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                Map<String, Long> partitionCounts = new HashMap<>();
+                try (BufferedReader reader = Files.newBufferedReader(partitionFile(directory, "expected", partition), StandardCharsets.UTF_8)) {
+                    for (String row = reader.readLine(); row != null; row = reader.readLine()) {
+                        partitionCounts.merge(row, 1L, Long::sum);
+                    }
+                }
+                try (BufferedReader reader = Files.newBufferedReader(partitionFile(directory, "actual", partition), StandardCharsets.UTF_8)) {
+                    differences.compare(partitionCounts, lines(reader));
+                }
+            }
+            return differences.toResult(expectedCount, actualCount);
+        } finally {
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                Files.deleteIfExists(partitionFile(directory, "expected", partition));
+                Files.deleteIfExists(partitionFile(directory, "actual", partition));
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /// Missing and unexpected rows of an unordered comparison, collected partition by partition
+    private static final class Differences {
+        private final int maxDifferences;
+        private final List<String> missingSamples = new ArrayList<>();
+        private final List<String> unexpectedSamples = new ArrayList<>();
+        private long missing;
+        private long unexpected;
+
+        private Differences(int maxDifferences) {
+            this.maxDifferences = maxDifferences;
+        }
+
+        /// Matches the actual rows against the counts of the expected rows and returns the number of actual rows
+        private long compare(Map<String, Long> counts, Iterator<String> actual) {
+            long actualCount = 0;
+            while (actual.hasNext()) {
+                String row = actual.next();
+                actualCount++;
+                Long count = counts.get(row);
+                if (count == null) {
+                    unexpected++;
+                    sample(unexpectedSamples, row, maxDifferences);
+                } else if (count == 1) {
+                    counts.remove(row);
+                } else {
+                    counts.put(row, count - 1);
+                }
+            }
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                missing += entry.getValue();
+                sample(missingSamples, entry.getKey(), maxDifferences);
+            }
+            return actualCount;
+        }
+
+        private Result toResult(long expectedCount, long actualCount) {
+            Collections.sort(missingSamples);
+            Collections.sort(unexpectedSamples);
+            List<Row> differences = new ArrayList<>();
+            long[] columnMismatches = new long[0];
+            for (int i = 0; i < Math.max(missingSamples.size(), unexpectedSamples.size()); i++) {
+                String expectedRow = i < missingSamples.size() ? missingSamples.get(i) : null;
+                String actualRow = i < unexpectedSamples.size() ? unexpectedSamples.get(i) : null;
+                /// Only the samples are paired, see Result
+                columnMismatches = countColumnMismatches(expectedRow, actualRow, columnMismatches);
+                differences.add(new Row(0, expectedRow, actualRow));
+            }
+            return new Result(false, expectedCount, actualCount, missing, unexpected, differences, columnMismatches);
+        }
+    }
+
+    /// Keeps the smallest rows, so that the samples do not depend on the partitioning
+    private static void sample(List<String> samples, String row, int maxSamples) {
+        if (samples.size() < maxSamples) {
+            samples.add(row);
+            return;
+        }
+        int largest = 0;
+        for (int i = 1; i < samples.size(); i++) {
+            if (samples.get(i).compareTo(samples.get(largest)) > 0) {
+                largest = i;
+            }
+        }
+        if (!samples.isEmpty() && row.compareTo(samples.get(largest)) < 0) {
+            samples.set(largest, row);
+        }
+    }
+
+    private static long partition(Iterator<String> first, Iterator<String> rest, Path directory, String side) throws IOException {
+        BufferedWriter[] writers = new BufferedWriter[PARTITIONS];
+        long count = 0;
+        try {
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                writers[partition] = Files.newBufferedWriter(partitionFile(directory, side, partition), StandardCharsets.UTF_8);
+            }
+            while (first.hasNext() || rest.hasNext()) {
+                String row = first.hasNext() ? first.next() : rest.next();
+                BufferedWriter writer = writers[Math.floorMod(row.hashCode(), PARTITIONS)];
+                writer.write(row);
+                writer.newLine();
+                count++;
+            }
+        } finally {
+            for (BufferedWriter writer : writers) {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+        return count;
+    }
+
+    private static Path partitionFile(Path directory, String side, int partition) {
+        return directory.resolve(side + "-" + partition);
+    }
+
+    private static long[] countColumnMismatches(String expectedRow, String actualRow, long[] columnMismatches) {
+        String[] expectedColumns = columns(expectedRow);
+        String[] actualColumns = columns(actualRow);
+        int width = Math.max(expectedColumns.length, actualColumns.length);
+        long[] counts = width > columnMismatches.length ? Arrays.copyOf(columnMismatches, width) : columnMismatches;
+        for (int column = 0; column < width; column++) {
+            if (column >= expectedColumns.length || column >= actualColumns.length
+                    || !expectedColumns[column].equals(actualColumns[column])) {
+                counts[column]++;
+            }
+        }
+        return counts;
+    }
+
+    public static String[] columns(String row) {
+        if (row == null) {
+            return new String[0];
+        }
+        String[] columns = row.split(",", -1);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = columns[i].trim();
+        }
+        return columns;
+    }
+
+    /// The lines of text[start, end) without copying the text
+    public static Iterator<String> lines(CharSequence text, int start, int end) {
+        return new Iterator<>() {
+            private int position = start;
+
+            @Override
+            public boolean hasNext() {
+                return position < end;
+            }
+
+            @Override
+            public String next() {
+                int lineEnd = Math.min(SysTestQueryBlocks.lineEnd(text, position), end);
+                String line = text.subSequence(position, lineEnd).toString();
+                position = lineEnd + 1;
+                return line;
+            }
+        };
+    }
+
+    /// The lines of a reader, read one at a time
+    public static Iterator<String> lines(BufferedReader reader) {
+        return new Iterator<>() {
+            private String next = read();
+
+            private String read() {
+                try {
+                    return reader.readLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                String current = next;
+                next = read();
+                return current;
+            }
+        };
+    }
+
+    /// Trimmed, non-blank rows
+    private static Iterator<String> rows(Iterator<String> lines) {
+        return new Iterator<>() {
+            private String next = advance();
+
+            private String advance() {
+                while (lines.hasNext()) {
+                    String line = lines.next().trim();
+                    if (!line.isEmpty()) {
+                        return line;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                String current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+}
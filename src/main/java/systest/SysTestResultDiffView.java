@@ -0,0 +1,237 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.StringJoiner;
+
+/// The "Result Diff" tab of the NES-Systest-Runner tool window, opened from the gutter marker of a failed test:
+/// compares the expected rows below the test's "----" with the result file systest wrote, see SysTestResultDiff.
+/// The expected rows are read from the document snapshot and the result file is read line by line in the background
+public final class SysTestResultDiffView {
+    public static final String TITLE = "Result Diff";
+    private static final int MAX_DIFFERENCES = 200;
+    private static final String[] COLUMNS = {"Row", "Expected", "Actual", "Differing columns"};
+
+    private SysTestResultDiffView() {
+    }
+
+    /// The expected rows of a test and whether the query orders its result
+    private record Expected(CharSequence text, int start, int end, boolean ordered) {
+    }
+
+    public static void show(Project project, SysTestTarget test) {
+        new Task.Backgroundable(project, "Comparing results of system test " + test.testIndex(), true) {
+            private SysTestResultDiff.Result result;
+            private Path resultFile;
+            private String error;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    Expected expected = ReadAction.compute(() -> expectedOf(test));
+                    if (expected == null) {
+                        error = "System test " + test.testIndex() + " does not exist in " + test.location().getName() + " anymore";
+                        return;
+                    }
+                    resultFile = resultFileOf(project, test);
+                    if (!Files.isRegularFile(resultFile)) {
+                        error = "There is no result file " + resultFile + ", please check the result file pattern in the settings";
+                        return;
+                    }
+                    try (BufferedReader reader = Files.newBufferedReader(resultFile, StandardCharsets.UTF_8)) {
+                        Iterator<String> actual = canceling(skipSchemaHeader(SysTestResultDiff.lines(reader)), indicator);
+                        Iterator<String> expectedRows = SysTestResultDiff.lines(expected.text(), expected.start(), expected.end());
+                        result = expected.ordered()
+                                ? SysTestResultDiff.compareOrdered(expectedRows, actual, MAX_DIFFERENCES)
+                                : SysTestResultDiff.compareUnordered(expectedRows, actual, MAX_DIFFERENCES,
+                                        Path.of(FileUtil.getTempDirectory()));
+                    }
+                } catch (ExecutionException | IOException | UncheckedIOException e) {
+                    error = e.getMessage();
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                JBLabel summary = new JBLabel(error != null ? "Error: " + error : summarize(test, resultFile, result));
+                summary.setBorder(JBUI.Borders.empty(4, 8));
+                JPanel panel = new JPanel(new BorderLayout());
+                panel.add(summary, BorderLayout.NORTH);
+                if (result != null) {
+                    panel.add(new JBScrollPane(differencesTable(result)), BorderLayout.CENTER);
+                }
+                SysTestToolWindow.showContent(project, TITLE, panel, Disposer.newDisposable());
+            }
+        }.queue();
+    }
+
+    /// The expected rows below the "----" of the test, found via the same boundaries as its gutter markers
+    private static Expected expectedOf(SysTestTarget test) {
+        Document document = FileDocumentManager.getInstance().getDocument(test.location());
+        if (document == null) {
+            return null;
+        }
+        SysTestBoundaryIndex boundaries = SysTestDocumentIndex.getBoundaries(document);
+        if (test.testIndex() < 1 || test.testIndex() > boundaries.size()) {
+            return null;
+        }
+        CharSequence text = document.getImmutableCharSequence();
+        int markerOffset = boundaries.getOffset(test.testIndex() - 1);
+        return new Expected(
+                text,
+                Math.min(SysTestQueryBlocks.lineEnd(text, markerOffset) + 1, text.length()),
+                SysTestQueryBlocks.expectedEnd(text, markerOffset),
+                SysTestResultDiff.isOrdered(SysTestQueryBlocks.query(text, markerOffset)));
+    }
+
+    /// The result file of the test according to the result file pattern of the settings
+    private static Path resultFileOf(Project project, SysTestTarget test) throws ExecutionException {
+        RunnerAndConfigurationSettings systestSettings = ReadAction.compute(
+                () -> SysTestLaunchCache.getInstance(project).getSystestSettings());
+        if (systestSettings == null) {
+            throw new ExecutionException("Could not find the 'systest' Run/Debug configuration");
+        }
+        String workingDirectory = SysTestLaunchCache.getInstance(project).getLaunchContext(systestSettings).workingDirectory();
+        String name = test.location().getName();
+        String resultFile = PluginSettings.getInstance().getResultFilePattern()
+                .replace("{workingDir}", workingDirectory)
+                .replace("{name}", name.substring(0, name.indexOf(".test")))
+                .replace("{ordinal}", Integer.toString(test.testIndex()))
+                .replace("{index}", Integer.toString(test.testIndex() - 1));
+        return Path.of(workingDirectory).resolve(resultFile).normalize();
+    }
+
+    /// Result files may start with the schema of the result, e.g. 'stream$id:UINT64,stream$value:UINT64'
+    private static Iterator<String> skipSchemaHeader(Iterator<String> lines) {
+        if (!lines.hasNext()) {
+            return lines;
+        }
+        String first = lines.next();
+        if (first.contains("$")) {
+            return lines;
+        }
+        return new Iterator<>() {
+            private boolean firstReturned;
+
+            @Override
+            public boolean hasNext() {
+                return !firstReturned || lines.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!firstReturned) {
+                    firstReturned = true;
+                    return first;
+                }
+                return lines.next();
+            }
+        };
+    }
+
+    private static Iterator<String> canceling(Iterator<String> lines, ProgressIndicator indicator) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                indicator.checkCanceled();
+                return lines.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return lines.next();
+            }
+        };
+    }
+
+    private static String summarize(SysTestTarget test, Path resultFile, SysTestResultDiff.Result result) {
+        StringBuilder summary = new StringBuilder("<html>System test ").append(test.testIndex())
+                .append(" of ").append(test.location().getName())
+                .append(" compared with ").append(resultFile)
+                .append(result.ordered() ? " in order" : " ignoring the order, the query has no ORDER BY")
+                .append("<br>");
+        if (result.matches()) {
+            return summary.append("All ").append(result.expectedRows()).append(" rows match").toString();
+        }
+        summary.append(result.expectedRows()).append(" rows expected, ")
+                .append(result.actualRows()).append(" rows actual, ")
+                .append(result.missingRows()).append(" missing, ")
+                .append(result.unexpectedRows()).append(" unexpected");
+        StringJoiner columns = new StringJoiner(", ", "<br>Mismatches per column" +
+                (result.ordered() ? ": " : " of the rows below: "), "");
+        long[] columnMismatches = result.pairedColumnMismatches();
+        for (int column = 0; column < columnMismatches.length; column++) {
+            columns.add((column + 1) + ": " + columnMismatches[column]);
+        }
+        return summary.append(columns).append("</html>").toString();
+    }
+
+    private static JBTable differencesTable(SysTestResultDiff.Result result) {
+        DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (SysTestResultDiff.Row row : result.firstDifferences()) {
+            model.addRow(new Object[]{
+                    row.number() > 0 ? Long.toString(row.number()) : "",
+                    row.expected() == null ? "(none)" : row.expected(),
+                    row.actual() == null ? "(none)" : row.actual(),
+                    differingColumns(row)});
+        }
+        JBTable table = new JBTable(model);
+        table.getColumnModel().getColumn(0).setMaxWidth(100);
+        return table;
+    }
+
+    private static String differingColumns(SysTestResultDiff.Row row) {
+        String[] expected = SysTestResultDiff.columns(row.expected());
+        String[] actual = SysTestResultDiff.columns(row.actual());
+        StringJoiner columns = new StringJoiner(", ");
+        for (int column = 0; column < Math.max(expected.length, actual.length); column++) {
+            if (column >= expected.length || column >= actual.length || !expected[column].equals(actual[column])) {
+                columns.add(Integer.toString(column + 1));
+            }
+        }
+        return columns.toString();
+    }
+}
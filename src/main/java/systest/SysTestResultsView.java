@@ -0,0 +1,49 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.Executor;
+import com.intellij.execution.configurations.RunConfiguration;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.testframework.sm.SMTestRunnerConnectionUtil;
+import com.intellij.execution.testframework.ui.BaseTestsOutputConsoleView;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.ObjLongConsumer;
+
+/// The "Test Results" tab of the NES-Systest-Runner tool window: an SMTestRunner tree with the pass/fail status
+/// and duration of every test, fed by the output of a systest process while it runs
+public final class SysTestResultsView {
+    public static final String TITLE = "Test Results";
+
+    private SysTestResultsView() {
+    }
+
+    /// Creates the test tree for the process and shows it, must be called before the process is started.
+    /// 'resultListener' is notified of every result in the process output, see SysTestEventsConverter
+    public static BaseTestsOutputConsoleView attach(Project project,
+                                                    RunConfiguration configuration,
+                                                    Executor executor,
+                                                    ProcessHandler processHandler,
+                                                    @Nullable ObjLongConsumer<SysTestOutputParser.Result> resultListener) throws ExecutionException {
+        BaseTestsOutputConsoleView console = SMTestRunnerConnectionUtil.createAndAttachConsole(
+                SysTestConsoleProperties.FRAMEWORK_NAME,
+                processHandler,
+                new SysTestConsoleProperties(configuration, executor, resultListener));
+        SysTestToolWindow.showContent(project, TITLE, console.getComponent(), console);
+        return console;
+    }
+}
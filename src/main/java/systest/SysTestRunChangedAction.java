@@ -0,0 +1,122 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vcs.FilePath;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vcs.changes.Change;
+import com.intellij.openapi.vcs.changes.ChangeListManager;
+import com.intellij.openapi.vcs.changes.ContentRevision;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Runs only the system tests whose block changed compared with the VCS base, within a single systest process.
+/// The changed tests are found per test block, see SysTestChangedBlocks, tests of new, unversioned files are all run
+public class SysTestRunChangedAction extends AnAction {
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        /// Loading the base revisions may run the VCS, e.g. 'git show'
+        new Task.Backgroundable(project, "Finding changed system tests", true) {
+            private final List<SysTestTarget> changedTests = new ArrayList<>();
+            private final List<String> errors = new ArrayList<>();
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                ChangeListManager changeListManager = ChangeListManager.getInstance(project);
+                for (Change change : changeListManager.getAllChanges()) {
+                    indicator.checkCanceled();
+                    ContentRevision after = change.getAfterRevision();
+                    VirtualFile file = after == null ? null : after.getFile().getVirtualFile();
+                    if (file == null || !SysTestLineMarkerProvider.isSysTestFile(file.getName())) {
+                        continue;
+                    }
+                    try {
+                        ContentRevision before = change.getBeforeRevision();
+                        String base = before == null ? null : before.getContent();
+                        addChangedTests(file, base == null ? "" : base);
+                    } catch (VcsException e) {
+                        errors.add(file.getName() + ": " + e.getMessage());
+                    }
+                }
+                for (FilePath path : changeListManager.getUnversionedFilesPaths()) {
+                    VirtualFile file = path.getVirtualFile();
+                    if (file != null && SysTestLineMarkerProvider.isSysTestFile(file.getName())) {
+                        addChangedTests(file, "");
+                    }
+                }
+            }
+
+            private void addChangedTests(VirtualFile file, String base) {
+                CharSequence current = readText(file);
+                if (current == null) {
+                    return;
+                }
+                for (int ordinal : SysTestChangedBlocks.changedTests(base, current)) {
+                    changedTests.add(new SysTestTarget(file, ordinal));
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (!errors.isEmpty()) {
+                    Messages.showWarningDialog(project, "Could not load the VCS base of:\n" + String.join("\n", errors),
+                            "NES-Systest-Runner");
+                }
+                if (changedTests.isEmpty()) {
+                    Messages.showInfoMessage(project, "No system test changed compared with the VCS base", "NES-Systest-Runner");
+                    return;
+                }
+                SysTestLineMarkerProvider.startRunSysTest(project, false, changedTests);
+            }
+        }.queue();
+    }
+
+    /// The unsaved text if the file is open, so that edits that have not been saved yet count as well
+    private static @Nullable CharSequence readText(VirtualFile file) {
+        return ReadAction.compute(() -> {
+            Document document = FileDocumentManager.getInstance().getDocument(file);
+            return document == null ? null : document.getImmutableCharSequence();
+        });
+    }
+}
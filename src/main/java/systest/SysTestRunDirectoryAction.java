@@ -0,0 +1,64 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/// Project View action that runs all system tests below the selected directory.
+/// The test files are looked up in the SysTestFileIndex, so that no file has to be opened or read,
+/// and systest discovers the tests of the directory itself via '-t <directory>'
+public class SysTestRunDirectoryAction extends AnAction {
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile directory = e.getData(CommonDataKeys.VIRTUAL_FILE);
+        e.getPresentation().setEnabledAndVisible(project != null
+                && directory != null
+                && directory.isDirectory()
+                && !DumbService.isDumb(project));
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile directory = e.getData(CommonDataKeys.VIRTUAL_FILE);
+        if (project == null || directory == null) {
+            return;
+        }
+
+        List<VirtualFile> testFiles = SysTestFileIndex.getTestFilesUnder(project, directory);
+        if (testFiles.isEmpty()) {
+            Messages.showInfoMessage(project, "There are no system tests in '" + directory.getName() + "'", "NES-Systest-Runner");
+            return;
+        }
+
+        SysTestLineMarkerProvider.startRunSysTest(project, false, new SysTestTarget(directory, 0));
+    }
+}
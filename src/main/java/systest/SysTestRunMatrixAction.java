@@ -0,0 +1,85 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/// Project View and editor action that runs the selected test file or directory, or the test at the caret,
+/// with several CMake profiles at once, see SysTestMatrixRunner
+public class SysTestRunMatrixAction extends AnAction {
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile file = e.getData(CommonDataKeys.VIRTUAL_FILE);
+        e.getPresentation().setEnabledAndVisible(project != null
+                && file != null
+                && (file.isDirectory() || SysTestLineMarkerProvider.isSysTestFile(file.getName()))
+                && !DumbService.isDumb(project));
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile file = e.getData(CommonDataKeys.VIRTUAL_FILE);
+        if (project == null || file == null) {
+            return;
+        }
+
+        Editor editor = e.getData(CommonDataKeys.EDITOR);
+        List<SysTestTarget> targets = editor != null && !file.isDirectory()
+                ? testAtCaret(editor, file)
+                : SysTestFileIndex.getTestTargets(project, file);
+        if (targets.isEmpty()) {
+            Messages.showInfoMessage(project, "There are no system tests in '" + file.getName() + "'", "NES-Systest-Runner");
+            return;
+        }
+
+        SysTestMatrixRunner.run(project, targets);
+    }
+
+    /// The test whose query or expected results contain the caret
+    private static List<SysTestTarget> testAtCaret(Editor editor, VirtualFile file) {
+        Document document = editor.getDocument();
+        CharSequence text = document.getImmutableCharSequence();
+        SysTestBoundaryIndex boundaries = SysTestDocumentIndex.getBoundaries(document);
+        int caret = editor.getCaretModel().getOffset();
+        int next = boundaries.indexOfFirstAtOrAfter(SysTestQueryBlocks.lineStart(text, caret));
+        if (next > 0 && caret <= SysTestQueryBlocks.expectedEnd(text, boundaries.getOffset(next - 1))) {
+            return List.of(new SysTestTarget(file, next));
+        }
+        if (next < boundaries.size()) {
+            return List.of(new SysTestTarget(file, next + 1));
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,317 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/// Runs a single system test once per scale factor of the settings, e.g. 1x, 10x and 100x, with the data of its
+/// sources replicated by the factor, and charts wall time and tuples per second against the factor, see
+/// SysTestScaleView. The scaled test is written to a temp directory below the working directory right before its run
+/// and deleted afterward. Its file sources are named pipes that are written while systest reads them, see replicate
+public final class SysTestScaleRunner {
+    public static final String TITLE = "Scale Test";
+    /// Below the working directory of the 'systest' configuration, ignored by the SysTestBuildTracker
+    public static final String SCALE_DIRECTORY = "nes-systest-scale";
+
+    private SysTestScaleRunner() {
+    }
+
+    /// The test file text and the "----" offsets of the test to scale, taken from the document snapshot
+    private record Snapshot(CharSequence text, int[] markers) {
+    }
+
+    public static void run(Project project, SysTestTarget target) {
+        SysTestLineMarkerProvider.saveTarget(project, target);
+        ConsoleView consoleView = SysTestToolWindow.showConsole(project, TITLE);
+        List<Integer> factors = parseFactors(PluginSettings.getInstance().getScaleFactors());
+        if (factors.isEmpty()) {
+            consoleView.print("No scale factors configured, see Settings/Tools/NES-Systest-Runner\n", ConsoleViewContentType.ERROR_OUTPUT);
+            return;
+        }
+        Snapshot snapshot = ReadAction.compute(() -> {
+            Document document = FileDocumentManager.getInstance().getDocument(target.location());
+            return document == null ? null : new Snapshot(document.getImmutableCharSequence(),
+                    SysTestDocumentIndex.getBoundaries(document).toArray());
+        });
+        if (snapshot == null || target.testIndex() < 1 || target.testIndex() > snapshot.markers().length) {
+            consoleView.print("Could not find the test " + target.hostLocation() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
+            return;
+        }
+
+        String testName = SysTestFileIndex.testName(target.location().getName(), target.testIndex());
+        SysTestScaleView view = SysTestScaleView.show(project, testName, factors);
+        new Task.Backgroundable(project, "Scaling system test " + testName, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                SysTestLaunchContext launchContext = SysTestLaunchContext.resolveOrPrintError(
+                        project, error -> consoleView.print(error, ConsoleViewContentType.ERROR_OUTPUT));
+                if (launchContext == null) {
+                    return;
+                }
+                consoleView.print("Scaling " + testName + " by " + factors + ". The results of the scaled runs are not "
+                        + "checked, the expected rows only hold for the original data\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+                try {
+                    Path directory = Path.of(launchContext.workingDirectory(), SCALE_DIRECTORY);
+                    for (int i = 0; i < factors.size(); i++) {
+                        indicator.checkCanceled();
+                        indicator.setFraction((double) i / factors.size());
+                        if (!runScaled(launchContext, target, snapshot, factors.get(i), directory, view, consoleView, indicator)) {
+                            return;
+                        }
+                    }
+                } catch (ExecutionException | IOException | UncheckedIOException e) {
+                    consoleView.print("Error: " + e.getMessage() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
+                }
+            }
+        }.queue();
+    }
+
+    /// Generates the input of one factor, runs it and deletes it again. Returns false if the run was canceled
+    private static boolean runScaled(SysTestLaunchContext launchContext,
+                                     SysTestTarget target,
+                                     Snapshot snapshot,
+                                     int factor,
+                                     Path directory,
+                                     SysTestScaleView view,
+                                     ConsoleView consoleView,
+                                     ProgressIndicator indicator) throws ExecutionException, IOException {
+        Path factorDirectory = directory.resolve("x" + factor);
+        Pipes pipes = new Pipes();
+        try {
+            indicator.setText2("Generating the " + factor + "x input");
+            Files.createDirectories(factorDirectory);
+            Path testFile = factorDirectory.resolve(target.location().getName());
+            Path sourceDirectory = Path.of(target.location().getParent().getPath());
+            long[] fileTuples = new long[1];
+            /// Every source file is replicated into a pipe or a copy named after its index, so that sources of the
+            /// same name in different directories do not overwrite each other
+            Map<Path, String> copies = new HashMap<>();
+            SysTestScaledTest.Result scaled;
+            try (BufferedWriter writer = Files.newBufferedWriter(testFile, StandardCharsets.UTF_8)) {
+                scaled = SysTestScaledTest.write(snapshot.text(), snapshot.markers(), target.testIndex(), factor,
+                        (path, times) -> {
+                            Path source = sourceDirectory.resolve(path).normalize();
+                            String copyPath = copies.get(source);
+                            if (copyPath != null) {
+                                return copyPath;
+                            }
+                            if (!Files.isRegularFile(source)) {
+                                return null;
+                            }
+                            Path copy = factorDirectory.resolve(pipes.size() + copies.size() + "-" + source.getFileName());
+                            fileTuples[0] += replicate(source, copy, times, pipes);
+                            copyPath = launchContext.cppEnvironment().toEnvPath(copy.toString());
+                            if (!pipes.contains(copy)) {
+                                /// A pipe can only be read once, so only file copies are shared by sources
+                                copies.put(source, copyPath);
+                            }
+                            return copyPath;
+                        },
+                        writer);
+            }
+            if (!scaled.unscaledSources().isEmpty()) {
+                consoleView.print("Not scaled, their data was not found: " + scaled.unscaledSources() + "\n",
+                        ConsoleViewContentType.ERROR_OUTPUT);
+            }
+            VirtualFile scaledFile = LocalFileSystem.getInstance().refreshAndFindFileByNioFile(testFile);
+            if (scaledFile == null) {
+                throw new IOException("Could not write " + testFile);
+            }
+
+            indicator.setText2("Running the " + factor + "x input");
+            long start = System.nanoTime();
+            SysTestProcesses.Result result = launchContext.run(new SysTestTarget(scaledFile, 1), indicator);
+            long wallMillis = (System.nanoTime() - start) / 1_000_000;
+            if (result.canceled()) {
+                return false;
+            }
+            double throughput = SysTestOutputParser.parseThroughput(result.outputTail());
+            consoleView.print(String.format("%dx: %d ms%s%s\n",
+                            factor,
+                            wallMillis,
+                            Double.isNaN(throughput) ? "" : String.format(", %.0f tuples/s", throughput),
+                            result.exitCode() == 0 ? "" : ", exit code " + result.exitCode()),
+                    ConsoleViewContentType.NORMAL_OUTPUT);
+            view.factorFinished(factor, wallMillis, throughput, scaled.inlineTuples() + fileTuples[0], result.exitCode());
+            return true;
+        } finally {
+            pipes.close();
+            FileUtil.delete(factorDirectory);
+        }
+    }
+
+    /// Replicates 'source' 'times' into 'copy' and returns the number of lines of the replica. The copy is a named pipe
+    /// that a pooled thread writes to while systest reads it, so that the replica never hits the disk. Where no pipe can
+    /// be made, e.g. on Windows, the copies are written to a file, unless they would not fit on the disk
+    private static long replicate(Path source, Path copy, int times, Pipes pipes) throws IOException {
+        long lines = 0;
+        boolean terminated = true;
+        try (InputStream input = Files.newInputStream(source)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+                terminated = buffer[read - 1] == '\n';
+            }
+        }
+        boolean addNewline = !terminated;
+        if (pipes.create(copy)) {
+            pipes.write(copy, output -> writeCopies(source, output, times, addNewline));
+        } else {
+            long size = (Files.size(source) + (addNewline ? 1 : 0)) * times;
+            long free = Files.getFileStore(copy.getParent()).getUsableSpace();
+            if (size >= free) {
+                throw new IOException("The " + times + "x copy of " + source + " needs " + StringUtil.formatFileSize(size)
+                        + ", but only " + StringUtil.formatFileSize(free) + " are free");
+            }
+            try (OutputStream output = Files.newOutputStream(copy)) {
+                writeCopies(source, output, times, addNewline);
+            }
+        }
+        return (terminated ? lines : lines + 1) * times;
+    }
+
+    private static void writeCopies(Path source, OutputStream output, int times, boolean addNewline) throws IOException {
+        for (int i = 0; i < times; i++) {
+            Files.copy(source, output);
+            if (addNewline) {
+                output.write('\n');
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PipeWriter {
+        void write(OutputStream output) throws IOException;
+    }
+
+    /// The named pipes of one factor and the pooled threads that write them
+    private static final class Pipes implements Closeable {
+        private final List<Path> paths = new ArrayList<>();
+        private final List<Future<?>> writers = new ArrayList<>();
+
+        /// Whether the named pipe could be made with 'mkfifo'
+        private boolean create(Path path) {
+            try {
+                Process mkfifo = new ProcessBuilder("mkfifo", path.toString()).redirectErrorStream(true).start();
+                mkfifo.getInputStream().readAllBytes();
+                if (mkfifo.waitFor() != 0) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            paths.add(path);
+            return true;
+        }
+
+        /// Opening the pipe blocks until systest opens it, a write fails once systest has closed it
+        private void write(Path path, PipeWriter writer) {
+            writers.add(ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                try (OutputStream output = Files.newOutputStream(path)) {
+                    writer.write(output);
+                } catch (IOException ignored) {
+                    /// systest did not read all of it, e.g. because the test failed
+                }
+            }));
+        }
+
+        private boolean contains(Path path) {
+            return paths.contains(path);
+        }
+
+        private int size() {
+            return paths.size();
+        }
+
+        /// Releases the writers of pipes that systest never opened or did not read to the end: opening a pipe for
+        /// reading and writing does not block, the writer's open returns and its next write fails once it is closed
+        @Override
+        public void close() {
+            for (Path path : paths) {
+                try (RandomAccessFile ignored = new RandomAccessFile(path.toFile(), "rw")) {
+                    /// Only opened
+                } catch (IOException ignored) {
+                    /// Already deleted
+                }
+            }
+            for (Future<?> writer : writers) {
+                try {
+                    writer.get(10, TimeUnit.SECONDS);
+                } catch (java.util.concurrent.ExecutionException | TimeoutException e) {
+                    writer.cancel(true);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /// Positive factors in ascending order, invalid entries are ignored
+    static List<Integer> parseFactors(String factors) {
+        TreeSet<Integer> parsed = new TreeSet<>();
+        for (String factor : factors.split(",")) {
+            try {
+                int value = Integer.parseInt(factor.trim());
+                if (value > 0) {
+                    parsed.add(value);
+                }
+            } catch (NumberFormatException ignored) {
+                /// e.g. a trailing comma
+            }
+        }
+        return List.copyOf(parsed);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Splitter;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/// The "Scale Test" tab of the NES-Systest-Runner tool window: wall time and tuples per second of a test against the
+/// factor its source data was replicated by, see SysTestScaleRunner. The dashed line is the wall time of linear
+/// scaling from the smallest factor, i.e. a wall time below it means the test scales better than linearly.
+/// Updated from the thread of the scale runs
+public final class SysTestScaleView {
+    public static final String TITLE = "Scale Test";
+    private static final String[] COLUMNS = {"Factor", "Input tuples", "Wall time (ms)", "Tuples/s", "Reported tuples/s", "Status"};
+    private static final JBColor WALL_TIME_COLOR = JBColor.BLUE;
+    private static final JBColor THROUGHPUT_COLOR = JBColor.ORANGE;
+
+    /// A finished run, only accessed on the EDT
+    private record Measurement(int factor, long wallMillis, double tuplesPerSecond) {
+    }
+
+    private final Project project;
+    private final List<Integer> factors;
+    private final DefaultTableModel model;
+    private final Map<Integer, Measurement> measurements = new HashMap<>();
+    private final Chart chart = new Chart();
+
+    private SysTestScaleView(Project project, List<Integer> factors) {
+        this.project = project;
+        this.factors = factors;
+        this.model = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (int factor : factors) {
+            model.addRow(new Object[]{factor + "x", "", "...", "", "", ""});
+        }
+    }
+
+    /// Shows an empty chart of the factors, the points are added while the runs finish
+    public static SysTestScaleView show(Project project, String testName, List<Integer> factors) {
+        SysTestScaleView view = new SysTestScaleView(project, factors);
+        JPanel chartPanel = new JPanel(new BorderLayout());
+        chartPanel.add(new JBLabel(testName + ": wall time (blue, linear scaling dashed) and tuples/s (orange)"), BorderLayout.NORTH);
+        chartPanel.add(view.chart, BorderLayout.CENTER);
+        chartPanel.setBorder(JBUI.Borders.empty(4));
+
+        Splitter splitter = new Splitter(true, 0.6f);
+        splitter.setFirstComponent(chartPanel);
+        splitter.setSecondComponent(new JBScrollPane(new JBTable(view.model)));
+        SysTestToolWindow.showContent(project, TITLE, splitter, Disposer.newDisposable());
+        return view;
+    }
+
+    /// Called from the thread of the scale runs. The tuples per second are the input tuples over the wall time,
+    /// which includes the startup of systest, 'reportedThroughput' is what systest reports, NaN if it reports nothing
+    public void factorFinished(int factor, long wallMillis, double reportedThroughput, long inputTuples, int exitCode) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            double tuplesPerSecond = !Double.isNaN(reportedThroughput) ? reportedThroughput
+                    : inputTuples * 1000.0 / Math.max(1, wallMillis);
+            measurements.put(factor, new Measurement(factor, wallMillis, tuplesPerSecond));
+            int row = factors.indexOf(factor);
+            model.setValueAt(inputTuples, row, 1);
+            model.setValueAt(wallMillis, row, 2);
+            model.setValueAt(String.format("%.0f", inputTuples * 1000.0 / Math.max(1, wallMillis)), row, 3);
+            model.setValueAt(Double.isNaN(reportedThroughput) ? "" : String.format("%.0f", reportedThroughput), row, 4);
+            model.setValueAt(exitCode == 0 ? "passed" : "exit code " + exitCode, row, 5);
+            chart.repaint();
+        }, project.getDisposed());
+    }
+
+    /// Line chart with the factors on a logarithmic x axis, wall time on the left and tuples/s on the right axis
+    private final class Chart extends JComponent {
+        private static final int MARGIN = 50;
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(JBUI.scale(400), JBUI.scale(200));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g.create();
+            try {
+                UIUtil.applyRenderingHints(g2);
+                g2.setFont(JBUI.Fonts.smallFont());
+                int margin = JBUI.scale(MARGIN);
+                int left = margin;
+                int right = getWidth() - margin;
+                int top = JBUI.scale(10);
+                int bottom = getHeight() - JBUI.scale(25);
+                if (right <= left || bottom <= top) {
+                    return;
+                }
+                g2.setColor(JBColor.GRAY);
+                g2.drawLine(left, bottom, right, bottom);
+                g2.drawLine(left, top, left, bottom);
+                g2.drawLine(right, top, right, bottom);
+                for (int factor : factors) {
+                    int x = x(factor, left, right);
+                    g2.drawString(factor + "x", x - g2.getFontMetrics().stringWidth(factor + "x") / 2, bottom + JBUI.scale(15));
+                }
+
+                List<Measurement> finished = factors.stream().map(measurements::get).filter(Objects::nonNull).toList();
+                if (finished.isEmpty()) {
+                    return;
+                }
+                Measurement first = finished.get(0);
+                double maxWall = 1;
+                double maxThroughput = 1;
+                for (Measurement point : finished) {
+                    maxWall = Math.max(maxWall, point.wallMillis());
+                    maxWall = Math.max(maxWall, (double) first.wallMillis() * point.factor() / first.factor());
+                    maxThroughput = Math.max(maxThroughput, point.tuplesPerSecond());
+                }
+                g2.setColor(WALL_TIME_COLOR);
+                g2.drawString(String.format("%.0f ms", maxWall), JBUI.scale(2), top + JBUI.scale(10));
+                g2.setColor(THROUGHPUT_COLOR);
+                g2.drawString(String.format("%.3g/s", maxThroughput), right + JBUI.scale(2), top + JBUI.scale(10));
+
+                Stroke solid = new BasicStroke(JBUI.scale(2));
+                Stroke dashed = new BasicStroke(JBUI.scale(1), BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10,
+                        new float[]{JBUI.scale(4), JBUI.scale(4)}, 0);
+                Measurement previous = null;
+                for (Measurement point : finished) {
+                    int x = x(point.factor(), left, right);
+                    int wallY = y(point.wallMillis(), maxWall, top, bottom);
+                    int throughputY = y(point.tuplesPerSecond(), maxThroughput, top, bottom);
+                    if (previous != null) {
+                        int previousX = x(previous.factor(), left, right);
+                        g2.setStroke(dashed);
+                        g2.setColor(WALL_TIME_COLOR);
+                        g2.drawLine(previousX, y((double) first.wallMillis() * previous.factor() / first.factor(), maxWall, top, bottom),
+                                x, y((double) first.wallMillis() * point.factor() / first.factor(), maxWall, top, bottom));
+                        g2.setStroke(solid);
+                        g2.drawLine(previousX, y(previous.wallMillis(), maxWall, top, bottom), x, wallY);
+                        g2.setColor(THROUGHPUT_COLOR);
+                        g2.drawLine(previousX, y(previous.tuplesPerSecond(), maxThroughput, top, bottom), x, throughputY);
+                    }
+                    int dot = JBUI.scale(6);
+                    g2.setColor(WALL_TIME_COLOR);
+                    g2.fillOval(x - dot / 2, wallY - dot / 2, dot, dot);
+                    g2.setColor(THROUGHPUT_COLOR);
+                    g2.fillOval(x - dot / 2, throughputY - dot / 2, dot, dot);
+                    previous = point;
+                }
+            } finally {
+                g2.dispose();
+            }
+        }
+
+        private int x(int factor, int left, int right) {
+            double minLog = Math.log(factors.get(0));
+            double maxLog = Math.log(factors.get(factors.size() - 1));
+            if (maxLog == minLog) {
+                return (left + right) / 2;
+            }
+            return left + (int) ((right - left) * (Math.log(factor) - minLog) / (maxLog - minLog));
+        }
+
+        private static int y(double value, double max, int top, int bottom) {
+            return bottom - (int) ((bottom - top) * value / max);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/// Writes a copy of a test file that contains only a single test, with the data of its sources replicated by a factor,
+/// so that any functional test can be run as a scaling benchmark, see SysTestScaleRunner.
+/// Inline source data is repeated in place, file sources are replaced by the file that 'FileSources' generates.
+/// The copy is written line by line to the writer, i.e. the scaled data is never built up in memory.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestScaledTest {
+    private SysTestScaledTest() {
+    }
+
+    /// Generates the scaled copy of a file source, e.g. by reading the original file 'factor' times
+    @FunctionalInterface
+    public interface FileSources {
+        /// The path line to use instead of 'path' in the copy, or null if the source cannot be scaled
+        String scale(String path, int factor) throws IOException;
+    }
+
+    /// The sources that were scaled and those that were copied as they are, e.g. because their file was not found.
+    /// inlineTuples counts the written tuples of inline sources, i.e. already multiplied by the factor
+    public record Result(List<String> scaledSources, List<String> unscaledSources, long inlineTuples) {
+    }
+
+    /// Writes the test with the 1-based 'ordinal' of 'text', whose "----" are at 'markers', as the only test of the copy.
+    /// Everything that is not a test, e.g. the name, sources and sinks, is kept, the other tests are dropped
+    public static Result write(CharSequence text, int[] markers, int ordinal, int factor, FileSources fileSources, Writer out)
+            throws IOException {
+        List<String> scaled = new ArrayList<>();
+        List<String> unscaled = new ArrayList<>();
+        long[] inlineTuples = new long[1];
+        int position = 0;
+        for (int i = 0; i < markers.length; i++) {
+            int testStart = SysTestQueryBlocks.queryStart(text, markers[i]);
+            int testEnd = SysTestQueryBlocks.expectedEnd(text, markers[i]);
+            if (i + 1 == ordinal) {
+                continue;
+            }
+            writeScaled(text, position, testStart, factor, fileSources, out, scaled, unscaled, inlineTuples);
+            position = Math.min(testEnd + 1, text.length());
+        }
+        writeScaled(text, position, text.length(), factor, fileSources, out, scaled, unscaled, inlineTuples);
+        return new Result(scaled, unscaled, inlineTuples[0]);
+    }
+
+    /// Copies the lines of [start, end), repeating the inline data below every source definition
+    private static void writeScaled(CharSequence text, int start, int end, int factor, FileSources fileSources, Writer out,
+                                    List<String> scaled, List<String> unscaled, long[] inlineTuples) throws IOException {
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = Math.min(SysTestQueryBlocks.lineEnd(text, lineStart), end);
+            int next = nextLine(text, lineEnd, end);
+            out.append(text, lineStart, next);
+            if (!isKeywordLine(text, lineStart, lineEnd, "Source")) {
+                lineStart = next;
+                continue;
+            }
+            String definition = text.subSequence(lineStart, lineEnd).toString().trim();
+            String[] tokens = definition.split("\\s+");
+            String name = tokens.length > 1 ? tokens[1] : definition;
+            if (tokens[tokens.length - 1].equalsIgnoreCase("FILE")) {
+                /// 'Source stream UINT64 id FILE' is followed by the path of its data
+                int pathEnd = Math.min(SysTestQueryBlocks.lineEnd(text, next), end);
+                if (next >= end || isDataEnd(text, next, pathEnd)) {
+                    unscaled.add(name);
+                    lineStart = next;
+                    continue;
+                }
+                String path = text.subSequence(next, pathEnd).toString().trim();
+                String scaledPath = fileSources.scale(path, factor);
+                if (scaledPath == null) {
+                    unscaled.add(name);
+                    out.append(text, next, nextLine(text, pathEnd, end));
+                } else {
+                    scaled.add(name);
+                    out.append(scaledPath).append('\n');
+                }
+                lineStart = nextLine(text, pathEnd, end);
+                continue;
+            }
+            /// Inline data: the tuples up to the next empty line, comment, definition or query
+            int dataEnd = next;
+            int tuples = 0;
+            while (dataEnd < end) {
+                int dataLineEnd = Math.min(SysTestQueryBlocks.lineEnd(text, dataEnd), end);
+                if (isDataEnd(text, dataEnd, dataLineEnd)) {
+                    break;
+                }
+                dataEnd = nextLine(text, dataLineEnd, end);
+                tuples++;
+            }
+            if (dataEnd > next) {
+                scaled.add(name);
+                inlineTuples[0] += (long) tuples * factor;
+                boolean terminated = text.charAt(dataEnd - 1) == '\n';
+                for (int copy = 0; copy < factor; copy++) {
+                    out.append(text, next, dataEnd);
+                    if (!terminated) {
+                        out.append('\n');
+                    }
+                }
+            }
+            lineStart = dataEnd;
+        }
+    }
+
+    /// Whether the line ends the data below a source definition: an empty line, a comment, a definition, a query or a "----"
+    static boolean isDataEnd(CharSequence text, int lineStart, int lineEnd) {
+        int first = firstNonWhitespace(text, lineStart, lineEnd);
+        return first == lineEnd
+                || text.charAt(first) == '#'
+                || isKeywordLine(text, lineStart, lineEnd, "Source")
+                || isKeywordLine(text, lineStart, lineEnd, "Sink")
+                || isKeywordLine(text, lineStart, lineEnd, "Attach")
+                || isKeywordLine(text, lineStart, lineEnd, "Create")
+                || isKeywordLine(text, lineStart, lineEnd, "Select")
+                || contains(text, first, lineEnd, SysTestBoundaryIndex.MARKER);
+    }
+
+    /// Case-insensitive keyword followed by whitespace or the end of the line, like the SysTestLexer
+    static boolean isKeywordLine(CharSequence text, int lineStart, int lineEnd, String keyword) {
+        int first = firstNonWhitespace(text, lineStart, lineEnd);
+        if (lineEnd - first < keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toLowerCase(text.charAt(first + i)) != Character.toLowerCase(keyword.charAt(i))) {
+                return false;
+            }
+        }
+        return first + keyword.length() == lineEnd || Character.isWhitespace(text.charAt(first + keyword.length()));
+    }
+
+    private static int nextLine(CharSequence text, int lineEnd, int end) {
+        return lineEnd < end && lineEnd < text.length() ? lineEnd + 1 : lineEnd;
+    }
+
+    private static int firstNonWhitespace(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean contains(CharSequence text, int start, int end, String needle) {
+        for (int i = start; i + needle.length() <= end; i++) {
+            int matched = 0;
+            while (matched < needle.length() && text.charAt(i + matched) == needle.charAt(matched)) {
+                matched++;
+            }
+            if (matched == needle.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
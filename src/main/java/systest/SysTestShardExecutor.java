@@ -0,0 +1,96 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+/// Runs the shards of a SysTestShardPlanner plan concurrently, one thread per shard.
+/// Each shard runs its tests one after another, i.e. at most one systest process per shard is alive at any time.
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestShardExecutor {
+    private SysTestShardExecutor() {
+    }
+
+    /// Runs a single test and returns the exit code of its systest process
+    @FunctionalInterface
+    public interface TestRunner<T> {
+        int run(T test) throws Exception;
+    }
+
+    /// Called from the shard threads as soon as a test has finished
+    @FunctionalInterface
+    public interface ResultListener<T> {
+        void testFinished(Result<T> result);
+    }
+
+    /// exitCode is -1 if the process could not be run, the reason is stored in 'error'
+    public record Result<T>(T test, int exitCode, long durationMillis, String error) {
+        public boolean passed() {
+            return exitCode == 0;
+        }
+    }
+
+    /// Runs all shards and blocks until every shard is done or 'canceled' returns true.
+    /// Results are returned in the order in which the tests finished
+    public static <T> List<Result<T>> execute(List<List<T>> shards,
+                                              TestRunner<T> runner,
+                                              ResultListener<T> listener,
+                                              BooleanSupplier canceled) throws InterruptedException {
+        ConcurrentLinkedQueue<Result<T>> results = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, shards.size()), runnable -> {
+            Thread thread = new Thread(runnable, "NES-Systest-Runner shard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<T> shard : shards) {
+                futures.add(executor.submit(() -> {
+                    for (T test : shard) {
+                        if (canceled.getAsBoolean()) {
+                            return;
+                        }
+                        long start = System.nanoTime();
+                        Result<T> result;
+                        try {
+                            int exitCode = runner.run(test);
+                            result = new Result<>(test, exitCode, elapsedMillis(start), null);
+                        } catch (Exception e) {
+                            result = new Result<>(test, -1, elapsedMillis(start), String.valueOf(e.getMessage()));
+                        }
+                        results.add(result);
+                        listener.testFinished(result);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new ArrayList<>(results);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
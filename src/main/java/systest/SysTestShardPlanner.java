@@ -0,0 +1,70 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/// Distributes tests across a number of shards, such that all shards take about the same time.
+/// Tests are ordered longest-first by their expected duration and each test is put into the shard
+/// with the least expected total duration so far (longest processing time first scheduling).
+/// NOTE: this class has no platform dependencies, so that it can be benchmarked headless
+public final class SysTestShardPlanner {
+    private SysTestShardPlanner() {
+    }
+
+    /// 'expectedDuration' returns the duration of a test from earlier runs, or a negative value if unknown.
+    /// Unknown tests are expected to take as long as the average known test
+    public static <T> List<List<T>> plan(List<T> tests, ToLongFunction<T> expectedDuration, int shardCount) {
+        int shards = Math.max(1, Math.min(shardCount, tests.size()));
+
+        long knownTotal = 0;
+        int knownCount = 0;
+        List<Long> durations = new ArrayList<>(tests.size());
+        for (T test : tests) {
+            long duration = expectedDuration.applyAsLong(test);
+            durations.add(duration);
+            if (duration >= 0) {
+                knownTotal += duration;
+                knownCount++;
+            }
+        }
+        long unknownDuration = knownCount == 0 ? 1 : knownTotal / knownCount;
+
+        List<Integer> order = new ArrayList<>(tests.size());
+        for (int i = 0; i < tests.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingLong((Integer i) -> durations.get(i) < 0 ? unknownDuration : durations.get(i)).reversed());
+
+        List<List<T>> result = new ArrayList<>(shards);
+        long[] load = new long[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            result.add(new ArrayList<>());
+        }
+        for (int i : order) {
+            int leastLoaded = 0;
+            for (int shard = 1; shard < shards; shard++) {
+                if (load[shard] < load[leastLoaded]) {
+                    leastLoaded = shard;
+                }
+            }
+            result.get(leastLoaded).add(tests.get(i));
+            load[leastLoaded] += durations.get(i) < 0 ? unknownDuration : durations.get(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.editor.DefaultLanguageHighlighterColors;
+import com.intellij.openapi.editor.colors.TextAttributesKey;
+import com.intellij.openapi.fileTypes.SingleLazyInstanceSyntaxHighlighterFactory;
+import com.intellij.openapi.fileTypes.SyntaxHighlighter;
+import com.intellij.openapi.fileTypes.SyntaxHighlighterBase;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/// Highlights system test files line by line with the restartable SysTestLexer
+public class SysTestSyntaxHighlighter extends SyntaxHighlighterBase {
+    public static final TextAttributesKey COMMENT =
+            TextAttributesKey.createTextAttributesKey("SYSTEST_COMMENT", DefaultLanguageHighlighterColors.LINE_COMMENT);
+    public static final TextAttributesKey SOURCE_DEFINITION =
+            TextAttributesKey.createTextAttributesKey("SYSTEST_SOURCE_DEFINITION", DefaultLanguageHighlighterColors.METADATA);
+    public static final TextAttributesKey SEPARATOR =
+            TextAttributesKey.createTextAttributesKey("SYSTEST_SEPARATOR", DefaultLanguageHighlighterColors.KEYWORD);
+    public static final TextAttributesKey TUPLE =
+            TextAttributesKey.createTextAttributesKey("SYSTEST_TUPLE", DefaultLanguageHighlighterColors.NUMBER);
+
+    private static final Map<IElementType, TextAttributesKey[]> KEYS = Map.of(
+            SysTestTokenTypes.COMMENT, pack(COMMENT),
+            SysTestTokenTypes.SOURCE_DEFINITION, pack(SOURCE_DEFINITION),
+            SysTestTokenTypes.SEPARATOR, pack(SEPARATOR),
+            SysTestTokenTypes.SOURCE_DATA, pack(TUPLE),
+            SysTestTokenTypes.RESULT_LINE, pack(TUPLE));
+
+    public static class Factory extends SingleLazyInstanceSyntaxHighlighterFactory {
+        @Override
+        protected @NotNull SyntaxHighlighter createHighlighter() {
+            return new SysTestSyntaxHighlighter();
+        }
+    }
+
+    @Override
+    public @NotNull Lexer getHighlightingLexer() {
+        return new SysTestLexer();
+    }
+
+    @Override
+    public TextAttributesKey @NotNull [] getTokenHighlights(IElementType tokenType) {
+        return KEYS.getOrDefault(tokenType, TextAttributesKey.EMPTY_ARRAY);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.jetbrains.cidr.cpp.toolchains.CPPEnvironment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/// A location that systest runs via '-t': a single test of a file, all tests of a file (testIndex 0)
+/// or all tests discovered in a directory (testIndex 0)
+public record SysTestTarget(VirtualFile location, int testIndex) {
+
+    /// The '-t' value as seen from within the given environment, e.g. 'path/to/Filter.test:03'
+    public String toTestLocation(CPPEnvironment cppEnvironment) {
+        return toTestLocation(cppEnvironment::toEnvPath);
+    }
+
+    /// The '-t' value with the path mapped by 'toEnvPath', e.g. into a warm docker container
+    public String toTestLocation(UnaryOperator<String> toEnvPath) {
+        return toEnvPath.apply(location.getPath()) + testIndexSuffix();
+    }
+
+    /// The '-t' value on the host, used as a stable key for e.g. durations of earlier runs
+    public String hostLocation() {
+        return location.getPath() + testIndexSuffix();
+    }
+
+    /// Whether running this target also runs all tests of 'other', e.g. a whole file covers each of its tests
+    public boolean covers(SysTestTarget other) {
+        if (location.isDirectory()) {
+            return VfsUtilCore.isAncestor(location, other.location, false);
+        }
+        return location.equals(other.location) && (testIndex == 0 || testIndex == other.testIndex);
+    }
+
+    /// The test file with the given name, as reported by systest: a launched file itself or,
+    /// for a directory launch, a file below it
+    public static Optional<VirtualFile> findTestFile(Project project, List<SysTestTarget> targets, String fileName) {
+        for (SysTestTarget target : targets) {
+            VirtualFile location = target.location();
+            if (!location.isDirectory()) {
+                if (location.getName().equals(fileName)) {
+                    return Optional.of(location);
+                }
+                continue;
+            }
+            Collection<VirtualFile> files = ReadAction.compute(() -> FilenameIndex.getVirtualFilesByName(
+                    fileName, GlobalSearchScopesCore.directoryScope(project, location, true)));
+            if (!files.isEmpty()) {
+                return Optional.of(files.iterator().next());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private String testIndexSuffix() {
+        if (testIndex > 0) {
+            return ":" + String.format("%02d", testIndex);
+        }
+        return "";
+    }
+}
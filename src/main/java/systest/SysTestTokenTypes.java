@@ -0,0 +1,48 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IFileElementType;
+import com.intellij.psi.tree.TokenSet;
+
+/// Token and element types of system test files.
+/// Every token covers one whole line including its line break, see SysTestLexer
+public interface SysTestTokenTypes {
+    IElementType COMMENT = new IElementType("COMMENT", SysTestLanguage.INSTANCE);
+    IElementType WHITE_SPACE = new IElementType("WHITE_SPACE", SysTestLanguage.INSTANCE);
+    /// A line that defines a source or sink, e.g. 'Source stream UINT64 id INLINE'
+    IElementType SOURCE_DEFINITION = new IElementType("SOURCE_DEFINITION", SysTestLanguage.INSTANCE);
+    /// A tuple of inline source data below a source definition
+    IElementType SOURCE_DATA = new IElementType("SOURCE_DATA", SysTestLanguage.INSTANCE);
+    IElementType QUERY_LINE = new IElementType("QUERY_LINE", SysTestLanguage.INSTANCE);
+    /// The "----" line that ends a query
+    IElementType SEPARATOR = new IElementType("SEPARATOR", SysTestLanguage.INSTANCE);
+    /// A tuple of the expected results below a "----"
+    IElementType RESULT_LINE = new IElementType("RESULT_LINE", SysTestLanguage.INSTANCE);
+
+    /// Consecutive lines of inline source data or expected results, parsed lazily and reparsed on their own
+    SysTestLineBlockElementType SOURCE_DATA_BLOCK = new SysTestLineBlockElementType("SOURCE_DATA_BLOCK", SOURCE_DATA, SysTestLexer.SOURCE_DATA_STATE);
+    SysTestLineBlockElementType RESULT_BLOCK = new SysTestLineBlockElementType("RESULT_BLOCK", RESULT_LINE, SysTestLexer.RESULT_STATE);
+
+    /// A source definition together with its inline data
+    IElementType SOURCE = new IElementType("SOURCE", SysTestLanguage.INSTANCE);
+    /// The consecutive query lines above a "----"
+    IElementType QUERY = new IElementType("QUERY", SysTestLanguage.INSTANCE);
+
+    IFileElementType FILE = new IFileElementType(SysTestLanguage.INSTANCE);
+
+    TokenSet WHITE_SPACES = TokenSet.create(WHITE_SPACE);
+    TokenSet COMMENTS = TokenSet.create(COMMENT);
+}
@@ -0,0 +1,93 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowAnchor;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.content.ContentManager;
+
+import javax.swing.*;
+
+/// The "NES-Systest-Runner" tool window that shows console output / potential errors of the plugin
+public final class SysTestToolWindow {
+    public static final String ID = "NES-Systest-Runner";
+
+    private SysTestToolWindow() {
+    }
+
+    /// Create Nes-Systest-Runner window or reuse existing one
+    public static ToolWindow getOrRegister(Project project) {
+        ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(ID);
+        if (toolWindow == null) {
+            toolWindow = ToolWindowManager.getInstance(project).registerToolWindow(
+                    ID,
+                    true,
+                    ToolWindowAnchor.BOTTOM);
+        }
+        return toolWindow;
+    }
+
+    /// Replaces the tool window content with a new console and shows it
+    public static ConsoleView showConsole(Project project, String title) {
+        ConsoleView consoleView = replaceWithConsole(project, title);
+        getOrRegister(project).activate(null);
+        return consoleView;
+    }
+
+    /// Replaces the tool window content with a new console without showing the tool window.
+    /// The console's memory is bounded and its toolbar offers the full output, see SysTestBoundedConsole
+    public static ConsoleView replaceWithConsole(Project project, String title) {
+        SysTestBoundedConsole consoleView = new SysTestBoundedConsole(project, title);
+        SimpleToolWindowPanel panel = new SimpleToolWindowPanel(false, true);
+        panel.setContent(consoleView.getComponent());
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar(
+                "NES-Systest-Runner", new DefaultActionGroup(consoleView.createConsoleActions()), false);
+        toolbar.setTargetComponent(consoleView.getComponent());
+        panel.setToolbar(toolbar.getComponent());
+
+        ToolWindow toolWindow = getOrRegister(project);
+        toolWindow.getContentManager().removeAllContents(true);
+        Content content = ContentFactory.getInstance().createContent(panel, title, false);
+        Disposer.register(content, consoleView);
+        toolWindow.getContentManager().addContent(content);
+        return consoleView;
+    }
+
+    /// Adds a component next to the existing contents, replacing a previous content with the same title, and selects it.
+    /// The disposable is disposed together with the content
+    public static void showContent(Project project, String title, JComponent component, Disposable disposable) {
+        ToolWindow toolWindow = getOrRegister(project);
+        ContentManager contentManager = toolWindow.getContentManager();
+        Content previous = contentManager.findContent(title);
+        if (previous != null) {
+            contentManager.removeContent(previous, true);
+        }
+        Content content = ContentFactory.getInstance().createContent(component, title, false);
+        Disposer.register(content, disposable);
+        contentManager.addContent(content);
+        contentManager.setSelectedContent(content);
+        toolWindow.activate(null);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.Executor;
+import com.intellij.execution.configurations.RunConfiguration;
+import com.intellij.execution.process.NopProcessHandler;
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.execution.testframework.sm.ServiceMessageBuilder;
+import com.intellij.openapi.project.Project;
+
+/// Reports results of tests that the plugin runs itself, e.g. the shards of a parallel run, into the test tree.
+/// The results are sent as service messages through a process handler without a process,
+/// so that they take the same path as the parsed output of a single systest run
+public final class SysTestTreeReporter implements SysTestParallelRunner.Reporter {
+    private final NopProcessHandler processHandler = new NopProcessHandler();
+
+    private SysTestTreeReporter() {
+    }
+
+    public static SysTestTreeReporter attach(Project project, RunConfiguration configuration, Executor executor)
+            throws ExecutionException {
+        SysTestTreeReporter reporter = new SysTestTreeReporter();
+        SysTestResultsView.attach(project, configuration, executor, reporter.processHandler, null);
+        reporter.processHandler.startNotify();
+        return reporter;
+    }
+
+    @Override
+    public synchronized void testFinished(SysTestTarget target, boolean passed, long durationMillis, String output) {
+        String name = SysTestFileIndex.testName(target.location().getName(), target.testIndex());
+        send(ServiceMessageBuilder.testStarted(name).addAttribute("locationHint", SysTestLocator.locationHint(target)));
+        if (output != null && !output.isEmpty()) {
+            send((passed ? ServiceMessageBuilder.testStdOut(name) : ServiceMessageBuilder.testStdErr(name))
+                    .addAttribute("out", output));
+        }
+        if (!passed) {
+            send(ServiceMessageBuilder.testFailed(name).addAttribute("message", "FAILED"));
+        }
+        send(ServiceMessageBuilder.testFinished(name).addAttribute("duration", String.valueOf(durationMillis)));
+    }
+
+    @Override
+    public synchronized void print(String text) {
+        processHandler.notifyTextAvailable(text, ProcessOutputTypes.STDOUT);
+    }
+
+    public void finish() {
+        processHandler.destroyProcess();
+    }
+
+    private void send(ServiceMessageBuilder message) {
+        processHandler.notifyTextAvailable(message + "\n", ProcessOutputTypes.STDOUT);
+    }
+}
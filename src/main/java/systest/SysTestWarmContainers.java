@@ -0,0 +1,114 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.execution.util.ExecUtil;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.execution.ParametersListUtil;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/// Runs system tests inside one long-lived docker container per CMake profile instead of starting a container per run,
+/// which dominates the run time of short tests. The container is started with the docker command from the settings
+/// on the first run and every test is run in it with 'docker exec'. Host paths are mapped into the container
+/// like for any other run, by the CMake profile's toolchain, or below the project root by the 'dockerTestFilePath' setting.
+/// A container is removed once no test has run in it for the configured idle time and when the project is closed,
+/// see SysTestContainerPool
+public class SysTestWarmContainers implements Disposable {
+    private static final int DOCKER_TIMEOUT_MILLIS = 120_000;
+
+    private final Project project;
+    private final SysTestContainerPool pool;
+
+    public SysTestWarmContainers(Project project) {
+        this.project = project;
+        this.pool = new SysTestContainerPool(project.getLocationHash(), SysTestWarmContainers::docker);
+    }
+
+    public static SysTestWarmContainers getInstance(Project project) {
+        return project.getService(SysTestWarmContainers.class);
+    }
+
+    /// Runs the target in the warm container of the launch context's CMake profile, starting the container if needed.
+    /// A container that has been stopped from outside, e.g. by 'docker stop', is started again and the test retried once
+    public SysTestProcesses.Result run(SysTestLaunchContext launchContext, SysTestTarget target, ProgressIndicator indicator)
+            throws ExecutionException {
+        List<String> dockerCommand = ParametersListUtil.parse(PluginSettings.getInstance().getDockerCommand());
+        try {
+            return pool.run(
+                    launchContext.profile().getProfile().getName(),
+                    dockerCommand,
+                    PluginSettings.getInstance().getDockerIdleTimeoutSeconds() * 1000L,
+                    containerName -> SysTestProcesses.run(execCommandLine(dockerCommand, containerName, launchContext, target), indicator),
+                    result -> result.exitCode() != 0 && !result.canceled());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ExecutionException(e.getMessage(), e);
+        }
+    }
+
+    private GeneralCommandLine execCommandLine(List<String> dockerCommand,
+                                               String containerName,
+                                               SysTestLaunchContext launchContext,
+                                               SysTestTarget target) throws ExecutionException {
+        UnaryOperator<String> toContainerPath = containerPaths(launchContext);
+        String executable = toContainerPath.apply(launchContext.requireExecutable().getPath());
+        List<String> parameters = ParametersListUtil.parse(launchContext.parametersFor(target, toContainerPath));
+        return new GeneralCommandLine(SysTestDockerCommands.exec(
+                dockerCommand,
+                containerName,
+                toContainerPath.apply(launchContext.workingDirectory()),
+                launchContext.configuration().getEnvs(),
+                executable,
+                parameters));
+    }
+
+    /// Host paths as seen from inside the container: below the project root via the 'dockerTestFilePath' setting if it is set,
+    /// all other paths via the CMake profile's toolchain
+    private UnaryOperator<String> containerPaths(SysTestLaunchContext launchContext) {
+        String containerRoot = PluginSettings.getInstance().getDockerTestFilePath().trim();
+        String projectRoot = project.getBasePath();
+        if (containerRoot.isEmpty() || projectRoot == null) {
+            return launchContext.cppEnvironment()::toEnvPath;
+        }
+        return path -> path.equals(projectRoot) || path.startsWith(projectRoot + "/")
+                ? containerRoot + path.substring(projectRoot.length())
+                : launchContext.cppEnvironment().toEnvPath(path);
+    }
+
+    private static SysTestContainerPool.Output docker(List<String> arguments) throws IOException {
+        ProcessOutput output;
+        try {
+            output = ExecUtil.execAndGetOutput(new GeneralCommandLine(arguments), DOCKER_TIMEOUT_MILLIS);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (output.isTimeout()) {
+            throw new IOException("'" + String.join(" ", arguments) + "' did not finish within " + DOCKER_TIMEOUT_MILLIS / 1000 + " s");
+        }
+        return new SysTestContainerPool.Output(output.getExitCode(), output.getStdout(), output.getStderr());
+    }
+
+    @Override
+    public void dispose() {
+        pool.close();
+    }
+}
@@ -0,0 +1,231 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/// Reruns the tests whose query or expected results changed once no test file has been edited for the debounce
+/// window of the settings. Edits in the editor are seen by a document listener, changes on disk, e.g. by git or an
+/// external editor, by a VFS listener. The changed tests are found by comparing each file with its text at the last
+/// run, see SysTestChangedBlocks, and are launched via the SysTestLaunchPipeline like a gutter click. The watcher
+/// saves the changed documents itself, so the pipeline skips its save step.
+/// A new edit cancels a launch that is still being prepared or running and reruns its tests together with the newly
+/// changed ones. Runs in a warm docker container are not canceled, they are not tracked as a process
+public class SysTestWatchMode implements Disposable {
+    private final Project project;
+    private final Alarm alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+    /// Listeners of the enabled watch mode, null while it is disabled
+    private @Nullable Disposable watching;
+    /// The text of every edited file at the last run, guarded by 'this'
+    private final Map<VirtualFile, CharSequence> bases = new HashMap<>();
+    private final Set<VirtualFile> changedFiles = new LinkedHashSet<>();
+    private final Set<SysTestTarget> pendingTargets = new LinkedHashSet<>();
+    /// The tests of the launch the watcher started, until its process terminates
+    private List<SysTestTarget> runningTargets = List.of();
+    private @Nullable ProcessHandler runningProcess;
+
+    public SysTestWatchMode(Project project) {
+        this.project = project;
+    }
+
+    public static SysTestWatchMode getInstance(Project project) {
+        return project.getService(SysTestWatchMode.class);
+    }
+
+    public synchronized boolean isEnabled() {
+        return watching != null;
+    }
+
+    public synchronized void setEnabled(boolean enabled) {
+        if (enabled == (watching != null)) {
+            return;
+        }
+        if (!enabled) {
+            Disposer.dispose(watching);
+            watching = null;
+            alarm.cancelAllRequests();
+            bases.clear();
+            changedFiles.clear();
+            pendingTargets.clear();
+            runningTargets = List.of();
+            runningProcess = null;
+            return;
+        }
+        watching = Disposer.newDisposable(this, "NES-Systest-Runner watch mode");
+        EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentListener() {
+            @Override
+            public void beforeDocumentChange(@NotNull DocumentEvent event) {
+                VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+                if (isWatched(file)) {
+                    rememberBase(file, event.getDocument().getImmutableCharSequence());
+                }
+            }
+
+            @Override
+            public void documentChanged(@NotNull DocumentEvent event) {
+                VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+                if (isWatched(file)) {
+                    changed(file);
+                }
+            }
+        }, watching);
+        project.getMessageBus().connect(watching).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            /// Saves of documents are seen by the document listener already
+            @Override
+            public void before(@NotNull List<? extends VFileEvent> events) {
+                for (VirtualFile file : changedOnDisk(events)) {
+                    Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+                    if (document != null) {
+                        rememberBase(file, document.getImmutableCharSequence());
+                        continue;
+                    }
+                    try {
+                        rememberBase(file, VfsUtilCore.loadText(file));
+                    } catch (IOException ignored) {
+                        /// Without its old text the file cannot be compared, all of its tests are rerun
+                        rememberBase(file, "");
+                    }
+                }
+            }
+
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VirtualFile file : changedOnDisk(events)) {
+                    changed(file);
+                }
+            }
+        });
+    }
+
+    /// Called by the SysTestExecutionListener when a 'systest_plugin' process has started
+    public synchronized void processStarted(ProcessHandler handler) {
+        if (!runningTargets.isEmpty()) {
+            runningProcess = handler;
+        }
+    }
+
+    /// Called by the SysTestExecutionListener when a 'systest_plugin' process has terminated or could not be started
+    public synchronized void processFinished(@Nullable ProcessHandler handler) {
+        if (handler == null || handler == runningProcess) {
+            runningTargets = List.of();
+            runningProcess = null;
+        }
+    }
+
+    private boolean isWatched(@Nullable VirtualFile file) {
+        return file != null
+                && SysTestLineMarkerProvider.isSysTestFile(file.getName())
+                && ProjectFileIndex.getInstance(project).isInContent(file);
+    }
+
+    private List<VirtualFile> changedOnDisk(List<? extends VFileEvent> events) {
+        List<VirtualFile> files = new ArrayList<>();
+        for (VFileEvent event : events) {
+            if (event instanceof VFileContentChangeEvent contentChange && !contentChange.isFromSave()
+                    && isWatched(contentChange.getFile())) {
+                files.add(contentChange.getFile());
+            }
+        }
+        return files;
+    }
+
+    private synchronized void rememberBase(VirtualFile file, CharSequence text) {
+        bases.putIfAbsent(file, text);
+    }
+
+    /// Cancels the launch of the watcher, if any, and restarts the debounce window
+    private void changed(VirtualFile file) {
+        synchronized (this) {
+            if (watching == null) {
+                return;
+            }
+            changedFiles.add(file);
+            if (!runningTargets.isEmpty()) {
+                pendingTargets.addAll(runningTargets);
+                runningTargets = List.of();
+                SysTestLaunchPipeline.getInstance(project).cancelPending();
+                if (runningProcess != null && !runningProcess.isProcessTerminated()) {
+                    runningProcess.destroyProcess();
+                }
+                runningProcess = null;
+            }
+        }
+        alarm.cancelAllRequests();
+        alarm.addRequest(this::launchChanged, PluginSettings.getInstance().getWatchDebounceMillis());
+    }
+
+    /// Saves the changed files and launches their changed tests together with the tests of a canceled launch
+    private void launchChanged() {
+        List<SysTestTarget> targets;
+        synchronized (this) {
+            if (watching == null) {
+                return;
+            }
+            for (VirtualFile file : changedFiles) {
+                CharSequence base = bases.remove(file);
+                Document document = file.isValid() ? FileDocumentManager.getInstance().getDocument(file) : null;
+                if (base == null || document == null) {
+                    continue;
+                }
+                for (int ordinal : SysTestChangedBlocks.changedTests(base, document.getImmutableCharSequence())) {
+                    pendingTargets.add(new SysTestTarget(file, ordinal));
+                }
+                if (FileDocumentManager.getInstance().isDocumentUnsaved(document)) {
+                    FileDocumentManager.getInstance().saveDocument(document);
+                }
+            }
+            changedFiles.clear();
+            if (pendingTargets.isEmpty()) {
+                return;
+            }
+            targets = List.copyOf(pendingTargets);
+            pendingTargets.clear();
+            if (!PluginSettings.getInstance().isWarmContainerEnabled()) {
+                runningTargets = targets;
+            }
+        }
+        SysTestLaunchPipeline.getInstance(project).start(false, targets, false);
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
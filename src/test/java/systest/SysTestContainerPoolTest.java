@@ -0,0 +1,233 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/// Runs the warm container lifecycle of SysTestContainerPool against fake-docker.sh, a shell script that keeps its
+/// containers as files, so that neither docker nor an IDE is needed
+public class SysTestContainerPoolTest {
+    private static final String PROFILE = "Debug";
+    private static final String CONTAINER = SysTestDockerCommands.containerName(PROFILE, "test");
+
+    private Path state;
+    private List<String> dockerCommand;
+    private SysTestContainerPool pool;
+    /// Set by a test to hold up the next removal in the background until the next 'docker run' or a timeout
+    private volatile CountDownLatch removalStarted;
+    private volatile CountDownLatch runCalled;
+
+    @Before
+    public void setUp() throws IOException, URISyntaxException {
+        state = Files.createTempDirectory("fake-docker");
+        Path script = Path.of(SysTestContainerPoolTest.class.getResource("/fake-docker.sh").toURI());
+        dockerCommand = List.of("bash", script.toString(), "run", "-v", "/src:/src", "nes-development:latest");
+        pool = new SysTestContainerPool("test", this::call);
+    }
+
+    @After
+    public void tearDown() throws IOException, InterruptedException {
+        pool.close();
+        /// The removals of close write to the state directory in the background
+        awaitRemoved();
+        Thread.sleep(100);
+        try (Stream<Path> files = Files.walk(state)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    public void startsTheContainerOnFirstRunAndReusesIt() throws Exception {
+        SysTestContainerPool.Output first = runTest("echo first", 0);
+        SysTestContainerPool.Output second = runTest("echo second", 0);
+
+        assertEquals("first", first.stdout().trim());
+        assertEquals("second", second.stdout().trim());
+        assertEquals(1, calls("run"));
+        assertEquals(2, calls("exec"));
+        assertTrue(isRunning());
+        assertEquals(List.of(CONTAINER), pool.containerNames());
+    }
+
+    @Test
+    public void removesTheContainerOnceItWasIdleAndStartsItAgain() throws Exception {
+        runTest("true", 200);
+
+        awaitRemoved();
+        assertTrue(pool.containerNames().isEmpty());
+
+        runTest("true", 200);
+        assertEquals(2, calls("run"));
+    }
+
+    @Test
+    public void runDuringAnIdleRemovalWaitsForItAndKeepsTheNewContainer() throws Exception {
+        removalStarted = new CountDownLatch(1);
+        runTest("true", 100);
+        assertTrue(removalStarted.await(5, TimeUnit.SECONDS));
+
+        /// A late 'docker rm -f' of the idle container would remove the container started here, and the test would
+        /// only pass by being retried in a third container
+        SysTestContainerPool.Output result = runTest("echo again", 0);
+
+        assertEquals("again", result.stdout().trim());
+        assertEquals(2, calls("run"));
+        assertEquals(0, calls("inspect"));
+        assertTrue(isRunning());
+    }
+
+    @Test
+    public void restartsTheContainerWhenTheDockerCommandChanged() throws Exception {
+        runTest("true", 0);
+        dockerCommand = new ArrayList<>(dockerCommand);
+        dockerCommand.add(dockerCommand.size() - 1, "--init");
+
+        runTest("true", 0);
+
+        List<String> runs = Files.readAllLines(state.resolve("calls")).stream().filter(call -> call.startsWith("run ")).toList();
+        assertEquals(2, runs.size());
+        assertTrue(runs.get(1).contains("--init"));
+        assertTrue(isRunning());
+    }
+
+    @Test
+    public void keepsTheContainerWithoutIdleTime() throws Exception {
+        runTest("true", 0);
+
+        Thread.sleep(300);
+        assertTrue(isRunning());
+    }
+
+    @Test
+    public void restartsAContainerThatDiedAndRetriesTheTest() throws Exception {
+        runTest("true", 0);
+        /// Like 'docker stop' from outside, the container is removed because it was started with '--rm'
+        Files.delete(state.resolve("container-" + CONTAINER));
+
+        SysTestContainerPool.Output result = runTest("echo retried", 0);
+
+        assertEquals(0, result.exitCode());
+        assertEquals("retried", result.stdout().trim());
+        assertEquals(2, calls("run"));
+        assertTrue(isRunning());
+    }
+
+    @Test
+    public void doesNotRestartWhenAFailingTestPrintsDockerErrors() throws Exception {
+        runTest("true", 0);
+
+        SysTestContainerPool.Output result = runTest("echo 'Error: No such container: x, container is not running'; exit 1", 0);
+
+        assertEquals(1, result.exitCode());
+        assertEquals(1, calls("run"));
+        assertEquals(1, calls("inspect"));
+    }
+
+    @Test
+    public void closeRemovesAllContainers() throws Exception {
+        runTest("true", 0);
+
+        pool.close();
+
+        awaitRemoved();
+    }
+
+    /// A test run via 'docker exec' that runs the given shell script in the container
+    private SysTestContainerPool.Output runTest(String script, long idleMillis) throws Exception {
+        return pool.run(PROFILE, dockerCommand, idleMillis,
+                containerName -> call(SysTestDockerCommands.exec(
+                        dockerCommand, containerName, state.toString(), Map.of(), "sh", List.of("-c", script))),
+                output -> output.exitCode() != 0);
+    }
+
+    private SysTestContainerPool.Output call(List<String> arguments) throws IOException {
+        CountDownLatch removal = removalStarted;
+        if (removal != null && arguments.contains("rm") && Thread.currentThread().getName().endsWith("warm containers")) {
+            CountDownLatch run = new CountDownLatch(1);
+            runCalled = run;
+            removalStarted = null;
+            removal.countDown();
+            try {
+                run.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+        SysTestContainerPool.Output output = start(arguments);
+        CountDownLatch run = runCalled;
+        if (run != null && arguments.contains("run")) {
+            run.countDown();
+        }
+        return output;
+    }
+
+    private SysTestContainerPool.Output start(List<String> arguments) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(arguments);
+        builder.environment().put("FAKE_DOCKER_STATE", state.toString());
+        Path stderr = Files.createTempFile(state, "stderr", ".txt");
+        builder.redirectError(stderr.toFile());
+        Process process = builder.start();
+        String stdout = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        try {
+            int exitCode = process.waitFor();
+            return new SysTestContainerPool.Output(exitCode, stdout, Files.readString(stderr));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            Files.delete(stderr);
+        }
+    }
+
+    private boolean isRunning() {
+        return Files.exists(state.resolve("container-" + CONTAINER));
+    }
+
+    /// Waits until the removal in the background has finished
+    private void awaitRemoved() throws InterruptedException {
+        for (int i = 0; i < 100 && isRunning(); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse(isRunning());
+    }
+
+    /// The number of calls of the given docker command, e.g. 'run'
+    private long calls(String command) throws IOException {
+        List<String> calls = new ArrayList<>(Files.readAllLines(state.resolve("calls")));
+        return calls.stream().filter(call -> call.startsWith(command + " ")).count();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        https://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package systest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/// Compares rows with SysTestResultDiff in order and as multisets, including expected results that are too large to be
+/// compared on the heap and are partitioned into temp files
+public class SysTestResultDiffTest {
+    private Path temp;
+
+    @Before
+    public void setUp() throws IOException {
+        temp = Files.createTempDirectory("result-diff");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(temp)) {
+            /// The partitions are removed by the comparison itself
+            assertEquals(0, files.count());
+        }
+        Files.delete(temp);
+    }
+
+    @Test
+    public void equalRowsMatchInOrderAndAsMultisets() throws IOException {
+        List<String> rows = List.of("1,a", "2,b", "2,b", "3,c");
+
+        SysTestResultDiff.Result ordered = SysTestResultDiff.compareOrdered(rows.iterator(), rows.iterator(), 10);
+        SysTestResultDiff.Result unordered = SysTestResultDiff.compareUnordered(
+                rows.iterator(), List.of("2,b", "3,c", "1,a", "2,b").iterator(), 10, temp);
+
+        assertTrue(ordered.matches());
+        assertTrue(unordered.matches());
+        assertEquals(4, ordered.expectedRows());
+        assertEquals(4, unordered.actualRows());
+        assertTrue(ordered.firstDifferences().isEmpty());
+        assertTrue(unordered.firstDifferences().isEmpty());
+    }
+
+    @Test
+    public void blankRowsAndSurroundingWhitespaceAreIgnored() {
+        SysTestResultDiff.Result result = SysTestResultDiff.compareOrdered(
+                List.of("1,a", "", "2,b").iterator(), List.of("  1,a ", "2,b", "   ").iterator(), 10);
+
+        assertTrue(result.matches());
+        assertEquals(2, result.actualRows());
+    }
+
+    @Test
+    public void actualRowsEndingEarlyAreMissing() {
+        SysTestResultDiff.Result result = SysTestResultDiff.compareOrdered(
+                List.of("1", "2", "3", "4").iterator(), List.of("1", "2").iterator(), 10);
+
+        assertFalse(result.matches());
+        assertEquals(2, result.missingRows());
+        assertEquals(0, result.unexpectedRows());
+        assertEquals(List.of(new SysTestResultDiff.Row(3, "3", null), new SysTestResultDiff.Row(4, "4", null)),
+                result.firstDifferences());
+    }
+
+    @Test
+    public void expectedRowsEndingEarlyMakeTheRestUnexpected() {
+        SysTestResultDiff.Result result = SysTestResultDiff.compareOrdered(
+                List.of("1", "2", "3").iterator(), List.of("1", "x", "3", "4", "5").iterator(), 10);
+
+        /// Position 2 differs, so its expected row is missing and its actual row unexpected, like the rows after the end
+        assertEquals(1, result.missingRows());
+        assertEquals(3, result.unexpectedRows());
+        assertEquals(3, result.expectedRows());
+        assertEquals(5, result.actualRows());
+    }
+
+    @Test
+    public void aSingleChangedRowIsPairedWithItsColumns() throws IOException {
+        List<String> expected = List.of("1,a,10", "2,b,20", "3,c,30");
+        List<String> actual = List.of("1,a,10", "2,b,21", "3,c,30");
+
+        SysTestResultDiff.Result ordered = SysTestResultDiff.compareOrdered(expected.iterator(), actual.iterator(), 10);
+        SysTestResultDiff.Result unordered = SysTestResultDiff.compareUnordered(expected.iterator(), actual.iterator(), 10, temp);
+
+        for (SysTestResultDiff.Result result : List.of(ordered, unordered)) {
+            assertEquals(1, result.missingRows());
+            assertEquals(1, result.unexpectedRows());
+            assertArrayEquals(new long[]{0, 0, 1}, result.pairedColumnMismatches());
+        }
+        assertEquals(List.of(new SysTestResultDiff.Row(2, "2,b,20", "2,b,21")), ordered.firstDifferences());
+        assertEquals(List.of(new SysTestResultDiff.Row(0, "2,b,20", "2,b,21")), unordered.firstDifferences());
+    }
+
+    @Test
+    public void duplicateRowsAreCountedAcrossPartitions() throws IOException {
+        /// Above IN_MEMORY_ROWS, so both sides are partitioned. Every row occurs many times, one copy of a row
+        /// is missing and one copy of another row is duplicated once more
+        int rows = SysTestResultDiff.IN_MEMORY_ROWS + 1_000;
+        List<String> expected = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            expected.add(i % 100 + ",row");
+        }
+        List<String> actual = new ArrayList<>(expected);
+        actual.remove("7,row");
+        actual.add("42,row");
+
+        SysTestResultDiff.Result result = SysTestResultDiff.compareUnordered(expected.iterator(), reversed(actual), 10, temp);
+
+        assertFalse(result.ordered());
+        assertEquals(rows, result.expectedRows());
+        assertEquals(rows, result.actualRows());
+        assertEquals(1, result.missingRows());
+        assertEquals(1, result.unexpectedRows());
+        assertEquals(List.of(new SysTestResultDiff.Row(0, "7,row", "42,row")), result.firstDifferences());
+    }
+
+    @Test
+    public void partitionedRowsMatchInAnyOrder() throws IOException {
+        int rows = SysTestResultDiff.IN_MEMORY_ROWS * 2;
+        List<String> expected = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            expected.add(i % 1_000 + "," + i % 3);
+        }
+
+        SysTestResultDiff.Result result = SysTestResultDiff.compareUnordered(expected.iterator(), reversed(expected), 10, temp);
+
+        assertTrue(result.matches());
+        assertEquals(rows, result.actualRows());
+    }
+
+    private static Iterator<String> reversed(List<String> rows) {
+        List<String> copy = new ArrayList<>(rows);
+        Collections.reverse(copy);
+        return copy.iterator();
+    }
+}
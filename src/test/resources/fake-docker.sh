@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# A fake docker CLI for SysTestContainerPoolTest. Containers are files in $FAKE_DOCKER_STATE, every call is logged to
+# $FAKE_DOCKER_STATE/calls. Supports the calls of SysTestDockerCommands: run -d, exec, rm -f and inspect.
+# Deleting a container's file simulates a container that died from outside, e.g. by 'docker stop'.
+set -u
+state="${FAKE_DOCKER_STATE:?}"
+echo "$*" >> "$state/calls"
+command="$1"
+shift
+case "$command" in
+  run)
+    name=""
+    while [ $# -gt 0 ]; do
+      if [ "$1" = "--name" ]; then name="$2"; shift; fi
+      shift
+    done
+    if [ -e "$state/container-$name" ]; then
+      echo "docker: Error response from daemon: Conflict. The container name \"/$name\" is already in use." >&2
+      exit 125
+    fi
+    touch "$state/container-$name"
+    echo "fake-id-$name"
+    ;;
+  exec)
+    workdir="."
+    while [ $# -gt 0 ]; do
+      case "$1" in
+        -w) workdir="$2"; shift 2 ;;
+        -e) export "$2"; shift 2 ;;
+        *) break ;;
+      esac
+    done
+    name="$1"
+    shift
+    if [ ! -e "$state/container-$name" ]; then
+      echo "Error response from daemon: No such container: $name" >&2
+      exit 1
+    fi
+    cd "$workdir" && exec "$@"
+    ;;
+  rm)
+    [ "$1" = "-f" ] && shift
+    rm -f "$state/container-$1"
+    ;;
+  inspect)
+    name="${!#}"
+    if [ ! -e "$state/container-$name" ]; then
+      echo "Error: No such object: $name" >&2
+      exit 1
+    fi
+    echo true
+    ;;
+  *)
+    echo "fake docker: unsupported command '$command'" >&2
+    exit 2
+    ;;
+esac